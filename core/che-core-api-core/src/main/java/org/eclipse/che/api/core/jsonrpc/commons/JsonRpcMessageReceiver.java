@@ -69,7 +69,7 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
     List<String> messages = jsonRpcUnmarshaller.unmarshalArray(message);
     for (String innerMessage : messages) {
       if (jsonRpcQualifier.isJsonRpcRequest(innerMessage)) {
-        requestProcessor.process(() -> processRequest(endpointId, innerMessage));
+        processRequest(endpointId, innerMessage);
       } else if (jsonRpcQualifier.isJsonRpcResponse(innerMessage)) {
         processResponse(endpointId, innerMessage);
       } else {
@@ -94,14 +94,28 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
     JsonRpcRequest request = null;
     try {
       request = jsonRpcUnmarshaller.unmarshalRequest(innerMessage);
+      JsonRpcRequest unmarshalledRequest = request;
+      requestProcessor.process(
+          endpointId, request.getMethod(), () -> dispatchRequest(endpointId, unmarshalledRequest));
+    } catch (JsonRpcException e) {
+      transmitError(endpointId, request, e);
+    }
+  }
+
+  private void dispatchRequest(String endpointId, JsonRpcRequest request) {
+    try {
       requestDispatcher.dispatch(endpointId, request);
     } catch (JsonRpcException e) {
-      if (request == null || request.getId() == null) {
-        errorTransmitter.transmit(endpointId, e);
-      } else {
-        errorTransmitter.transmit(
-            endpointId, new JsonRpcException(e.getCode(), e.getMessage(), request.getId()));
-      }
+      transmitError(endpointId, request, e);
+    }
+  }
+
+  private void transmitError(String endpointId, JsonRpcRequest request, JsonRpcException e) {
+    if (request == null || request.getId() == null) {
+      errorTransmitter.transmit(endpointId, e);
+    } else {
+      errorTransmitter.transmit(
+          endpointId, new JsonRpcException(e.getCode(), e.getMessage(), request.getId()));
     }
   }
 }
@@ -18,4 +18,17 @@ public interface RequestProcessor {
    * @param runnable runnable to be called for processing of a request
    */
   void process(Runnable runnable);
+
+  /**
+   * Process a runnable interface of a request with known endpoint and method, so implementation
+   * may take them into account when scheduling the processing.
+   *
+   * @param endpointId endpoint the request came from
+   * @param method method of the request
+   * @param runnable runnable to be called for processing of a request
+   * @throws JsonRpcException when the request can't be accepted for processing
+   */
+  default void process(String endpointId, String method, Runnable runnable) {
+    process(runnable);
+  }
 }
@@ -11,23 +11,110 @@
 package org.eclipse.che.api.core.jsonrpc.impl;
 
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
 
+import com.google.common.base.Splitter;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestProcessor;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
 
+/**
+ * Processes incoming JSON RPC requests in a thread pool.
+ *
+ * <p>In {@link Mode#CACHED} mode each request runs in a thread of an unbounded cached pool. In
+ * {@link Mode#BOUNDED} mode requests are put to a bounded queue and processed by a fixed number of
+ * threads. Requests of a higher {@link Priority} are always taken first, requests of the same
+ * priority are taken from endpoints in turn, so one client that sends a burst of requests does not
+ * delay requests of other clients. When the queue or the endpoint's share of it is full the request
+ * is rejected with a JSON RPC error with code {@link #REJECTED_ERROR_CODE}. Request handlers
+ * that block, e.g. the ones that wait for language servers, keep pool threads busy, so bounded
+ * mode must not be used with such handlers, {@link Mode#CACHED} is the default.
+ *
+ * <p>Queue wait time, execution time and number of rejections are collected per method name, see
+ * {@link #getStats()}.
+ */
 @Singleton
 public class ServerSideRequestProcessor implements RequestProcessor {
+  private static final Logger LOG = getLogger(ServerSideRequestProcessor.class);
+
+  /** Code of JSON RPC error that is sent back when a request is rejected due to overload. */
+  public static final int REJECTED_ERROR_CODE = -32000;
+
+  private static final String UNKNOWN = "";
+  private static final String OTHER_METHODS = "*";
+  private static final int MAX_TRACKED_METHODS = 1000;
+
+  public enum Mode {
+    CACHED,
+    BOUNDED
+  }
+
+  public enum Priority {
+    HIGH,
+    NORMAL,
+    LOW
+  }
+
+  private final Mode mode;
+  private final int poolSize;
+  private final int queueCapacity;
+  private final int endpointQueueCapacity;
+  private final List<String> highPriorityMethods;
+  private final List<String> lowPriorityMethods;
+  private final Map<String, MethodCounters> counters = new ConcurrentHashMap<>();
+
   private ExecutorService executorService;
+  private FairQueue queue;
+
+  public ServerSideRequestProcessor() {
+    this("cached", 0, 0, 0, null, null);
+  }
+
+  @Inject
+  public ServerSideRequestProcessor(
+      @Named("che.core.jsonrpc.processor.mode") String mode,
+      @Named("che.core.jsonrpc.processor.max_pool_size") int poolSize,
+      @Named("che.core.jsonrpc.processor.queue_capacity") int queueCapacity,
+      @Named("che.core.jsonrpc.processor.endpoint_queue_capacity") int endpointQueueCapacity,
+      @Nullable @Named("che.core.jsonrpc.processor.high_priority_methods")
+          String highPriorityMethods,
+      @Nullable @Named("che.core.jsonrpc.processor.low_priority_methods")
+          String lowPriorityMethods) {
+    this.mode = Mode.valueOf(mode.toUpperCase());
+    this.poolSize = Math.max(1, poolSize);
+    this.queueCapacity = Math.max(1, queueCapacity);
+    this.endpointQueueCapacity =
+        endpointQueueCapacity > 0 ? endpointQueueCapacity : this.queueCapacity;
+    this.highPriorityMethods = splitMethods(highPriorityMethods);
+    this.lowPriorityMethods = splitMethods(lowPriorityMethods);
+  }
 
   @PostConstruct
-  private void postConstruct() {
+  void postConstruct() {
     ThreadFactory factory =
         new ThreadFactoryBuilder()
             .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
@@ -35,14 +122,25 @@ public class ServerSideRequestProcessor implements RequestProcessor {
             .setDaemon(true)
             .build();
 
-    executorService = newCachedThreadPool(factory);
+    if (mode == Mode.CACHED) {
+      executorService = newCachedThreadPool(factory);
+    } else {
+      queue = new FairQueue();
+      executorService = newFixedThreadPool(poolSize, factory);
+      for (int i = 0; i < poolSize; i++) {
+        executorService.execute(this::processQueue);
+      }
+    }
   }
 
   @PreDestroy
-  private void preDestroy() {
+  void preDestroy() {
+    if (queue != null) {
+      queue.close();
+    }
     executorService.shutdown();
     try {
-      if (executorService.awaitTermination(5, SECONDS)) {
+      if (!executorService.awaitTermination(5, SECONDS)) {
         executorService.shutdownNow();
         executorService.awaitTermination(5, SECONDS);
       }
@@ -54,6 +152,257 @@ public class ServerSideRequestProcessor implements RequestProcessor {
 
   @Override
   public void process(Runnable runnable) {
-    executorService.execute(runnable);
+    process(UNKNOWN, UNKNOWN, runnable);
+  }
+
+  @Override
+  public void process(String endpointId, String method, Runnable runnable) {
+    Task task = new Task(endpointId, method, runnable);
+    if (mode == Mode.CACHED) {
+      executorService.execute(task);
+    } else if (!queue.offer(task, getPriority(task.method))) {
+      task.counters.rejected.increment();
+      LOG.debug("Rejecting request '{}' of endpoint '{}', queue is full", method, endpointId);
+
+      throw new JsonRpcException(
+          REJECTED_ERROR_CODE, "Server is overloaded, request '" + method + "' is rejected");
+    }
+  }
+
+  /** Returns statistics of processed requests by method name. */
+  public Map<String, MethodStats> getStats() {
+    Map<String, MethodStats> stats = new HashMap<>();
+    counters.forEach((method, methodCounters) -> stats.put(method, methodCounters.toStats()));
+    return stats;
+  }
+
+  /** Returns number of requests waiting in the queue, always 0 in {@link Mode#CACHED} mode. */
+  public int getQueueSize() {
+    return queue == null ? 0 : queue.size();
+  }
+
+  Priority getPriority(String method) {
+    if (matches(highPriorityMethods, method)) {
+      return Priority.HIGH;
+    }
+    if (matches(lowPriorityMethods, method)) {
+      return Priority.LOW;
+    }
+    return Priority.NORMAL;
+  }
+
+  private void processQueue() {
+    try {
+      Task task;
+      while ((task = queue.take()) != null) {
+        try {
+          task.run();
+        } catch (RuntimeException e) {
+          LOG.error("Error while processing JSON RPC request '{}'", task.method, e);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private MethodCounters getCounters(String method) {
+    MethodCounters methodCounters = counters.get(method);
+    if (methodCounters != null) {
+      return methodCounters;
+    }
+    // method names come from clients, do not let them grow the map without limits
+    String key = counters.size() < MAX_TRACKED_METHODS ? method : OTHER_METHODS;
+    return counters.computeIfAbsent(key, k -> new MethodCounters());
+  }
+
+  private static boolean matches(List<String> patterns, String method) {
+    for (String pattern : patterns) {
+      if (pattern.endsWith("*")
+          ? method.startsWith(pattern.substring(0, pattern.length() - 1))
+          : method.equals(pattern)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<String> splitMethods(String methods) {
+    return Splitter.on(',').trimResults().omitEmptyStrings().splitToList(nullToEmpty(methods));
+  }
+
+  private static String nullToEmpty(String value) {
+    return value == null ? "" : value;
+  }
+
+  /** Statistics of requests of one method. */
+  public static final class MethodStats {
+    private final long processed;
+    private final long rejected;
+    private final long queueWaitMs;
+    private final long maxQueueWaitMs;
+    private final long executionMs;
+    private final long maxExecutionMs;
+
+    MethodStats(
+        long processed,
+        long rejected,
+        long queueWaitMs,
+        long maxQueueWaitMs,
+        long executionMs,
+        long maxExecutionMs) {
+      this.processed = processed;
+      this.rejected = rejected;
+      this.queueWaitMs = queueWaitMs;
+      this.maxQueueWaitMs = maxQueueWaitMs;
+      this.executionMs = executionMs;
+      this.maxExecutionMs = maxExecutionMs;
+    }
+
+    /** Number of processed requests. */
+    public long getProcessed() {
+      return processed;
+    }
+
+    /** Number of requests rejected because the queue was full. */
+    public long getRejected() {
+      return rejected;
+    }
+
+    /** Total time that processed requests spent in the queue, in milliseconds. */
+    public long getQueueWaitMs() {
+      return queueWaitMs;
+    }
+
+    /** Longest time that a request spent in the queue, in milliseconds. */
+    public long getMaxQueueWaitMs() {
+      return maxQueueWaitMs;
+    }
+
+    /** Total processing time of requests, in milliseconds. */
+    public long getExecutionMs() {
+      return executionMs;
+    }
+
+    /** Longest processing time of a request, in milliseconds. */
+    public long getMaxExecutionMs() {
+      return maxExecutionMs;
+    }
+  }
+
+  private static class MethodCounters {
+    final LongAdder processed = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder queueWaitNanos = new LongAdder();
+    final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+    final LongAdder executionNanos = new LongAdder();
+    final LongAccumulator maxExecutionNanos = new LongAccumulator(Math::max, 0);
+
+    MethodStats toStats() {
+      return new MethodStats(
+          processed.sum(),
+          rejected.sum(),
+          NANOSECONDS.toMillis(queueWaitNanos.sum()),
+          NANOSECONDS.toMillis(maxQueueWaitNanos.get()),
+          NANOSECONDS.toMillis(executionNanos.sum()),
+          NANOSECONDS.toMillis(maxExecutionNanos.get()));
+    }
+  }
+
+  private class Task implements Runnable {
+    final String endpointId;
+    final String method;
+    final Runnable runnable;
+    final MethodCounters counters;
+    final long createdAt = System.nanoTime();
+
+    Task(String endpointId, String method, Runnable runnable) {
+      this.endpointId = nullToEmpty(endpointId);
+      this.method = nullToEmpty(method);
+      this.runnable = runnable;
+      this.counters = getCounters(this.method);
+    }
+
+    @Override
+    public void run() {
+      long startedAt = System.nanoTime();
+      counters.queueWaitNanos.add(startedAt - createdAt);
+      counters.maxQueueWaitNanos.accumulate(startedAt - createdAt);
+      try {
+        runnable.run();
+      } finally {
+        long executionNanos = System.nanoTime() - startedAt;
+        counters.processed.increment();
+        counters.executionNanos.add(executionNanos);
+        counters.maxExecutionNanos.accumulate(executionNanos);
+      }
+    }
+  }
+
+  /**
+   * Queue of tasks grouped by priority and endpoint. Tasks of a higher priority are taken first,
+   * within a priority endpoints are served in round-robin order.
+   */
+  private class FairQueue {
+    private final Map<Priority, LinkedHashMap<String, Deque<Task>>> pending =
+        new EnumMap<>(Priority.class);
+    private final Map<String, Integer> endpointSizes = new HashMap<>();
+    private int size;
+    private boolean closed;
+
+    FairQueue() {
+      for (Priority priority : Priority.values()) {
+        pending.put(priority, new LinkedHashMap<>());
+      }
+    }
+
+    synchronized boolean offer(Task task, Priority priority) {
+      int endpointSize = endpointSizes.getOrDefault(task.endpointId, 0);
+      if (closed || size >= queueCapacity || endpointSize >= endpointQueueCapacity) {
+        return false;
+      }
+      pending.get(priority).computeIfAbsent(task.endpointId, k -> new ArrayDeque<>()).add(task);
+      endpointSizes.put(task.endpointId, endpointSize + 1);
+      size++;
+      notify();
+      return true;
+    }
+
+    /** Returns next task or {@code null} when the queue is closed. */
+    synchronized Task take() throws InterruptedException {
+      while (size == 0 && !closed) {
+        wait();
+      }
+      if (closed) {
+        return null;
+      }
+      for (LinkedHashMap<String, Deque<Task>> endpoints : pending.values()) {
+        if (endpoints.isEmpty()) {
+          continue;
+        }
+        Iterator<Map.Entry<String, Deque<Task>>> it = endpoints.entrySet().iterator();
+        Map.Entry<String, Deque<Task>> next = it.next();
+        it.remove();
+        Task task = next.getValue().poll();
+        if (!next.getValue().isEmpty()) {
+          // move endpoint to the end of the line
+          endpoints.put(next.getKey(), next.getValue());
+        }
+        endpointSizes.computeIfPresent(
+            task.endpointId, (id, count) -> count > 1 ? count - 1 : null);
+        size--;
+        return task;
+      }
+      throw new IllegalStateException("Queue size is " + size + " but no tasks found");
+    }
+
+    synchronized int size() {
+      return size;
+    }
+
+    synchronized void close() {
+      closed = true;
+      notifyAll();
+    }
   }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.notification;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks {@link EventSubscriber} that should receive events asynchronously. {@link EventService}
+ * puts events for such subscriber to its own queue, which is processed in a shared thread pool, so
+ * publisher does not wait for the subscriber. The subscriber receives events in the order they
+ * were published, one at a time.
+ *
+ * @see EventService#subscribeAsync(EventSubscriber, Class, int, OverflowPolicy)
+ */
+@Inherited
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AsyncSubscriber {
+  /** Maximal number of events waiting for delivery to the subscriber. */
+  int queueSize() default 10_000;
+
+  /** What to do with a new event when the queue of the subscriber is full. */
+  OverflowPolicy overflowPolicy() default OverflowPolicy.BLOCK;
+
+  enum OverflowPolicy {
+    /**
+     * Publisher waits until there is a room in the queue. Events published by async subscribers
+     * are dropped instead, as subscribers waiting for each other would deadlock.
+     */
+    BLOCK,
+    /** The oldest event in the queue is dropped. */
+    DROP_OLDEST,
+    /** The new event is dropped. */
+    DROP_NEWEST
+  }
+}
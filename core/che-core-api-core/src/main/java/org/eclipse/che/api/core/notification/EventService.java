@@ -10,19 +10,36 @@
  */
 package org.eclipse.che.api.core.notification;
 
+import static java.util.Comparator.comparingLong;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
+import org.eclipse.che.api.core.notification.AsyncSubscriber.OverflowPolicy;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +57,11 @@ import org.slf4j.LoggerFactory;
  *     bus.publish(new MyEvent());
  * </pre>
  *
+ * <p>By default subscribers are called in the thread that publishes an event. Subscribers
+ * annotated with {@link AsyncSubscriber} or subscribed with {@link #subscribeAsync} receive events
+ * from their own queue in a shared thread pool, see {@link AsyncSubscriber}. Time spent by each
+ * subscriber is available from {@link #getSubscriberStats()}.
+ *
  * @author andrew00x
  */
 @Singleton
@@ -49,13 +71,21 @@ public class EventService {
   private static final int CACHE_NUM = 1 << 2;
   private static final int CACHE_MASK = CACHE_NUM - 1;
   private static final int SEG_SIZE = 32;
+  /** Number of events an async subscriber handles before giving its thread to others. */
+  private static final int ASYNC_BATCH_SIZE = 64;
+  /** Set while the thread delivers events to an async subscriber. */
+  private static final ThreadLocal<Boolean> ASYNC_DELIVERY_THREAD = new ThreadLocal<>();
 
   private final LoadingCache<Class<?>, Set<Class<?>>>[] typeCache;
-  private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
+  private final ConcurrentMap<Class<?>, Set<Delivery>> subscribersByEventType;
+  private final ConcurrentMap<EventSubscriber<?>, Delivery> deliveries;
+
+  private volatile ExecutorService asyncExecutor;
 
   @SuppressWarnings("unchecked")
   public EventService() {
     subscribersByEventType = new ConcurrentHashMap<>();
+    deliveries = new ConcurrentHashMap<>();
     typeCache = new LoadingCache[CACHE_NUM];
     for (int i = 0; i < CACHE_NUM; i++) {
       typeCache[i] =
@@ -92,22 +122,17 @@ public class EventService {
    * @param event event
    * @return published event
    */
-  @SuppressWarnings("unchecked")
   public <T> T publish(T event) {
     if (event == null) {
       throw new IllegalArgumentException("Null event.");
     }
     final Class<?> eventClass = event.getClass();
     for (Class<?> clazz : typeCache[eventClass.hashCode() & CACHE_MASK].getUnchecked(eventClass)) {
-      final Set<EventSubscriber> eventSubscribers = subscribersByEventType.get(clazz);
+      final Set<Delivery> eventSubscribers = subscribersByEventType.get(clazz);
       if (eventSubscribers != null && !eventSubscribers.isEmpty()) {
-        for (EventSubscriber eventSubscriber : eventSubscribers) {
-          try {
-            LOG.debug("Publish event {} for {}", event, eventSubscriber);
-            eventSubscriber.onEvent(event);
-          } catch (RuntimeException e) {
-            LOG.error(e.getMessage(), e);
-          }
+        for (Delivery delivery : eventSubscribers) {
+          LOG.debug("Publish event {} for {}", event, delivery.subscriber);
+          delivery.deliver(event);
         }
       }
     }
@@ -136,16 +161,78 @@ public class EventService {
     doSubscribe(subscriber, eventType);
   }
 
+  /**
+   * Subscribe to an event with asynchronous delivery, the same as subscribing a subscriber
+   * annotated with {@link AsyncSubscriber}. If the subscriber is already subscribed to other
+   * events, it keeps the delivery mode it was subscribed with.
+   *
+   * @param subscriber the subscriber to call when an event is published
+   * @param eventType the event to subscribe to
+   * @param queueSize maximal number of events waiting for delivery to the subscriber
+   * @param overflowPolicy what to do with a new event when the queue of the subscriber is full
+   */
+  public <T> void subscribeAsync(
+      EventSubscriber<? extends T> subscriber,
+      Class<T> eventType,
+      int queueSize,
+      OverflowPolicy overflowPolicy) {
+    doSubscribe(
+        deliveries.computeIfAbsent(
+            subscriber, s -> new AsyncDelivery(s, queueSize, overflowPolicy)),
+        eventType);
+  }
+
+  /**
+   * Returns statistics of subscribers, the subscribers that spent the most time handling events
+   * come first.
+   */
+  public List<SubscriberStats> getSubscriberStats() {
+    return deliveries
+        .values()
+        .stream()
+        .map(Delivery::getStats)
+        .sorted(comparingLong(SubscriberStats::getHandlingTimeMs).reversed())
+        .collect(toList());
+  }
+
+  @PreDestroy
+  void stop() {
+    ExecutorService executor = asyncExecutor;
+    if (executor != null) {
+      executor.shutdown();
+      try {
+        if (!executor.awaitTermination(5, SECONDS)) {
+          executor.shutdownNow();
+        }
+      } catch (InterruptedException e) {
+        executor.shutdownNow();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
   private void doSubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
-    Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
+    doSubscribe(deliveries.computeIfAbsent(subscriber, this::newDelivery), eventType);
+  }
+
+  private void doSubscribe(Delivery delivery, Class<?> eventType) {
+    Set<Delivery> entries = subscribersByEventType.get(eventType);
     if (entries == null) {
-      Set<EventSubscriber> newEntries = new CopyOnWriteArraySet<>();
+      Set<Delivery> newEntries = new CopyOnWriteArraySet<>();
       entries = subscribersByEventType.putIfAbsent(eventType, newEntries);
       if (entries == null) {
         entries = newEntries;
       }
     }
-    entries.add(subscriber);
+    entries.add(delivery);
+  }
+
+  private Delivery newDelivery(EventSubscriber<?> subscriber) {
+    AsyncSubscriber async = subscriber.getClass().getAnnotation(AsyncSubscriber.class);
+    if (async == null) {
+      return new Delivery(subscriber);
+    }
+    return new AsyncDelivery(subscriber, async.queueSize(), async.overflowPolicy());
   }
 
   /**
@@ -163,13 +250,17 @@ public class EventService {
   }
 
   private void doUnsubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
-    final Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
-    if (entries != null && !entries.isEmpty()) {
-      boolean changed = entries.remove(subscriber);
+    final Delivery delivery = deliveries.get(subscriber);
+    final Set<Delivery> entries = subscribersByEventType.get(eventType);
+    if (delivery != null && entries != null && !entries.isEmpty()) {
+      boolean changed = entries.remove(delivery);
       if (changed) {
         if (entries.isEmpty()) {
           subscribersByEventType.remove(eventType);
         }
+        if (subscribersByEventType.values().stream().noneMatch(set -> set.contains(delivery))) {
+          deliveries.remove(subscriber, delivery);
+        }
       }
     }
   }
@@ -200,4 +291,272 @@ public class EventService {
     }
     return eventType;
   }
+
+  private ExecutorService getAsyncExecutor() {
+    ExecutorService executor = asyncExecutor;
+    if (executor == null) {
+      synchronized (this) {
+        executor = asyncExecutor;
+        if (executor == null) {
+          executor =
+              Executors.newFixedThreadPool(
+                  Math.max(2, Runtime.getRuntime().availableProcessors()),
+                  new ThreadFactoryBuilder()
+                      .setNameFormat("EventService-%d")
+                      .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                      .setDaemon(true)
+                      .build());
+          asyncExecutor = executor;
+        }
+      }
+    }
+    return executor;
+  }
+
+  /** Statistics of a subscriber. */
+  public static final class SubscriberStats {
+    private final String subscriber;
+    private final boolean async;
+    private final int queueDepth;
+    private final long handledEvents;
+    private final long droppedEvents;
+    private final long handlingTimeMs;
+    private final long maxHandlingTimeMs;
+    private final long publisherWaitTimeMs;
+
+    SubscriberStats(
+        String subscriber,
+        boolean async,
+        int queueDepth,
+        long handledEvents,
+        long droppedEvents,
+        long handlingTimeMs,
+        long maxHandlingTimeMs,
+        long publisherWaitTimeMs) {
+      this.subscriber = subscriber;
+      this.async = async;
+      this.queueDepth = queueDepth;
+      this.handledEvents = handledEvents;
+      this.droppedEvents = droppedEvents;
+      this.handlingTimeMs = handlingTimeMs;
+      this.maxHandlingTimeMs = maxHandlingTimeMs;
+      this.publisherWaitTimeMs = publisherWaitTimeMs;
+    }
+
+    /** String representation of the subscriber. */
+    public String getSubscriber() {
+      return subscriber;
+    }
+
+    /** Whether the subscriber receives events asynchronously. */
+    public boolean isAsync() {
+      return async;
+    }
+
+    /** Number of events waiting for delivery, always 0 for synchronous subscribers. */
+    public int getQueueDepth() {
+      return queueDepth;
+    }
+
+    /** Number of events passed to the subscriber. */
+    public long getHandledEvents() {
+      return handledEvents;
+    }
+
+    /** Number of events dropped because the queue of the subscriber was full. */
+    public long getDroppedEvents() {
+      return droppedEvents;
+    }
+
+    /** Total time the subscriber spent handling events, in milliseconds. */
+    public long getHandlingTimeMs() {
+      return handlingTimeMs;
+    }
+
+    /** Longest time the subscriber spent handling an event, in milliseconds. */
+    public long getMaxHandlingTimeMs() {
+      return maxHandlingTimeMs;
+    }
+
+    /**
+     * Total time publishers were blocked by the subscriber, in milliseconds. The same as handling
+     * time for synchronous subscribers, the time spent waiting for room in the queue for
+     * asynchronous ones.
+     */
+    public long getPublisherWaitTimeMs() {
+      return publisherWaitTimeMs;
+    }
+  }
+
+  /** Calls subscriber in the publisher's thread. */
+  private static class Delivery {
+    final EventSubscriber subscriber;
+    final LongAdder handledEvents = new LongAdder();
+    final LongAdder handlingNanos = new LongAdder();
+    final LongAccumulator maxHandlingNanos = new LongAccumulator(Math::max, 0);
+
+    Delivery(EventSubscriber<?> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    void deliver(Object event) {
+      handle(event);
+    }
+
+    @SuppressWarnings("unchecked")
+    final void handle(Object event) {
+      long start = System.nanoTime();
+      try {
+        subscriber.onEvent(event);
+      } catch (RuntimeException e) {
+        LOG.error(e.getMessage(), e);
+      } finally {
+        long elapsed = System.nanoTime() - start;
+        handledEvents.increment();
+        handlingNanos.add(elapsed);
+        maxHandlingNanos.accumulate(elapsed);
+      }
+    }
+
+    SubscriberStats getStats() {
+      long handlingTimeMs = NANOSECONDS.toMillis(handlingNanos.sum());
+      return new SubscriberStats(
+          subscriber.toString(),
+          false,
+          0,
+          handledEvents.sum(),
+          0,
+          handlingTimeMs,
+          NANOSECONDS.toMillis(maxHandlingNanos.get()),
+          handlingTimeMs);
+    }
+  }
+
+  /**
+   * Puts events to a queue of the subscriber, the queue is drained by at most one thread of the
+   * shared pool at a time, so events are handled in the order they were published.
+   */
+  private class AsyncDelivery extends Delivery {
+    private final int queueSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Deque<Object> queue = new ArrayDeque<>();
+    private final LongAdder publisherWaitNanos = new LongAdder();
+
+    private boolean scheduled;
+    private boolean reentrantOverflowLogged;
+    private long droppedEvents;
+
+    AsyncDelivery(EventSubscriber<?> subscriber, int queueSize, OverflowPolicy overflowPolicy) {
+      super(subscriber);
+      this.queueSize = Math.max(1, queueSize);
+      this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    void deliver(Object event) {
+      synchronized (this) {
+        if (queue.size() >= queueSize && !makeRoom()) {
+          droppedEvents++;
+          return;
+        }
+        queue.add(event);
+        if (scheduled) {
+          return;
+        }
+        scheduled = true;
+      }
+      schedule();
+    }
+
+    /** Applies overflow policy, returns {@code false} when the new event must be dropped. */
+    private boolean makeRoom() {
+      switch (overflowPolicy) {
+        case DROP_OLDEST:
+          queue.poll();
+          droppedEvents++;
+          return true;
+        case DROP_NEWEST:
+          return false;
+        default:
+          // an async subscriber publishes the event, waiting here would be a deadlock if this
+          // subscriber publishes to it as well, so the new event is dropped as with DROP_NEWEST
+          if (ASYNC_DELIVERY_THREAD.get() != null) {
+            if (!reentrantOverflowLogged) {
+              reentrantOverflowLogged = true;
+              LOG.warn(
+                  "Queue of {} is full, events published to it by async subscribers are dropped",
+                  subscriber);
+            }
+            return false;
+          }
+          long start = System.nanoTime();
+          try {
+            while (queue.size() >= queueSize && scheduled) {
+              wait();
+            }
+            return true;
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+          } finally {
+            publisherWaitNanos.add(System.nanoTime() - start);
+          }
+      }
+    }
+
+    private void schedule() {
+      try {
+        getAsyncExecutor().execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        synchronized (this) {
+          LOG.debug("Event service is stopped, dropping events for {}", subscriber);
+          droppedEvents += queue.size();
+          queue.clear();
+          scheduled = false;
+          notifyAll();
+        }
+      }
+    }
+
+    private void drain() {
+      ASYNC_DELIVERY_THREAD.set(Boolean.TRUE);
+      try {
+        for (int i = 0; i < ASYNC_BATCH_SIZE; i++) {
+          Object event;
+          synchronized (this) {
+            event = queue.poll();
+            if (event == null) {
+              scheduled = false;
+              return;
+            }
+            notifyAll();
+          }
+          handle(event);
+        }
+      } finally {
+        ASYNC_DELIVERY_THREAD.remove();
+      }
+      // let other subscribers use the thread, the rest of the queue is handled later
+      schedule();
+    }
+
+    @Override
+    SubscriberStats getStats() {
+      int queueDepth;
+      long dropped;
+      synchronized (this) {
+        queueDepth = queue.size();
+        dropped = droppedEvents;
+      }
+      return new SubscriberStats(
+          subscriber.toString(),
+          true,
+          queueDepth,
+          handledEvents.sum(),
+          dropped,
+          NANOSECONDS.toMillis(handlingNanos.sum()),
+          NANOSECONDS.toMillis(maxHandlingNanos.get()),
+          NANOSECONDS.toMillis(publisherWaitNanos.sum()));
+    }
+  }
 }
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.util.lineconsumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.eclipse.che.api.core.util.lineconsumer.RotatingFileLineConsumer.COMPRESSED_SUFFIX;
+import static org.eclipse.che.api.core.util.lineconsumer.RotatingFileLineConsumer.INDEX_SUFFIX;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads logs written by {@link RotatingFileLineConsumer}, including rotated segments which are
+ * still kept on the disk.
+ *
+ * <p>Ranges of lines are located with the sparse index written next to the log, so reading the
+ * tail of a big log costs the same as reading its head. Logs without index are read sequentially.
+ */
+public final class IndexedLogReader {
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  /**
+   * Reads range of lines of the log.
+   *
+   * @param file log file
+   * @param skipCount number of lines to skip, counting from the first line which is still kept
+   * @param maxItems maximum number of lines to return
+   * @return lines of the log, or an empty list if log doesn't have so many lines
+   * @throws IllegalArgumentException when {@code skipCount} or {@code maxItems} is negative
+   * @throws IOException when any error occurs while reading the log
+   */
+  public static List<String> readLines(File file, long skipCount, int maxItems)
+      throws IOException {
+    checkArgument(skipCount >= 0, "The number of lines to skip must be positive or zero");
+    checkArgument(maxItems >= 0, "The number of lines to return must be positive or zero");
+    List<IndexEntry> index = readIndex(file);
+    if (index.isEmpty()) {
+      return readSequentially(file, skipCount, maxItems);
+    }
+    Map<Integer, Long> firstLines = new HashMap<>();
+    for (IndexEntry entry : index) {
+      firstLines.putIfAbsent(entry.segment, entry.line);
+    }
+    int activeSegment = index.get(index.size() - 1).segment;
+    // segment which is removed from the index may still be on the disk until it is deleted
+    int firstSegment = activeSegment;
+    for (int rotated : listSegments(file).keySet()) {
+      if (firstLines.containsKey(rotated)) {
+        firstSegment = rotated;
+        break;
+      }
+    }
+    Long firstLine = firstLines.get(firstSegment);
+    if (firstLine == null) {
+      return readSequentially(file, skipCount, maxItems);
+    }
+
+    long target = firstLine + skipCount;
+    IndexEntry start = index.get(0);
+    for (IndexEntry entry : index) {
+      if (entry.line > target) {
+        break;
+      }
+      if (entry.segment >= firstSegment) {
+        start = entry;
+      }
+    }
+
+    List<String> lines = new ArrayList<>();
+    for (int segment = start.segment; segment <= activeSegment; segment++) {
+      Long segmentFirstLine = firstLines.get(segment);
+      if (segmentFirstLine == null) {
+        continue;
+      }
+      long offset = segment == start.segment ? start.offset : 0;
+      long line = offset == 0 ? segmentFirstLine : start.line;
+      try (InputStream in = openSegment(file, segment, activeSegment, offset)) {
+        if (in == null) {
+          continue;
+        }
+        String next;
+        while (lines.size() < maxItems && (next = readLine(in)) != null) {
+          if (line++ >= target) {
+            lines.add(next);
+          }
+        }
+      }
+      if (lines.size() >= maxItems) {
+        break;
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Opens reader of the whole log, rotated segments which are still kept are read first.
+   *
+   * @param file log file
+   * @throws IOException when any error occurs while opening the log
+   */
+  public static Reader openReader(File file) throws IOException {
+    List<InputStream> streams = new ArrayList<>();
+    try {
+      for (Map.Entry<Integer, File> segment : listSegments(file).entrySet()) {
+        InputStream in = openSegment(file, segment.getKey(), -1, 0);
+        if (in != null) {
+          streams.add(in);
+        }
+      }
+      streams.add(Files.newInputStream(file.toPath()));
+    } catch (IOException e) {
+      for (InputStream in : streams) {
+        try {
+          in.close();
+        } catch (IOException ignored) {
+        }
+      }
+      throw e;
+    }
+    return new InputStreamReader(
+        new SequenceInputStream(Collections.enumeration(streams)), Charset.defaultCharset());
+  }
+
+  /** Returns rotated segments of the log sorted from the oldest to the newest one. */
+  static SortedMap<Integer, File> listSegments(File file) {
+    SortedMap<Integer, File> segments = new TreeMap<>();
+    String prefix = file.getName() + '.';
+    File[] candidates = file.getParentFile().listFiles((dir, name) -> name.startsWith(prefix));
+    if (candidates == null) {
+      return segments;
+    }
+    for (File candidate : candidates) {
+      String suffix = candidate.getName().substring(prefix.length());
+      boolean compressed = suffix.endsWith(COMPRESSED_SUFFIX);
+      if (compressed) {
+        suffix = suffix.substring(0, suffix.length() - COMPRESSED_SUFFIX.length());
+      }
+      if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+        // segment which is being compressed is still available as plain file
+        File existing = segments.putIfAbsent(Integer.parseInt(suffix), candidate);
+        if (existing != null && !compressed) {
+          segments.put(Integer.parseInt(suffix), candidate);
+        }
+      }
+    }
+    return segments;
+  }
+
+  static File segmentFile(File file, int segment) {
+    return new File(file.getParentFile(), file.getName() + '.' + segment);
+  }
+
+  /**
+   * Opens segment of the log and positions it to the given offset, compressed segments are
+   * positioned by skipping decompressed bytes. Returns null if segment doesn't exist anymore.
+   */
+  private static InputStream openSegment(File file, int segment, int activeSegment, long offset)
+      throws IOException {
+    File plain = segmentFile(file, segment);
+    try {
+      return openAt(plain, offset);
+    } catch (NoSuchFileException ignored) {
+      // segment is either compressed or still active
+    }
+    File compressed = new File(plain.getParentFile(), plain.getName() + COMPRESSED_SUFFIX);
+    try {
+      InputStream in =
+          new GZIPInputStream(Files.newInputStream(compressed.toPath()), BUFFER_SIZE);
+      try {
+        for (long skipped = 0; skipped < offset; ) {
+          long n = in.skip(offset - skipped);
+          if (n <= 0) {
+            throw new EOFException("Index of log '" + file + "' doesn't match rotated segment");
+          }
+          skipped += n;
+        }
+      } catch (IOException e) {
+        in.close();
+        throw e;
+      }
+      return new BufferedInputStream(in, BUFFER_SIZE);
+    } catch (NoSuchFileException ignored) {
+      // segment is still active or it is already removed
+    }
+    if (segment == activeSegment) {
+      try {
+        return openAt(file, offset);
+      } catch (NoSuchFileException ignored) {
+      }
+    }
+    return null;
+  }
+
+  private static InputStream openAt(File file, long offset) throws IOException {
+    FileChannel channel = FileChannel.open(file.toPath());
+    try {
+      channel.position(offset);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+  }
+
+  /**
+   * Reads next line terminated by line feed. Line which is not terminated is being written at the
+   * moment, so it is not returned.
+   */
+  private static String readLine(InputStream in) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int b;
+    while ((b = in.read()) != -1) {
+      if (b == '\n') {
+        return new String(line.toByteArray(), Charset.defaultCharset());
+      }
+      line.write(b);
+    }
+    return null;
+  }
+
+  private static List<String> readSequentially(File file, long skipCount, int maxItems)
+      throws IOException {
+    List<String> lines = new ArrayList<>();
+    if (!file.isFile()) {
+      return lines;
+    }
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+      String next;
+      for (long line = 0; lines.size() < maxItems && (next = readLine(in)) != null; line++) {
+        if (line >= skipCount) {
+          lines.add(next);
+        }
+      }
+    }
+    return lines;
+  }
+
+  private static List<IndexEntry> readIndex(File file) throws IOException {
+    List<IndexEntry> entries = new ArrayList<>();
+    File indexFile = new File(file.getParentFile(), file.getName() + INDEX_SUFFIX);
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile.toPath())))) {
+      while (true) {
+        entries.add(new IndexEntry(in.readLong(), in.readInt(), in.readLong()));
+      }
+    } catch (NoSuchFileException | EOFException ignored) {
+      // index is missing or its last entry is not written yet
+    }
+    return entries;
+  }
+
+  private static final class IndexEntry {
+    private final long line;
+    private final int segment;
+    private final long offset;
+
+    private IndexEntry(long line, int segment, long offset) {
+      this.line = line;
+      this.segment = segment;
+      this.offset = offset;
+    }
+  }
+
+  private IndexedLogReader() {}
+}
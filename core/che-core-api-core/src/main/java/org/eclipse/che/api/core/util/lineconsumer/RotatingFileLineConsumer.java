@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.util.lineconsumer;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+import org.eclipse.che.api.core.util.LineConsumer;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Consumes logs and writes them into file. This implementation is thread safe.
+ *
+ * <p>Unlike {@link ConcurrentFileLineConsumer} lines are not flushed one by one, they are
+ * accumulated in a buffer which is written to the file when it is full or when flush period
+ * elapses, so many lines produced during a period are written with a single system call.
+ *
+ * <p>When the file exceeds the maximum size or gets older than the maximum age it is rotated: the
+ * file is renamed to {@code <name>.<segment>} and compressed in background to {@code
+ * <name>.<segment>.gz}, only the newest rotated segments are kept. Compression runs in its own
+ * thread, so it never delays flushing of logs.
+ *
+ * <p>Consumer also maintains a sparse index {@code <name>.idx} which maps the number of every
+ * {@link #DEFAULT_INDEX_INTERVAL}-th line to the segment and the offset in bytes where the line
+ * starts, so {@link IndexedLogReader} reads a range of lines without reading the log from the
+ * beginning. Entries of segments which are not kept anymore are removed from the index on
+ * rotation.
+ */
+public class RotatingFileLineConsumer implements LineConsumer {
+  private static final Logger LOG = LoggerFactory.getLogger(RotatingFileLineConsumer.class);
+
+  static final int DEFAULT_INDEX_INTERVAL = 1000;
+  static final String INDEX_SUFFIX = ".idx";
+  static final String COMPRESSED_SUFFIX = ".gz";
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  /** Size of index entry: number of line, segment and offset in the segment. */
+  private static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+  private static final ScheduledExecutorService exec =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder()
+              .setNameFormat("RotatingFileLineConsumer")
+              .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+              .setDaemon(true)
+              .build());
+
+  private static final ExecutorService compressor =
+      Executors.newSingleThreadExecutor(
+          new ThreadFactoryBuilder()
+              .setNameFormat("RotatingFileLineConsumerCompressor")
+              .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+              .setDaemon(true)
+              .build());
+
+  private final File file;
+  private final File indexFile;
+  private final Charset charset;
+  private final long maxFileSize;
+  private final long maxFileAgeMillis;
+  private final int maxRotatedFiles;
+  private final long flushPeriodMillis;
+  private final int indexInterval;
+  private final ReentrantLock lock;
+  private final ScheduledFuture<?> flushTask;
+
+  private OutputStream out;
+  private DataOutputStream index;
+  private int segment;
+  private long segmentSize;
+  private long segmentStartTime;
+  private long lineNumber;
+  private volatile boolean dirty;
+
+  private volatile boolean isOpen;
+
+  /** Creates consumer which flushes file each second and never rotates it. */
+  public RotatingFileLineConsumer(File file) throws IOException {
+    this(file, 0, 0, 0, 1000);
+  }
+
+  /**
+   * Creates consumer.
+   *
+   * @param file file to write logs to, existing file and its rotated segments are removed
+   * @param maxFileSize size in bytes after which file is rotated, 0 disables rotation by size
+   * @param maxFileAgeMillis time in milliseconds after which file is rotated, 0 disables rotation
+   *     by time
+   * @param maxRotatedFiles number of rotated segments to keep
+   * @param flushPeriodMillis maximum time in milliseconds lines stay in memory before they are
+   *     written to the file, 0 means that each line is written immediately
+   */
+  public RotatingFileLineConsumer(
+      File file,
+      long maxFileSize,
+      long maxFileAgeMillis,
+      int maxRotatedFiles,
+      long flushPeriodMillis)
+      throws IOException {
+    this(
+        file,
+        maxFileSize,
+        maxFileAgeMillis,
+        maxRotatedFiles,
+        flushPeriodMillis,
+        DEFAULT_INDEX_INTERVAL);
+  }
+
+  @VisibleForTesting
+  RotatingFileLineConsumer(
+      File file,
+      long maxFileSize,
+      long maxFileAgeMillis,
+      int maxRotatedFiles,
+      long flushPeriodMillis,
+      int indexInterval)
+      throws IOException {
+    this.file = file;
+    this.indexFile = new File(file.getParentFile(), file.getName() + INDEX_SUFFIX);
+    this.charset = Charset.defaultCharset();
+    this.maxFileSize = maxFileSize;
+    this.maxFileAgeMillis = maxFileAgeMillis;
+    this.maxRotatedFiles = Math.max(0, maxRotatedFiles);
+    this.flushPeriodMillis = flushPeriodMillis;
+    this.indexInterval = indexInterval;
+    this.lock = new ReentrantLock();
+
+    for (int obsolete : IndexedLogReader.listSegments(file).keySet()) {
+      deleteSegment(obsolete);
+    }
+    openSegment();
+    isOpen = true;
+    if (flushPeriodMillis > 0) {
+      flushTask =
+          exec.scheduleWithFixedDelay(
+              this::flushSilently, flushPeriodMillis, flushPeriodMillis, TimeUnit.MILLISECONDS);
+    } else {
+      flushTask = null;
+    }
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  public boolean isOpen() {
+    return isOpen;
+  }
+
+  @Override
+  public void writeLine(String line) throws IOException {
+    if (!isOpen) {
+      return;
+    }
+    byte[] bytes = ((line == null ? "" : line) + '\n').getBytes(charset);
+    lock.lock();
+    try {
+      if (!isOpen) {
+        return;
+      }
+      if (needsRotation(bytes.length)) {
+        rotate();
+      }
+      if (segmentSize == 0 || lineNumber % indexInterval == 0) {
+        index.writeLong(lineNumber);
+        index.writeInt(segment);
+        index.writeLong(segmentSize);
+      }
+      out.write(bytes);
+      segmentSize += bytes.length;
+      lineNumber++;
+      if (flushPeriodMillis > 0) {
+        dirty = true;
+      } else {
+        flush();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Writes all buffered lines to the file. */
+  public void flush() throws IOException {
+    lock.lock();
+    try {
+      if (isOpen) {
+        // data goes first, so index never points behind the end of the file
+        out.flush();
+        index.flush();
+        dirty = false;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (isOpen) {
+      lock.lock();
+      try {
+        if (!isOpen) {
+          return;
+        }
+        isOpen = false;
+        if (flushTask != null) {
+          flushTask.cancel(false);
+        }
+        try {
+          out.close();
+        } finally {
+          index.close();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void flushSilently() {
+    if (dirty) {
+      try {
+        flush();
+      } catch (IOException e) {
+        LOG.warn("Unable to flush log file '{}'. {}", file, e.getMessage());
+      }
+    }
+  }
+
+  private boolean needsRotation(int nextLineSize) {
+    if (segmentSize == 0) {
+      return false;
+    }
+    return (maxFileSize > 0 && segmentSize + nextLineSize > maxFileSize)
+        || (maxFileAgeMillis > 0
+            && System.currentTimeMillis() - segmentStartTime >= maxFileAgeMillis);
+  }
+
+  private void openSegment() throws IOException {
+    out = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+    index =
+        new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(indexFile, segment > 0)));
+    segmentSize = 0;
+    segmentStartTime = System.currentTimeMillis();
+  }
+
+  private void rotate() throws IOException {
+    out.close();
+    index.close();
+    File rotated = IndexedLogReader.segmentFile(file, segment);
+    Files.move(file.toPath(), rotated.toPath(), REPLACE_EXISTING);
+    int obsolete = segment - maxRotatedFiles;
+    if (obsolete >= 0) {
+      pruneIndex(obsolete + 1);
+    }
+    segment++;
+    openSegment();
+    compressor.execute(
+        () -> {
+          if (maxRotatedFiles > 0) {
+            compress(rotated.toPath());
+          }
+          deleteSegment(obsolete);
+        });
+  }
+
+  /** Removes entries of segments which are older than the given one from the index. */
+  private void pruneIndex(int firstKeptSegment) throws IOException {
+    Path source = indexFile.toPath();
+    Path tmp = source.resolveSibling(source.getFileName() + ".tmp");
+    long entries = Files.size(source) / INDEX_ENTRY_SIZE;
+    try (DataInputStream in =
+            new DataInputStream(new BufferedInputStream(Files.newInputStream(source)));
+        DataOutputStream pruned =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+      for (long i = 0; i < entries; i++) {
+        long line = in.readLong();
+        int entrySegment = in.readInt();
+        long offset = in.readLong();
+        if (entrySegment >= firstKeptSegment) {
+          pruned.writeLong(line);
+          pruned.writeInt(entrySegment);
+          pruned.writeLong(offset);
+        }
+      }
+    }
+    Files.move(tmp, source, ATOMIC_MOVE, REPLACE_EXISTING);
+  }
+
+  private void compress(Path source) {
+    Path target = source.resolveSibling(source.getFileName() + COMPRESSED_SUFFIX);
+    Path tmp = source.resolveSibling(target.getFileName() + ".tmp");
+    try {
+      try (InputStream in = Files.newInputStream(source);
+          OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE)) {
+        byte[] buf = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buf)) != -1) {
+          gzip.write(buf, 0, read);
+        }
+      }
+      Files.move(tmp, target, ATOMIC_MOVE);
+      Files.delete(source);
+    } catch (IOException e) {
+      LOG.warn("Unable to compress rotated log file '{}'. {}", source, e.getMessage());
+      try {
+        Files.deleteIfExists(tmp);
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+  private void deleteSegment(int number) {
+    if (number < 0) {
+      return;
+    }
+    File plain = IndexedLogReader.segmentFile(file, number);
+    File compressed = new File(plain.getParentFile(), plain.getName() + COMPRESSED_SUFFIX);
+    try {
+      Files.deleteIfExists(plain.toPath());
+      Files.deleteIfExists(compressed.toPath());
+    } catch (IOException e) {
+      LOG.warn("Unable to remove rotated log file '{}'. {}", plain, e.getMessage());
+    }
+  }
+}
@@ -10,14 +10,24 @@
  */
 package org.eclipse.che.api.core.websocket.impl;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
+import javax.websocket.CloseReason;
+import javax.websocket.SendResult;
 import javax.websocket.Session;
 import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
 import org.slf4j.Logger;
 
 /**
@@ -25,24 +35,58 @@ import org.slf4j.Logger;
  * session is not opened adds messages to re-sender to try to send them when session will be opened
  * again.
  *
+ * <p>Each endpoint has its own bounded queue of outgoing messages, which is drained with
+ * non-blocking sends, so a slow client does not delay messages to other clients. There is at most
+ * one send in flight for an endpoint, messages queued meanwhile are sent one per frame as soon as
+ * the previous send completes. Messages re-sent by {@link MessagesReSender} go through the same
+ * queue, so they never overlap with a send in flight. When the queue is full the oldest messages
+ * are moved to the re-sender. When a send fails or does not complete in time the endpoint is
+ * considered a slow consumer, its queued messages are moved to the re-sender and, depending on
+ * {@link SlowConsumerPolicy}, the session is closed so the client reconnects and gets the messages
+ * re-sent.
+ *
  * @author Dmitry Kuleshov
  */
 @Singleton
 public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmitter {
   private static final Logger LOG = getLogger(BasicWebSocketMessageTransmitter.class);
 
+  /** Defines what to do with an endpoint whose session can't keep up with outgoing messages. */
+  public enum SlowConsumerPolicy {
+    /** Move queued messages to the re-sender and close the session. */
+    CLOSE,
+    /** Move queued messages to the re-sender and keep sending new ones. */
+    SPILL
+  }
+
   private final WebSocketSessionRegistry registry;
   private final MessagesReSender reSender;
+  private final int maxQueueSize;
+  private final long sendTimeoutMs;
+  private final SlowConsumerPolicy slowConsumerPolicy;
+  private final Map<String, EndpointQueue> queues = new ConcurrentHashMap<>();
 
-  @Inject
   public BasicWebSocketMessageTransmitter(
       WebSocketSessionRegistry registry, MessagesReSender reSender) {
+    this(registry, reSender, 1000, 30_000, "close");
+  }
+
+  @Inject
+  public BasicWebSocketMessageTransmitter(
+      WebSocketSessionRegistry registry,
+      MessagesReSender reSender,
+      @Named("che.websocket.transmitter.queue_size") int maxQueueSize,
+      @Named("che.websocket.transmitter.send_timeout_ms") long sendTimeoutMs,
+      @Named("che.websocket.transmitter.slow_consumer_policy") String slowConsumerPolicy) {
     this.registry = registry;
     this.reSender = reSender;
+    this.maxQueueSize = Math.max(1, maxQueueSize);
+    this.sendTimeoutMs = sendTimeoutMs;
+    this.slowConsumerPolicy = SlowConsumerPolicy.valueOf(slowConsumerPolicy.toUpperCase());
   }
 
   @Override
-  public synchronized void transmit(String endpointId, String message) {
+  public void transmit(String endpointId, String message) {
     final Optional<Session> sessionOptional = registry.get(endpointId);
 
     if (!sessionOptional.isPresent() || !sessionOptional.get().isOpen()) {
@@ -50,13 +94,187 @@ public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmi
 
       reSender.add(endpointId, message);
     } else {
-      LOG.debug("Session registered and open, sending message");
+      LOG.debug("Session registered and open, queueing message");
+
+      Session session = sessionOptional.get();
+      EndpointQueue queue =
+          queues.compute(
+              endpointId,
+              (id, existing) ->
+                  existing != null && existing.session == session
+                      ? existing
+                      : new EndpointQueue(id, session));
+      queue.offer(message);
+    }
+  }
 
+  /** Returns statistics of the outgoing queue of the given endpoint. */
+  public Optional<EndpointStats> getStats(String endpointId) {
+    return Optional.ofNullable(queues.get(endpointId)).map(EndpointQueue::getStats);
+  }
+
+  /** Returns statistics of outgoing queues of all endpoints that have an open session. */
+  public Map<String, EndpointStats> getStats() {
+    Map<String, EndpointStats> stats = new HashMap<>();
+    queues.forEach((id, queue) -> stats.put(id, queue.getStats()));
+    return stats;
+  }
+
+  @ScheduleDelay(initialDelay = 60, delay = 60)
+  void cleanClosedQueues() {
+    queues.values().removeIf(EndpointQueue::isStale);
+  }
+
+  /** Snapshot of the state of an endpoint's outgoing queue. */
+  public static final class EndpointStats {
+    private final int queueDepth;
+    private final long sentMessages;
+    private final long spilledMessages;
+    private final long lastSendLatencyMs;
+    private final long maxSendLatencyMs;
+
+    EndpointStats(
+        int queueDepth,
+        long sentMessages,
+        long spilledMessages,
+        long lastSendLatencyMs,
+        long maxSendLatencyMs) {
+      this.queueDepth = queueDepth;
+      this.sentMessages = sentMessages;
+      this.spilledMessages = spilledMessages;
+      this.lastSendLatencyMs = lastSendLatencyMs;
+      this.maxSendLatencyMs = maxSendLatencyMs;
+    }
+
+    /** Number of messages waiting to be sent. */
+    public int getQueueDepth() {
+      return queueDepth;
+    }
+
+    /** Number of messages successfully sent to the endpoint. */
+    public long getSentMessages() {
+      return sentMessages;
+    }
+
+    /** Number of messages moved to the re-sender because of overflow or failed sends. */
+    public long getSpilledMessages() {
+      return spilledMessages;
+    }
+
+    /** Duration of the last completed send in milliseconds. */
+    public long getLastSendLatencyMs() {
+      return lastSendLatencyMs;
+    }
+
+    /** Duration of the longest completed send in milliseconds. */
+    public long getMaxSendLatencyMs() {
+      return maxSendLatencyMs;
+    }
+  }
+
+  private class EndpointQueue {
+    private final String endpointId;
+    private final Session session;
+    private final Deque<String> pending = new ArrayDeque<>();
+
+    private boolean sending;
+    private boolean closed;
+    private long sentMessages;
+    private long spilledMessages;
+    private long lastSendLatencyMs;
+    private long maxSendLatencyMs;
+
+    EndpointQueue(String endpointId, Session session) {
+      this.endpointId = endpointId;
+      this.session = session;
+      if (sendTimeoutMs > 0) {
+        session.getAsyncRemote().setSendTimeout(sendTimeoutMs);
+      }
+    }
+
+    void offer(String message) {
+      String next;
+      synchronized (this) {
+        if (closed) {
+          reSender.add(endpointId, message);
+          spilledMessages++;
+          return;
+        }
+        if (pending.size() >= maxQueueSize) {
+          LOG.debug("Outgoing queue of endpoint {} is full, moving oldest to pending", endpointId);
+          reSender.add(endpointId, pending.poll());
+          spilledMessages++;
+        }
+        pending.add(message);
+        if (sending) {
+          return;
+        }
+        sending = true;
+        next = pending.poll();
+      }
+      send(next);
+    }
+
+    private void send(String message) {
+      long startedAt = System.nanoTime();
       try {
-        sessionOptional.get().getBasicRemote().sendText(message);
-      } catch (IOException e) {
-        LOG.error("Error while trying to send a message to a basic websocket remote endpoint", e);
+        session.getAsyncRemote().sendText(message, result -> onSent(message, startedAt, result));
+      } catch (RuntimeException e) {
+        onSent(message, startedAt, new SendResult(e));
+      }
+    }
+
+    private void onSent(String message, long startedAt, SendResult result) {
+      long latencyMs = NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+      String next;
+      synchronized (this) {
+        lastSendLatencyMs = latencyMs;
+        maxSendLatencyMs = Math.max(maxSendLatencyMs, latencyMs);
+        if (!result.isOK()) {
+          onSlowConsumer(message, result.getException());
+          return;
+        }
+        sentMessages++;
+        if (pending.isEmpty()) {
+          sending = false;
+          return;
+        }
+        next = pending.poll();
+      }
+      send(next);
+    }
+
+    /** Must be called while holding the lock of this queue. */
+    private void onSlowConsumer(String message, Throwable error) {
+      LOG.debug("Error while trying to send messages to endpoint {}: {}", endpointId, error);
+
+      reSender.add(endpointId, message);
+      spilledMessages += 1 + pending.size();
+      while (!pending.isEmpty()) {
+        reSender.add(endpointId, pending.poll());
       }
+      sending = false;
+
+      if (slowConsumerPolicy == SlowConsumerPolicy.CLOSE) {
+        closed = true;
+        if (session.isOpen()) {
+          try {
+            session.close(
+                new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Slow consumer"));
+          } catch (IOException e) {
+            LOG.error("Error while trying to close a slow websocket session", e);
+          }
+        }
+      }
+    }
+
+    synchronized boolean isStale() {
+      return !sending && (closed || !session.isOpen());
+    }
+
+    synchronized EndpointStats getStats() {
+      return new EndpointStats(
+          pending.size(), sentMessages, spilledMessages, lastSendLatencyMs, maxSendLatencyMs);
     }
   }
 }
@@ -10,36 +10,64 @@
  */
 package org.eclipse.che.api.core.websocket.impl;
 
+import static org.slf4j.LoggerFactory.getLogger;
+
 import com.google.common.collect.EvictingQueue;
+import com.google.common.collect.Queues;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.websocket.Session;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
 import org.eclipse.che.commons.schedule.ScheduleDelay;
+import org.slf4j.Logger;
 
 /**
  * Instance is responsible for re-sending messages that were not sent during the period when WEB
  * SOCKET session was closed. If session is closed during re-send process it stops and left messages
  * will be re-sent as WEB SOCKET session becomes open again.
  *
+ * <p>Messages are re-sent through the {@link WebSocketMessageTransmitter}, so they are queued
+ * behind a send which may be in flight for the same session instead of being sent concurrently.
+ * Each endpoint keeps as many messages as its outgoing queue in the transmitter, so a full queue
+ * moved here is kept as a whole, older messages are dropped when more are added.
+ *
  * @author Dmitry Kuleshov
  */
 @Singleton
 public class MessagesReSender {
+  private static final Logger LOG = getLogger(MessagesReSender.class);
 
-  private static final int MAX_MESSAGES = 100;
+  private static final int DEFAULT_MAX_MESSAGES = 1000;
 
   private final WebSocketSessionRegistry registry;
+  private final Provider<WebSocketMessageTransmitter> transmitter;
+  private final int maxMessages;
 
   private final Map<String, Queue<DelayedMessage>> delayedMessageRegistry =
       new ConcurrentHashMap<>();
+  /** Endpoints which lost messages since their messages were re-sent, to warn once for each. */
+  private final Set<String> overflowedEndpoints = ConcurrentHashMap.newKeySet();
+
+  public MessagesReSender(
+      WebSocketSessionRegistry registry, Provider<WebSocketMessageTransmitter> transmitter) {
+    this(registry, transmitter, DEFAULT_MAX_MESSAGES);
+  }
 
   @Inject
-  public MessagesReSender(WebSocketSessionRegistry registry) {
+  public MessagesReSender(
+      WebSocketSessionRegistry registry,
+      Provider<WebSocketMessageTransmitter> transmitter,
+      @Named("che.websocket.transmitter.queue_size") int maxMessages) {
     this.registry = registry;
+    this.transmitter = transmitter;
+    this.maxMessages = Math.max(1, maxMessages);
   }
 
   @ScheduleDelay(initialDelay = 60, delay = 60)
@@ -51,16 +79,26 @@ public class MessagesReSender {
         .forEach(it -> it.removeIf(m -> currentTimeMillis - m.timeMillis > 60_000));
 
     delayedMessageRegistry.values().removeIf(Queue::isEmpty);
+    overflowedEndpoints.retainAll(delayedMessageRegistry.keySet());
   }
 
   public void add(String endpointId, String message) {
-
-    delayedMessageRegistry
-        .computeIfAbsent(endpointId, k -> EvictingQueue.create(MAX_MESSAGES))
-        .offer(new DelayedMessage(message));
+    Queue<DelayedMessage> delayedMessages =
+        delayedMessageRegistry.computeIfAbsent(
+            endpointId, k -> Queues.synchronizedQueue(EvictingQueue.create(maxMessages)));
+    synchronized (delayedMessages) {
+      if (delayedMessages.size() >= maxMessages && overflowedEndpoints.add(endpointId)) {
+        LOG.warn(
+            "More than {} messages are pending for endpoint {}, the oldest ones are dropped",
+            maxMessages,
+            endpointId);
+      }
+      delayedMessages.offer(new DelayedMessage(message));
+    }
   }
 
   public void resend(String endpointId) {
+    overflowedEndpoints.remove(endpointId);
     Queue<DelayedMessage> delayedMessages = delayedMessageRegistry.remove(endpointId);
 
     if (delayedMessages == null || delayedMessages.isEmpty()) {
@@ -81,7 +119,7 @@ public class MessagesReSender {
     Session session = sessionOptional.get();
     for (DelayedMessage delayedMessage : backingQueue) {
       if (session.isOpen()) {
-        session.getAsyncRemote().sendText(delayedMessage.message);
+        transmitter.get().transmit(endpointId, delayedMessage.message);
       } else {
         delayedMessages.add(delayedMessage);
       }
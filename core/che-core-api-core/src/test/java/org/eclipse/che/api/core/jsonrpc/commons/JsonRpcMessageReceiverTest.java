@@ -12,7 +12,9 @@ package org.eclipse.che.api.core.jsonrpc.commons;
 
 import static java.util.Collections.singletonList;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -89,9 +91,31 @@ public class JsonRpcMessageReceiverTest {
     when(jsonRpcQualifier.isJsonRpcRequest(MESSAGE)).thenReturn(true);
     when(jsonRpcQualifier.isJsonRpcResponse(MESSAGE)).thenReturn(false);
     when(jsonRpcUnmarshaller.unmarshalArray(any())).thenReturn(singletonList(MESSAGE));
+    JsonRpcRequest jsonRpcRequest = Mockito.mock(JsonRpcRequest.class);
+    when(jsonRpcRequest.getMethod()).thenReturn("method");
+    when(jsonRpcUnmarshaller.unmarshalRequest(any())).thenReturn(jsonRpcRequest);
 
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-    verify(requestProcessor).process(any());
+    verify(requestProcessor).process(eq(ENDPOINT_ID), eq("method"), any());
+  }
+
+  @Test
+  public void shouldTransmitErrorIfRequestIsRejectedByProcessor() throws Exception {
+    when(jsonRpcQualifier.isJsonRpcRequest(MESSAGE)).thenReturn(true);
+    when(jsonRpcUnmarshaller.unmarshalArray(any())).thenReturn(singletonList(MESSAGE));
+    JsonRpcRequest jsonRpcRequest = Mockito.mock(JsonRpcRequest.class);
+    when(jsonRpcRequest.getMethod()).thenReturn("method");
+    when(jsonRpcRequest.getId()).thenReturn("1");
+    when(jsonRpcUnmarshaller.unmarshalRequest(any())).thenReturn(jsonRpcRequest);
+    doThrow(new JsonRpcException(-32000, "rejected"))
+        .when(requestProcessor)
+        .process(eq(ENDPOINT_ID), eq("method"), any());
+
+    jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
+
+    verify(errorTransmitter)
+        .transmit(eq(ENDPOINT_ID), argThat(e -> e.getCode() == -32000 && "1".equals(e.getId())));
+    verify(requestDispatcher, never()).dispatch(any(), any());
   }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.impl.ServerSideRequestProcessor.Priority;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ServerSideRequestProcessor} */
+public class ServerSideRequestProcessorTest {
+
+  private ServerSideRequestProcessor processor;
+  private CountDownLatch blocker;
+  private CountDownLatch blocked;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    processor = new ServerSideRequestProcessor("bounded", 1, 5, 3, "urgent/*", "slow");
+    processor.postConstruct();
+
+    // occupy the only thread so requests stay in the queue
+    blocker = new CountDownLatch(1);
+    blocked = new CountDownLatch(1);
+    processor.process("blocker", "block", this::block);
+    assertTrue(blocked.await(5, SECONDS));
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    blocker.countDown();
+    processor.preDestroy();
+  }
+
+  @Test
+  public void shouldRejectRequestWhenQueueIsFull() throws Exception {
+    processor.process("a", "method", () -> {});
+    processor.process("a", "method", () -> {});
+    processor.process("b", "method", () -> {});
+    processor.process("b", "method", () -> {});
+    processor.process("c", "method", () -> {});
+
+    try {
+      processor.process("c", "method", () -> {});
+      fail("Request is expected to be rejected");
+    } catch (JsonRpcException e) {
+      assertEquals(e.getCode(), ServerSideRequestProcessor.REJECTED_ERROR_CODE);
+    }
+    assertEquals(processor.getQueueSize(), 5);
+    assertEquals(processor.getStats().get("method").getRejected(), 1);
+  }
+
+  @Test
+  public void shouldRejectRequestWhenEndpointExceedsItsShareOfQueue() throws Exception {
+    processor.process("a", "method", () -> {});
+    processor.process("a", "method", () -> {});
+    processor.process("a", "method", () -> {});
+
+    try {
+      processor.process("a", "method", () -> {});
+      fail("Request is expected to be rejected");
+    } catch (JsonRpcException e) {
+      assertEquals(e.getCode(), ServerSideRequestProcessor.REJECTED_ERROR_CODE);
+    }
+    processor.process("b", "method", () -> {});
+  }
+
+  @Test
+  public void shouldTakeRequestsByPriorityAndEndpointsInTurn() throws Exception {
+    List<String> processed = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(5);
+    processor.process("a", "slow", () -> record(processed, done, "a-slow"));
+    processor.process("a", "method", () -> record(processed, done, "a1"));
+    processor.process("a", "method", () -> record(processed, done, "a2"));
+    processor.process("b", "method", () -> record(processed, done, "b1"));
+    processor.process("b", "urgent/ping", () -> record(processed, done, "b-urgent"));
+
+    blocker.countDown();
+
+    assertTrue(done.await(5, SECONDS));
+    assertEquals(processed, asList("b-urgent", "a1", "b1", "a2", "a-slow"));
+    assertEquals(processor.getStats().get("method").getProcessed(), 3);
+  }
+
+  @Test
+  public void shouldResolvePriorityOfMethods() throws Exception {
+    assertEquals(processor.getPriority("urgent/ping"), Priority.HIGH);
+    assertEquals(processor.getPriority("slow"), Priority.LOW);
+    assertEquals(processor.getPriority("slow/other"), Priority.NORMAL);
+  }
+
+  private void block() {
+    blocked.countDown();
+    try {
+      blocker.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void record(List<String> processed, CountDownLatch done, String name) {
+    processed.add(name);
+    done.countDown();
+  }
+}
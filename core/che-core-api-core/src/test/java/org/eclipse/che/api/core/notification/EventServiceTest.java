@@ -10,10 +10,18 @@
  */
 package org.eclipse.che.api.core.notification;
 
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.eclipse.che.api.core.notification.AsyncSubscriber.OverflowPolicy;
+import org.eclipse.che.api.core.notification.EventService.SubscriberStats;
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -26,6 +34,11 @@ public class EventServiceTest {
     bus = new EventService();
   }
 
+  @AfterMethod
+  public void tearDown() {
+    bus.stop();
+  }
+
   @Test
   public void testSimpleEvent() {
     final List<Object> events = new ArrayList<>();
@@ -192,6 +205,151 @@ public class EventServiceTest {
     bus.unsubscribe(sb, CustomEventImpl.class);
   }
 
+  @Test
+  public void shouldDeliverEventsToAsyncSubscriberInPublishingOrder() throws Exception {
+    AsyncListener listener = new AsyncListener(100);
+    bus.subscribe(listener);
+
+    for (int i = 0; i < 100; i++) {
+      bus.publish("event" + i);
+    }
+
+    Assert.assertTrue(listener.done.await(5, SECONDS));
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(listener.events.get(i), "event" + i);
+    }
+    Assert.assertFalse(listener.threads.contains(Thread.currentThread()));
+    SubscriberStats stats = bus.getSubscriberStats().get(0);
+    Assert.assertTrue(stats.isAsync());
+    Assert.assertEquals(stats.getHandledEvents(), 100);
+  }
+
+  @Test
+  public void shouldDropNewEventsWhenQueueOfAsyncSubscriberIsFull() throws Exception {
+    CountDownLatch blocker = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    List<String> events = new CopyOnWriteArrayList<>();
+    EventSubscriber<String> subscriber =
+        event -> {
+          started.countDown();
+          try {
+            blocker.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          events.add(event);
+        };
+    bus.subscribeAsync(subscriber, String.class, 2, OverflowPolicy.DROP_NEWEST);
+
+    bus.publish("first");
+    Assert.assertTrue(started.await(5, SECONDS));
+    bus.publish("second");
+    bus.publish("third");
+    bus.publish("fourth");
+
+    SubscriberStats stats = bus.getSubscriberStats().get(0);
+    Assert.assertEquals(stats.getQueueDepth(), 2);
+    Assert.assertEquals(stats.getDroppedEvents(), 1);
+
+    blocker.countDown();
+    bus.stop();
+    Assert.assertEquals(events, asList("first", "second", "third"));
+  }
+
+  @Test
+  public void shouldDropEventsPublishedByAsyncSubscriberToFullQueue() throws Exception {
+    CountDownLatch blocker = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch published = new CountDownLatch(1);
+    List<Integer> integers = new CopyOnWriteArrayList<>();
+    EventSubscriber<Integer> integerSubscriber =
+        event -> {
+          started.countDown();
+          try {
+            blocker.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          integers.add(event);
+        };
+    EventSubscriber<Long> longSubscriber =
+        event -> {
+          for (int i = 1; i <= 3; i++) {
+            bus.publish(i);
+          }
+          published.countDown();
+        };
+    bus.subscribeAsync(integerSubscriber, Integer.class, 1, OverflowPolicy.BLOCK);
+    bus.subscribeAsync(longSubscriber, Long.class, 1, OverflowPolicy.BLOCK);
+
+    bus.publish(0);
+    Assert.assertTrue(started.await(5, SECONDS));
+    bus.publish(0L);
+
+    // the long subscriber isn't blocked by the full queue of the integer subscriber
+    Assert.assertTrue(published.await(5, SECONDS));
+    SubscriberStats stats =
+        bus.getSubscriberStats()
+            .stream()
+            .filter(s -> s.getSubscriber().equals(integerSubscriber.toString()))
+            .findFirst()
+            .get();
+    Assert.assertEquals(stats.getQueueDepth(), 1);
+    Assert.assertEquals(stats.getDroppedEvents(), 2);
+
+    blocker.countDown();
+    bus.stop();
+    Assert.assertEquals(integers, asList(0, 1));
+  }
+
+  @Test
+  public void shouldNotDeliverEventsToUnsubscribedAsyncSubscriber() throws Exception {
+    AsyncListener listener = new AsyncListener(1);
+    bus.subscribe(listener);
+    bus.publish("hello");
+    Assert.assertTrue(listener.done.await(5, SECONDS));
+
+    bus.unsubscribe(listener);
+    bus.publish("bye");
+    bus.stop();
+
+    Assert.assertEquals(listener.events.size(), 1);
+    Assert.assertTrue(bus.getSubscriberStats().isEmpty());
+  }
+
+  @Test
+  public void shouldCollectStatisticsOfSynchronousSubscribers() throws Exception {
+    Listener listener = new Listener();
+    bus.subscribe(listener);
+
+    bus.publish("hello");
+    bus.publish("bye");
+
+    List<SubscriberStats> stats = bus.getSubscriberStats();
+    Assert.assertEquals(stats.size(), 1);
+    Assert.assertFalse(stats.get(0).isAsync());
+    Assert.assertEquals(stats.get(0).getHandledEvents(), 2);
+    Assert.assertEquals(stats.get(0).getQueueDepth(), 0);
+  }
+
+  @AsyncSubscriber
+  static class AsyncListener implements EventSubscriber<String> {
+    final List<String> events = new CopyOnWriteArrayList<>();
+    final List<Thread> threads = new CopyOnWriteArrayList<>();
+    final CountDownLatch done;
+
+    AsyncListener(int expectedEvents) {
+      done = new CountDownLatch(expectedEvents);
+    }
+
+    @Override
+    public void onEvent(String event) {
+      events.add(event);
+      threads.add(Thread.currentThread());
+      done.countDown();
+    }
+  }
+
   static class CustomEventSubscriber<T extends CustomEvent> implements EventSubscriber<T> {
     final List<String> events = new ArrayList<>();
 
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.util.lineconsumer;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import com.google.common.io.CharStreams;
+import java.io.File;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link RotatingFileLineConsumer} and {@link IndexedLogReader}. */
+public class RotatingFileLineConsumerTest {
+  private File dir;
+  private File file;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    dir = Files.createTempDirectory("rotating-logs-").toFile();
+    file = new File(dir, "machine.logs");
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    IoUtil.deleteRecursive(dir);
+  }
+
+  @Test
+  public void shouldBufferLinesUntilFlush() throws Exception {
+    try (RotatingFileLineConsumer consumer =
+        new RotatingFileLineConsumer(file, 0, 0, 0, 60_000)) {
+      consumer.writeLine("first");
+      consumer.writeLine("second");
+
+      assertEquals(file.length(), 0);
+
+      consumer.flush();
+
+      assertEquals(read(file), "first\nsecond\n");
+    }
+  }
+
+  @Test
+  public void shouldWriteEachLineWhenFlushPeriodIsZero() throws Exception {
+    try (RotatingFileLineConsumer consumer = new RotatingFileLineConsumer(file, 0, 0, 0, 0)) {
+      consumer.writeLine("first");
+
+      assertEquals(read(file), "first\n");
+    }
+  }
+
+  @Test
+  public void shouldRotateAndCompressFileWhenItExceedsMaxSize() throws Exception {
+    try (RotatingFileLineConsumer consumer = new RotatingFileLineConsumer(file, 20, 0, 5, 0)) {
+      for (String line : lines(0, 10)) {
+        consumer.writeLine(line);
+      }
+    }
+    File compressed = new File(dir, file.getName() + ".0.gz");
+    waitFor(compressed);
+
+    assertTrue(file.length() <= 20);
+    try (Reader reader = IndexedLogReader.openReader(file)) {
+      assertEquals(CharStreams.toString(reader), String.join("\n", lines(0, 10)) + '\n');
+    }
+  }
+
+  @Test
+  public void shouldKeepOnlyMaxRotatedFiles() throws Exception {
+    try (RotatingFileLineConsumer consumer = new RotatingFileLineConsumer(file, 10, 0, 2, 0)) {
+      for (String line : lines(0, 10)) {
+        consumer.writeLine(line);
+      }
+    }
+    waitFor(new File(dir, file.getName() + ".8.gz"));
+    waitForAbsence(new File(dir, file.getName() + ".6.gz"));
+
+    assertEquals(IndexedLogReader.listSegments(file).keySet(), asSet(7, 8));
+    assertEquals(IndexedLogReader.readLines(file, 0, 100), lines(7, 10));
+  }
+
+  @Test
+  public void shouldRemoveEntriesOfDeletedSegmentsFromIndex() throws Exception {
+    try (RotatingFileLineConsumer consumer =
+        new RotatingFileLineConsumer(file, 10, 0, 2, 0, 1)) {
+      for (String line : lines(0, 100)) {
+        consumer.writeLine(line);
+      }
+    }
+
+    // one entry of each of two rotated segments and of the active one
+    assertEquals(new File(dir, file.getName() + ".idx").length(), 3 * 20);
+    waitFor(new File(dir, file.getName() + ".98.gz"));
+    waitForAbsence(new File(dir, file.getName() + ".96.gz"));
+    assertEquals(IndexedLogReader.readLines(file, 0, 100), lines(97, 100));
+    assertEquals(IndexedLogReader.readLines(file, 1, 1), lines(98, 99));
+  }
+
+  @Test
+  public void shouldReadRangeOfLinesUsingIndex() throws Exception {
+    try (RotatingFileLineConsumer consumer =
+        new RotatingFileLineConsumer(file, 0, 0, 0, 0, 10)) {
+      for (String line : lines(0, 1000)) {
+        consumer.writeLine(line);
+      }
+
+      assertEquals(IndexedLogReader.readLines(file, 537, 5), lines(537, 542));
+      assertEquals(IndexedLogReader.readLines(file, 995, 10), lines(995, 1000));
+      assertEquals(IndexedLogReader.readLines(file, 1000, 10), emptyList());
+    }
+  }
+
+  @Test
+  public void shouldReadRangeOfLinesAcrossRotatedSegments() throws Exception {
+    try (RotatingFileLineConsumer consumer =
+        new RotatingFileLineConsumer(file, 100, 0, 100, 0, 3)) {
+      for (String line : lines(0, 100)) {
+        consumer.writeLine(line);
+      }
+    }
+
+    assertEquals(IndexedLogReader.readLines(file, 0, 3), lines(0, 3));
+    assertEquals(IndexedLogReader.readLines(file, 42, 20), lines(42, 62));
+    assertEquals(IndexedLogReader.readLines(file, 97, 20), lines(97, 100));
+  }
+
+  @Test
+  public void shouldReadLogWithoutIndexSequentially() throws Exception {
+    Files.write(file.toPath(), "a\nb\nc\nd".getBytes(Charset.defaultCharset()));
+
+    assertEquals(IndexedLogReader.readLines(file, 1, 5), asList("b", "c"));
+  }
+
+  @Test
+  public void shouldRemoveLogsOfPreviousRunOnCreation() throws Exception {
+    try (RotatingFileLineConsumer consumer = new RotatingFileLineConsumer(file, 10, 0, 5, 0)) {
+      for (String line : lines(0, 5)) {
+        consumer.writeLine(line);
+      }
+    }
+    waitFor(new File(dir, file.getName() + ".3.gz"));
+
+    try (RotatingFileLineConsumer consumer = new RotatingFileLineConsumer(file, 10, 0, 5, 0)) {
+      consumer.writeLine("new");
+
+      assertTrue(IndexedLogReader.listSegments(file).isEmpty());
+      assertEquals(IndexedLogReader.readLines(file, 0, 10), asList("new"));
+    }
+  }
+
+  private static List<String> lines(int from, int to) {
+    return IntStream.range(from, to).mapToObj(i -> "line " + i).collect(toList());
+  }
+
+  private static Set<Integer> asSet(Integer... values) {
+    return new HashSet<>(asList(values));
+  }
+
+  private static String read(File file) throws Exception {
+    return new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset());
+  }
+
+  private static void waitFor(File file) throws InterruptedException {
+    for (int i = 0; i < 100 && !file.exists(); i++) {
+      Thread.sleep(50);
+    }
+    assertTrue(file.exists(), "File " + file + " is not created");
+  }
+
+  private static void waitForAbsence(File file) throws InterruptedException {
+    for (int i = 0; i < 100 && file.exists(); i++) {
+      Thread.sleep(50);
+    }
+  }
+}
@@ -11,17 +11,23 @@
 package org.eclipse.che.api.core.websocket.impl;
 
 import static java.util.Collections.emptySet;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 import java.io.IOException;
 import java.util.Optional;
+import javax.websocket.CloseReason;
 import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
 import javax.websocket.Session;
-import org.mockito.InjectMocks;
+import org.eclipse.che.api.core.websocket.impl.BasicWebSocketMessageTransmitter.EndpointStats;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -40,26 +46,29 @@ public class BasicWebSocketMessageTransmitterTest {
 
   @Mock private WebSocketSessionRegistry registry;
   @Mock private MessagesReSender reSender;
-  @InjectMocks private BasicWebSocketMessageTransmitter transmitter;
 
   @Mock private Session session;
-  @Mock private RemoteEndpoint.Basic remote;
+  @Mock private RemoteEndpoint.Async remote;
+
+  private BasicWebSocketMessageTransmitter transmitter;
 
   @BeforeMethod
   public void setUp() throws Exception {
-    when(session.getBasicRemote()).thenReturn(remote);
+    when(session.getAsyncRemote()).thenReturn(remote);
     when(session.isOpen()).thenReturn(true);
 
     when(registry.get(ENDPOINT_ID)).thenReturn(Optional.of(session));
     when(registry.getSessions()).thenReturn(emptySet());
+
+    transmitter = new BasicWebSocketMessageTransmitter(registry, reSender, 3, 1000, "close");
   }
 
   @Test
   public void shouldSendDirectMessageIfSessionIsOpenAndEndpointIsSet() throws IOException {
     transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-    verify(session).getBasicRemote();
-    verify(remote).sendText(MESSAGE);
+    verify(session, never()).getBasicRemote();
+    verify(remote).sendText(eq(MESSAGE), any(SendHandler.class));
     verify(reSender, never()).add(eq(ENDPOINT_ID), anyString());
   }
 
@@ -69,8 +78,62 @@ public class BasicWebSocketMessageTransmitterTest {
 
     transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-    verify(session, never()).getBasicRemote();
-    verify(remote, never()).sendText(MESSAGE);
+    verify(session, never()).getAsyncRemote();
+    verify(remote, never()).sendText(eq(MESSAGE), any(SendHandler.class));
     verify(reSender).add(ENDPOINT_ID, MESSAGE);
   }
+
+  @Test
+  public void shouldSendMessagesQueuedWhileSendIsInFlightOnePerFrame() throws Exception {
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":1}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":2}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":3}");
+
+    ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+    verify(remote).sendText(eq("{\"id\":1}"), handler.capture());
+    verify(remote, never()).sendText(eq("{\"id\":2}"), any(SendHandler.class));
+    assertEquals(transmitter.getStats(ENDPOINT_ID).get().getQueueDepth(), 2);
+
+    handler.getValue().onResult(new SendResult());
+
+    verify(remote).sendText(eq("{\"id\":2}"), handler.capture());
+    verify(remote, never()).sendText(eq("{\"id\":3}"), any(SendHandler.class));
+
+    handler.getValue().onResult(new SendResult());
+
+    verify(remote).sendText(eq("{\"id\":3}"), any(SendHandler.class));
+    assertEquals(transmitter.getStats(ENDPOINT_ID).get().getSentMessages(), 2);
+    assertEquals(transmitter.getStats(ENDPOINT_ID).get().getQueueDepth(), 0);
+  }
+
+  @Test
+  public void shouldMoveOldestMessageToPendingWhenQueueIsFull() throws Exception {
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":1}");
+    for (int i = 2; i <= 5; i++) {
+      transmitter.transmit(ENDPOINT_ID, "{\"id\":" + i + "}");
+    }
+
+    verify(reSender).add(ENDPOINT_ID, "{\"id\":2}");
+    verify(reSender, never()).add(ENDPOINT_ID, "{\"id\":3}");
+    EndpointStats stats = transmitter.getStats(ENDPOINT_ID).get();
+    assertEquals(stats.getQueueDepth(), 3);
+    assertEquals(stats.getSpilledMessages(), 1);
+  }
+
+  @Test
+  public void shouldMoveMessagesToPendingAndCloseSessionOfSlowConsumer() throws Exception {
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":1}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":2}");
+    ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+    verify(remote).sendText(eq("{\"id\":1}"), handler.capture());
+
+    handler.getValue().onResult(new SendResult(new IOException("timeout")));
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":3}");
+
+    verify(reSender).add(ENDPOINT_ID, "{\"id\":1}");
+    verify(reSender).add(ENDPOINT_ID, "{\"id\":2}");
+    verify(reSender).add(ENDPOINT_ID, "{\"id\":3}");
+    verify(session).close(any(CloseReason.class));
+    assertEquals(transmitter.getStats(ENDPOINT_ID).get().getSpilledMessages(), 3);
+  }
 }
@@ -11,15 +11,14 @@
 package org.eclipse.che.api.core.websocket.impl;
 
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
-import javax.websocket.RemoteEndpoint;
 import javax.websocket.Session;
-import org.mockito.InjectMocks;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -37,21 +36,20 @@ public class MessagesReSenderTest {
   private static final String ENDPOINT_ID = "id";
 
   @Mock private WebSocketSessionRegistry sessionRegistry;
-  @InjectMocks private MessagesReSender reSender;
+  private MessagesReSender reSender;
 
   @Mock private Session session;
-  @Mock private RemoteEndpoint.Async endpoint;
+  @Mock private WebSocketMessageTransmitter transmitter;
 
   @BeforeMethod
   public void beforeMethod() {
     when(sessionRegistry.get(anyString())).thenReturn(Optional.of(session));
-    when(session.getAsyncRemote()).thenReturn(endpoint);
     when(session.isOpen()).thenReturn(true);
   }
 
   @BeforeMethod
   public void before() {
-    reSender = new MessagesReSender(sessionRegistry);
+    reSender = new MessagesReSender(sessionRegistry, () -> transmitter);
   }
 
   @Test
@@ -63,8 +61,7 @@ public class MessagesReSenderTest {
     reSender.resend(ENDPOINT_ID);
 
     verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session, never()).getAsyncRemote();
-    verify(endpoint, never()).sendText(MESSAGE);
+    verify(transmitter, never()).transmit(anyString(), eq(MESSAGE));
   }
 
   @Test
@@ -74,14 +71,26 @@ public class MessagesReSenderTest {
     when(session.isOpen()).thenReturn(false);
     reSender.resend(ENDPOINT_ID);
 
-    verify(session, never()).getAsyncRemote();
-    verify(endpoint, never()).sendText(MESSAGE);
+    verify(transmitter, never()).transmit(anyString(), eq(MESSAGE));
 
     when(session.isOpen()).thenReturn(true);
     reSender.resend(ENDPOINT_ID);
 
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+  }
+
+  @Test
+  public void shouldKeepOnlyLatestMessagesWhenCapacityIsExceeded() {
+    reSender = new MessagesReSender(sessionRegistry, () -> transmitter, 2);
+    reSender.add(ENDPOINT_ID, "first");
+    reSender.add(ENDPOINT_ID, "second");
+    reSender.add(ENDPOINT_ID, "third");
+
+    reSender.resend(ENDPOINT_ID);
+
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "first");
+    verify(transmitter).transmit(ENDPOINT_ID, "second");
+    verify(transmitter).transmit(ENDPOINT_ID, "third");
   }
 
   @Test
@@ -91,8 +100,7 @@ public class MessagesReSenderTest {
     reSender.resend(ENDPOINT_ID);
 
     verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
   }
 
   @Test
@@ -105,8 +113,8 @@ public class MessagesReSenderTest {
 
     verify(sessionRegistry).get(ENDPOINT_ID);
     verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    verify(transmitter).transmit("1", MESSAGE);
   }
 
   @Test
@@ -115,13 +123,11 @@ public class MessagesReSenderTest {
 
     reSender.resend(ENDPOINT_ID);
     verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
 
     reSender.resend(ENDPOINT_ID);
     verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
   }
 
   @Test
@@ -134,15 +140,15 @@ public class MessagesReSenderTest {
 
     verify(sessionRegistry).get(ENDPOINT_ID);
     verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    verify(transmitter).transmit("1", MESSAGE);
 
     reSender.resend(ENDPOINT_ID);
     reSender.resend("1");
 
     verify(sessionRegistry).get(ENDPOINT_ID);
     verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    verify(transmitter).transmit("1", MESSAGE);
   }
 }
@@ -10,6 +10,8 @@
 package org.eclipse.che.dto.generator;
 
 import com.google.common.primitives.Primitives;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -21,7 +23,10 @@ import java.util.Map;
 import java.util.Set;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
+import org.eclipse.che.dto.server.JsonStreamSerializable;
+import org.eclipse.che.dto.server.JsonStreams;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
+import org.eclipse.che.dto.shared.DTO;
 import org.eclipse.che.dto.shared.DTOImpl;
 import org.eclipse.che.dto.shared.DelegateRule;
 import org.eclipse.che.dto.shared.DelegateTo;
@@ -32,6 +37,9 @@ import org.eclipse.che.dto.shared.JsonStringMap;
 public class DtoImplServerTemplate extends DtoImpl {
   private static final String JSON_ARRAY_IMPL = JsonArrayImpl.class.getCanonicalName();
   private static final String JSON_MAP_IMPL = JsonStringMapImpl.class.getCanonicalName();
+  private static final String JSON_STREAMS = JsonStreams.class.getCanonicalName();
+  private static final String JSON_WRITER = JsonWriter.class.getCanonicalName();
+  private static final String JSON_READER = JsonReader.class.getCanonicalName();
   private static final String SERVER_DTO_MARKER =
       "  @" + DTOImpl.class.getCanonicalName() + "(\"server\")\n";
 
@@ -66,6 +74,8 @@ public class DtoImplServerTemplate extends DtoImpl {
     // equals, hashCode, serialization and copy constructor
     emitEqualsAndHashCode(methods, builder);
     emitSerializer(methods, builder);
+    emitStreamingSerializer(getters, superGetterNames, builder);
+    emitStreamingDeserializer(getters, superGetterNames, builder);
     emitDeserializer(methods, builder);
     emitDeserializerShortcut(builder);
     emitCopyConstructor(methods, builder);
@@ -349,6 +359,260 @@ public class DtoImplServerTemplate extends DtoImpl {
     builder.append("    }\n\n");
   }
 
+  /**
+   * Generates methods which write fields of DTO directly to {@link JsonWriter}. Fields are written
+   * in the same order and format as Gson writes them reflectively: fields of the class go first,
+   * then fields of the super class, null values are omitted and null lists and maps are written as
+   * empty ones.
+   */
+  private void emitStreamingSerializer(
+      List<Method> getters, Set<String> superGetterNames, StringBuilder builder) {
+    if (!hasSuperDtoImpl()) {
+      builder.append("    @Override\n");
+      builder.append("    public void writeJson(").append(JSON_WRITER).append(" out)\n");
+      builder.append("        throws java.io.IOException {\n");
+      builder.append("      out.beginObject();\n");
+      builder.append("      writeJsonFields(out);\n");
+      builder.append("      out.endObject();\n");
+      builder.append("    }\n\n");
+    }
+    builder.append("    protected void writeJsonFields(").append(JSON_WRITER).append(" out)\n");
+    builder.append("        throws java.io.IOException {\n");
+    for (Method getter : getters) {
+      if (superGetterNames.contains(getter.getName())) {
+        continue;
+      }
+      builder.append("      out.name(\"").append(getJsonFieldName(getter)).append("\");\n");
+      emitWriteValue(
+          getter.getGenericReturnType(),
+          "this." + getJavaFieldName(getter.getName()),
+          0,
+          "      ",
+          builder);
+    }
+    if (hasSuperDtoImpl()) {
+      builder.append("      super.writeJsonFields(out);\n");
+    }
+    builder.append("    }\n\n");
+  }
+
+  private void emitWriteValue(
+      Type type, String value, int depth, String i, StringBuilder builder) {
+    final Class<?> rawClass = getRawClass(type);
+    if (rawClass == boolean.class
+        || rawClass == int.class
+        || rawClass == long.class
+        || rawClass == short.class
+        || rawClass == byte.class
+        || rawClass == String.class) {
+      builder.append(i).append("out.value(").append(value).append(");\n");
+    } else if (isNumber(rawClass)) {
+      builder.append(i).append(JSON_STREAMS).append(".writeNumber(out, ");
+      builder.append(value).append(");\n");
+    } else if (rawClass == Boolean.class) {
+      builder.append(i).append(JSON_STREAMS).append(".writeBoolean(out, ");
+      builder.append(value).append(");\n");
+    } else if (isList(rawClass)) {
+      final Type itemType = ((ParameterizedType) type).getActualTypeArguments()[0];
+      final String item = "item" + depth;
+      builder.append(i).append("out.beginArray();\n");
+      builder.append(i).append("if (").append(value).append(" != null) {\n");
+      builder.append(i).append("  for (").append(getImplName(itemType, false)).append(" ");
+      builder.append(item).append(" : ").append(value).append(") {\n");
+      emitWriteValue(itemType, item, depth + 1, i + "    ", builder);
+      builder.append(i).append("  }\n");
+      builder.append(i).append("}\n");
+      builder.append(i).append("out.endArray();\n");
+    } else if (isStringMap(type)) {
+      final Type valueType = ((ParameterizedType) type).getActualTypeArguments()[1];
+      final String valueTypeName = getImplName(valueType, false);
+      final String entry = "entry" + depth;
+      builder.append(i).append("out.beginObject();\n");
+      builder.append(i).append("if (").append(value).append(" != null) {\n");
+      builder.append(i).append("  for (java.util.Map.Entry<String, ").append(valueTypeName);
+      builder.append("> ").append(entry).append(" : ").append(value).append(".entrySet()) {\n");
+      builder.append(i).append("    out.name(String.valueOf(").append(entry);
+      builder.append(".getKey()));\n");
+      emitWriteValue(valueType, entry + ".getValue()", depth + 1, i + "    ", builder);
+      builder.append(i).append("  }\n");
+      builder.append(i).append("}\n");
+      builder.append(i).append("out.endObject();\n");
+    } else if (rawClass.isAnnotationPresent(DTO.class)) {
+      builder.append(i).append(JSON_STREAMS).append(".writeDto(gson, out, ");
+      builder.append(value).append(");\n");
+    } else {
+      // enums, 'any' values and other types are written by gson
+      builder.append(i).append(JSON_STREAMS).append(".write(gson, out, ");
+      builder.append(value).append(");\n");
+    }
+  }
+
+  /**
+   * Generates methods which read fields of DTO directly from {@link JsonReader}. Values are
+   * converted in the same way as Gson does it, unknown fields are skipped.
+   */
+  private void emitStreamingDeserializer(
+      List<Method> getters, Set<String> superGetterNames, StringBuilder builder) {
+    if (!hasSuperDtoImpl()) {
+      builder.append("    @Override\n");
+      builder.append("    public void readJson(").append(JSON_READER).append(" in)\n");
+      builder.append("        throws java.io.IOException {\n");
+      builder.append("      in.beginObject();\n");
+      builder.append("      while (in.hasNext()) {\n");
+      builder.append("        if (!readJsonField(in.nextName(), in)) {\n");
+      builder.append("          in.skipValue();\n");
+      builder.append("        }\n");
+      builder.append("      }\n");
+      builder.append("      in.endObject();\n");
+      builder.append("    }\n\n");
+    }
+    builder.append("    protected boolean readJsonField(String name, ").append(JSON_READER);
+    builder.append(" in)\n");
+    builder.append("        throws java.io.IOException {\n");
+    builder.append("      switch (name) {\n");
+    for (Method getter : getters) {
+      if (superGetterNames.contains(getter.getName())) {
+        continue;
+      }
+      builder.append("        case \"").append(getJsonFieldName(getter)).append("\": {\n");
+      emitReadValue(
+          getter.getGenericReturnType(),
+          "this." + getJavaFieldName(getter.getName()),
+          0,
+          "          ",
+          builder);
+      builder.append("          return true;\n");
+      builder.append("        }\n");
+    }
+    builder.append("        default:\n");
+    if (hasSuperDtoImpl()) {
+      builder.append("          return super.readJsonField(name, in);\n");
+    } else {
+      builder.append("          return false;\n");
+    }
+    builder.append("      }\n");
+    builder.append("    }\n\n");
+  }
+
+  private void emitReadValue(
+      Type type, String target, int depth, String i, StringBuilder builder) {
+    final Class<?> rawClass = getRawClass(type);
+    if (rawClass.isPrimitive() && rawClass != char.class) {
+      // null doesn't change primitive field
+      final String boxed = Primitives.wrap(rawClass).getSimpleName();
+      final String value = "value" + depth;
+      builder.append(i).append(boxed).append(" ").append(value).append(" = ");
+      builder.append(JSON_STREAMS).append(".read").append(getReadMethodSuffix(rawClass));
+      builder.append("(in);\n");
+      builder.append(i).append("if (").append(value).append(" != null) {\n");
+      builder.append(i).append("  ").append(target).append(" = ").append(value).append(";\n");
+      builder.append(i).append("}\n");
+    } else if (rawClass == String.class
+        || (Primitives.isWrapperType(rawClass) && rawClass != Character.class)) {
+      builder.append(i).append(target).append(" = ").append(JSON_STREAMS).append(".read");
+      builder.append(getReadMethodSuffix(rawClass)).append("(in);\n");
+    } else if (isList(rawClass)) {
+      final Type itemType = ((ParameterizedType) type).getActualTypeArguments()[0];
+      final String itemTypeName = getImplName(itemType, false);
+      final String list = "list" + depth;
+      final String item = "item" + depth;
+      builder.append(i).append("if (").append(JSON_STREAMS).append(".nextNull(in)) {\n");
+      builder.append(i).append("  ").append(target).append(" = null;\n");
+      builder.append(i).append("} else {\n");
+      builder.append(i).append("  java.util.ArrayList<").append(itemTypeName).append("> ");
+      builder.append(list).append(" = new java.util.ArrayList<>();\n");
+      builder.append(i).append("  in.beginArray();\n");
+      builder.append(i).append("  while (in.hasNext()) {\n");
+      builder.append(i).append("    ").append(itemTypeName).append(" ").append(item);
+      builder.append(";\n");
+      emitReadValue(itemType, item, depth + 1, i + "    ", builder);
+      builder.append(i).append("    ").append(list).append(".add(").append(item);
+      builder.append(");\n");
+      builder.append(i).append("  }\n");
+      builder.append(i).append("  in.endArray();\n");
+      builder.append(i).append("  ").append(target).append(" = ").append(list).append(";\n");
+      builder.append(i).append("}\n");
+    } else if (isStringMap(type)) {
+      final Type valueType = ((ParameterizedType) type).getActualTypeArguments()[1];
+      final String valueTypeName = getImplName(valueType, false);
+      final String map = "map" + depth;
+      final String key = "key" + depth;
+      final String value = "value" + depth;
+      builder.append(i).append("if (").append(JSON_STREAMS).append(".nextNull(in)) {\n");
+      builder.append(i).append("  ").append(target).append(" = null;\n");
+      builder.append(i).append("} else {\n");
+      builder.append(i).append("  java.util.LinkedHashMap<String, ").append(valueTypeName);
+      builder.append("> ").append(map).append(" = new java.util.LinkedHashMap<>();\n");
+      builder.append(i).append("  in.beginObject();\n");
+      builder.append(i).append("  while (in.hasNext()) {\n");
+      builder.append(i).append("    String ").append(key).append(" = in.nextName();\n");
+      builder.append(i).append("    ").append(valueTypeName).append(" ").append(value);
+      builder.append(";\n");
+      emitReadValue(valueType, value, depth + 1, i + "    ", builder);
+      builder.append(i).append("    if (").append(map).append(".put(").append(key);
+      builder.append(", ").append(value).append(") != null) {\n");
+      builder.append(i).append("      throw new com.google.gson.JsonSyntaxException(");
+      builder.append("\"duplicate key: \" + ").append(key).append(");\n");
+      builder.append(i).append("    }\n");
+      builder.append(i).append("  }\n");
+      builder.append(i).append("  in.endObject();\n");
+      builder.append(i).append("  ").append(target).append(" = ").append(map).append(";\n");
+      builder.append(i).append("}\n");
+    } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+      final String implName = getImplNameForDto(rawClass);
+      final String dto = "dto" + depth;
+      builder.append(i).append("if (").append(JSON_STREAMS).append(".nextNull(in)) {\n");
+      builder.append(i).append("  ").append(target).append(" = null;\n");
+      builder.append(i).append("} else {\n");
+      builder.append(i).append("  ").append(implName).append(" ").append(dto);
+      builder.append(" = new ").append(implName).append("();\n");
+      builder.append(i).append("  ").append(dto).append(".readJson(in);\n");
+      builder.append(i).append("  ").append(target).append(" = ").append(dto).append(";\n");
+      builder.append(i).append("}\n");
+    } else {
+      // DTOs of other modules, enums, 'any' values and other types are read by gson
+      final String value = "value" + depth;
+      final String typeName = getImplName(type, false);
+      final String boxedTypeName =
+          rawClass.isPrimitive() ? Primitives.wrap(rawClass).getCanonicalName() : typeName;
+      builder.append(i).append(boxedTypeName).append(" ").append(value).append(" = ");
+      builder.append(JSON_STREAMS).append(".read(gson, in, ");
+      if (type instanceof ParameterizedType) {
+        builder.append("new com.google.gson.reflect.TypeToken<").append(typeName);
+        builder.append(">() {}.getType()");
+      } else {
+        builder.append(typeName).append(".class");
+      }
+      builder.append(");\n");
+      if (rawClass.isPrimitive()) {
+        builder.append(i).append("if (").append(value).append(" != null) {\n");
+        builder.append(i).append("  ").append(target).append(" = ").append(value);
+        builder.append(";\n");
+        builder.append(i).append("}\n");
+      } else {
+        builder.append(i).append(target).append(" = ").append(value).append(";\n");
+      }
+    }
+  }
+
+  private static String getReadMethodSuffix(Class<?> type) {
+    final Class<?> wrapperType = Primitives.wrap(type);
+    return wrapperType == String.class ? "String" : wrapperType.getSimpleName();
+  }
+
+  /** Tests whether or not a given type is a java.util.Map with String keys. */
+  private static boolean isStringMap(Type type) {
+    return isMap(getRawClass(type))
+        && type instanceof ParameterizedType
+        && ((ParameterizedType) type).getActualTypeArguments()[0] == String.class;
+  }
+
+  /** Returns true when the generated implementation extends implementation of super DTO. */
+  private boolean hasSuperDtoImpl() {
+    final Class<?> superType = getSuperDtoInterface(getDtoInterface());
+    return superType != null && superType != JsonSerializable.class;
+  }
+
   /** Generates a static factory method that creates a new instance based on a JsonElement. */
   private void emitDeserializer(List<Method> getters, StringBuilder builder) {
     // The default fromJsonElement(json) works in unsafe mode and clones the JSON's for 'any'
@@ -404,7 +668,7 @@ public class DtoImplServerTemplate extends DtoImpl {
     }
     builder.append(" implements ");
     builder.append(dtoInterface.getCanonicalName());
-    builder.append(", JsonSerializable ");
+    builder.append(", JsonSerializable, ").append(JsonStreamSerializable.class.getCanonicalName());
     builder.append(" {\n\n");
     emitFactoryMethod(builder);
     emitDefaultConstructor(builder);
@@ -29,6 +29,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collection;
@@ -86,6 +87,16 @@ public final class DtoFactory {
     return dtoGson;
   }
 
+  /**
+   * Get a {@link Gson} serializer that serializes/deserializes DTOs reflectively, ignoring
+   * generated {@link JsonStreamSerializable} implementations.
+   *
+   * @return A Gson.
+   */
+  public Gson getReflectiveGson() {
+    return reflectiveDtoGson;
+  }
+
   /**
    * Creates new instance of class which implements specified DTO interface.
    *
@@ -101,6 +112,14 @@ public final class DtoFactory {
   // It helps avoid reflection when need create copy of exited DTO instance.
   private final Map<Class<?>, DtoProvider<?>> dtoImpl2Providers = new ConcurrentHashMap<>();
   private final Gson dtoGson =
+      new GsonBuilder()
+          .registerTypeAdapterFactory(
+              new NullAsEmptyTAF<>(Collection.class, Collections.emptyList()))
+          .registerTypeAdapterFactory(new NullAsEmptyTAF<>(Map.class, Collections.emptyMap()))
+          .registerTypeAdapterFactory(new DtoInterfaceTAF())
+          .registerTypeAdapterFactory(new JsonStreamSerializableTAF())
+          .create();
+  private final Gson reflectiveDtoGson =
       new GsonBuilder()
           .registerTypeAdapterFactory(
               new NullAsEmptyTAF<>(Collection.class, Collections.emptyList()))
@@ -447,6 +466,53 @@ public final class DtoFactory {
     }
   }
 
+  /**
+   * Serializes implementations of DTO interfaces which implement {@link JsonStreamSerializable}
+   * with their generated streaming code instead of Gson's reflective adapter.
+   */
+  private class JsonStreamSerializableTAF implements TypeAdapterFactory {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      final Class<? super T> implClass = type.getRawType();
+      if (!JsonStreamSerializable.class.isAssignableFrom(implClass)
+          || Modifier.isAbstract(implClass.getModifiers())) {
+        return null;
+      }
+      return new TypeAdapter<T>() {
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+          if (value == null) {
+            out.nullValue();
+          } else {
+            ((JsonStreamSerializable) value).writeJson(out);
+          }
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+          if (JsonStreams.nextNull(in)) {
+            return null;
+          }
+          final JsonStreamSerializable dto = newInstance(implClass);
+          dto.readJson(in);
+          return (T) dto;
+        }
+      };
+    }
+
+    private JsonStreamSerializable newInstance(Class<?> implClass) {
+      final DtoProvider<?> provider = dtoImpl2Providers.get(implClass);
+      try {
+        return (JsonStreamSerializable)
+            (provider != null ? provider.newInstance() : implClass.newInstance());
+      } catch (ReflectiveOperationException e) {
+        throw new JsonSyntaxException(
+            format("Unable to create instance of DTO implementation '%s'", implClass), e);
+      }
+    }
+  }
+
   /**
    * Wraps Gson's default List/Map adapter factories serialize null List/Map fields as empty
    * instead.
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * DTO implementation which writes itself to and reads itself from JSON streams directly, without
+ * reflection. Implementations are generated by DTO generator, {@link DtoFactory} uses them for
+ * serialization of DTOs, reflective Gson serialization remains available through {@link
+ * DtoFactory#getReflectiveGson()}.
+ */
+public interface JsonStreamSerializable {
+
+  /** Writes this DTO as JSON object, result is the same as of reflective Gson serialization. */
+  void writeJson(JsonWriter out) throws IOException;
+
+  /** Reads fields of this DTO from the JSON object which is the next value of the reader. */
+  void readJson(JsonReader in) throws IOException;
+}
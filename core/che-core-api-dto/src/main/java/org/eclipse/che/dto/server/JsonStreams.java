@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Helpers used by generated {@link JsonStreamSerializable} implementations. Values are read and
+ * written in the same way as Gson's built-in type adapters do it, so the generated serialization
+ * is interchangeable with the reflective one.
+ */
+public final class JsonStreams {
+
+  /** Writes number value, Gson doesn't allow NaN and infinite values by default. */
+  public static void writeNumber(JsonWriter out, Number value) throws IOException {
+    if (value == null) {
+      out.nullValue();
+      return;
+    }
+    if (value instanceof Double || value instanceof Float) {
+      final double doubleValue = value.doubleValue();
+      if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+        throw new IllegalArgumentException(
+            value + " is not a valid double value as per JSON specification.");
+      }
+    }
+    out.value(value);
+  }
+
+  /** Writes boolean value. */
+  public static void writeBoolean(JsonWriter out, Boolean value) throws IOException {
+    if (value == null) {
+      out.nullValue();
+    } else {
+      out.value(value.booleanValue());
+    }
+  }
+
+  /** Writes DTO value, DTOs which can't write themselves are written by Gson. */
+  public static void writeDto(Gson gson, JsonWriter out, Object value) throws IOException {
+    if (value instanceof JsonStreamSerializable) {
+      ((JsonStreamSerializable) value).writeJson(out);
+    } else {
+      write(gson, out, value);
+    }
+  }
+
+  /** Writes value of any type with Gson's adapter for its runtime type. */
+  @SuppressWarnings("unchecked")
+  public static void write(Gson gson, JsonWriter out, Object value) throws IOException {
+    if (value == null) {
+      out.nullValue();
+    } else {
+      ((TypeAdapter<Object>) gson.getAdapter(value.getClass())).write(out, value);
+    }
+  }
+
+  /** Reads value of given type with Gson's adapter. */
+  public static <T> T read(Gson gson, JsonReader in, Type type) throws IOException {
+    @SuppressWarnings("unchecked")
+    final TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(type));
+    return adapter.read(in);
+  }
+
+  /** Returns true and consumes the next value if it is JSON null. */
+  public static boolean nextNull(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return true;
+    }
+    return false;
+  }
+
+  public static String readString(JsonReader in) throws IOException {
+    final JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    if (token == JsonToken.BOOLEAN) {
+      return Boolean.toString(in.nextBoolean());
+    }
+    return in.nextString();
+  }
+
+  public static Boolean readBoolean(JsonReader in) throws IOException {
+    final JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    if (token == JsonToken.STRING) {
+      return Boolean.parseBoolean(in.nextString());
+    }
+    return in.nextBoolean();
+  }
+
+  public static Integer readInteger(JsonReader in) throws IOException {
+    if (nextNull(in)) {
+      return null;
+    }
+    try {
+      return in.nextInt();
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  public static Short readShort(JsonReader in) throws IOException {
+    final Integer value = readInteger(in);
+    return value == null ? null : value.shortValue();
+  }
+
+  public static Byte readByte(JsonReader in) throws IOException {
+    final Integer value = readInteger(in);
+    return value == null ? null : value.byteValue();
+  }
+
+  public static Long readLong(JsonReader in) throws IOException {
+    if (nextNull(in)) {
+      return null;
+    }
+    try {
+      return in.nextLong();
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  public static Double readDouble(JsonReader in) throws IOException {
+    if (nextNull(in)) {
+      return null;
+    }
+    return in.nextDouble();
+  }
+
+  public static Float readFloat(JsonReader in) throws IOException {
+    if (nextNull(in)) {
+      return null;
+    }
+    return (float) in.nextDouble();
+  }
+
+  private JsonStreams() {}
+}
@@ -35,6 +35,7 @@ import org.eclipse.che.dto.definitions.model.Model;
 import org.eclipse.che.dto.definitions.model.ModelComponentDto;
 import org.eclipse.che.dto.definitions.model.ModelDto;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonStreamSerializable;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -448,4 +449,66 @@ public class ServerDtoTest {
   public void shouldThrowExceptionWhenInterfaceIsNotAnnotatedAsDto() {
     DtoFactory.newDto(DTOHierarchy.GrandchildWithoutDto.class);
   }
+
+  @Test
+  public void shouldSerializeDtoByGeneratedCodeSameAsGsonDoesReflectively() {
+    final Map<String, SimpleDto> map = new HashMap<>();
+    map.put("first", dtoFactory.createDto(SimpleDto.class).withName("<first>").withId(1));
+    map.put("second", null);
+    final ComplicatedDto dto =
+        dtoFactory
+            .createDto(ComplicatedDto.class)
+            .withStrings(asList("a", null, "b&c"))
+            .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+            .withMap(map)
+            .withArrayOfArrayOfEnum(
+                asList(asList(ComplicatedDto.SimpleEnum.ONE, ComplicatedDto.SimpleEnum.THREE)));
+
+    assertTrue(dto instanceof JsonStreamSerializable);
+    assertEquals(dtoFactory.toJson(dto), dtoFactory.getReflectiveGson().toJson(dto));
+  }
+
+  @Test
+  public void shouldSerializeDtoHierarchyByGeneratedCodeSameAsGsonDoesReflectively() {
+    final GrandchildDto dto = dtoFactory.createDto(GrandchildDto.class);
+    dto.setShadowedField(dtoFactory.createDto(GrandchildDto.class).withDtoField("nested"));
+    dto.setParentField("parent");
+    dto.setChildField("child");
+
+    assertEquals(dtoFactory.toJson(dto), dtoFactory.getReflectiveGson().toJson(dto));
+  }
+
+  @Test
+  public void shouldDeserializeDtoByGeneratedCodeSameAsGsonDoesReflectively() {
+    final String json =
+        "{\"strings\":[\"a\",null],\"unknown\":{\"x\":[1,2]},\"simpleEnum\":\"THREE\","
+            + "\"map\":{\"first\":{\"name\":\"first\",\"id\":\"10\",\"default\":true}},"
+            + "\"simpleDtos\":null,\"arrayOfArrayOfEnum\":[[\"ONE\"],[]]}";
+
+    final ComplicatedDto dto = dtoFactory.createDtoFromJson(json, ComplicatedDto.class);
+
+    assertEquals(
+        dto, dtoFactory.getReflectiveGson().fromJson(json, dto.getClass()), dto.toString());
+    assertEquals(dto.getMap().get("first").getId(), 10);
+    assertEquals(dto.getMap().get("first").getDefault(), "true");
+  }
+
+  @Test
+  public void shouldDeserializeDtoWithAnyByGeneratedCode() {
+    final DtoWithAny dto =
+        dtoFactory
+            .createDto(DtoWithAny.class)
+            .withStuff(createTestValueForAny())
+            .withObjects(createListTestValueForAny());
+
+    final Gson reflectiveGson = dtoFactory.getReflectiveGson();
+    final String json = dtoFactory.toJson(dto);
+
+    final DtoWithAny copy = dtoFactory.createDtoFromJson(json, DtoWithAny.class);
+
+    assertEquals(json, reflectiveGson.toJson(dto));
+    assertEquals(
+        dtoFactory.toJson(copy),
+        reflectiveGson.toJson(reflectiveGson.fromJson(json, dto.getClass())));
+  }
 }
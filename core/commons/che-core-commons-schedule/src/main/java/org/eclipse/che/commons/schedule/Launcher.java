@@ -24,6 +24,15 @@ public interface Launcher {
    */
   void scheduleCron(Runnable runnable, String cron);
 
+  /**
+   * Same as {@link #scheduleCron(Runnable, String)} but uses the given policy when the execution
+   * becomes due while the previous one is still running. Launchers which never start an execution
+   * until the previous one is finished ignore the policy.
+   */
+  default void scheduleCron(Runnable runnable, String cron, OverrunPolicy overrunPolicy) {
+    scheduleCron(runnable, cron);
+  }
+
   /**
    * Execute periodic action that becomes enabled first after the given initial delay, and
    * subsequently with the given delay between the termination of one execution and the commencement
@@ -49,4 +58,18 @@ public interface Launcher {
    * java.util.concurrent.TimeUnit)} }
    */
   void scheduleAtFixedRate(Runnable runnable, long initialDelay, long period, TimeUnit unit);
+
+  /**
+   * Same as {@link #scheduleAtFixedRate(Runnable, long, long, TimeUnit)} but uses the given policy
+   * when the execution becomes due while the previous one is still running. Launchers which never
+   * start an execution until the previous one is finished ignore the policy.
+   */
+  default void scheduleAtFixedRate(
+      Runnable runnable,
+      long initialDelay,
+      long period,
+      TimeUnit unit,
+      OverrunPolicy overrunPolicy) {
+    scheduleAtFixedRate(runnable, initialDelay, period, unit);
+  }
 }
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.commons.schedule;
+
+/**
+ * Defines what happens with the execution of a periodic action which becomes due while the
+ * previous execution of the same action is still running.
+ *
+ * @see ScheduleRate#overrun()
+ * @see ScheduleCron#overrun()
+ */
+public enum OverrunPolicy {
+  /** The execution is skipped, the action is executed next time according to its schedule. */
+  SKIP,
+
+  /**
+   * The execution is postponed until the previous execution is finished, all executions which
+   * became due meanwhile are coalesced into a single one.
+   */
+  COALESCE
+}
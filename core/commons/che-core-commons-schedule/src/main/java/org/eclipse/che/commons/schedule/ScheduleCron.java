@@ -28,4 +28,11 @@ public @interface ScheduleCron {
 
   /** @return name of guice parameter with cron expression. */
   String cronParameterName() default "";
+
+  /**
+   * @return what to do when the next execution is due while the previous one is still running,
+   *     supported by launchers which can execute actions concurrently, e.g. {@link
+   *     org.eclipse.che.commons.schedule.executor.TimingWheelLauncher}
+   */
+  OverrunPolicy overrun() default OverrunPolicy.COALESCE;
 }
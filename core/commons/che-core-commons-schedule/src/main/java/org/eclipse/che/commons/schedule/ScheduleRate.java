@@ -51,4 +51,11 @@ public @interface ScheduleRate {
    *     the scheduling of the method.
    */
   String periodParameterName() default "";
+
+  /**
+   * @return what to do when the next execution is due while the previous one is still running,
+   *     supported by launchers which can execute actions concurrently, e.g. {@link
+   *     org.eclipse.che.commons.schedule.executor.TimingWheelLauncher}
+   */
+  OverrunPolicy overrun() default OverrunPolicy.COALESCE;
 }
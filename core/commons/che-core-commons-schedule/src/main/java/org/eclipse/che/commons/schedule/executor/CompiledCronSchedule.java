@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.commons.schedule.executor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Schedule of the {@link CronExpression} compiled to bit masks of allowed seconds, minutes, hours,
+ * days and months.
+ *
+ * <p>Unlike {@link CronExpression#getTimeAfter(Date)} which walks a new calendar through sorted
+ * sets of values on each call, the next fire time is found by looking up the next set bit of the
+ * masks. Expressions with the last day ({@code L}), nearest weekday ({@code W}) and n-th day of
+ * week ({@code #}) are not compiled, their fire times are delegated to the expression.
+ */
+final class CompiledCronSchedule {
+  private final CronExpression expression;
+  private final ZoneId zone;
+  private final boolean compiled;
+  private final long seconds;
+  private final long minutes;
+  private final long hours;
+  private final long daysOfMonth;
+  private final long months;
+  private final long daysOfWeek;
+  private final boolean dayOfMonthSpecified;
+  private final TreeSet<Integer> years;
+
+  CompiledCronSchedule(CronExpression expression) {
+    this.expression = expression;
+    this.zone = expression.getTimeZone().toZoneId();
+    this.compiled =
+        !expression.lastdayOfMonth
+            && !expression.nearestWeekday
+            && !expression.lastdayOfWeek
+            && expression.nthdayOfWeek == 0;
+    this.seconds = toMask(expression.seconds, 0, 59);
+    this.minutes = toMask(expression.minutes, 0, 59);
+    this.hours = toMask(expression.hours, 0, 23);
+    this.daysOfMonth = toMask(expression.daysOfMonth, 1, 31);
+    this.months = toMask(expression.months, 1, 12);
+    this.daysOfWeek = toMask(expression.daysOfWeek, 1, 7);
+    this.dayOfMonthSpecified = !expression.daysOfMonth.contains(CronExpression.NO_SPEC);
+    this.years = new TreeSet<>(expression.years);
+  }
+
+  /**
+   * Returns the next time after the given one when the expression is satisfied.
+   *
+   * @param timeMs time in milliseconds since the epoch
+   * @return time in milliseconds since the epoch or -1 if the expression is never satisfied after
+   *     the given time
+   */
+  long getTimeAfter(long timeMs) {
+    if (!compiled) {
+      Date time = expression.getTimeAfter(new Date(timeMs));
+      return time == null ? -1 : time.getTime();
+    }
+    LocalDateTime time =
+        LocalDateTime.ofInstant(Instant.ofEpochMilli(timeMs), zone).withNano(0).plusSeconds(1);
+    while (true) {
+      Integer year = years.ceiling(time.getYear());
+      if (year == null) {
+        return -1;
+      }
+      if (year != time.getYear()) {
+        time = LocalDateTime.of(year, 1, 1, 0, 0);
+      }
+
+      int month = nextBit(months, time.getMonthValue());
+      if (month < 0) {
+        time = LocalDateTime.of(time.getYear() + 1, 1, 1, 0, 0);
+        continue;
+      }
+      if (month != time.getMonthValue()) {
+        time = LocalDateTime.of(time.getYear(), month, 1, 0, 0);
+      }
+
+      if (!isDaySatisfied(time.toLocalDate())) {
+        time = time.toLocalDate().plusDays(1).atStartOfDay();
+        continue;
+      }
+
+      int hour = nextBit(hours, time.getHour());
+      if (hour < 0) {
+        time = time.toLocalDate().plusDays(1).atStartOfDay();
+        continue;
+      }
+      if (hour != time.getHour()) {
+        time = time.withHour(hour).withMinute(0).withSecond(0);
+      }
+
+      int minute = nextBit(minutes, time.getMinute());
+      if (minute < 0) {
+        time = time.withMinute(0).withSecond(0).plusHours(1);
+        continue;
+      }
+      if (minute != time.getMinute()) {
+        time = time.withMinute(minute).withSecond(0);
+      }
+
+      int second = nextBit(seconds, time.getSecond());
+      if (second < 0) {
+        time = time.withSecond(0).plusMinutes(1);
+        continue;
+      }
+      time = time.withSecond(second);
+
+      // local time may be shifted back by daylight saving time transition
+      long result = time.atZone(zone).toInstant().toEpochMilli();
+      if (result > timeMs) {
+        return result;
+      }
+      time = time.plusSeconds(1);
+    }
+  }
+
+  /** Returns true if the expression was compiled, false if it is evaluated by the expression. */
+  boolean isCompiled() {
+    return compiled;
+  }
+
+  @Override
+  public String toString() {
+    return expression.getCronExpression();
+  }
+
+  private boolean isDaySatisfied(LocalDate date) {
+    if (dayOfMonthSpecified) {
+      return (daysOfMonth & (1L << date.getDayOfMonth())) != 0;
+    }
+    // cron days of week start with sunday which is 1
+    return (daysOfWeek & (1L << (date.getDayOfWeek().getValue() % 7 + 1))) != 0;
+  }
+
+  /** Returns the lowest set bit of the mask which is not lower than the given one or -1. */
+  private static int nextBit(long mask, int from) {
+    long bits = mask & (-1L << from);
+    return bits == 0 ? -1 : Long.numberOfTrailingZeros(bits);
+  }
+
+  /** Converts set of values to bit mask, the special values such as '*' marker are skipped. */
+  private static long toMask(Set<Integer> values, int min, int max) {
+    long mask = 0;
+    for (int value : values) {
+      if (value >= min && value <= max) {
+        mask |= 1L << value;
+      }
+    }
+    return mask;
+  }
+}
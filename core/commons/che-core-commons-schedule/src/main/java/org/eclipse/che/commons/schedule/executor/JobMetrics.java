@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.commons.schedule.executor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe metrics of a periodic job launched by {@link TimingWheelLauncher}.
+ *
+ * <p>Lag is the time between the moment when the execution became due and the moment it was
+ * actually started, it grows when the job overruns its schedule or the launcher is overloaded.
+ */
+public class JobMetrics {
+  private final String name;
+  private final LongAdder executions = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder totalDuration = new LongAdder();
+  private final AtomicLong lastDuration = new AtomicLong();
+  private final LongAccumulator maxDuration = new LongAccumulator(Math::max, 0);
+  private final AtomicLong lastLag = new AtomicLong();
+  private final LongAccumulator maxLag = new LongAccumulator(Math::max, 0);
+
+  JobMetrics(String name) {
+    this.name = name;
+  }
+
+  /** Returns the name of the job. */
+  public String getName() {
+    return name;
+  }
+
+  /** Returns the number of finished executions including the failed ones. */
+  public long getExecutions() {
+    return executions.sum();
+  }
+
+  /** Returns the number of executions which threw an exception. */
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  /** Returns the number of executions skipped because the previous one was still running. */
+  public long getSkipped() {
+    return skipped.sum();
+  }
+
+  /** Returns the number of executions coalesced with another one. */
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  /** Returns the total duration of the finished executions in milliseconds. */
+  public long getTotalDurationMs() {
+    return totalDuration.sum();
+  }
+
+  /** Returns the duration of the last finished execution in milliseconds. */
+  public long getLastDurationMs() {
+    return lastDuration.get();
+  }
+
+  /** Returns the duration of the longest execution in milliseconds. */
+  public long getMaxDurationMs() {
+    return maxDuration.get();
+  }
+
+  /** Returns the lag of the last started execution in milliseconds. */
+  public long getLastLagMs() {
+    return lastLag.get();
+  }
+
+  /** Returns the maximal lag of the started executions in milliseconds. */
+  public long getMaxLagMs() {
+    return maxLag.get();
+  }
+
+  void recordLag(long lagMs) {
+    lastLag.set(lagMs);
+    maxLag.accumulate(lagMs);
+  }
+
+  void recordExecution(long durationMs, boolean failed) {
+    executions.increment();
+    if (failed) {
+      failures.increment();
+    }
+    totalDuration.add(durationMs);
+    lastDuration.set(durationMs);
+    maxDuration.accumulate(durationMs);
+  }
+
+  void recordSkipped() {
+    skipped.increment();
+  }
+
+  void recordCoalesced() {
+    coalesced.increment();
+  }
+
+  @Override
+  public String toString() {
+    return "JobMetrics{"
+        + "name='"
+        + name
+        + '\''
+        + ", executions="
+        + getExecutions()
+        + ", failures="
+        + getFailures()
+        + ", skipped="
+        + getSkipped()
+        + ", coalesced="
+        + getCoalesced()
+        + ", totalDurationMs="
+        + getTotalDurationMs()
+        + ", maxDurationMs="
+        + getMaxDurationMs()
+        + ", maxLagMs="
+        + getMaxLagMs()
+        + '}';
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.commons.schedule.executor;
+
+import com.google.inject.Injector;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import org.eclipse.che.commons.schedule.Launcher;
+import org.eclipse.che.inject.ConfigurationException;
+
+/**
+ * Provides {@link Launcher} configured by {@code schedule.launcher} property, it is either {@code
+ * thread_pool} for {@link ThreadPullLauncher} which is used by default or {@code timing_wheel} for
+ * {@link TimingWheelLauncher}.
+ */
+@Singleton
+public class LauncherProvider implements Provider<Launcher> {
+  public static final String THREAD_POOL = "thread_pool";
+  public static final String TIMING_WHEEL = "timing_wheel";
+
+  @com.google.inject.Inject(optional = true)
+  @Named("schedule.launcher")
+  private String launcher = THREAD_POOL;
+
+  private final Injector injector;
+
+  @Inject
+  public LauncherProvider(Injector injector) {
+    this.injector = injector;
+  }
+
+  @Override
+  public Launcher get() {
+    switch (launcher) {
+      case THREAD_POOL:
+        return injector.getInstance(ThreadPullLauncher.class);
+      case TIMING_WHEEL:
+        return injector.getInstance(TimingWheelLauncher.class);
+      default:
+        throw new ConfigurationException("Unknown schedule launcher " + launcher);
+    }
+  }
+}
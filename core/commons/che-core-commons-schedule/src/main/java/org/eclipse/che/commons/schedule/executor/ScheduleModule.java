@@ -23,7 +23,7 @@ import org.eclipse.che.inject.lifecycle.InternalScheduleModule;
 public class ScheduleModule implements Module {
   @Override
   public void configure(Binder binder) {
-    binder.bind(Launcher.class).to(ThreadPullLauncher.class).asEagerSingleton();
+    binder.bind(Launcher.class).toProvider(LauncherProvider.class).asEagerSingleton();
     binder.install(new InternalScheduleModule());
   }
 }
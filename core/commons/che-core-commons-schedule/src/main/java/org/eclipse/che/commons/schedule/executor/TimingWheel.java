@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.commons.schedule.executor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hierarchical timing wheel.
+ *
+ * <p>The wheel is an array of buckets, each bucket keeps the elements which become due during one
+ * tick. Elements which are due later than the wheel can cover are kept by the overflow wheel whose
+ * tick is the whole interval of this wheel. When the overflow wheel moves to its next bucket the
+ * elements of the bucket are moved down to this wheel, so adding an element as well as advancing
+ * the wheel by one tick cost O(1) regardless of the number of elements and of their due times.
+ *
+ * <p>Due times are rounded up to the tick, so an element is never returned before it is due and is
+ * returned at most one tick later than it is due.
+ *
+ * <p>The wheel is not thread safe, it is expected to be owned by a single timer thread.
+ */
+class TimingWheel<T> {
+  private final long baseTickMs;
+  private final long tickMs;
+  private final int wheelSize;
+  private final long intervalMs;
+  private final ToLongFunction<T> dueTime;
+  private final Deque<T>[] buckets;
+
+  private long currentTime;
+  private TimingWheel<T> overflowWheel;
+
+  /**
+   * @param tickMs duration of one tick of the wheel in milliseconds
+   * @param wheelSize number of buckets in the wheel
+   * @param startMs time from which wheel starts, it is truncated to the tick
+   * @param dueTime returns the time in milliseconds when the element becomes due
+   */
+  TimingWheel(long tickMs, int wheelSize, long startMs, ToLongFunction<T> dueTime) {
+    this(tickMs, tickMs, wheelSize, startMs, dueTime);
+  }
+
+  @SuppressWarnings("unchecked")
+  private TimingWheel(
+      long baseTickMs, long tickMs, int wheelSize, long startMs, ToLongFunction<T> dueTime) {
+    this.baseTickMs = baseTickMs;
+    this.tickMs = tickMs;
+    this.wheelSize = wheelSize;
+    this.intervalMs = tickMs * wheelSize;
+    this.dueTime = dueTime;
+    this.currentTime = startMs - startMs % tickMs;
+    this.buckets = new Deque[wheelSize];
+    for (int i = 0; i < wheelSize; i++) {
+      buckets[i] = new ArrayDeque<>();
+    }
+  }
+
+  /**
+   * Adds element to the wheel.
+   *
+   * @return false if the element is already due and was not added, true otherwise
+   */
+  boolean add(T element) {
+    long due = roundUp(dueTime.applyAsLong(element));
+    if (due < currentTime + tickMs) {
+      return false;
+    }
+    if (due < currentTime + intervalMs) {
+      buckets[(int) ((due / tickMs) % wheelSize)].add(element);
+      return true;
+    }
+    if (overflowWheel == null) {
+      overflowWheel = new TimingWheel<>(baseTickMs, intervalMs, wheelSize, currentTime, dueTime);
+    }
+    return overflowWheel.add(element);
+  }
+
+  /**
+   * Moves the wheel to the given time and passes the elements which became due to the consumer.
+   */
+  void advance(long timeMs, Consumer<T> dueElements) {
+    while (currentTime + tickMs <= timeMs) {
+      currentTime += tickMs;
+      if (overflowWheel != null) {
+        overflowWheel.advance(currentTime, element -> addOrAccept(element, dueElements));
+      }
+      Deque<T> bucket = buckets[(int) ((currentTime / tickMs) % wheelSize)];
+      for (T element = bucket.poll(); element != null; element = bucket.poll()) {
+        addOrAccept(element, dueElements);
+      }
+    }
+  }
+
+  /** Returns the time to which the wheel is advanced. */
+  long getCurrentTime() {
+    return currentTime;
+  }
+
+  private void addOrAccept(T element, Consumer<T> dueElements) {
+    if (!add(element)) {
+      dueElements.accept(element);
+    }
+  }
+
+  /** Rounds the time up to the tick of the lowest wheel, so all the wheels agree on it. */
+  private long roundUp(long timeMs) {
+    long remainder = timeMs % baseTickMs;
+    return remainder == 0 ? timeMs : timeMs - remainder + baseTickMs;
+  }
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.commons.schedule.executor;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.commons.schedule.Launcher;
+import org.eclipse.che.commons.schedule.OverrunPolicy;
+import org.eclipse.che.inject.ConfigurationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Execute method marked with @ScheduleCron @ScheduleDelay and @ScheduleRate annotations using
+ * hierarchical timing wheel.
+ *
+ * <p>Single timer thread advances the {@link TimingWheel} and hands the jobs which became due to
+ * the pool of worker threads, so the number of the jobs doesn't affect the cost of a tick. Each job
+ * is executed by at most one worker at a time and workers are created on demand up to the maximum
+ * pool size, so a slow job doesn't delay the other ones unless all the workers are busy. When a job becomes due while its previous execution is still running
+ * the execution is skipped or coalesced according to its {@link OverrunPolicy}. Cron expressions
+ * are compiled once, see {@link CompiledCronSchedule}. Duration and lag of the executions are
+ * recorded per job, see {@link #getMetrics()}.
+ */
+@Singleton
+public class TimingWheelLauncher implements Launcher {
+  private static final Logger LOG = LoggerFactory.getLogger(TimingWheelLauncher.class);
+
+  private static final long DEFAULT_TICK_MS = 50;
+  private static final int DEFAULT_WHEEL_SIZE = 64;
+
+  private final long tickMs;
+  private final long startNanos;
+  private final TimingWheel<Job> wheel;
+  private final Queue<Job> addedJobs;
+  private final List<Job> jobs;
+  private final ExecutorService workers;
+  private final Thread timer;
+
+  private volatile boolean stopped;
+
+  /** @param maxPoolSize the maximum number of the jobs executed at the same time */
+  @Inject
+  public TimingWheelLauncher(@Named("schedule.core_pool_size") Integer maxPoolSize) {
+    this(DEFAULT_TICK_MS, DEFAULT_WHEEL_SIZE, maxPoolSize);
+  }
+
+  /**
+   * @param tickMs duration of one tick of the timing wheel in milliseconds, jobs are executed at
+   *     most one tick later than they become due
+   * @param wheelSize number of buckets of each timing wheel
+   * @param maxPoolSize the maximum number of the jobs executed at the same time
+   */
+  TimingWheelLauncher(long tickMs, int wheelSize, int maxPoolSize) {
+    this.tickMs = tickMs;
+    this.startNanos = System.nanoTime();
+    this.wheel = new TimingWheel<>(tickMs, wheelSize, 0, job -> job.dueTime);
+    this.addedJobs = new ConcurrentLinkedQueue<>();
+    this.jobs = new CopyOnWriteArrayList<>();
+    ThreadFactory threadFactory =
+        new ThreadFactoryBuilder()
+            .setNameFormat("Annotated-scheduler-%d")
+            .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+            .setDaemon(false)
+            .build();
+    // the queue can't grow beyond the number of the jobs as each job is queued at most once
+    ThreadPoolExecutor workers =
+        new ThreadPoolExecutor(
+            maxPoolSize,
+            maxPoolSize,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            threadFactory);
+    workers.allowCoreThreadTimeOut(true);
+    this.workers = workers;
+    this.timer = threadFactory.newThread(this::runTimer);
+    this.timer.setName("Annotated-scheduler-timer");
+    this.timer.start();
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    stopped = true;
+    timer.interrupt();
+    for (Job job : jobs) {
+      job.cancelled = true;
+    }
+    workers.shutdown();
+    try {
+      // Wait a while for existing tasks to terminate
+      if (!workers.awaitTermination(60, TimeUnit.SECONDS)) {
+        workers.shutdownNow(); // Cancel currently executing tasks
+        // Wait a while for tasks to respond to being cancelled
+        if (!workers.awaitTermination(60, TimeUnit.SECONDS)) LOG.warn("Pool did not terminate");
+      }
+    } catch (InterruptedException ie) {
+      // (Re-)Cancel if current thread also interrupted
+      workers.shutdownNow();
+      // Preserve interrupt status
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void scheduleCron(Runnable runnable, String cron) {
+    scheduleCron(runnable, cron, OverrunPolicy.COALESCE);
+  }
+
+  @Override
+  public void scheduleCron(Runnable runnable, String cron, OverrunPolicy overrunPolicy) {
+    if (cron == null || cron.isEmpty()) {
+      throw new ConfigurationException("Cron parameter can't be null");
+    }
+    CompiledCronSchedule schedule;
+    try {
+      schedule = new CompiledCronSchedule(new CronExpression(cron));
+    } catch (ParseException e) {
+      LOG.error(e.getLocalizedMessage(), e);
+      throw new ConfigurationException(e.getLocalizedMessage());
+    }
+    Job job = new Job(runnable, overrunPolicy, schedule, 0);
+    job.cronTime = System.currentTimeMillis();
+    if (job.scheduleNextCronTime()) {
+      add(job);
+      LOG.debug("Schedule method {} with cron {} schedule", runnable, cron);
+    } else {
+      LOG.debug("Method {} has not been scheduled, cron {} is never satisfied", runnable, cron);
+    }
+  }
+
+  @Override
+  public void scheduleWithFixedDelay(
+      Runnable runnable, long initialDelay, long delay, TimeUnit unit) {
+    if (delay <= 0) {
+      LOG.debug(
+          "Method {} has not been scheduled (delay <= 0). Initial delay {} delay {} unit {}",
+          runnable,
+          initialDelay,
+          delay,
+          unit);
+      return;
+    }
+    Job job = new Job(runnable, OverrunPolicy.SKIP, null, -Math.max(1, unit.toMillis(delay)));
+    job.dueTime = now() + unit.toMillis(initialDelay);
+    add(job);
+    LOG.debug(
+        "Schedule method {} with fixed initial delay {} delay {} unit {}",
+        runnable,
+        initialDelay,
+        delay,
+        unit);
+  }
+
+  @Override
+  public void scheduleAtFixedRate(
+      Runnable runnable, long initialDelay, long period, TimeUnit unit) {
+    scheduleAtFixedRate(runnable, initialDelay, period, unit, OverrunPolicy.COALESCE);
+  }
+
+  @Override
+  public void scheduleAtFixedRate(
+      Runnable runnable,
+      long initialDelay,
+      long period,
+      TimeUnit unit,
+      OverrunPolicy overrunPolicy) {
+    if (period <= 0) {
+      LOG.debug(
+          "Method {} with fixed rate has not been scheduled (period <= 0). Initial delay {} period {} unit {}",
+          runnable,
+          initialDelay,
+          period,
+          unit);
+      return;
+    }
+    Job job = new Job(runnable, overrunPolicy, null, Math.max(1, unit.toMillis(period)));
+    job.dueTime = now() + unit.toMillis(initialDelay);
+    add(job);
+    LOG.debug(
+        "Schedule method {} with fixed rate. Initial delay {} period {} unit {}",
+        runnable,
+        initialDelay,
+        period,
+        unit);
+  }
+
+  /** Returns the metrics of the scheduled jobs. */
+  public List<JobMetrics> getMetrics() {
+    List<JobMetrics> metrics = new ArrayList<>(jobs.size());
+    for (Job job : jobs) {
+      metrics.add(job.metrics);
+    }
+    return metrics;
+  }
+
+  private void add(Job job) {
+    jobs.add(job);
+    addedJobs.add(job);
+  }
+
+  /** Returns monotonic time of the launcher in milliseconds. */
+  private long now() {
+    return NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+  }
+
+  private void runTimer() {
+    while (!stopped) {
+      for (Job job = addedJobs.poll(); job != null; job = addedJobs.poll()) {
+        if (!wheel.add(job)) {
+          fire(job);
+        }
+      }
+      wheel.advance(now(), this::fire);
+      try {
+        long sleepMs = wheel.getCurrentTime() + tickMs - now();
+        if (sleepMs > 0) {
+          Thread.sleep(sleepMs);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /** Starts the job which became due and schedules its next execution, called by timer thread. */
+  private void fire(Job job) {
+    if (job.cancelled) {
+      return;
+    }
+    long dueTime = job.dueTime;
+    if (job.isFixedRate() || job.isCron()) {
+      if (job.isCron() ? job.scheduleNextCronTime() : job.scheduleNextRate(now())) {
+        if (!wheel.add(job)) {
+          addedJobs.add(job);
+        }
+      }
+    }
+    synchronized (job) {
+      if (job.running) {
+        if (job.overrunPolicy == OverrunPolicy.SKIP) {
+          job.metrics.recordSkipped();
+        } else {
+          if (job.coalescedDueTime >= 0) {
+            job.metrics.recordCoalesced();
+          } else {
+            job.coalescedDueTime = dueTime;
+          }
+        }
+        return;
+      }
+      job.running = true;
+    }
+    execute(job, dueTime);
+  }
+
+  private void execute(Job job, long dueTime) {
+    try {
+      workers.execute(() -> job.run(dueTime));
+    } catch (RejectedExecutionException e) {
+      if (!stopped) {
+        LOG.error(e.getMessage(), e);
+      }
+    }
+  }
+
+  /** Periodic job, its fields are modified by timer thread unless stated otherwise. */
+  private final class Job {
+    final Runnable runnable;
+    final OverrunPolicy overrunPolicy;
+    final CompiledCronSchedule cronSchedule;
+    /** Period of fixed rate job, negative delay of fixed delay job, 0 for cron job. */
+    final long periodMs;
+
+    final JobMetrics metrics;
+
+    /** Monotonic time when the job becomes due, it is not changed while the job is in wheel. */
+    volatile long dueTime;
+    /** Wall clock time of the last scheduled cron execution. */
+    long cronTime;
+
+    volatile boolean cancelled;
+
+    /** Guarded by this job. */
+    boolean running;
+    /** Due time of the execution postponed till the current one is finished, guarded by job. */
+    long coalescedDueTime = -1;
+
+    Job(
+        Runnable runnable,
+        OverrunPolicy overrunPolicy,
+        CompiledCronSchedule cronSchedule,
+        long periodMs) {
+      this.runnable = runnable;
+      this.overrunPolicy = overrunPolicy;
+      this.cronSchedule = cronSchedule;
+      this.periodMs = periodMs;
+      this.metrics = new JobMetrics(runnable.toString());
+    }
+
+    boolean isCron() {
+      return cronSchedule != null;
+    }
+
+    boolean isFixedRate() {
+      return periodMs > 0;
+    }
+
+    /**
+     * Moves due time to the next period, the periods missed because the timer was late are skipped
+     * as they would be coalesced anyway.
+     */
+    boolean scheduleNextRate(long now) {
+      long missed = Math.max(0, (now - dueTime) / periodMs);
+      dueTime += (missed + 1) * periodMs;
+      return true;
+    }
+
+    /** Moves due time to the next time satisfied by cron, returns false if there is no such. */
+    boolean scheduleNextCronTime() {
+      long wallTime = System.currentTimeMillis();
+      long next = cronSchedule.getTimeAfter(Math.max(wallTime, cronTime));
+      if (next < 0) {
+        return false;
+      }
+      cronTime = next;
+      dueTime = now() + next - wallTime;
+      return true;
+    }
+
+    /** Executes job and its coalesced executions, called by worker thread. */
+    void run(long dueTime) {
+      long start = now();
+      metrics.recordLag(start - dueTime);
+      boolean failed = false;
+      try {
+        runnable.run();
+      } catch (RuntimeException e) {
+        // exception is logged by LoggedRunnable
+        failed = true;
+        if (!isCron()) {
+          LOG.warn("Execution of {} failed, subsequent executions are suppressed", runnable);
+          cancelled = true;
+        }
+      } finally {
+        metrics.recordExecution(now() - start, failed);
+      }
+
+      long coalesced;
+      boolean rerun;
+      synchronized (this) {
+        coalesced = coalescedDueTime;
+        coalescedDueTime = -1;
+        rerun = coalesced >= 0 && !cancelled;
+        running = rerun;
+      }
+      if (rerun) {
+        execute(this, coalesced);
+      } else if (periodMs < 0 && !cancelled) {
+        this.dueTime = now() - periodMs;
+        addedJobs.add(this);
+      }
+    }
+  }
+}
@@ -96,7 +96,8 @@ public class ScheduleInjectionListener<T> extends LifecycleModule implements Inj
         new LoggedRunnable(object, method),
         annotation.cronParameterName().isEmpty()
             ? annotation.cron()
-            : getValue(String.class, annotation.cronParameterName()));
+            : getValue(String.class, annotation.cronParameterName()),
+        annotation.overrun());
   }
 
   private void launch(Object object, Method method, ScheduleDelay annotation) {
@@ -131,7 +132,8 @@ public class ScheduleInjectionListener<T> extends LifecycleModule implements Inj
         annotation.periodParameterName().isEmpty()
             ? annotation.period()
             : getValue(annotation.periodParameterName()),
-        annotation.unit());
+        annotation.unit(),
+        annotation.overrun());
   }
 
   private void launch(Object object, Class<? extends Annotation> annotationType) {
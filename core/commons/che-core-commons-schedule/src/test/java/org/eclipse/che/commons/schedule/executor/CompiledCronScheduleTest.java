@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.commons.schedule.executor;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/** Tests for {@link CompiledCronSchedule}. */
+public class CompiledCronScheduleTest {
+
+  @DataProvider
+  public Object[][] expressions() {
+    return new Object[][] {
+      {"0/15 * * * * ?"},
+      {"0 0/5 * * * ?"},
+      {"10 30 2 * * ?"},
+      {"0 0 12 ? * WED"},
+      {"0 15 10 ? * MON-FRI"},
+      {"0 0 0 29 2 ?"},
+      {"0 0/30 8-18 ? * SAT,SUN"},
+      {"0 0 22 31 * ?"},
+      {"0 0 0 1 1 ? 2030-2035"},
+      {"* * * * * ?"}
+    };
+  }
+
+  @Test(dataProvider = "expressions")
+  public void shouldComputeSameTimesAsCronExpression(String cron) throws Exception {
+    Random random = new Random(cron.hashCode());
+    for (String zone : new String[] {"UTC", "Europe/Kiev", "America/New_York"}) {
+      CronExpression expression = new CronExpression(cron);
+      expression.setTimeZone(TimeZone.getTimeZone(zone));
+      CompiledCronSchedule schedule = new CompiledCronSchedule(expression);
+      assertTrue(schedule.isCompiled());
+
+      long time = 1_500_000_000_000L + (long) (random.nextDouble() * 400 * 24 * 3600 * 1000L);
+      for (int i = 0; i < 200 && time >= 0; i++) {
+        Date expected = expression.getTimeAfter(new Date(time));
+        long actual = schedule.getTimeAfter(time);
+
+        assertEquals(actual, expected == null ? -1 : expected.getTime(), cron + " in " + zone);
+        time = actual;
+      }
+    }
+  }
+
+  @Test
+  public void shouldComputeTimesAcrossDaylightSavingTimeTransition() throws Exception {
+    CronExpression expression = new CronExpression("0 30 * * * ?");
+    expression.setTimeZone(TimeZone.getTimeZone("Europe/Kiev"));
+    CompiledCronSchedule schedule = new CompiledCronSchedule(expression);
+    // 2017-03-26T00:00:00Z, clocks are moved forward at 01:00Z
+    long time = 1_490_486_400_000L;
+
+    for (int i = 0; i < 5; i++) {
+      long next = schedule.getTimeAfter(time);
+
+      assertEquals(next - time, i == 0 ? 30 * 60_000L : 3600_000L);
+      time = next;
+    }
+  }
+
+  @Test
+  public void shouldDelegateExpressionsWhichAreNotCompiled() throws Exception {
+    CronExpression expression = new CronExpression("0 0 12 L * ?");
+    CompiledCronSchedule schedule = new CompiledCronSchedule(expression);
+    long time = System.currentTimeMillis();
+
+    assertFalse(schedule.isCompiled());
+    assertEquals(schedule.getTimeAfter(time), expression.getTimeAfter(new Date(time)).getTime());
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.commons.schedule.executor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.che.commons.schedule.OverrunPolicy;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link TimingWheelLauncher}. */
+public class TimingWheelLauncherTest {
+  private TimingWheelLauncher launcher;
+
+  @BeforeMethod
+  public void setUp() {
+    launcher = new TimingWheelLauncher(5, 16, 2);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    launcher.shutdown();
+  }
+
+  @Test
+  public void shouldNotDelayJobsBySlowJob() throws Exception {
+    launcher.scheduleAtFixedRate(sleeping(2_000), 0, 10, MILLISECONDS, OverrunPolicy.SKIP);
+    CountDownLatch fastJobExecuted = new CountDownLatch(10);
+    launcher.scheduleAtFixedRate(fastJobExecuted::countDown, 10, 10, MILLISECONDS);
+
+    assertTrue(fastJobExecuted.await(1, SECONDS));
+    JobMetrics slowJob = launcher.getMetrics().get(0);
+    assertEquals(slowJob.getExecutions(), 0);
+    assertTrue(slowJob.getSkipped() > 0);
+  }
+
+  @Test
+  public void shouldCoalesceOverrunningExecutions() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    launcher.scheduleAtFixedRate(
+        () -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          sleeping(100).run();
+          running.decrementAndGet();
+        },
+        0,
+        10,
+        MILLISECONDS,
+        OverrunPolicy.COALESCE);
+
+    Thread.sleep(350);
+
+    JobMetrics metrics = launcher.getMetrics().get(0);
+    assertEquals(maxRunning.get(), 1);
+    assertTrue(metrics.getExecutions() >= 2, metrics.toString());
+    assertTrue(metrics.getCoalesced() > 0, metrics.toString());
+    assertTrue(metrics.getMaxLagMs() >= 80, metrics.toString());
+  }
+
+  @Test
+  public void shouldExecuteJobWithFixedDelayBetweenExecutions() throws Exception {
+    CountDownLatch executed = new CountDownLatch(3);
+    launcher.scheduleWithFixedDelay(
+        () -> {
+          executed.countDown();
+          sleeping(20).run();
+        },
+        0,
+        30,
+        MILLISECONDS);
+
+    long start = System.nanoTime();
+    assertTrue(executed.await(1, SECONDS));
+
+    assertTrue(System.nanoTime() - start >= MILLISECONDS.toNanos(2 * 50));
+  }
+
+  @Test
+  public void shouldExecuteCronJob() throws Exception {
+    CountDownLatch executed = new CountDownLatch(2);
+
+    launcher.scheduleCron(executed::countDown, "* * * * * ?");
+
+    assertTrue(executed.await(3, SECONDS));
+    assertEquals(launcher.getMetrics().get(0).getFailures(), 0);
+  }
+
+  @Test
+  public void shouldSuppressExecutionsOfFailedJob() throws Exception {
+    launcher.scheduleAtFixedRate(
+        () -> {
+          throw new IllegalStateException("failed");
+        },
+        0,
+        10,
+        MILLISECONDS);
+
+    Thread.sleep(100);
+
+    JobMetrics metrics = launcher.getMetrics().get(0);
+    assertEquals(metrics.getExecutions(), 1);
+    assertEquals(metrics.getFailures(), 1);
+  }
+
+  @Test
+  public void shouldNotExecuteMoreJobsThanMaxPoolSize() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    Runnable job =
+        () -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          sleeping(50).run();
+          running.decrementAndGet();
+        };
+    for (int i = 0; i < 4; i++) {
+      launcher.scheduleAtFixedRate(job, 0, 10, MILLISECONDS);
+    }
+
+    Thread.sleep(300);
+
+    assertEquals(maxRunning.get(), 2);
+    for (JobMetrics metrics : launcher.getMetrics()) {
+      assertTrue(metrics.getExecutions() > 0, metrics.toString());
+    }
+  }
+
+  private static Runnable sleeping(long millis) {
+    return () -> {
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+}
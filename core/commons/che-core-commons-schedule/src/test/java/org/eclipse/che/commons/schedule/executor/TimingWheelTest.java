@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.commons.schedule.executor;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/** Tests for {@link TimingWheel}. */
+public class TimingWheelTest {
+
+  @Test
+  public void shouldReturnElementsWithinTickAfterTheyBecomeDue() {
+    TimingWheel<Long> wheel = new TimingWheel<>(10, 8, 0, Long::longValue);
+    Random random = new Random(7);
+    List<Long> added = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      long due = 10 + random.nextInt(100_000);
+      assertTrue(wheel.add(due));
+      added.add(due);
+    }
+
+    List<Long> returned = new ArrayList<>();
+    for (long time = 0; time <= 100_020; time += 10) {
+      long now = time;
+      wheel.advance(
+          now,
+          due -> {
+            assertTrue(due <= now, "Element " + due + " is returned at " + now);
+            assertTrue(due > now - 10, "Element " + due + " is returned at " + now);
+            returned.add(due);
+          });
+    }
+
+    added.sort(Long::compare);
+    returned.sort(Long::compare);
+    assertEquals(returned, added);
+  }
+
+  @Test
+  public void shouldReturnAllDueElementsWhenAdvancedBySeveralTicks() {
+    TimingWheel<Long> wheel = new TimingWheel<>(10, 4, 0, Long::longValue);
+    wheel.add(15L);
+    wheel.add(155L);
+    wheel.add(2_000L);
+    List<Long> returned = new ArrayList<>();
+
+    wheel.advance(1_000, returned::add);
+
+    assertEquals(returned.size(), 2);
+    assertEquals(wheel.getCurrentTime(), 1_000);
+  }
+
+  @Test
+  public void shouldNotAddElementWhichIsAlreadyDue() {
+    TimingWheel<Long> wheel = new TimingWheel<>(10, 4, 100, Long::longValue);
+
+    assertFalse(wheel.add(95L));
+    assertFalse(wheel.add(100L));
+    assertTrue(wheel.add(101L));
+  }
+}
@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
+import org.eclipse.che.api.project.shared.dto.TreeDelta;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 import org.eclipse.che.api.promises.client.Promise;
 import org.eclipse.che.api.workspace.shared.dto.NewProjectConfigDto;
@@ -229,6 +230,21 @@ public interface ProjectServiceClient {
    */
   Promise<TreeElement> getTree(Path path, int depth, boolean includeFiles);
 
+  /**
+   * Reads the changes of the workspace tree made since the given version of the tree. The folder
+   * with the given path is synchronized with the file system before, so the returned changes
+   * include all the changes made in it so far.
+   *
+   * <p>If the changes are truncated the tree has to be reloaded, changes made after reloading are
+   * requested since the version of the returned delta.
+   *
+   * @param path path to the folder which has to be up to date
+   * @param since the version of the tree known by client, -1 if none is known
+   * @return {@link Promise} with tree delta response
+   * @see TreeDelta
+   */
+  Promise<TreeDelta> getTreeDelta(Path path, long since);
+
   /**
    * Searches an item(s) with the specified criteria given by {@code expression}.
    *
@@ -30,6 +30,7 @@ import org.eclipse.che.api.project.shared.dto.MoveOptions;
 import org.eclipse.che.api.project.shared.dto.ProjectSearchResponseDto;
 import org.eclipse.che.api.project.shared.dto.SearchResultDto;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
+import org.eclipse.che.api.project.shared.dto.TreeDelta;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 import org.eclipse.che.api.promises.client.Function;
 import org.eclipse.che.api.promises.client.Promise;
@@ -66,6 +67,7 @@ public class ProjectServiceClientImpl implements ProjectServiceClient {
 
   private static final String ITEM = "/item";
   private static final String TREE = "/tree";
+  private static final String TREE_DELTA = "/tree-delta";
   private static final String MOVE = "/move";
   private static final String COPY = "/copy";
   private static final String FOLDER = "/folder";
@@ -317,6 +319,18 @@ public class ProjectServiceClientImpl implements ProjectServiceClient {
         .send(unmarshaller.newUnmarshaller(TreeElement.class));
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public Promise<TreeDelta> getTreeDelta(Path path, long since) {
+    final String url =
+        getBaseUrl() + TREE_DELTA + encodePath(path.addLeadingSeparator()) + "?since=" + since;
+
+    return reqFactory
+        .createGetRequest(url)
+        .header(ACCEPT, MimeType.APPLICATION_JSON)
+        .send(unmarshaller.newUnmarshaller(TreeDelta.class));
+  }
+
   /** {@inheritDoc} */
   @Override
   public Promise<ItemReference> getItem(Path path) {
@@ -51,7 +51,10 @@ import org.eclipse.che.api.core.model.project.SourceStorage;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
+import org.eclipse.che.api.project.shared.dto.TreeDelta;
+import org.eclipse.che.api.project.shared.dto.TreeDeltaItem;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.promises.client.Function;
 import org.eclipse.che.api.promises.client.FunctionException;
 import org.eclipse.che.api.promises.client.Promise;
@@ -147,6 +150,9 @@ public final class ResourceManager {
   /** Cached dto project configuration. */
   private ProjectConfigDto[] cachedConfigs;
 
+  /** Version of the workspace tree the store is synchronized with, -1 if it is not known. */
+  private long treeVersion = -1;
+
   @Inject
   public ResourceManager(
       @Assisted DevMachine devMachine,
@@ -190,6 +196,7 @@ public final class ResourceManager {
             (Function<List<ProjectConfigDto>, Project[]>)
                 dtoConfigs -> {
                   store.clear();
+                  treeVersion = -1;
 
                   if (dtoConfigs.isEmpty()) {
                     cachedConfigs = new ProjectConfigDto[0];
@@ -1110,24 +1117,6 @@ public final class ResourceManager {
               cachedConfigs =
                   updatedConfiguration.toArray(new ProjectConfigDto[updatedConfiguration.size()]);
 
-              int maxDepth = 1;
-
-              final Optional<Resource[]> descendants = store.getAll(container.getLocation());
-
-              if (descendants.isPresent()) {
-                final Resource[] resources = descendants.get();
-
-                for (Resource resource : resources) {
-                  final int segCount =
-                      resource.getLocation().segmentCount()
-                          - container.getLocation().segmentCount();
-
-                  if (segCount > maxDepth) {
-                    maxDepth = segCount;
-                  }
-                }
-              }
-
               final Container[] holder = new Container[] {container};
 
               if (holder[0].isProject()) {
@@ -1144,21 +1133,109 @@ public final class ResourceManager {
                 }
               }
 
-              return getRemoteResources(holder[0], maxDepth, true)
-                  .then(
-                      (Function<Resource[], Resource[]>)
-                          resources -> {
-                            eventBus.fireEvent(
-                                new ResourceChangedEvent(
-                                    new ResourceDeltaImpl(holder[0], SYNCHRONIZED | DERIVED)));
-                            eventBus.fireEvent(
-                                new ResourceChangedEvent(
-                                    new ResourceDeltaImpl(holder[0], UPDATED)));
-                            return resources;
-                          });
+              return ps.getTreeDelta(holder[0].getLocation(), treeVersion)
+                  .thenPromise(
+                      delta -> {
+                        if (delta.isTruncated()) {
+                          return reload(holder[0])
+                              .then(
+                                  (Function<Resource[], Resource[]>)
+                                      resources -> {
+                                        treeVersion = delta.getVersion();
+                                        fireSynchronized(holder[0]);
+                                        return resources;
+                                      });
+                        }
+
+                        treeVersion = delta.getVersion();
+                        applyTreeDelta(delta);
+                        updateLoadedProjects();
+                        fireSynchronized(holder[0]);
+
+                        final Optional<Resource[]> descendants =
+                            store.getAll(holder[0].getLocation());
+                        return promises.resolve(
+                            descendants.isPresent() ? descendants.get() : NO_RESOURCES);
+                      });
             });
   }
 
+  /** Reloads all the loaded descendants of the given {@code container}. */
+  private Promise<Resource[]> reload(Container container) {
+    int maxDepth = 1;
+
+    final Optional<Resource[]> descendants = store.getAll(container.getLocation());
+
+    if (descendants.isPresent()) {
+      final Resource[] resources = descendants.get();
+
+      for (Resource resource : resources) {
+        final int segCount =
+            resource.getLocation().segmentCount() - container.getLocation().segmentCount();
+
+        if (segCount > maxDepth) {
+          maxDepth = segCount;
+        }
+      }
+    }
+
+    return getRemoteResources(container, maxDepth, true);
+  }
+
+  /**
+   * Applies changes of the workspace tree to the loaded resources. Items whose parent children are
+   * not loaded are skipped, they are fetched when the parent is expanded.
+   */
+  private void applyTreeDelta(TreeDelta delta) {
+    for (TreeDeltaItem change : delta.getChanges()) {
+      final Path location = Path.valueOf(change.getPath());
+      final Optional<Resource> registered = store.getResource(location);
+
+      if (change.getType() == FileWatcherEventType.DELETED) {
+        if (registered.isPresent()) {
+          store.dispose(location, true);
+          eventBus.fireEvent(
+              new ResourceChangedEvent(new ResourceDeltaImpl(registered.get(), REMOVED)));
+        }
+        continue;
+      }
+
+      final Path parent = location.segmentCount() == 1 ? Path.ROOT : location.parent();
+      if (!registered.isPresent() && !store.get(parent).isPresent()) {
+        continue;
+      }
+
+      final Resource resource = newResourceFrom(change.getItem());
+      store.register(resource);
+
+      if (resource.isProject()) {
+        inspectProject(resource.asProject());
+      }
+
+      eventBus.fireEvent(
+          new ResourceChangedEvent(
+              new ResourceDeltaImpl(resource, registered.isPresent() ? UPDATED : ADDED)));
+    }
+  }
+
+  /** Updates loaded projects with the cached configurations, these may change without files. */
+  private void updateLoadedProjects() {
+    for (ProjectConfigDto config : cachedConfigs) {
+      final Path location = Path.valueOf(config.getPath());
+      if (store.getResource(location).isPresent()) {
+        final Project project = resourceFactory.newProjectImpl(config, ResourceManager.this);
+        store.register(project);
+        inspectProject(project);
+      }
+    }
+  }
+
+  private void fireSynchronized(Container container) {
+    eventBus.fireEvent(
+        new ResourceChangedEvent(new ResourceDeltaImpl(container, SYNCHRONIZED | DERIVED)));
+    eventBus.fireEvent(new ResourceChangedEvent(new ResourceDeltaImpl(container, UPDATED)));
+  }
+
   protected Promise<ResourceDelta[]> synchronize(final ResourceDelta[] deltas) {
     List<Promise<Void>> promisesToResolve = new ArrayList<>(deltas.length);
     for (final ResourceDelta delta : deltas) {
@@ -30,7 +30,8 @@ import org.eclipse.che.multiuser.api.permission.shared.dto.PermissionsDto;
  * Implementation of {@link PermissionChecker} that load permissions by http requests to {@link
  * PermissionsService}
  *
- * <p>It also caches permissions to avoid frequently requests to workspace master.
+ * <p>It also caches permissions to avoid frequently requests to workspace master. Permissions
+ * are cached per instance, concurrent checks of the same instance wait for the same request.
  *
  * @author Sergii Leschenko
  */
@@ -40,12 +41,13 @@ public class HttpPermissionCheckerImpl implements PermissionChecker {
 
   @Inject
   public HttpPermissionCheckerImpl(
-      @Named("che.api") String apiEndpoint, HttpJsonRequestFactory requestFactory) {
-    // TODO mb make configurable size of cache and expiration time
+      @Named("che.api") String apiEndpoint,
+      HttpJsonRequestFactory requestFactory,
+      CacheSettings cacheSettings) {
     this.permissionsCache =
         CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .maximumSize(cacheSettings.maxSize)
+            .expireAfterWrite(cacheSettings.expireAfterWriteSec, TimeUnit.SECONDS)
             .build(
                 new CacheLoader<Key, Set<String>>() {
                   @Override
@@ -82,6 +84,24 @@ public class HttpPermissionCheckerImpl implements PermissionChecker {
     }
   }
 
+  /** Optional configuration of the permissions cache. */
+  public static class CacheSettings {
+    @com.google.inject.Inject(optional = true)
+    @Named("che.permissions.cache.max_size")
+    private long maxSize = 1000;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("che.permissions.cache.expire_after_write_sec")
+    private long expireAfterWriteSec = 60;
+
+    public CacheSettings() {}
+
+    CacheSettings(long maxSize, long expireAfterWriteSec) {
+      this.maxSize = maxSize;
+      this.expireAfterWriteSec = expireAfterWriteSec;
+    }
+  }
+
   private static final class Key {
     private final String user;
     private final String domain;
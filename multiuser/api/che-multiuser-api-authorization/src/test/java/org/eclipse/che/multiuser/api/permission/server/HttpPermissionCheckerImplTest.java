@@ -16,6 +16,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.RETURNS_DEFAULTS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -26,6 +27,7 @@ import org.eclipse.che.api.core.rest.HttpJsonRequest;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.HttpJsonResponse;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.multiuser.api.permission.server.HttpPermissionCheckerImpl.CacheSettings;
 import org.eclipse.che.multiuser.api.permission.shared.dto.PermissionsDto;
 import org.mockito.Mock;
 import org.mockito.stubbing.Answer;
@@ -64,7 +66,8 @@ public class HttpPermissionCheckerImplTest {
     when(request.request()).thenReturn(response);
     when(requestFactory.fromUrl(anyString())).thenReturn(request);
 
-    httpPermissionChecker = new HttpPermissionCheckerImpl(API_ENDPOINT, requestFactory);
+    httpPermissionChecker =
+        new HttpPermissionCheckerImpl(API_ENDPOINT, requestFactory, new CacheSettings());
   }
 
   @Test
@@ -94,4 +97,55 @@ public class HttpPermissionCheckerImplTest {
     verify(request).request();
     verifyNoMoreInteractions(request);
   }
+
+  @Test
+  public void shouldCachePermissionsOfEachInstanceSeparately() throws Exception {
+    when(response.asDto(anyObject()))
+        .thenReturn(
+            DtoFactory.newDto(PermissionsDto.class)
+                .withUserId("user123")
+                .withDomainId("domain123")
+                .withInstanceId("instance123")
+                .withActions(asList("read", "test")));
+
+    httpPermissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+    httpPermissionChecker.hasPermission("user123", "domain123", "instance123", "read");
+    httpPermissionChecker.hasPermission("user123", "domain123", "instance234", "read");
+
+    verify(requestFactory, times(2)).fromUrl(anyString());
+    verify(request, times(2)).request();
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedPermissionsWhenCacheExceedsMaxSize() throws Exception {
+    when(response.asDto(anyObject())).thenReturn(permissions("read"));
+    httpPermissionChecker =
+        new HttpPermissionCheckerImpl(API_ENDPOINT, requestFactory, new CacheSettings(1, 60));
+
+    httpPermissionChecker.hasPermission("user123", "domain123", "instance123", "read");
+    httpPermissionChecker.hasPermission("user123", "domain123", "instance234", "read");
+    httpPermissionChecker.hasPermission("user123", "domain123", "instance123", "read");
+
+    verify(request, times(3)).request();
+  }
+
+  @Test
+  public void shouldRequestPermissionsAgainWhenCachedOnesExpire() throws Exception {
+    when(response.asDto(anyObject())).thenReturn(permissions("read"));
+    httpPermissionChecker =
+        new HttpPermissionCheckerImpl(API_ENDPOINT, requestFactory, new CacheSettings(1000, 0));
+
+    httpPermissionChecker.hasPermission("user123", "domain123", "instance123", "read");
+    httpPermissionChecker.hasPermission("user123", "domain123", "instance123", "read");
+
+    verify(request, times(2)).request();
+  }
+
+  private static PermissionsDto permissions(String... actions) {
+    return DtoFactory.newDto(PermissionsDto.class)
+        .withUserId("user123")
+        .withDomainId("domain123")
+        .withInstanceId("instance123")
+        .withActions(asList(actions));
+  }
 }
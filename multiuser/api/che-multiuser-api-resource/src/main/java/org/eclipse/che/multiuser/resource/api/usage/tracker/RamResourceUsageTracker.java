@@ -12,9 +12,13 @@ package org.eclipse.che.multiuser.resource.api.usage.tracker;
 
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
 
-import java.util.List;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
@@ -23,66 +27,93 @@ import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.machine.shared.dto.event.MachineStatusEvent;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.commons.lang.concurrent.StripedLocks;
+import org.eclipse.che.commons.lang.concurrent.Unlocker;
+import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.eclipse.che.multiuser.resource.api.ResourceUsageTracker;
 import org.eclipse.che.multiuser.resource.api.type.RamResourceType;
 import org.eclipse.che.multiuser.resource.model.Resource;
 import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Tracks usage of {@link RamResourceType} resource.
  *
+ * <p>RAM used by each active workspace is kept in memory and updated on workspace and machine
+ * status events, so checking of account's usage doesn't require fetching of all account's
+ * workspaces. The ledger is periodically reconciled with the actual state of running workspaces
+ * to fix possible drift caused by lost events.
+ *
  * @author Sergii Leschenko
  */
 @Singleton
 public class RamResourceUsageTracker implements ResourceUsageTracker {
+  private static final Logger LOG = LoggerFactory.getLogger(RamResourceUsageTracker.class);
+
   private final Provider<WorkspaceManager> workspaceManagerProvider;
   private final AccountManager accountManager;
   private final EnvironmentRamCalculator environmentRamCalculator;
+  private final EventService eventService;
+  private final WorkspaceStatusEventSubscriber workspaceStatusEventSubscriber;
+  private final MachineStatusEventSubscriber machineStatusEventSubscriber;
+  private final StripedLocks stripedLocks;
+
+  /** Namespace -> workspace id -> used RAM in megabytes. */
+  private final Map<String, Map<String, Long>> usedRam;
+  /** Workspace id -> namespace of tracked workspaces. */
+  private final Map<String, String> namespaces;
+
+  private volatile boolean reconciled;
 
   @Inject
   public RamResourceUsageTracker(
       Provider<WorkspaceManager> workspaceManagerProvider,
       AccountManager accountManager,
-      EnvironmentRamCalculator environmentRamCalculator) {
+      EnvironmentRamCalculator environmentRamCalculator,
+      EventService eventService) {
     this.workspaceManagerProvider = workspaceManagerProvider;
     this.accountManager = accountManager;
     this.environmentRamCalculator = environmentRamCalculator;
+    this.eventService = eventService;
+    this.workspaceStatusEventSubscriber = new WorkspaceStatusEventSubscriber();
+    this.machineStatusEventSubscriber = new MachineStatusEventSubscriber();
+    this.stripedLocks = new StripedLocks(16);
+    this.usedRam = new ConcurrentHashMap<>();
+    this.namespaces = new ConcurrentHashMap<>();
+  }
+
+  @PostConstruct
+  public void subscribe() {
+    eventService.subscribe(workspaceStatusEventSubscriber);
+    eventService.subscribe(machineStatusEventSubscriber);
+  }
+
+  @PreDestroy
+  public void unsubscribe() {
+    eventService.unsubscribe(workspaceStatusEventSubscriber);
+    eventService.unsubscribe(machineStatusEventSubscriber);
   }
 
   @Override
   public Optional<Resource> getUsedResource(String accountId)
       throws NotFoundException, ServerException {
     final Account account = accountManager.getById(accountId);
-    List<WorkspaceImpl> activeWorkspaces =
-        workspaceManagerProvider
-            .get()
-            .getByNamespace(account.getName(), true)
-            .stream()
-            .filter(ws -> STOPPED != ws.getStatus())
-            .collect(Collectors.toList());
+    if (!reconciled) {
+      reconcile();
+    }
+    final Map<String, Long> workspacesRam = usedRam.get(account.getName());
     long currentlyUsedRamMB = 0;
-    for (WorkspaceImpl activeWorkspace : activeWorkspaces) {
-      if (WorkspaceStatus.STARTING.equals(activeWorkspace.getStatus())) {
-        // starting workspace may not have all machine in runtime
-        // it is need to calculate ram from environment config
-        EnvironmentImpl activeEnvironmentConfig =
-            activeWorkspace
-                .getConfig()
-                .getEnvironments()
-                .get(activeWorkspace.getRuntime().getActiveEnv());
-
-        currentlyUsedRamMB += environmentRamCalculator.calculate(activeEnvironmentConfig);
-      } else {
-        currentlyUsedRamMB +=
-            activeWorkspace
-                .getRuntime()
-                .getMachines()
-                .stream()
-                .mapToInt(machine -> machine.getConfig().getLimits().getRam())
-                .sum();
+    if (workspacesRam != null) {
+      for (Long workspaceRam : workspacesRam.values()) {
+        currentlyUsedRamMB += workspaceRam;
       }
     }
 
@@ -93,4 +124,140 @@ public class RamResourceUsageTracker implements ResourceUsageTracker {
       return Optional.empty();
     }
   }
+
+  /**
+   * Recalculates RAM used by all running workspaces and drops workspaces which are not running
+   * anymore from the ledger.
+   */
+  @ScheduleRate(
+    initialDelay = 60,
+    periodParameterName = "che.resource.ram_usage.reconcile_period_sec"
+  )
+  @VisibleForTesting
+  void reconcile() {
+    final Set<String> runningWorkspaces;
+    try {
+      runningWorkspaces = workspaceManagerProvider.get().getRunningWorkspacesIds();
+    } catch (RuntimeException e) {
+      LOG.error("Failed to reconcile RAM usage of workspaces. " + e.getMessage(), e);
+      return;
+    }
+    for (String workspaceId : runningWorkspaces) {
+      update(workspaceId);
+    }
+    for (String workspaceId : namespaces.keySet()) {
+      if (!runningWorkspaces.contains(workspaceId)) {
+        update(workspaceId);
+      }
+    }
+    reconciled = true;
+  }
+
+  /** Recalculates RAM used by the workspace with given id according to its current state. */
+  private void update(String workspaceId) {
+    try (@SuppressWarnings("unused")
+        Unlocker u = stripedLocks.writeLock(workspaceId)) {
+      final WorkspaceImpl workspace;
+      try {
+        workspace = workspaceManagerProvider.get().getWorkspace(workspaceId);
+      } catch (NotFoundException e) {
+        remove(workspaceId);
+        return;
+      }
+      if (STOPPED == workspace.getStatus() || workspace.getRuntime() == null) {
+        remove(workspaceId);
+        return;
+      }
+      final String namespace = workspace.getNamespace();
+      final String previousNamespace = namespaces.put(workspaceId, namespace);
+      if (previousNamespace != null && !previousNamespace.equals(namespace)) {
+        removeFromNamespace(previousNamespace, workspaceId);
+      }
+      usedRam
+          .computeIfAbsent(namespace, ns -> new ConcurrentHashMap<>())
+          .put(workspaceId, calculateUsedRam(workspace));
+    } catch (Exception e) {
+      LOG.error(
+          "Failed to update RAM usage of workspace '{}'. Cause: {}",
+          workspaceId,
+          e.getMessage(),
+          e);
+    }
+  }
+
+  private void remove(String workspaceId) {
+    final String namespace = namespaces.remove(workspaceId);
+    if (namespace != null) {
+      removeFromNamespace(namespace, workspaceId);
+    }
+  }
+
+  private void removeFromNamespace(String namespace, String workspaceId) {
+    usedRam.computeIfPresent(
+        namespace,
+        (ns, workspacesRam) -> {
+          workspacesRam.remove(workspaceId);
+          return workspacesRam.isEmpty() ? null : workspacesRam;
+        });
+  }
+
+  private long calculateUsedRam(WorkspaceImpl activeWorkspace) throws ServerException {
+    if (WorkspaceStatus.STARTING.equals(activeWorkspace.getStatus())) {
+      // starting workspace may not have all machine in runtime
+      // it is need to calculate ram from environment config
+      EnvironmentImpl activeEnvironmentConfig =
+          activeWorkspace
+              .getConfig()
+              .getEnvironments()
+              .get(activeWorkspace.getRuntime().getActiveEnv());
+
+      return environmentRamCalculator.calculate(activeEnvironmentConfig);
+    } else {
+      return activeWorkspace
+          .getRuntime()
+          .getMachines()
+          .stream()
+          .mapToLong(machine -> machine.getConfig().getLimits().getRam())
+          .sum();
+    }
+  }
+
+  @VisibleForTesting
+  class WorkspaceStatusEventSubscriber implements EventSubscriber<WorkspaceStatusEvent> {
+    @Override
+    public void onEvent(WorkspaceStatusEvent event) {
+      switch (event.getEventType()) {
+        case STARTING:
+        case RUNNING:
+        case ERROR:
+          update(event.getWorkspaceId());
+          break;
+        case STOPPED:
+          try (@SuppressWarnings("unused")
+              Unlocker u = stripedLocks.writeLock(event.getWorkspaceId())) {
+            remove(event.getWorkspaceId());
+          }
+          break;
+        default:
+          // RAM usage is not changed
+      }
+    }
+  }
+
+  @VisibleForTesting
+  class MachineStatusEventSubscriber implements EventSubscriber<MachineStatusEvent> {
+    @Override
+    public void onEvent(MachineStatusEvent event) {
+      switch (event.getEventType()) {
+        case RUNNING:
+        case DESTROYED:
+          if (namespaces.containsKey(event.getWorkspaceId())) {
+            update(event.getWorkspaceId());
+          }
+          break;
+        default:
+          // RAM usage is not changed
+      }
+    }
+  }
 }
@@ -10,11 +10,16 @@
  */
 package org.eclipse.che.multiuser.resource.api.usage.tracker;
 
-import static java.util.Collections.singletonList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
@@ -27,17 +32,20 @@ import java.util.Optional;
 import javax.inject.Provider;
 import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
+import org.eclipse.che.account.spi.AccountImpl;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineLimitsImpl;
+import org.eclipse.che.api.machine.shared.dto.event.MachineStatusEvent;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
 import org.eclipse.che.multiuser.resource.api.type.RamResourceType;
 import org.eclipse.che.multiuser.resource.model.Resource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -55,12 +63,17 @@ public class RamResourceUsageTrackerTest {
   @Mock private Provider<WorkspaceManager> workspaceManagerProvider;
   @Mock private WorkspaceManager workspaceManager;
   @Mock private AccountManager accountManager;
+  @Mock private EnvironmentRamCalculator environmentRamCalculator;
+  @Mock private EventService eventService;
 
-  @InjectMocks private RamResourceUsageTracker ramUsageTracker;
+  private RamResourceUsageTracker ramUsageTracker;
 
   @BeforeMethod
   public void setUp() throws Exception {
     when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+    ramUsageTracker =
+        new RamResourceUsageTracker(
+            workspaceManagerProvider, accountManager, environmentRamCalculator, eventService);
   }
 
   @Test(
@@ -78,9 +91,7 @@ public class RamResourceUsageTrackerTest {
   public void shouldReturnEmptyOptionalWhenAccountHasOnlyStoppedWorkspaces() throws Exception {
     when(accountManager.getById(any())).thenReturn(account);
     when(account.getName()).thenReturn("testAccount");
-
-    when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
-        .thenReturn(singletonList(createWorkspace(WorkspaceStatus.STOPPED, 1000, 500, 500)));
+    when(workspaceManager.getRunningWorkspacesIds()).thenReturn(emptySet());
 
     Optional<Resource> usedRamOpt = ramUsageTracker.getUsedResource("account123");
 
@@ -91,9 +102,9 @@ public class RamResourceUsageTrackerTest {
   public void shouldReturnUsedRamForGivenAccount() throws Exception {
     when(accountManager.getById(any())).thenReturn(account);
     when(account.getName()).thenReturn("testAccount");
-
-    when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
-        .thenReturn(singletonList(createWorkspace(WorkspaceStatus.RUNNING, 1000, 500, 500)));
+    when(workspaceManager.getRunningWorkspacesIds()).thenReturn(singleton("workspace123"));
+    when(workspaceManager.getWorkspace("workspace123"))
+        .thenReturn(createWorkspace("testAccount", WorkspaceStatus.RUNNING, 1000, 500, 500));
 
     Optional<Resource> usedRamOpt = ramUsageTracker.getUsedResource("account123");
 
@@ -103,32 +114,104 @@ public class RamResourceUsageTrackerTest {
     assertEquals(usedRam.getAmount(), 2000L);
     assertEquals(usedRam.getUnit(), RamResourceType.UNIT);
     verify(accountManager).getById(eq("account123"));
-    verify(workspaceManager).getByNamespace(eq("testAccount"), eq(true));
+    verify(workspaceManager, never()).getByNamespace(anyString(), anyBoolean());
   }
 
   @Test
-  public void shouldNotSumRamOfStoppedWorkspaceWhenGettingUsedRamForGivenAccount()
-      throws Exception {
+  public void shouldNotSumRamOfWorkspacesOfOtherAccounts() throws Exception {
     when(accountManager.getById(any())).thenReturn(account);
     when(account.getName()).thenReturn("testAccount");
-
-    when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
-        .thenReturn(singletonList(createWorkspace(WorkspaceStatus.STOPPED, 1000, 500, 500)));
+    when(workspaceManager.getRunningWorkspacesIds()).thenReturn(singleton("workspace123"));
+    when(workspaceManager.getWorkspace("workspace123"))
+        .thenReturn(createWorkspace("otherAccount", WorkspaceStatus.RUNNING, 1000));
 
     Optional<Resource> usedRamOpt = ramUsageTracker.getUsedResource("account123");
 
     assertFalse(usedRamOpt.isPresent());
-    verify(accountManager).getById(eq("account123"));
-    verify(workspaceManager).getByNamespace(eq("testAccount"), eq(true));
+  }
+
+  @Test
+  public void shouldUseRamFromEnvironmentConfigForStartingWorkspace() throws Exception {
+    when(accountManager.getById(any())).thenReturn(account);
+    when(account.getName()).thenReturn("testAccount");
+    when(workspaceManager.getRunningWorkspacesIds()).thenReturn(emptySet());
+    ramUsageTracker.getUsedResource("account123");
+    WorkspaceImpl workspace = mock(WorkspaceImpl.class, RETURNS_DEEP_STUBS);
+    when(workspace.getStatus()).thenReturn(WorkspaceStatus.STARTING);
+    when(workspace.getNamespace()).thenReturn("testAccount");
+    when(workspaceManager.getWorkspace("workspace123")).thenReturn(workspace);
+    when(environmentRamCalculator.calculate(any())).thenReturn(3000L);
+
+    ramUsageTracker.new WorkspaceStatusEventSubscriber()
+        .onEvent(statusEvent(WorkspaceStatusEvent.EventType.STARTING));
+    Optional<Resource> usedRamOpt = ramUsageTracker.getUsedResource("account123");
+
+    assertTrue(usedRamOpt.isPresent());
+    assertEquals(usedRamOpt.get().getAmount(), 3000L);
+  }
+
+  @Test
+  public void shouldUpdateUsedRamOnWorkspaceAndMachineEvents() throws Exception {
+    when(accountManager.getById(any())).thenReturn(account);
+    when(account.getName()).thenReturn("testAccount");
+    when(workspaceManager.getRunningWorkspacesIds()).thenReturn(emptySet());
+    ramUsageTracker.getUsedResource("account123");
+    WorkspaceImpl running = createWorkspace("testAccount", WorkspaceStatus.RUNNING, 1000);
+    WorkspaceImpl withNewMachine =
+        createWorkspace("testAccount", WorkspaceStatus.RUNNING, 1000, 500);
+    when(workspaceManager.getWorkspace("workspace123")).thenReturn(running, withNewMachine);
+
+    ramUsageTracker.new WorkspaceStatusEventSubscriber()
+        .onEvent(statusEvent(WorkspaceStatusEvent.EventType.RUNNING));
+    assertEquals(ramUsageTracker.getUsedResource("account123").get().getAmount(), 1000L);
+
+    ramUsageTracker.new MachineStatusEventSubscriber()
+        .onEvent(
+            newDto(MachineStatusEvent.class)
+                .withEventType(MachineStatusEvent.EventType.RUNNING)
+                .withWorkspaceId("workspace123"));
+    assertEquals(ramUsageTracker.getUsedResource("account123").get().getAmount(), 1500L);
+
+    ramUsageTracker.new WorkspaceStatusEventSubscriber()
+        .onEvent(statusEvent(WorkspaceStatusEvent.EventType.STOPPED));
+    assertFalse(ramUsageTracker.getUsedResource("account123").isPresent());
+  }
+
+  @Test
+  public void shouldRemoveWorkspacesWhichAreNotRunningAnymoreOnReconciliation() throws Exception {
+    when(accountManager.getById(any())).thenReturn(account);
+    when(account.getName()).thenReturn("testAccount");
+    when(workspaceManager.getRunningWorkspacesIds())
+        .thenReturn(singleton("workspace123"), emptySet());
+    WorkspaceImpl running = createWorkspace("testAccount", WorkspaceStatus.RUNNING, 1000);
+    WorkspaceImpl stopped = createWorkspace("testAccount", WorkspaceStatus.STOPPED);
+    when(workspaceManager.getWorkspace("workspace123")).thenReturn(running, stopped);
+    assertTrue(ramUsageTracker.getUsedResource("account123").isPresent());
+
+    ramUsageTracker.reconcile();
+
+    assertFalse(ramUsageTracker.getUsedResource("account123").isPresent());
+  }
+
+  private static WorkspaceStatusEvent statusEvent(WorkspaceStatusEvent.EventType type) {
+    return newDto(WorkspaceStatusEvent.class).withEventType(type).withWorkspaceId("workspace123");
   }
 
   /** Creates users workspace object based on the status and machines RAM. */
   public static WorkspaceImpl createWorkspace(WorkspaceStatus status, Integer... machineRams) {
-    final List<MachineImpl> machines = new ArrayList<>(machineRams.length - 1);
+    return createWorkspace(null, status, machineRams);
+  }
+
+  /** Creates workspace object of the namespace based on the status and machines RAM. */
+  public static WorkspaceImpl createWorkspace(
+      String namespace, WorkspaceStatus status, Integer... machineRams) {
+    final List<MachineImpl> machines = new ArrayList<>(machineRams.length);
     for (Integer machineRam : machineRams) {
       machines.add(createMachine(machineRam));
     }
     return WorkspaceImpl.builder()
+        .setId("workspace123")
+        .setAccount(new AccountImpl("account123", namespace, "test"))
         .setRuntime(new WorkspaceRuntimeImpl(null, null, machines, null))
         .setStatus(status)
         .build();
@@ -17,6 +17,7 @@ import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Table;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.inject.Singleton;
@@ -26,6 +27,9 @@ import org.eclipse.che.api.core.NotFoundException;
  * Table-based storage of machine security tokens. Table rows is workspace id's, columns - user
  * id's. Table is synchronized externally as required by its javadoc.
  *
+ * <p>Tokens are also indexed by their values, so owners of a token are found without the table
+ * lock. The index is modified under the write lock together with the table.
+ *
  * @author Max Shaposhnik (mshaposhnik@codenvy.com)
  * @see HashBasedTable
  */
@@ -33,6 +37,7 @@ import org.eclipse.che.api.core.NotFoundException;
 public class MachineTokenRegistry {
 
   private final Table<String, String, String> tokens = HashBasedTable.create();
+  private final Map<String, TokenOwner> owners = new ConcurrentHashMap<>();
   private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
   /**
@@ -46,7 +51,7 @@ public class MachineTokenRegistry {
     lock.writeLock().lock();
     try {
       final String token = generate("machine", 128);
-      tokens.put(workspaceId, userId, token);
+      putToken(workspaceId, userId, token);
       return token;
     } finally {
       lock.writeLock().unlock();
@@ -82,17 +87,11 @@ public class MachineTokenRegistry {
    * @throws NotFoundException when no token exists for given user and workspace
    */
   public String getUserId(String token) throws NotFoundException {
-    lock.readLock().lock();
-    try {
-      for (Table.Cell<String, String, String> tokenCell : tokens.cellSet()) {
-        if (tokenCell.getValue().equals(token)) {
-          return tokenCell.getColumnKey();
-        }
-      }
+    final TokenOwner owner = owners.get(token);
+    if (owner == null) {
       throw new NotFoundException("User not found for token " + token);
-    } finally {
-      lock.readLock().unlock();
     }
+    return owner.userId;
   }
 
   /**
@@ -102,17 +101,11 @@ public class MachineTokenRegistry {
    * @throws NotFoundException when no such machine token exists
    */
   public String getWorkspaceId(String token) throws NotFoundException {
-    lock.readLock().lock();
-    try {
-      for (Table.Cell<String, String, String> tokenCell : tokens.cellSet()) {
-        if (tokenCell.getValue().equals(token)) {
-          return tokenCell.getRowKey();
-        }
-      }
+    final TokenOwner owner = owners.get(token);
+    if (owner == null) {
       throw new NotFoundException("Workspace not found for token " + token);
-    } finally {
-      lock.readLock().unlock();
     }
+    return owner.workspaceId;
   }
 
   /**
@@ -126,9 +119,29 @@ public class MachineTokenRegistry {
     try {
       final Map<String, String> rowCopy = new HashMap<>(tokens.row(workspaceId));
       tokens.row(workspaceId).clear();
+      owners.keySet().removeAll(rowCopy.values());
       return rowCopy;
     } finally {
       lock.writeLock().unlock();
     }
   }
+
+  /** Must be called under the write lock. */
+  private void putToken(String workspaceId, String userId, String token) {
+    final String replaced = tokens.put(workspaceId, userId, token);
+    if (replaced != null) {
+      owners.remove(replaced);
+    }
+    owners.put(token, new TokenOwner(userId, workspaceId));
+  }
+
+  private static class TokenOwner {
+    final String userId;
+    final String workspaceId;
+
+    TokenOwner(String userId, String workspaceId) {
+      this.userId = userId;
+      this.workspaceId = workspaceId;
+    }
+  }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.machine.authentication.server;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures throughput of token lookups of {@link MachineTokenRegistry} for growing number of
+ * tokens, while another thread keeps generating and removing tokens as workspaces start and stop.
+ * Not a unit test, run it manually from IDE or with {@code exec:java -Dexec.classpathScope=test}.
+ *
+ * <p>Arguments: number of lookup threads (number of available processors by default), duration of
+ * each measurement in seconds (5 by default).
+ */
+public class MachineTokenRegistryBenchmark {
+  private static final int[] TOKENS = {10_000, 50_000, 100_000};
+
+  public static void main(String[] args) throws Exception {
+    int threads =
+        args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    int duration = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+    for (int size : TOKENS) {
+      MachineTokenRegistry registry = new MachineTokenRegistry();
+      List<String> tokens = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        tokens.add(registry.generateToken("user" + i % 100, "workspace" + i));
+      }
+      long lookups = run(registry, tokens, threads, duration);
+      System.out.printf("%,7d tokens: %,14d lookups/s%n", size, lookups / duration);
+    }
+  }
+
+  private static long run(
+      MachineTokenRegistry registry, List<String> tokens, int threads, int duration)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+    AtomicBoolean running = new AtomicBoolean(true);
+    CountDownLatch finished = new CountDownLatch(threads + 1);
+    LongAdder lookups = new LongAdder();
+    List<Throwable> errors = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final int offset = t * 7919;
+      executor.execute(
+          () -> {
+            try {
+              for (int i = offset; running.get(); i++) {
+                String token = tokens.get(i % tokens.size());
+                registry.getUserId(token);
+                registry.getWorkspaceId(token);
+                lookups.add(2);
+              }
+            } catch (Exception e) {
+              synchronized (errors) {
+                errors.add(e);
+              }
+            } finally {
+              finished.countDown();
+            }
+          });
+    }
+    // workspaces which are not looked up are started and stopped meanwhile
+    executor.execute(
+        () -> {
+          try {
+            for (int i = 0; running.get(); i++) {
+              registry.generateToken("user", "churn" + i % 100);
+              registry.removeTokens("churn" + (i + 50) % 100);
+            }
+          } finally {
+            finished.countDown();
+          }
+        });
+
+    SECONDS.sleep(duration);
+    running.set(false);
+    finished.await();
+    executor.shutdown();
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException(errors.get(0));
+    }
+    return lookups.sum();
+  }
+}
@@ -68,4 +68,33 @@ public class MachineTokenRegistryTest {
     assertEquals(registry.getWorkspaceId(token21), "workspace1");
     assertEquals(registry.getWorkspaceId(token22), "workspace2");
   }
+
+  @Test
+  public void shouldReturnUserId() throws Exception {
+    final MachineTokenRegistry registry = new MachineTokenRegistry();
+
+    String token11 = registry.generateToken("user1", "workspace1");
+    String token21 = registry.generateToken("user2", "workspace1");
+
+    assertEquals(registry.getUserId(token11), "user1");
+    assertEquals(registry.getUserId(token21), "user2");
+  }
+
+  @Test(expectedExceptions = NotFoundException.class)
+  public void shouldNotFindReplacedToken() throws Exception {
+    final MachineTokenRegistry registry = new MachineTokenRegistry();
+    String oldToken = registry.generateToken("user1", "workspace1");
+    registry.generateToken("user1", "workspace1");
+
+    registry.getUserId(oldToken);
+  }
+
+  @Test(expectedExceptions = NotFoundException.class)
+  public void shouldNotFindRemovedToken() throws Exception {
+    final MachineTokenRegistry registry = new MachineTokenRegistry();
+    String token = registry.generateToken("user1", "workspace1");
+    registry.removeTokens("workspace1");
+
+    registry.getWorkspaceId(token);
+  }
 }
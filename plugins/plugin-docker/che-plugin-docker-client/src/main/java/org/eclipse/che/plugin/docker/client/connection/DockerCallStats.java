@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.plugin.docker.client.connection;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Collects duration of docker API calls, from sending of a request until its connection is closed.
+ * Calls are grouped by HTTP method and path where identifiers of containers, images, etc. are
+ * replaced with a placeholder, e.g. {@code GET /containers/{id}/json}.
+ */
+public class DockerCallStats {
+  private static final Pattern API_VERSION = Pattern.compile("^/v[0-9.]+");
+  private static final Set<String> NOT_IDENTIFIERS =
+      ImmutableSet.of("create", "json", "prune", "search", "load", "get", "build");
+  private static final Set<String> IMAGE_ACTIONS =
+      ImmutableSet.of("json", "history", "push", "tag");
+
+  private final Map<String, Counters> calls = new ConcurrentHashMap<>();
+
+  void record(String method, String path, long durationNanos) {
+    calls.computeIfAbsent(callName(method, path), k -> new Counters()).add(durationNanos);
+  }
+
+  /** Returns statistics by call name. */
+  public Map<String, CallStats> getCalls() {
+    Map<String, CallStats> stats = new HashMap<>();
+    calls.forEach((name, counters) -> stats.put(name, counters.toStats()));
+    return stats;
+  }
+
+  static String callName(String method, String path) {
+    List<String> segments = new ArrayList<>();
+    for (String segment : API_VERSION.matcher(path).replaceFirst("").split("/")) {
+      if (!segment.isEmpty()) {
+        segments.add(segment);
+      }
+    }
+    StringBuilder name = new StringBuilder(method).append(' ');
+    if (segments.isEmpty()) {
+      return name.append('/').toString();
+    }
+    String resource = segments.get(0);
+    name.append('/').append(resource);
+    if (segments.size() == 1) {
+      return name.toString();
+    }
+    if (NOT_IDENTIFIERS.contains(segments.get(1))) {
+      for (String segment : segments.subList(1, segments.size())) {
+        name.append('/').append(segment);
+      }
+      return name.toString();
+    }
+    name.append("/{id}");
+    String last = segments.get(segments.size() - 1);
+    // names of images may contain slashes
+    if (segments.size() > 2 && (!"images".equals(resource) || IMAGE_ACTIONS.contains(last))) {
+      name.append('/').append(last);
+    }
+    return name.toString();
+  }
+
+  /** Statistics of a docker API call. */
+  public static final class CallStats {
+    private final long count;
+    private final long totalTimeMs;
+    private final long maxTimeMs;
+
+    CallStats(long count, long totalTimeMs, long maxTimeMs) {
+      this.count = count;
+      this.totalTimeMs = totalTimeMs;
+      this.maxTimeMs = maxTimeMs;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTotalTimeMs() {
+      return totalTimeMs;
+    }
+
+    public long getMaxTimeMs() {
+      return maxTimeMs;
+    }
+  }
+
+  private static class Counters {
+    final LongAdder count = new LongAdder();
+    final LongAdder totalNanos = new LongAdder();
+    final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    void add(long durationNanos) {
+      count.increment();
+      totalNanos.add(durationNanos);
+      maxNanos.accumulate(durationNanos);
+    }
+
+    CallStats toStats() {
+      return new CallStats(
+          count.sum(),
+          NANOSECONDS.toMillis(totalNanos.sum()),
+          NANOSECONDS.toMillis(maxNanos.get()));
+    }
+  }
+}
@@ -31,6 +31,9 @@ public abstract class DockerConnection implements Closeable {
   private StringBuilder query = new StringBuilder();
   private List<Pair<String, ?>> headers = new LinkedList<>();
 
+  private DockerCallStats callStats;
+  private long requestStartedAt;
+
   public DockerConnection method(String method) {
     this.method = method;
     return this;
@@ -88,9 +91,24 @@ public abstract class DockerConnection implements Closeable {
   }
 
   public DockerResponse request() throws IOException {
+    requestStartedAt = System.nanoTime();
     return request(method, path, query.toString(), headers, entity);
   }
 
+  /** Sets statistics to which duration of the call is added when connection is closed. */
+  DockerConnection callStats(DockerCallStats callStats) {
+    this.callStats = callStats;
+    return this;
+  }
+
+  /** Must be called by implementations when connection is closed. */
+  protected void callFinished() {
+    if (callStats != null && requestStartedAt != 0) {
+      callStats.record(method, path, System.nanoTime() - requestStartedAt);
+      requestStartedAt = 0;
+    }
+  }
+
   protected abstract DockerResponse request(
       String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
       throws IOException;
@@ -105,6 +123,11 @@ public abstract class DockerConnection implements Closeable {
     }
 
     abstract void writeTo(OutputStream output) throws IOException;
+
+    /** Whether the entity may be written more than once. */
+    boolean isRepeatable() {
+      return true;
+    }
   }
 
   static class StreamEntity extends Entity<InputStream> {
@@ -112,6 +135,11 @@ public abstract class DockerConnection implements Closeable {
       super(entity);
     }
 
+    @Override
+    boolean isRepeatable() {
+      return false;
+    }
+
     @Override
     public void writeTo(OutputStream output) throws IOException {
       try {
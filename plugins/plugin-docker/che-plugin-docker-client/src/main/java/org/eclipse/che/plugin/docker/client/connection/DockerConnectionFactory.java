@@ -12,7 +12,13 @@ package org.eclipse.che.plugin.docker.client.connection;
 
 import com.google.inject.Inject;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
+import javax.inject.Singleton;
 import org.eclipse.che.plugin.docker.client.DockerCertificates;
 import org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration;
 
@@ -21,8 +27,14 @@ import org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration;
  *
  * <p>Detects connection implementation by checking docker daemon URI.
  *
+ * <p>Connections to unix socket are kept in {@link UnixSocketConnectionPool} between requests, up
+ * to {@value #CONNECTION_POOL_MAX_IDLE_PROPERTY} idle connections per socket. TCP connections are
+ * kept alive by {@link java.net.HttpURLConnection} if {@value #TCP_CONNECTION_KEEP_ALIVE_PROPERTY}
+ * is enabled. Duration of calls is collected in {@link #getCallStats()}.
+ *
  * @author Alexander Garagatyi
  */
+@Singleton
 public class DockerConnectionFactory {
   public static final String CONNECTION_TIMEOUT_MS_PROPERTY =
       "che.docker.tcp_connection_timeout_ms";
@@ -33,11 +45,32 @@ public class DockerConnectionFactory {
   @Named(CONNECTION_TIMEOUT_MS_PROPERTY)
   private int connectionTimeoutMs = 60000;
 
+  public static final String CONNECTION_POOL_MAX_IDLE_PROPERTY =
+      "che.docker.connection_pool.max_idle";
+  public static final String CONNECTION_POOL_IDLE_TIMEOUT_MS_PROPERTY =
+      "che.docker.connection_pool.idle_timeout_ms";
+  public static final String TCP_CONNECTION_KEEP_ALIVE_PROPERTY =
+      "che.docker.tcp_connection_keep_alive";
+
   @Inject(optional = true)
   @Named(CONNECTION_READ_TIMEOUT_MS_PROPERTY)
   private int connectionReadTimeoutMs = 60000;
 
+  @Inject(optional = true)
+  @Named(CONNECTION_POOL_MAX_IDLE_PROPERTY)
+  private int connectionPoolMaxIdle = 0;
+
+  @Inject(optional = true)
+  @Named(CONNECTION_POOL_IDLE_TIMEOUT_MS_PROPERTY)
+  private long connectionPoolIdleTimeoutMs = 30000;
+
+  @Inject(optional = true)
+  @Named(TCP_CONNECTION_KEEP_ALIVE_PROPERTY)
+  private boolean tcpConnectionKeepAlive = false;
+
   private final DockerCertificates dockerCertificates;
+  private final ConcurrentMap<String, UnixSocketConnectionPool> pools = new ConcurrentHashMap<>();
+  private final DockerCallStats callStats = new DockerCallStats();
 
   @Inject
   public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration) {
@@ -45,11 +78,44 @@ public class DockerConnectionFactory {
   }
 
   public DockerConnection openConnection(URI dockerDaemonUri) {
+    final DockerConnection connection;
     if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-      return new UnixSocketConnection(dockerDaemonUri.getPath());
+      connection = new UnixSocketConnection(dockerDaemonUri.getPath(), getPool(dockerDaemonUri));
     } else {
-      return new TcpConnection(
-          dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
+      connection =
+          new TcpConnection(
+              dockerDaemonUri,
+              dockerCertificates,
+              connectionTimeoutMs,
+              connectionReadTimeoutMs,
+              tcpConnectionKeepAlive);
+    }
+    return connection.callStats(callStats);
+  }
+
+  /** Returns duration statistics of docker API calls made through connections of this factory. */
+  public DockerCallStats getCallStats() {
+    return callStats;
+  }
+
+  /** Returns pools of connections to unix sockets. */
+  public List<UnixSocketConnectionPool> getConnectionPools() {
+    return new ArrayList<>(pools.values());
+  }
+
+  @PreDestroy
+  public void closeConnectionPools() {
+    pools.values().forEach(UnixSocketConnectionPool::close);
+  }
+
+  private UnixSocketConnectionPool getPool(URI dockerDaemonUri) {
+    if (connectionPoolMaxIdle <= 0) {
+      return null;
     }
+    return pools.computeIfAbsent(
+        dockerDaemonUri.getPath(),
+        path ->
+            new UnixSocketConnectionPool(
+                path, connectionPoolMaxIdle, connectionPoolIdleTimeoutMs));
   }
 }
@@ -57,6 +57,11 @@ public class LimitedInputStream extends InputStream {
     return doRead(b, 0, len);
   }
 
+  /** Returns number of bytes that are left to read. */
+  synchronized int remaining() {
+    return limit - pos;
+  }
+
   private int doRead(byte[] b, int off, int len) throws IOException {
     if (pos >= limit) {
       return -1;
@@ -12,6 +12,7 @@ package org.eclipse.che.plugin.docker.client.connection;
 
 import com.google.common.base.Strings;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
@@ -30,11 +31,27 @@ public class TcpConnection extends DockerConnection {
   private final DockerCertificates certificates;
   private final int connectionTimeout;
   private final int readTimeout;
+  private final boolean keepAlive;
 
   private HttpURLConnection connection;
+  private boolean responded;
 
   public TcpConnection(
       URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs) {
+    this(baseUri, certificates, connectionTimeoutMs, readTimeoutMs, false);
+  }
+
+  /**
+   * Creates connection that may keep underlying HTTP connection alive. Such connections are kept
+   * by {@link HttpURLConnection} keep-alive cache, which is configured with {@code http.keepAlive}
+   * and {@code http.maxConnections} system properties.
+   */
+  public TcpConnection(
+      URI baseUri,
+      DockerCertificates certificates,
+      int connectionTimeoutMs,
+      int readTimeoutMs,
+      boolean keepAlive) {
     if ("https".equals(baseUri.getScheme())) {
       if (certificates == null) {
         throw new IllegalArgumentException("Certificates are required for https connection.");
@@ -47,6 +64,7 @@ public class TcpConnection extends DockerConnection {
     this.certificates = certificates;
     this.connectionTimeout = connectionTimeoutMs;
     this.readTimeout = readTimeoutMs;
+    this.keepAlive = keepAlive;
   }
 
   @Override
@@ -64,8 +82,10 @@ public class TcpConnection extends DockerConnection {
           .setSSLSocketFactory(certificates.getSslContext().getSocketFactory());
     }
     connection.setRequestMethod(method);
-    // needed to fix bug https://github.com/docker/docker/issues/12845
-    connection.setRequestProperty("Connection", "close");
+    if (!keepAlive) {
+      // needed to fix bug https://github.com/docker/docker/issues/12845
+      connection.setRequestProperty("Connection", "close");
+    }
     for (Pair<String, ?> header : headers) {
       connection.setRequestProperty(header.first, String.valueOf(header.second));
     }
@@ -81,13 +101,35 @@ public class TcpConnection extends DockerConnection {
         entity.writeTo(output);
       }
     }
+    responded = true;
     return new TcpDockerResponse(connection);
   }
 
   @Override
   public void close() {
     if (connection != null) {
-      connection.disconnect();
+      if (!keepAlive || !responded || !release()) {
+        connection.disconnect();
+      }
+      connection = null;
+    }
+    callFinished();
+  }
+
+  /**
+   * Closes response stream, so {@link HttpURLConnection} may return completely read connection to
+   * its keep-alive cache.
+   */
+  private boolean release() {
+    try {
+      InputStream stream = connection.getErrorStream();
+      if (stream == null) {
+        stream = connection.getInputStream();
+      }
+      stream.close();
+      return true;
+    } catch (IOException e) {
+      return false;
     }
   }
 }
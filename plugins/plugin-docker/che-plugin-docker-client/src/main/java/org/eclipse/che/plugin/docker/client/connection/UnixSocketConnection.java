@@ -16,6 +16,7 @@ import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
@@ -25,6 +26,7 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.ConnectException;
 import java.util.List;
+import java.util.Set;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.plugin.docker.client.CLibrary;
 
@@ -33,32 +35,92 @@ import org.eclipse.che.plugin.docker.client.CLibrary;
  * @author Alexander Garagatyi
  */
 public class UnixSocketConnection extends DockerConnection {
+  /** Methods which may be sent again when the result of the previous attempt is not known. */
+  private static final Set<String> IDEMPOTENT_METHODS =
+      ImmutableSet.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
   private final String dockerSocketPath;
+  private final UnixSocketConnectionPool pool;
 
   private int fd = -1;
+  private UnixSocketDockerResponse response;
 
   public UnixSocketConnection(String dockerSocketPath) {
+    this(dockerSocketPath, null);
+  }
+
+  /**
+   * Creates connection that takes an idle socket connection from the given pool and returns it
+   * back when response is completely read.
+   */
+  public UnixSocketConnection(String dockerSocketPath, UnixSocketConnectionPool pool) {
     this.dockerSocketPath = dockerSocketPath;
+    this.pool = pool;
   }
 
   @Override
   protected DockerResponse request(
       String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
       throws IOException {
-    fd = connect();
-    final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
-    writeHttpHeaders(output, method, path, query, headers);
-    if (entity != null) {
-      entity.writeTo(output);
+    if (pool == null) {
+      fd = connect();
+      return send(method, path, query, headers, entity);
+    }
+
+    if (entity == null || entity.isRepeatable()) {
+      fd = pool.acquireIdle();
+      if (fd != -1) {
+        boolean sent = false;
+        try {
+          DockerResponse response = send(method, path, query, headers, entity);
+          sent = true;
+          response.getStatus();
+          return response;
+        } catch (IOException e) {
+          // idle connection might be closed by docker daemon, retry with a new one unless
+          // the daemon might have already received and executed the request
+          getCLibrary().close(fd);
+          fd = -1;
+          if (sent && !IDEMPOTENT_METHODS.contains(method)) {
+            throw e;
+          }
+        }
+      }
     }
-    return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
+    fd = pool.open();
+    return sendAndReadHeaders(method, path, query, headers, entity);
   }
 
   @Override
   public void close() {
     if (fd != -1) {
-      getCLibrary().close(fd);
+      if (pool != null && response != null && response.isCompleted()) {
+        pool.release(fd);
+      } else {
+        getCLibrary().close(fd);
+      }
+      fd = -1;
+    }
+    callFinished();
+  }
+
+  private DockerResponse sendAndReadHeaders(
+      String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
+      throws IOException {
+    final DockerResponse response = send(method, path, query, headers, entity);
+    response.getStatus();
+    return response;
+  }
+
+  private DockerResponse send(
+      String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
+      throws IOException {
+    final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
+    writeHttpHeaders(output, method, path, query, headers);
+    if (entity != null) {
+      entity.writeTo(output);
     }
+    return response = new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
   }
 
   private int connect() throws IOException {
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.plugin.docker.client.connection;
+
+import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.che.plugin.docker.client.CLibrary;
+import org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
+
+/**
+ * Keeps idle connections to docker unix socket, so subsequent HTTP/1.1 requests reuse them instead
+ * of opening new socket each time. At most {@code maxIdle} connections are kept, connections that
+ * stay idle longer than {@code idleTimeoutMs} are closed. Number of connections in use is not
+ * limited since some of them, e.g. streams of logs or events, may be held for a long time.
+ */
+public class UnixSocketConnectionPool {
+  private final String socketPath;
+  private final int maxIdle;
+  private final long idleTimeoutMs;
+  // most recently released connection first
+  private final Deque<IdleConnection> idle = new ArrayDeque<>();
+  private final LongAdder opened = new LongAdder();
+  private final LongAdder reused = new LongAdder();
+  private final LongAdder evicted = new LongAdder();
+
+  public UnixSocketConnectionPool(String socketPath, int maxIdle, long idleTimeoutMs) {
+    this.socketPath = socketPath;
+    this.maxIdle = maxIdle;
+    this.idleTimeoutMs = idleTimeoutMs;
+  }
+
+  /**
+   * Returns file descriptor of an idle connection or {@code -1} if there is no one.
+   *
+   * @see #release(int)
+   */
+  public int acquireIdle() {
+    synchronized (this) {
+      evictExpired();
+      IdleConnection connection = idle.pollFirst();
+      if (connection != null) {
+        reused.increment();
+        return connection.fd;
+      }
+    }
+    return -1;
+  }
+
+  /** Opens a new connection and returns its file descriptor. */
+  public int open() throws IOException {
+    final CLibrary cLib = getCLibrary();
+    int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
+    if (fd == -1) {
+      throw new ConnectException(String.format("Unable connect to unix socket: '%s'", socketPath));
+    }
+    final SockAddrUn sockAddr = new SockAddrUn(socketPath);
+    int c = cLib.connect(fd, sockAddr, sockAddr.size());
+    if (c == -1) {
+      cLib.close(fd);
+      throw new ConnectException(String.format("Unable connect to unix socket: '%s'", socketPath));
+    }
+    opened.increment();
+    return fd;
+  }
+
+  /** Returns connection that is ready for the next request to the pool or closes it. */
+  public void release(int fd) {
+    synchronized (this) {
+      evictExpired();
+      if (idle.size() < maxIdle) {
+        idle.addFirst(new IdleConnection(fd));
+        return;
+      }
+    }
+    getCLibrary().close(fd);
+  }
+
+  /** Closes all idle connections. */
+  public void close() {
+    synchronized (this) {
+      while (!idle.isEmpty()) {
+        getCLibrary().close(idle.pollFirst().fd);
+      }
+    }
+  }
+
+  public String getSocketPath() {
+    return socketPath;
+  }
+
+  /** Number of connections opened to the socket. */
+  public long getOpenedConnections() {
+    return opened.sum();
+  }
+
+  /** Number of requests that reused an idle connection. */
+  public long getReusedConnections() {
+    return reused.sum();
+  }
+
+  /** Number of idle connections closed due to idle timeout. */
+  public long getEvictedConnections() {
+    return evicted.sum();
+  }
+
+  public synchronized int getIdleConnections() {
+    return idle.size();
+  }
+
+  private void evictExpired() {
+    long expiredBefore = System.currentTimeMillis() - idleTimeoutMs;
+    while (!idle.isEmpty() && idle.peekLast().releasedAt < expiredBefore) {
+      getCLibrary().close(idle.pollLast().fd);
+      evicted.increment();
+    }
+  }
+
+  private static class IdleConnection {
+    final int fd;
+    final long releasedAt = System.currentTimeMillis();
+
+    IdleConnection(int fd) {
+      this.fd = fd;
+    }
+  }
+}
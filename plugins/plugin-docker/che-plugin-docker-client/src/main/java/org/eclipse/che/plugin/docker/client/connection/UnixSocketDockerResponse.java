@@ -25,6 +25,9 @@ public class UnixSocketDockerResponse implements DockerResponse {
         }
       };
 
+  /** Maximal size of unread rest of body that is skipped to reuse the connection. */
+  private static final int MAX_SKIPPED_BODY = 64 * 1024;
+
   private final InputStream rawData;
 
   private InputStream data;
@@ -154,4 +157,40 @@ public class UnixSocketDockerResponse implements DockerResponse {
             ? new ChunkedInputStream(rawData)
             : rawData;
   }
+
+  /**
+   * Checks whether the response is read completely, so the connection may be used for the next
+   * request. A small unread rest of the body is skipped.
+   */
+  synchronized boolean isCompleted() {
+    if (headersFields == null || !headersFields[0].startsWith("HTTP/1.1")) {
+      return false;
+    }
+    try {
+      if ("close".equalsIgnoreCase(getHeader("Connection"))) {
+        return false;
+      }
+      if (data == EMPTY) {
+        return true;
+      }
+      if (data instanceof ChunkedInputStream) {
+        return ((ChunkedInputStream) data).isEof();
+      }
+      if (data instanceof LimitedInputStream) {
+        final LimitedInputStream body = (LimitedInputStream) data;
+        if (body.remaining() > MAX_SKIPPED_BODY) {
+          return false;
+        }
+        final byte[] buf = new byte[8192];
+        while (body.remaining() > 0) {
+          if (body.read(buf) <= 0) {
+            return false;
+          }
+        }
+        return true;
+      }
+    } catch (IOException ignored) {
+    }
+    return false;
+  }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.plugin.docker.client.connection;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/** Tests for {@link DockerCallStats} */
+public class DockerCallStatsTest {
+
+  @Test(dataProvider = "calls")
+  public void shouldReplaceIdentifiersInCallName(String method, String path, String expected) {
+    assertEquals(DockerCallStats.callName(method, path), expected);
+  }
+
+  @DataProvider
+  public Object[][] calls() {
+    return new Object[][] {
+      {"GET", "/v1.20/info", "GET /info"},
+      {"GET", "/containers/json", "GET /containers/json"},
+      {"POST", "/v1.20/containers/create", "POST /containers/create"},
+      {"GET", "/v1.20/containers/0ab3c9f1/json", "GET /containers/{id}/json"},
+      {"DELETE", "/v1.20/containers/0ab3c9f1", "DELETE /containers/{id}"},
+      {"POST", "/v1.20/exec/e1/start", "POST /exec/{id}/start"},
+      {"GET", "/v1.20/images/eclipse/che-server/json", "GET /images/{id}/json"},
+      {"DELETE", "/v1.20/images/eclipse/che-server", "DELETE /images/{id}"},
+      {"POST", "/v1.20/images/create", "POST /images/create"}
+    };
+  }
+
+  @Test
+  public void shouldCollectCallStatistics() {
+    DockerCallStats stats = new DockerCallStats();
+
+    stats.record("GET", "/containers/a/json", 2_000_000);
+    stats.record("GET", "/containers/b/json", 4_000_000);
+
+    DockerCallStats.CallStats callStats = stats.getCalls().get("GET /containers/{id}/json");
+    assertEquals(callStats.getCount(), 2);
+    assertEquals(callStats.getTotalTimeMs(), 6);
+    assertEquals(callStats.getMaxTimeMs(), 4);
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.plugin.docker.client.connection;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
+import static org.testng.Assert.assertEquals;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.che.api.core.util.SystemInfo;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link UnixSocketConnectionPool} against a fake docker daemon listening on unix socket. */
+public class UnixSocketConnectionPoolTest {
+  private File tempDir;
+  private FakeDaemon daemon;
+  private UnixSocketConnectionPool pool;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    if (!SystemInfo.isLinux()) {
+      throw new SkipException("Unix sockets are supported on linux only");
+    }
+    tempDir = Files.createTempDirectory("docker-socket-").toFile();
+    daemon = new FakeDaemon(new File(tempDir, "docker.sock").getAbsolutePath());
+    daemon.start();
+    pool = new UnixSocketConnectionPool(daemon.socketPath, 5, 60_000);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    if (daemon != null) {
+      pool.close();
+      daemon.stop();
+      IoUtil.deleteRecursive(tempDir);
+    }
+  }
+
+  @Test
+  public void shouldReuseConnectionForSubsequentRequests() throws Exception {
+    assertEquals(get("/info"), "{\"path\":\"/info\"}");
+    assertEquals(get("/version"), "{\"path\":\"/version\"}");
+    assertEquals(get("/containers/json"), "{\"path\":\"/containers/json\"}");
+
+    assertEquals(daemon.accepted.get(), 1);
+    assertEquals(pool.getOpenedConnections(), 1);
+    assertEquals(pool.getReusedConnections(), 2);
+    assertEquals(pool.getIdleConnections(), 1);
+  }
+
+  @Test
+  public void shouldNotReuseConnectionWithLargeUnreadBody() throws Exception {
+    daemon.bodyPadding = 100 * 1024;
+
+    try (DockerConnection connection = connection("/logs")) {
+      connection.request().getStatus();
+    }
+    get("/info");
+
+    assertEquals(daemon.accepted.get(), 2);
+    assertEquals(pool.getReusedConnections(), 0);
+  }
+
+  @Test
+  public void shouldReconnectWhenIdleConnectionIsClosedByDaemon() throws Exception {
+    daemon.closeAfterResponse = true;
+
+    assertEquals(get("/info"), "{\"path\":\"/info\"}");
+    assertEquals(get("/version"), "{\"path\":\"/version\"}");
+
+    assertEquals(daemon.accepted.get(), 2);
+  }
+
+  @Test
+  public void shouldCloseConnectionsThatAreIdleTooLong() throws Exception {
+    pool = new UnixSocketConnectionPool(daemon.socketPath, 5, 1);
+
+    get("/info");
+    Thread.sleep(20);
+    get("/version");
+
+    assertEquals(daemon.accepted.get(), 2);
+    assertEquals(pool.getEvictedConnections(), 1);
+  }
+
+  private String get(String path) throws Exception {
+    try (DockerConnection connection = connection(path)) {
+      DockerResponse response = connection.request();
+      assertEquals(response.getStatus(), 200);
+      try (InputStream body = response.getInputStream()) {
+        return new String(ByteStreams.toByteArray(body), UTF_8).trim();
+      }
+    }
+  }
+
+  private DockerConnection connection(String path) {
+    return new UnixSocketConnection(daemon.socketPath, pool).method("GET").path(path);
+  }
+
+  /** C functions needed to listen on unix socket. */
+  public interface ServerCLibrary extends Library {
+    int socket(int domain, int type, int protocol);
+
+    int bind(int fd, SockAddrUn sockAddr, int addrLen);
+
+    int listen(int fd, int backlog);
+
+    int accept(int fd, Pointer addr, Pointer addrLen);
+
+    int recv(int fd, byte[] buffer, int count, int flags);
+
+    int send(int fd, byte[] buffer, int count, int flags);
+
+    int shutdown(int fd, int how);
+
+    int close(int fd);
+  }
+
+  /** Answers each request with JSON that contains requested path, keeps connections alive. */
+  private static class FakeDaemon {
+    private static final ServerCLibrary C =
+        (ServerCLibrary) Native.loadLibrary("c", ServerCLibrary.class);
+
+    final String socketPath;
+    final AtomicInteger accepted = new AtomicInteger();
+    volatile boolean closeAfterResponse;
+    volatile int bodyPadding;
+
+    private int serverFd;
+
+    FakeDaemon(String socketPath) {
+      this.socketPath = socketPath;
+    }
+
+    void start() {
+      serverFd = C.socket(AF_UNIX, SOCK_STREAM, 0);
+      SockAddrUn address = new SockAddrUn(socketPath);
+      if (C.bind(serverFd, address, address.size()) != 0 || C.listen(serverFd, 10) != 0) {
+        throw new IllegalStateException("Can't listen on " + socketPath);
+      }
+      Thread acceptor =
+          new Thread(
+              () -> {
+                int fd;
+                while ((fd = C.accept(serverFd, null, null)) >= 0) {
+                  accepted.incrementAndGet();
+                  final int clientFd = fd;
+                  Thread handler = new Thread(() -> serve(clientFd));
+                  handler.setDaemon(true);
+                  handler.start();
+                }
+              });
+      acceptor.setDaemon(true);
+      acceptor.start();
+    }
+
+    void stop() {
+      // unblocks accept
+      C.shutdown(serverFd, 2);
+      C.close(serverFd);
+    }
+
+    private void serve(int fd) {
+      try {
+        StringBuilder request = new StringBuilder();
+        byte[] buf = new byte[1024];
+        int n;
+        while ((n = C.recv(fd, buf, buf.length, 0)) > 0) {
+          request.append(new String(buf, 0, n, UTF_8));
+          int end;
+          while ((end = request.indexOf("\r\n\r\n")) != -1) {
+            String requestLine = request.substring(0, request.indexOf("\r\n"));
+            request.delete(0, end + 4);
+            respond(fd, requestLine.split(" ")[1]);
+            if (closeAfterResponse) {
+              return;
+            }
+          }
+        }
+      } finally {
+        C.close(fd);
+      }
+    }
+
+    private void respond(int fd, String path) {
+      String body = "{\"path\":\"" + path + "\"}" + Strings.repeat(" ", bodyPadding);
+      byte[] bodyBytes = body.getBytes(UTF_8);
+      byte[] head =
+          ("HTTP/1.1 200 OK\r\n"
+                  + "Content-Type: application/json\r\n"
+                  + "Content-Length: "
+                  + bodyBytes.length
+                  + "\r\n\r\n")
+              .getBytes(UTF_8);
+      C.send(fd, head, head.length, 0);
+      int sent = 0;
+      while (sent < bodyBytes.length) {
+        byte[] chunk = new byte[Math.min(8192, bodyBytes.length - sent)];
+        System.arraycopy(bodyBytes, sent, chunk, 0, chunk.length);
+        int n = C.send(fd, chunk, chunk.length, 0);
+        if (n <= 0) {
+          return;
+        }
+        sent += n;
+      }
+    }
+  }
+}
@@ -35,7 +35,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Function;
@@ -56,6 +58,7 @@ import org.eclipse.che.api.core.util.JsonRpcMessageConsumer;
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.core.util.SystemInfo;
 import org.eclipse.che.api.environment.server.MachineInstanceProvider;
+import org.eclipse.che.api.environment.server.model.CheServiceBuildContextImpl;
 import org.eclipse.che.api.environment.server.model.CheServiceImpl;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.exception.SourceNotFoundException;
@@ -174,6 +177,8 @@ public class MachineProviderImpl implements MachineInstanceProvider {
   private final WindowsPathEscaper windowsPathEscaper;
   private final String[] dnsResolvers;
   private final Map<String, String> buildArgs;
+  /** Images prepared ahead of services start, mapped by container names of the services. */
+  private final Map<String, PreparedImage> preparedImages = new ConcurrentHashMap<>();
 
   @Inject
   public MachineProviderImpl(
@@ -323,36 +328,17 @@ public class MachineProviderImpl implements MachineInstanceProvider {
     // copy to not affect/be affected by changes in origin
     service = new CheServiceImpl(service);
 
-    JsonRpcMessageConsumer<MachineLogMessage> messageConsumer =
-        new JsonRpcMessageConsumer<>(
-            "event:environment-output:message",
-            transmitter,
-            () ->
-                jsonRpcEndpointToMachineNameHolder.getEndpointIdsByWorkspaceIdPlusMachineName(
-                    workspaceId + "::" + machineName));
-    LineConsumer logger =
-        new CompositeLineConsumer(
-            machineLogger,
-            new AbstractLineConsumer() {
-              @Override
-              public void writeLine(String line) throws IOException {
-                messageConsumer.consume(new MachineLogMessageImpl(machineName, line));
-              }
-            });
-
-    ProgressLineFormatterImpl progressLineFormatter = new ProgressLineFormatterImpl();
-    ProgressMonitor progressMonitor =
-        currentProgressStatus -> {
-          try {
-            logger.writeLine(progressLineFormatter.format(currentProgressStatus));
-          } catch (IOException e) {
-            LOG.error(e.getLocalizedMessage(), e);
-          }
-        };
+    LineConsumer logger = createServiceLogger(workspaceId, machineName, machineLogger);
 
     String container = null;
     try {
-      String image = prepareImage(machineName, service, progressMonitor);
+      String image;
+      PreparedImage preparedImage = preparedImages.remove(service.getContainerName());
+      if (preparedImage != null && preparedImage.isPreparedFor(service)) {
+        image = preparedImage.name;
+      } else {
+        image = prepareImage(machineName, service, createProgressMonitor(logger));
+      }
 
       container = createContainer(workspaceId, machineName, isDev, image, networkName, service);
 
@@ -402,6 +388,37 @@ public class MachineProviderImpl implements MachineInstanceProvider {
     }
   }
 
+  @Override
+  public void prepareService(
+      String workspaceId, String machineName, CheServiceImpl service, LineConsumer machineLogger)
+      throws ServerException {
+    // copy to not affect/be affected by changes in origin
+    service = new CheServiceImpl(service);
+
+    LineConsumer logger = createServiceLogger(workspaceId, machineName, machineLogger);
+    try {
+      String image = prepareImage(machineName, service, createProgressMonitor(logger));
+      preparedImages.put(service.getContainerName(), new PreparedImage(image, service));
+    } catch (NotFoundException e) {
+      throw new ServerException(e.getLocalizedMessage(), e);
+    }
+  }
+
+  @Override
+  public void discardPreparedService(CheServiceImpl service) {
+    PreparedImage preparedImage = preparedImages.remove(service.getContainerName());
+    if (preparedImage != null) {
+      try {
+        docker.removeImage(RemoveImageParams.create(preparedImage.name).withForce(false));
+      } catch (IOException e) {
+        LOG.warn(
+            "Failed to remove image {} prepared for not started machine. Error: {}",
+            preparedImage.name,
+            e.getLocalizedMessage());
+      }
+    }
+  }
+
   @Override
   public void createNetwork(String networkName) throws ServerException {
     try {
@@ -426,6 +443,36 @@ public class MachineProviderImpl implements MachineInstanceProvider {
     }
   }
 
+  private LineConsumer createServiceLogger(
+      String workspaceId, String machineName, LineConsumer machineLogger) {
+    JsonRpcMessageConsumer<MachineLogMessage> messageConsumer =
+        new JsonRpcMessageConsumer<>(
+            "event:environment-output:message",
+            transmitter,
+            () ->
+                jsonRpcEndpointToMachineNameHolder.getEndpointIdsByWorkspaceIdPlusMachineName(
+                    workspaceId + "::" + machineName));
+    return new CompositeLineConsumer(
+        machineLogger,
+        new AbstractLineConsumer() {
+          @Override
+          public void writeLine(String line) throws IOException {
+            messageConsumer.consume(new MachineLogMessageImpl(machineName, line));
+          }
+        });
+  }
+
+  private ProgressMonitor createProgressMonitor(LineConsumer logger) {
+    ProgressLineFormatterImpl progressLineFormatter = new ProgressLineFormatterImpl();
+    return currentProgressStatus -> {
+      try {
+        logger.writeLine(progressLineFormatter.format(currentProgressStatus));
+      } catch (IOException e) {
+        LOG.error(e.getLocalizedMessage(), e);
+      }
+    };
+  }
+
   private String prepareImage(
       String machineName, CheServiceImpl service, ProgressMonitor progressMonitor)
       throws ServerException, NotFoundException {
@@ -841,4 +888,21 @@ public class MachineProviderImpl implements MachineInstanceProvider {
     }
     return list.toArray(new String[list.size()]);
   }
+
+  /** Image prepared for a service, it is used on the service start if the source is the same. */
+  private static class PreparedImage {
+    final String name;
+    final String image;
+    final CheServiceBuildContextImpl build;
+
+    PreparedImage(String name, CheServiceImpl service) {
+      this.name = name;
+      this.image = service.getImage();
+      this.build = service.getBuild();
+    }
+
+    boolean isPreparedFor(CheServiceImpl service) {
+      return Objects.equals(image, service.getImage()) && Objects.equals(build, service.getBuild());
+    }
+  }
 }
@@ -27,6 +27,7 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
@@ -234,6 +235,48 @@ public class MachineProviderImplTest {
     verify(dockerConnector, never()).pull(any(PullParams.class), any(ProgressMonitor.class));
   }
 
+  @Test
+  public void shouldNotPullImageOnServiceStartIfItIsPrepared() throws Exception {
+    provider = new MachineProviderBuilder().setDoForcePullImage(true).build();
+    doReturn(true).when(provider).isDockerImageExistLocally(anyString());
+    CheServiceImpl service = createService();
+
+    provider.prepareService(WORKSPACE_ID, MACHINE_NAME, service, LineConsumer.DEV_NULL);
+    createInstanceFromRecipe(service);
+
+    verify(dockerConnector).pull(any(PullParams.class), any(ProgressMonitor.class));
+    verify(dockerConnector).startContainer(any(StartContainerParams.class));
+  }
+
+  @Test
+  public void shouldPullImageOnServiceStartIfSourceOfServiceChangedAfterPreparation()
+      throws Exception {
+    provider = new MachineProviderBuilder().setDoForcePullImage(true).build();
+    doReturn(true).when(provider).isDockerImageExistLocally(anyString());
+    CheServiceImpl service = createService();
+
+    provider.prepareService(WORKSPACE_ID, MACHINE_NAME, service, LineConsumer.DEV_NULL);
+    service.setImage("another-image");
+    createInstanceFromRecipe(service);
+
+    verify(dockerConnector, times(2)).pull(any(PullParams.class), any(ProgressMonitor.class));
+  }
+
+  @Test
+  public void shouldRemovePreparedImageOfDiscardedService() throws Exception {
+    doReturn(true).when(provider).isDockerImageExistLocally(anyString());
+    CheServiceImpl service = createService();
+
+    provider.prepareService(WORKSPACE_ID, MACHINE_NAME, service, LineConsumer.DEV_NULL);
+    provider.discardPreparedService(service);
+    provider.discardPreparedService(service);
+
+    verify(dockerConnector)
+        .removeImage(
+            RemoveImageParams.create("eclipse-che/" + service.getContainerName())
+                .withForce(false));
+  }
+
   @Test
   public void shouldUseLocalImageOnInstanceCreationFromSnapshot() throws Exception {
     final String repo = MACHINE_SNAPSHOT_PREFIX + "repo";
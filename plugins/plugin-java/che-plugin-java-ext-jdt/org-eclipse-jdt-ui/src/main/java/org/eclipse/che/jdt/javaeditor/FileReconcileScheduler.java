@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.javaeditor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Schedules reconciles of a single file opened in the editor.
+ *
+ * <p>Requests received before the scheduled reconcile starts are collapsed into it. At most one
+ * reconcile of the file runs at a time, the request received while the file is being reconciled
+ * cancels the running reconcile through its progress monitor, the file is reconciled again after
+ * it stops. Resources held between reconciles are released when the scheduler is closed and
+ * nothing runs.
+ */
+abstract class FileReconcileScheduler {
+  private final ScheduledExecutorService executor;
+
+  // guarded by this
+  private String endpointId;
+  private long delayMillis;
+  private long firstRequestNanos;
+  private long lastRequestNanos;
+  private ScheduledFuture<?> scheduled;
+  private IProgressMonitor running;
+  private boolean rerunRequested;
+  private boolean closed;
+
+  FileReconcileScheduler(ScheduledExecutorService executor) {
+    this.executor = executor;
+    this.lastRequestNanos = System.nanoTime();
+  }
+
+  /**
+   * Reconciles the file.
+   *
+   * @param endpointId endpoint of the latest request
+   * @param requestNanos time of the first request which is handled by this reconcile
+   * @param monitor monitor which is cancelled when the reconcile becomes stale
+   * @throws OperationCanceledException if the reconcile is stopped because it was cancelled
+   */
+  protected abstract void reconcile(String endpointId, long requestNanos, IProgressMonitor monitor);
+
+  /** Releases resources held between reconciles, never runs concurrently with reconcile. */
+  protected abstract void release();
+
+  /** Called when the running reconcile is stopped because it was cancelled. */
+  protected void onCancelled() {}
+
+  /** Schedules reconcile of the file, requests received before it starts are collapsed. */
+  synchronized void request(String endpointId, long delayMillis) {
+    if (closed) {
+      return;
+    }
+    this.endpointId = endpointId;
+    this.delayMillis = delayMillis;
+    lastRequestNanos = System.nanoTime();
+    if (firstRequestNanos == 0) {
+      firstRequestNanos = lastRequestNanos;
+    }
+    if (running != null) {
+      running.setCanceled(true);
+      rerunRequested = true;
+    } else if (scheduled == null) {
+      scheduled = executor.schedule(this::run, delayMillis, MILLISECONDS);
+    }
+  }
+
+  /** Cancels scheduled and running reconciles and releases resources once nothing runs. */
+  synchronized void close() {
+    closed = true;
+    if (scheduled != null) {
+      scheduled.cancel(false);
+      scheduled = null;
+    }
+    if (running != null) {
+      // resources are released when the running reconcile stops
+      running.setCanceled(true);
+    } else {
+      release();
+    }
+  }
+
+  /**
+   * Closes the scheduler if nothing is scheduled or running and it hasn't got requests since the
+   * given time.
+   *
+   * @return true if the scheduler is closed
+   */
+  synchronized boolean closeIfIdle(long idleSinceNanos) {
+    if (closed) {
+      return true;
+    }
+    if (running != null || scheduled != null || lastRequestNanos - idleSinceNanos > 0) {
+      return false;
+    }
+    close();
+    return true;
+  }
+
+  private void run() {
+    IProgressMonitor monitor = new NullProgressMonitor();
+    String endpointId;
+    long requestNanos;
+    synchronized (this) {
+      scheduled = null;
+      if (closed) {
+        return;
+      }
+      running = monitor;
+      endpointId = this.endpointId;
+      requestNanos = firstRequestNanos;
+      firstRequestNanos = 0;
+    }
+
+    boolean completed = false;
+    try {
+      reconcile(endpointId, requestNanos, monitor);
+      completed = true;
+    } catch (OperationCanceledException e) {
+      onCancelled();
+    } finally {
+      synchronized (this) {
+        running = null;
+        if (closed) {
+          release();
+        } else {
+          if (!completed && (firstRequestNanos == 0 || requestNanos - firstRequestNanos < 0)) {
+            // latency of the cancelled run is counted from its own first request
+            firstRequestNanos = requestNanos;
+          }
+          if (rerunRequested) {
+            rerunRequested = false;
+            scheduled = executor.schedule(this::run, delayMillis, MILLISECONDS);
+          }
+        }
+      }
+    }
+  }
+}
@@ -13,15 +13,27 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.INSERT;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.REMOVE;
 import static org.eclipse.che.jdt.javaeditor.JavaReconciler.Mode.ACTIVATED;
 import static org.eclipse.che.jdt.javaeditor.JavaReconciler.Mode.DEACTIVATED;
 import static org.eclipse.jdt.core.IJavaElement.COMPILATION_UNIT;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
@@ -38,11 +50,14 @@ import org.eclipse.che.api.project.shared.dto.event.FileTrackingOperationDto;
 import org.eclipse.che.api.project.shared.dto.event.FileTrackingOperationDto.Type;
 import org.eclipse.che.api.vfs.impl.file.event.detectors.FileTrackingOperationEvent;
 import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.ide.ext.java.shared.dto.HighlightedPosition;
 import org.eclipse.che.ide.ext.java.shared.dto.Problem;
 import org.eclipse.che.ide.ext.java.shared.dto.ReconcileResult;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.IClasspathEntry;
@@ -66,6 +81,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Reconciles java files opened in the editor and sends reconcile results to the client.
+ *
+ * <p>Each opened file has its own long-lived working copy, changes of the editor content are
+ * applied to it incrementally. Changes received during a short delay are collapsed into a single
+ * reconcile run, and the run which becomes stale because of a new change is cancelled through its
+ * progress monitor. Working copies of files that are not changed during the idle timeout are
+ * released, e.g. when the client is disconnected without closing files, and are created again on
+ * the next change.
+ *
  * @author Evgen Vidolob
  * @author Roman Nikitenko
  */
@@ -75,6 +99,7 @@ public class JavaReconciler {
   private static final JavaModel JAVA_MODEL = JavaModelManager.getJavaModelManager().getJavaModel();
   private static final String RECONCILE_ERROR_METHOD = "event:java-reconcile-error";
   private static final String RECONCILE_STATE_CHANGED_METHOD = "event:java-reconcile-state-changed";
+  private static final int RECONCILE_THREADS = 2;
 
   private final List<EventSubscriber> subscribers = new ArrayList<>(2);
 
@@ -83,8 +108,21 @@ public class JavaReconciler {
   private final ProjectManager projectManager;
   private final EditorWorkingCopyManager editorWorkingCopyManager;
   private final SemanticHighlightingReconciler semanticHighlighting;
+  private final ConcurrentMap<String, FileReconciler> fileReconcilers;
+  private final ScheduledExecutorService executor;
+  private final ReconcileLatencyHistogram reconcileLatency;
+  private final ReconcileLatencyHistogram reconcileDuration;
+  private final AtomicLong cancelledReconciles;
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.java.reconcile.delay_ms")
+  private long reconcileDelayMs = 300;
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.java.reconcile.idle_timeout_ms")
+  private long idleTimeoutMs = 600_000;
 
-  private Mode mode = ACTIVATED;
+  private volatile Mode mode = ACTIVATED;
 
   @Inject
   public JavaReconciler(
@@ -98,6 +136,18 @@ public class JavaReconciler {
     this.transmitter = transmitter;
     this.projectManager = projectManager;
     this.editorWorkingCopyManager = editorWorkingCopyManager;
+    this.fileReconcilers = new ConcurrentHashMap<>();
+    this.reconcileLatency = new ReconcileLatencyHistogram();
+    this.reconcileDuration = new ReconcileLatencyHistogram();
+    this.cancelledReconciles = new AtomicLong();
+    this.executor =
+        Executors.newScheduledThreadPool(
+            RECONCILE_THREADS,
+            new ThreadFactoryBuilder()
+                .setNameFormat("JavaReconciler-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
 
     EventSubscriber<FileTrackingOperationEvent> fileOperationEventSubscriber =
         new EventSubscriber<FileTrackingOperationEvent>() {
@@ -120,9 +170,38 @@ public class JavaReconciler {
     subscribers.add(editorContentUpdateEventSubscriber);
   }
 
+  @PostConstruct
+  private void scheduleIdleRelease() {
+    if (idleTimeoutMs > 0) {
+      long period = Math.max(1000, idleTimeoutMs / 2);
+      executor.scheduleWithFixedDelay(this::releaseIdleReconcilers, period, period, MILLISECONDS);
+    }
+  }
+
   @PreDestroy
   private void unsubscribe() {
     subscribers.forEach(eventService::unsubscribe);
+    fileReconcilers.values().forEach(FileReconciler::close);
+    fileReconcilers.clear();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Returns the histogram of times between the editor change and sending of the reconcile result
+   * which includes this change.
+   */
+  public ReconcileLatencyHistogram getReconcileLatency() {
+    return reconcileLatency;
+  }
+
+  /** Returns the histogram of times spent by reconcile runs which weren't cancelled. */
+  public ReconcileLatencyHistogram getReconcileDuration() {
+    return reconcileDuration;
+  }
+
+  /** Returns the number of reconcile runs cancelled because they became stale. */
+  public long getCancelledReconcileCount() {
+    return cancelledReconciles.get();
   }
 
   public ReconcileResult reconcile(IJavaProject javaProject, String fqn) throws JavaModelException {
@@ -171,11 +250,18 @@ public class JavaReconciler {
       }
     }
 
+    return createReconcileResult(compilationUnit, problemRequestor.problems, positions);
+  }
+
+  private ReconcileResult createReconcileResult(
+      ICompilationUnit compilationUnit,
+      List<IProblem> problems,
+      List<HighlightedPosition> positions) {
     DtoFactory dtoFactory = DtoFactory.getInstance();
     return dtoFactory
         .createDto(ReconcileResult.class)
         .withFileLocation(compilationUnit.getPath().toOSString())
-        .withProblems(convertProblems(problemRequestor.problems))
+        .withProblems(convertProblems(problems))
         .withHighlightedPositions(positions);
   }
 
@@ -188,6 +274,9 @@ public class JavaReconciler {
 
     String oldContent = workingCopy.getBuffer().getContents();
     String newContent = editorWorkingCopy.getContentAsString();
+    if (newContent.equals(oldContent)) {
+      return;
+    }
 
     TextEdit textEdit = new ReplaceEdit(0, oldContent.length(), newContent);
     workingCopy.applyTextEdit(textEdit, null);
@@ -198,12 +287,45 @@ public class JavaReconciler {
       return;
     }
 
-    String endpointId = event.getEndpointId();
     EditorChangesDto editorChanges = event.getChanges();
-    String filePath = editorChanges.getFileLocation();
-    String projectPath = editorChanges.getProjectPath();
+    requestReconcile(
+        editorChanges.getFileLocation(),
+        editorChanges.getProjectPath(),
+        event.getEndpointId(),
+        reconcileDelayMs);
+  }
 
-    reconcileAndTransmit(filePath, projectPath, endpointId);
+  /**
+   * Requests reconcile of the file, the request is made atomically with the lookup so it is never
+   * sent to the reconciler which is being released as idle.
+   */
+  private void requestReconcile(
+      String filePath, String projectPath, String endpointId, long delayMillis) {
+    fileReconcilers.compute(
+        filePath,
+        (path, fileReconciler) -> {
+          if (fileReconciler == null) {
+            fileReconciler = new FileReconciler(path, projectPath);
+          }
+          fileReconciler.request(endpointId, delayMillis);
+          return fileReconciler;
+        });
+  }
+
+  private void releaseIdleReconcilers() {
+    long idleSince = System.nanoTime() - MILLISECONDS.toNanos(idleTimeoutMs);
+    for (String filePath : fileReconcilers.keySet()) {
+      fileReconcilers.computeIfPresent(
+          filePath,
+          (path, fileReconciler) -> fileReconciler.closeIfIdle(idleSince) ? null : fileReconciler);
+    }
+  }
+
+  private void closeFileReconciler(String filePath) {
+    FileReconciler fileReconciler = fileReconcilers.remove(filePath);
+    if (fileReconciler != null) {
+      fileReconciler.close();
+    }
   }
 
   private void onFileOperation(String endpointId, FileTrackingOperationDto operation) {
@@ -223,7 +345,19 @@ public class JavaReconciler {
               throw new NotFoundException("The project is not recognized for " + filePath);
             }
 
-            reconcileAndTransmit(filePath, projectPath, endpointId);
+            requestReconcile(filePath, projectPath, endpointId, 0);
+            break;
+          }
+
+        case STOP:
+          {
+            closeFileReconciler(operation.getPath());
+            break;
+          }
+
+        case MOVE:
+          {
+            closeFileReconciler(operation.getOldPath());
             break;
           }
 
@@ -259,35 +393,13 @@ public class JavaReconciler {
     }
   }
 
-  private void reconcileAndTransmit(String filePath, String projectPath, String endpointId) {
-    ICompilationUnit compilationUnit;
-    try {
-      compilationUnit = getCompilationUnit(filePath, projectPath);
-      if (compilationUnit == null) {
-        return;
-      }
-    } catch (JavaModelException e) {
-      return; // ignore - we haven't compilation unit to reconcile
-    }
-
-    try {
-      ReconcileResult reconcileResult = reconcile(compilationUnit, getJavaProject(projectPath));
-      transmitter
-          .newRequest()
-          .endpointId(endpointId)
-          .methodName(RECONCILE_STATE_CHANGED_METHOD)
-          .paramsAsDto(reconcileResult)
-          .sendAndSkipResult();
-    } catch (JavaModelException e) {
-      String errorMessage =
-          format(
-              "Can't reconcile class: %s in project: %s, the reason is %s",
-              filePath, projectPath, e.getLocalizedMessage());
-
-      LOG.error(errorMessage);
-
-      transmitError(500, errorMessage, endpointId);
-    }
+  private void transmitResult(ReconcileResult reconcileResult, String endpointId) {
+    transmitter
+        .newRequest()
+        .endpointId(endpointId)
+        .methodName(RECONCILE_STATE_CHANGED_METHOD)
+        .paramsAsDto(reconcileResult)
+        .sendAndSkipResult();
   }
 
   private void transmitError(int code, String errorMessage, String endpointId) {
@@ -390,6 +502,152 @@ public class JavaReconciler {
     return type;
   }
 
+  /** Reconciles a single file opened in the editor with its own long-lived working copy. */
+  private class FileReconciler extends FileReconcileScheduler {
+    private final String filePath;
+    private final String projectPath;
+    private final ProblemRequestor problemRequestor;
+    private final WorkingCopyOwner workingCopyOwner;
+
+    // used by the running reconcile or, when nothing runs, by release
+    private ICompilationUnit workingCopy;
+    private EditorWorkingCopy syncedEditorWorkingCopy;
+    private long syncedVersion;
+
+    private FileReconciler(String filePath, String projectPath) {
+      super(executor);
+      this.filePath = filePath;
+      this.projectPath = projectPath;
+      this.problemRequestor = new ProblemRequestor();
+      this.workingCopyOwner = createWorkingCopyOwner(problemRequestor);
+    }
+
+    @Override
+    protected void reconcile(String endpointId, long requestNanos, IProgressMonitor monitor) {
+      try {
+        ReconcileResult reconcileResult = reconcile(monitor);
+        if (reconcileResult != null) {
+          transmitResult(reconcileResult, endpointId);
+          reconcileLatency.record(NANOSECONDS.toMillis(System.nanoTime() - requestNanos));
+        }
+      } catch (JavaModelException e) {
+        String errorMessage =
+            format(
+                "Can't reconcile class: %s in project: %s, the reason is %s",
+                filePath, projectPath, e.getLocalizedMessage());
+
+        LOG.error(errorMessage);
+
+        transmitError(500, errorMessage, endpointId);
+      }
+    }
+
+    @Override
+    protected void onCancelled() {
+      cancelledReconciles.incrementAndGet();
+    }
+
+    @Nullable
+    private ReconcileResult reconcile(IProgressMonitor monitor) throws JavaModelException {
+      long start = System.nanoTime();
+      if (workingCopy == null) {
+        ICompilationUnit compilationUnit;
+        try {
+          compilationUnit = getCompilationUnit(filePath, projectPath);
+        } catch (JavaModelException e) {
+          return null; // ignore - we haven't compilation unit to reconcile
+        }
+        if (compilationUnit == null) {
+          return null;
+        }
+        workingCopy = compilationUnit.getWorkingCopy(workingCopyOwner, null);
+        syncedEditorWorkingCopy = null;
+      }
+      synchronizeWithEditor();
+      checkCanceled(monitor);
+
+      problemRequestor.reset();
+      CompilationUnit unit = workingCopy.reconcile(AST.JLS8, true, workingCopyOwner, monitor);
+      checkCanceled(monitor);
+      List<HighlightedPosition> positions = semanticHighlighting.reconcileSemanticHighlight(unit);
+      checkCanceled(monitor);
+
+      if (workingCopy instanceof ClassFileWorkingCopy) {
+        // we don't wont to show any errors from ".class" files
+        problemRequestor.reset();
+      }
+      reconcileDuration.record(NANOSECONDS.toMillis(System.nanoTime() - start));
+      return createReconcileResult(
+          workingCopy, new ArrayList<>(problemRequestor.problems), positions);
+    }
+
+    /**
+     * Brings the working copy up to date with the snapshot of the editor content. Changes made
+     * since the previous reconcile are replayed from the change log of the editor working copy, the
+     * whole content is replaced only when changes can't be replayed.
+     */
+    private void synchronizeWithEditor() throws JavaModelException {
+      EditorWorkingCopy editorWorkingCopy = editorWorkingCopyManager.getWorkingCopy(filePath);
+      if (editorWorkingCopy == null) {
+        return;
+      }
+      EditorWorkingCopy.Snapshot snapshot = editorWorkingCopy.getSnapshot();
+      List<EditorChangesDto> changes = null;
+      if (editorWorkingCopy == syncedEditorWorkingCopy) {
+        changes = editorWorkingCopy.getChanges(syncedVersion, snapshot.getVersion());
+      }
+
+      IBuffer buffer = workingCopy.getBuffer();
+      if (changes == null
+          || !replayChanges(buffer, changes)
+          || buffer.getLength() != snapshot.getContent().length()) {
+        String content = snapshot.getContentAsString();
+        if (!content.equals(buffer.getContents())) {
+          workingCopy.applyTextEdit(new ReplaceEdit(0, buffer.getLength(), content), null);
+        }
+      }
+      syncedEditorWorkingCopy = editorWorkingCopy;
+      syncedVersion = snapshot.getVersion();
+    }
+
+    private boolean replayChanges(IBuffer buffer, List<EditorChangesDto> changes) {
+      try {
+        for (EditorChangesDto change : changes) {
+          int offset = change.getOffset();
+          if (change.getType() == INSERT) {
+            buffer.replace(offset, 0, change.getText());
+          } else if (change.getType() == REMOVE && change.getRemovedCharCount() > 0) {
+            buffer.replace(offset, change.getRemovedCharCount(), "");
+          }
+        }
+        return true;
+      } catch (RuntimeException e) {
+        // change doesn't match the working copy
+        return false;
+      }
+    }
+
+    @Override
+    protected void release() {
+      if (workingCopy != null && workingCopy.isWorkingCopy()) {
+        try {
+          workingCopy.getBuffer().close();
+          workingCopy.discardWorkingCopy();
+        } catch (JavaModelException e) {
+          // ignore
+        }
+      }
+      workingCopy = null;
+      syncedEditorWorkingCopy = null;
+    }
+  }
+
+  private static void checkCanceled(IProgressMonitor monitor) {
+    if (monitor.isCanceled()) {
+      throw new OperationCanceledException();
+    }
+  }
+
   private class ProblemRequestor implements IProblemRequestor {
 
     private List<IProblem> problems = new ArrayList<>();
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.javaeditor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe histogram of reconcile latencies in milliseconds with fixed buckets.
+ *
+ * @see JavaReconciler#getReconcileLatency()
+ */
+public class ReconcileLatencyHistogram {
+  private static final long[] BOUNDS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+  private final AtomicLongArray counts = new AtomicLongArray(BOUNDS.length + 1);
+
+  /** Adds the given latency to the histogram. */
+  public void record(long millis) {
+    int bucket = 0;
+    while (bucket < BOUNDS.length && millis > BOUNDS[bucket]) {
+      bucket++;
+    }
+    counts.incrementAndGet(bucket);
+  }
+
+  /** Returns the number of latencies added to the histogram. */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of latencies in each bucket, buckets are ordered from the fastest to the
+   * slowest one and labeled with their upper bound, e.g. {@code "<=100ms"} or {@code ">5000ms"}.
+   */
+  public Map<String, Long> getBuckets() {
+    Map<String, Long> buckets = new LinkedHashMap<>();
+    for (int i = 0; i < BOUNDS.length; i++) {
+      buckets.put("<=" + BOUNDS[i] + "ms", counts.get(i));
+    }
+    buckets.put(">" + BOUNDS[BOUNDS.length - 1] + "ms", counts.get(BOUNDS.length));
+    return buckets;
+  }
+}
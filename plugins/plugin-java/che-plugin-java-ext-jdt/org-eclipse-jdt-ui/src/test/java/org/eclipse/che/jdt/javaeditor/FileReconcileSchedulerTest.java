@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.javaeditor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests for {@link FileReconcileScheduler}. */
+public class FileReconcileSchedulerTest {
+  private ScheduledExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newScheduledThreadPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldCollapseRequestsReceivedBeforeReconcileStarts() throws Exception {
+    TestScheduler scheduler = new TestScheduler(false);
+
+    for (int i = 0; i < 5; i++) {
+      scheduler.request("endpoint" + i, 200);
+    }
+
+    assertThat(scheduler.completed.await(5, SECONDS)).isTrue();
+    Thread.sleep(300);
+    assertThat(scheduler.endpoints).containsExactly("endpoint4");
+  }
+
+  @Test
+  public void shouldCancelStaleReconcileAndReconcileAgain() throws Exception {
+    TestScheduler scheduler = new TestScheduler(true);
+    scheduler.request("endpoint1", 0);
+    assertThat(scheduler.started.await(5, SECONDS)).isTrue();
+
+    scheduler.request("endpoint2", 0);
+
+    assertThat(scheduler.completed.await(5, SECONDS)).isTrue();
+    assertThat(scheduler.cancelled.get()).isEqualTo(1);
+    assertThat(scheduler.endpoints).containsExactly("endpoint1", "endpoint2");
+    assertThat(scheduler.released.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldReleaseResourcesWhenRunningReconcileStopsAfterClose() throws Exception {
+    TestScheduler scheduler = new TestScheduler(true);
+    scheduler.request("endpoint1", 0);
+    assertThat(scheduler.started.await(5, SECONDS)).isTrue();
+
+    scheduler.close();
+
+    assertThat(scheduler.releasedLatch.await(5, SECONDS)).isTrue();
+    assertThat(scheduler.cancelled.get()).isEqualTo(1);
+    assertThat(scheduler.released.get()).isEqualTo(1);
+    assertThat(scheduler.endpoints).containsExactly("endpoint1");
+  }
+
+  @Test
+  public void shouldNotReconcileAfterClose() throws Exception {
+    TestScheduler scheduler = new TestScheduler(false);
+    scheduler.request("endpoint1", 100);
+
+    scheduler.close();
+    scheduler.request("endpoint2", 0);
+
+    Thread.sleep(300);
+    assertThat(scheduler.endpoints).isEmpty();
+    assertThat(scheduler.released.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldReleaseResourcesOfIdleScheduler() throws Exception {
+    TestScheduler scheduler = new TestScheduler(false);
+    scheduler.request("endpoint1", 0);
+    assertThat(scheduler.completed.await(5, SECONDS)).isTrue();
+    Thread.sleep(100);
+
+    long requestedBefore = System.nanoTime();
+    assertThat(scheduler.closeIfIdle(requestedBefore - SECONDS.toNanos(60))).isFalse();
+    assertThat(scheduler.released.get()).isEqualTo(0);
+
+    assertThat(scheduler.closeIfIdle(requestedBefore)).isTrue();
+    assertThat(scheduler.released.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldNotCloseSchedulerWhileReconcileRuns() throws Exception {
+    TestScheduler scheduler = new TestScheduler(true);
+    scheduler.request("endpoint1", 0);
+    assertThat(scheduler.started.await(5, SECONDS)).isTrue();
+
+    assertThat(scheduler.closeIfIdle(System.nanoTime())).isFalse();
+    assertThat(scheduler.released.get()).isEqualTo(0);
+    scheduler.close();
+  }
+
+  /** Records reconciles, the first reconcile optionally runs until it is cancelled. */
+  private class TestScheduler extends FileReconcileScheduler {
+    final List<String> endpoints = new CopyOnWriteArrayList<>();
+    final AtomicInteger cancelled = new AtomicInteger();
+    final AtomicInteger released = new AtomicInteger();
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch completed = new CountDownLatch(1);
+    final CountDownLatch releasedLatch = new CountDownLatch(1);
+
+    private boolean waitForCancel;
+
+    TestScheduler(boolean waitForCancel) {
+      super(executor);
+      this.waitForCancel = waitForCancel;
+    }
+
+    @Override
+    protected void reconcile(String endpointId, long requestNanos, IProgressMonitor monitor) {
+      endpoints.add(endpointId);
+      started.countDown();
+      if (waitForCancel) {
+        waitForCancel = false;
+        while (!monitor.isCanceled()) {
+          try {
+            Thread.sleep(10);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+        throw new OperationCanceledException();
+      }
+      completed.countDown();
+    }
+
+    @Override
+    protected void release() {
+      released.incrementAndGet();
+      releasedLatch.countDown();
+    }
+
+    @Override
+    protected void onCancelled() {
+      cancelled.incrementAndGet();
+    }
+  }
+}
@@ -11,6 +11,8 @@
 package org.eclipse.che.plugin.java.server.rest;
 
 import com.google.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -38,4 +40,25 @@ public class JavaReconcileService {
     IJavaProject javaProject = model.getJavaProject(projectPath);
     return reconciler.reconcile(javaProject, fqn);
   }
+
+  /**
+   * Returns statistics of reconciles of opened files: number of reconciles in each latency bucket,
+   * number of reconciles in each duration bucket and number of cancelled reconciles.
+   */
+  @GET
+  @Path("statistics")
+  @Produces("application/json")
+  public Map<String, Long> getStatistics() {
+    Map<String, Long> statistics = new LinkedHashMap<>();
+    reconciler
+        .getReconcileLatency()
+        .getBuckets()
+        .forEach((bucket, count) -> statistics.put("latency" + bucket, count));
+    reconciler
+        .getReconcileDuration()
+        .getBuckets()
+        .forEach((bucket, count) -> statistics.put("duration" + bucket, count));
+    statistics.put("cancelled", reconciler.getCancelledReconcileCount());
+    return statistics;
+  }
 }
@@ -20,7 +20,9 @@ import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.PreDestroy;
 import org.eclipse.che.commons.lang.execution.CommandLine;
 import org.eclipse.che.commons.lang.execution.JavaParameters;
@@ -47,6 +49,8 @@ public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
   private static final Logger LOG = LoggerFactory.getLogger(MavenServerManager.class);
   private static final String MAVEN_SERVER_MAIN = "org.eclipse.che.maven.server.MavenServerMain";
 
+  private final Map<Integer, MavenRemoteServer> pooledServers = new HashMap<>();
+
   private RmiClient<MavenRemoteServer> client;
   private RmiLogger rmiLogger = new RmiLogger();
   private RmiMavenServerDownloadListener rmiDownloadListener = new RmiMavenServerDownloadListener();
@@ -93,6 +97,17 @@ public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
   }
 
   public MavenServerWrapper createMavenServer() {
+    return createMavenServer(0);
+  }
+
+  /**
+   * Creates maven server in the maven server process with the given index. Process 0 is the one
+   * which is also used for model interpolation, other processes are started on demand. Maven
+   * servers created in different processes don't share anything, so they may be used concurrently.
+   *
+   * @param process index of the maven server process
+   */
+  public MavenServerWrapper createMavenServer(int process) {
     return new MavenServerWrapper() {
       @Override
       protected MavenServer create() throws RemoteException {
@@ -108,11 +123,35 @@ public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
         if (localRepository != null) {
           mavenSettings.setLocalRepository(localRepository);
         }
-        return MavenServerManager.this.getOrCreateWrappedObject().createServer(mavenSettings);
+        try {
+          return getRemoteServer(process).createServer(mavenSettings);
+        } catch (RemoteException e) {
+          releaseRemoteServer(process);
+          throw e;
+        }
       }
     };
   }
 
+  private synchronized MavenRemoteServer getRemoteServer(int process) throws RemoteException {
+    if (process == 0) {
+      return getOrCreateWrappedObject();
+    }
+    MavenRemoteServer server = pooledServers.get(process);
+    if (server == null) {
+      server = acquireServer(process);
+      pooledServers.put(process, server);
+    }
+    return server;
+  }
+
+  private synchronized void releaseRemoteServer(int process) {
+    if (process != 0) {
+      // process will be acquired again, it is restarted if it is dead
+      pooledServers.remove(process);
+    }
+  }
+
   /**
    * For test use only. Sets the path to local maven repository
    *
@@ -145,9 +184,13 @@ public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
 
   @Override
   protected MavenRemoteServer create() throws RemoteException {
+    return acquireServer("");
+  }
+
+  private MavenRemoteServer acquireServer(Object processKey) throws RemoteException {
     MavenRemoteServer server;
     try {
-      server = client.acquire(this, "");
+      server = client.acquire(this, processKey);
     } catch (Exception e) {
       throw new RemoteException("Can't start maven server", e);
     }
@@ -172,6 +215,7 @@ public class MavenServerManager extends RmiObjectWrapper<MavenRemoteServer> {
   @Override
   protected synchronized void cleanUp() {
     super.cleanUp();
+    pooledServers.clear();
 
     if (loggerExported) {
       try {
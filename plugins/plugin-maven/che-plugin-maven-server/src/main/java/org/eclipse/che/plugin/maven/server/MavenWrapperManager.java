@@ -12,33 +12,57 @@ package org.eclipse.che.plugin.maven.server;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Manages and cache MavenServerWrapper instances
  *
+ * <p>Servers used for project resolution are pooled, each of them lives in its own maven server
+ * process, so up to {@link #getPoolSize()} projects can be resolved concurrently.
+ *
  * @author Evgen Vidolob
  */
 @Singleton
 public class MavenWrapperManager {
 
   private final MavenServerManager serverManager;
+  private final int poolSize;
   private final Map<ServerType, MavenServerWrapper> cache = new HashMap<>();
+  private final List<MavenServerWrapper> resolveServers = new ArrayList<>();
   private final Set<MavenServerWrapper> usedServers = new HashSet<>();
 
-  @Inject
   public MavenWrapperManager(MavenServerManager serverManager) {
+    this(serverManager, 1);
+  }
+
+  @Inject
+  public MavenWrapperManager(
+      MavenServerManager serverManager, @Named("che.maven.server.pool_size") int poolSize) {
     this.serverManager = serverManager;
+    this.poolSize = Math.max(1, poolSize);
+  }
+
+  /** Returns the number of maven server processes used for project resolution. */
+  public int getPoolSize() {
+    return poolSize;
   }
 
   public synchronized MavenServerWrapper getMavenServer(ServerType type) {
-    MavenServerWrapper wrapper = cache.get(type);
-    if (wrapper == null) {
-      wrapper = serverManager.createMavenServer();
-      cache.put(type, wrapper);
+    MavenServerWrapper wrapper;
+    if (type == ServerType.RESOLVE) {
+      wrapper = getResolveServer();
+    } else {
+      wrapper = cache.get(type);
+      if (wrapper == null) {
+        wrapper = serverManager.createMavenServer();
+        cache.put(type, wrapper);
+      }
     }
 
     if (usedServers.contains(wrapper)) {
@@ -50,6 +74,21 @@ public class MavenWrapperManager {
     return wrapper;
   }
 
+  /** Returns idle resolve server, or a busy one when all processes of the pool are busy. */
+  private MavenServerWrapper getResolveServer() {
+    for (MavenServerWrapper wrapper : resolveServers) {
+      if (!usedServers.contains(wrapper)) {
+        return wrapper;
+      }
+    }
+    if (resolveServers.size() < poolSize) {
+      MavenServerWrapper wrapper = serverManager.createMavenServer(resolveServers.size());
+      resolveServers.add(wrapper);
+      return wrapper;
+    }
+    return resolveServers.get(0);
+  }
+
   public synchronized void release(MavenServerWrapper wrapper) {
     if (usedServers.contains(wrapper)) {
       wrapper.reset();
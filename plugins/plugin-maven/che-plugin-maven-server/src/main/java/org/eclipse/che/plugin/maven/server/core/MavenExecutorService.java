@@ -11,7 +11,9 @@
 package org.eclipse.che.plugin.maven.server.core;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -28,20 +30,38 @@ public class MavenExecutorService {
   private static final Logger LOG = LoggerFactory.getLogger(MavenExecutorService.class);
 
   private final ExecutorService service;
+  private final int parallelism;
 
   public MavenExecutorService() {
+    this(1);
+  }
+
+  /**
+   * Creates executor service.
+   *
+   * @param parallelism the number of threads, it matches the number of maven server processes
+   *     used for project resolution
+   */
+  @Inject
+  public MavenExecutorService(@Named("che.maven.server.pool_size") int parallelism) {
+    this.parallelism = Math.max(1, parallelism);
     ThreadFactory threadFactory =
         new ThreadFactoryBuilder()
             .setNameFormat("Maven Executor - %d")
             .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
             .build();
-    service = Executors.newFixedThreadPool(1, threadFactory);
+    service = Executors.newFixedThreadPool(this.parallelism, threadFactory);
   }
 
   public void submit(Runnable task) {
     service.execute(task);
   }
 
+  /** Returns the number of tasks which may be executed concurrently. */
+  public int getParallelism() {
+    return parallelism;
+  }
+
   @PreDestroy
   public void shutdown() throws InterruptedException {
     // Tell threads to finish off.
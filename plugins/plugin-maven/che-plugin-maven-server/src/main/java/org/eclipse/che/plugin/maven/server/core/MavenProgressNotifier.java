@@ -13,7 +13,9 @@ package org.eclipse.che.plugin.maven.server.core;
 /**
  * Notification interface, mostly used for notification of maven artifact downloading process.
  *
- * <p>WARNING: All implementation of this interface MUST be thread safe.
+ * <p>WARNING: All implementation of this interface MUST be thread safe. Methods are called
+ * concurrently by maven servers and by threads of {@link MavenExecutorService} when more than one
+ * maven server process is used for resolution of projects.
  *
  * @author Evgen Vidolob
  */
@@ -30,4 +32,14 @@ public interface MavenProgressNotifier {
   void start();
 
   void stop();
+
+  /**
+   * Reports that resolution of the project is finished.
+   *
+   * @param projectName name of resolved project
+   * @param timeMillis time of the resolution in milliseconds
+   */
+  default void projectResolved(String projectName, long timeMillis) {
+    setText(String.format("Project %s resolved in %d ms", projectName, timeMillis));
+  }
 }
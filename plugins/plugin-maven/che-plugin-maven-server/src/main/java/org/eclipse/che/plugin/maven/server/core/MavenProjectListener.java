@@ -15,7 +15,12 @@ import java.util.Map;
 import org.eclipse.che.plugin.maven.server.core.project.MavenProject;
 import org.eclipse.che.plugin.maven.server.core.project.MavenProjectModifications;
 
-/** @author Evgen Vidolob */
+/**
+ * Listener of maven project changes. Independent projects may be resolved concurrently, so methods
+ * may be called from different threads, but never at the same time.
+ *
+ * @author Evgen Vidolob
+ */
 public interface MavenProjectListener {
 
   void projectResolved(MavenProject project, MavenProjectModifications modifications);
@@ -35,10 +35,14 @@ import org.eclipse.che.maven.server.MavenTerminal;
 import org.eclipse.che.plugin.maven.server.MavenServerManager;
 import org.eclipse.che.plugin.maven.server.MavenServerWrapper;
 import org.eclipse.che.plugin.maven.server.MavenWrapperManager;
+import org.eclipse.che.plugin.maven.server.core.project.MavenModelCache;
+import org.eclipse.che.plugin.maven.server.core.project.MavenModelReaderResult;
 import org.eclipse.che.plugin.maven.server.core.project.MavenProject;
 import org.eclipse.che.plugin.maven.server.core.project.MavenProjectModifications;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IWorkspace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Holds all maven projects in workspace
@@ -47,6 +51,7 @@ import org.eclipse.core.resources.IWorkspace;
  */
 @Singleton
 public class MavenProjectManager {
+  private static final Logger LOG = LoggerFactory.getLogger(MavenProjectManager.class);
 
   private final MavenWorkspaceCache mavenWorkspaceCache;
   private final Map<MavenKey, MavenProject> keyToProjectMap;
@@ -70,6 +75,9 @@ public class MavenProjectManager {
   private final Lock writeLock = readWriteLock.writeLock();
 
   private final MavenProjectListener dispatcher;
+  private final Object dispatchLock = new Object();
+
+  private MavenModelCache modelCache;
 
   @Inject
   public MavenProjectManager(
@@ -92,14 +100,22 @@ public class MavenProjectManager {
     rootProjects = new ArrayList<>();
   }
 
+  @Inject
+  private void setModelCache(MavenModelCache modelCache) {
+    this.modelCache = modelCache;
+  }
+
   private MavenProjectListener createListenersDispatcher() {
     return (MavenProjectListener)
         Proxy.newProxyInstance(
             Thread.currentThread().getContextClassLoader(),
             new Class[] {MavenProjectListener.class},
             (proxy, method, args) -> {
-              for (MavenProjectListener listener : listeners) {
-                method.invoke(listener, args);
+              // projects are resolved concurrently, listeners are notified one event at a time
+              synchronized (dispatchLock) {
+                for (MavenProjectListener listener : listeners) {
+                  method.invoke(listener, args);
+                }
               }
               return null;
             });
@@ -114,14 +130,40 @@ public class MavenProjectManager {
   }
 
   public void resolveMavenProject(IProject project, MavenProject mavenProject) {
+    MavenWorkspaceCache workspaceCache = copyWorkspaceCache();
+    String cacheKey = null;
+    if (modelCache != null) {
+      cacheKey =
+          modelCache.computeKey(
+              mavenProject.getPomFile(),
+              mavenProject.getActiveProfiles(),
+              mavenProject.getInactiveProfiles(),
+              workspaceCache);
+      MavenModelReaderResult cached = modelCache.get(cacheKey);
+      if (cached != null) {
+        LOG.debug(
+            "Model of project {} is restored from cache, cache hit rate is {}%",
+            mavenProject.getName(),
+            Math.round(modelCache.getHitRate() * 100));
+        dispatcher.projectResolved(mavenProject, mavenProject.resolve(cached));
+        return;
+      }
+    }
+
     MavenServerWrapper mavenServer =
         wrapperManager.getMavenServer(MavenWrapperManager.ServerType.RESOLVE);
     try {
 
       mavenNotifier.setText("Resolving project: " + mavenProject.getName());
-      mavenServer.customize(copyWorkspaceCache(), terminal, mavenNotifier, false, true);
-      MavenProjectModifications modifications =
-          mavenProject.resolve(project, mavenServer, serverManager);
+      long start = System.currentTimeMillis();
+      mavenServer.customize(workspaceCache, terminal, mavenNotifier, false, true);
+      MavenModelReaderResult resolved =
+          mavenProject.resolveModel(project, mavenServer, serverManager);
+      MavenProjectModifications modifications = mavenProject.resolve(resolved);
+      if (modelCache != null) {
+        modelCache.put(cacheKey, resolved);
+      }
+      mavenNotifier.projectResolved(mavenProject.getName(), System.currentTimeMillis() - start);
       dispatcher.projectResolved(mavenProject, modifications);
 
     } finally {
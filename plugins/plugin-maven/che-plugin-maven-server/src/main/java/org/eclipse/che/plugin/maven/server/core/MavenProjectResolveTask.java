@@ -10,10 +10,16 @@
  */
 package org.eclipse.che.plugin.maven.server.core;
 
+import java.util.Objects;
 import org.eclipse.che.plugin.maven.server.core.project.MavenProject;
 import org.eclipse.core.resources.IProject;
 
-/** @author Evgen Vidolob */
+/**
+ * Resolves maven project. Resolution of a module waits for resolution of its parent projects,
+ * while sibling modules may be resolved concurrently.
+ *
+ * @author Evgen Vidolob
+ */
 public class MavenProjectResolveTask implements MavenProjectTask {
 
   private final MavenProject mavenProject;
@@ -38,4 +44,36 @@ public class MavenProjectResolveTask implements MavenProjectTask {
       afterTask.run();
     }
   }
+
+  @Override
+  public boolean dependsOn(MavenProjectTask other) {
+    if (!(other instanceof MavenProjectResolveTask)) {
+      return false;
+    }
+    MavenProject otherProject = ((MavenProjectResolveTask) other).mavenProject;
+    for (MavenProject project = mavenProject;
+        project != null;
+        project = projectManager.findParentProject(project)) {
+      if (project.equals(otherProject)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof MavenProjectResolveTask)) {
+      return false;
+    }
+    return Objects.equals(mavenProject, ((MavenProjectResolveTask) obj).mavenProject);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(mavenProject);
+  }
 }
@@ -17,4 +17,12 @@ package org.eclipse.che.plugin.maven.server.core;
  */
 public interface MavenProjectTask {
   void perform();
+
+  /**
+   * Returns true if this task must not be started until the given task is finished, used by
+   * {@link MavenTaskExecutor} to perform independent tasks concurrently.
+   */
+  default boolean dependsOn(MavenProjectTask other) {
+    return false;
+  }
 }
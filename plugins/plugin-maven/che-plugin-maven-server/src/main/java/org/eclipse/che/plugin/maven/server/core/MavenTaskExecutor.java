@@ -10,16 +10,23 @@
  */
 package org.eclipse.che.plugin.maven.server.core;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Queue;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Executor for {@link MavenProjectTask}. Uses {@link MavenExecutorService} as executor service.
  *
+ * <p>Up to {@link MavenExecutorService#getParallelism()} tasks are performed concurrently. Task is
+ * not started while any running or queued task it {@link
+ * MavenProjectTask#dependsOn(MavenProjectTask) depends on} is not finished.
+ *
  * @author Evgen Vidolob
  */
 public class MavenTaskExecutor {
@@ -28,7 +35,9 @@ public class MavenTaskExecutor {
   private final MavenExecutorService service;
   private final MavenProgressNotifier notifier;
   private final Queue<MavenProjectTask> queue = new LinkedList<>();
+  private final Set<MavenProjectTask> running = new HashSet<>();
   private boolean isWorking;
+  private int taskDone;
 
   public MavenTaskExecutor(MavenExecutorService service, MavenProgressNotifier notifier) {
     this.service = service;
@@ -36,16 +45,26 @@ public class MavenTaskExecutor {
   }
 
   public void submitTask(MavenProjectTask task) {
+    submitTasks(Collections.singletonList(task));
+  }
+
+  /**
+   * Submits tasks at once, so the order of tasks doesn't matter: a task is not started before the
+   * tasks it depends on even if they go later.
+   */
+  public void submitTasks(Collection<? extends MavenProjectTask> tasks) {
     synchronized (queue) {
-      // if no running tasks, start immediately
-      if (!isWorking) {
-        isWorking = true;
-        runTask(task);
-      } else {
+      for (MavenProjectTask task : tasks) {
         if (!queue.contains(task)) {
           queue.add(task);
         }
       }
+      if (!isWorking) {
+        isWorking = true;
+        taskDone = 0;
+        notifier.start();
+      }
+      runReadyTasks();
     }
   }
 
@@ -61,56 +80,71 @@ public class MavenTaskExecutor {
     }
   }
 
-  private void runTask(MavenProjectTask task) {
-    service.submit(() -> doRunTasks(task));
+  /** Starts queued tasks which don't wait for other tasks while there are free threads. */
+  private void runReadyTasks() {
+    Iterator<MavenProjectTask> it = queue.iterator();
+    while (running.size() < service.getParallelism() && it.hasNext()) {
+      MavenProjectTask task = it.next();
+      if (isReady(task)) {
+        it.remove();
+        running.add(task);
+        service.submit(() -> doRunTask(task));
+      }
+    }
+    if (running.isEmpty() && !queue.isEmpty()) {
+      // tasks wait for each other, start the oldest one instead of hanging
+      MavenProjectTask task = queue.poll();
+      running.add(task);
+      service.submit(() -> doRunTask(task));
+    }
+    if (running.isEmpty() && queue.isEmpty() && isWorking) {
+      isWorking = false;
+      notifier.stop();
+      queue.notifyAll();
+    }
   }
 
-  private void doRunTasks(MavenProjectTask task) {
-    int taskDone = 0;
-    notifier.start();
-    while (true) {
-      taskDone++;
-      int restTasks;
-      synchronized (queue) {
-        restTasks = queue.size();
+  private boolean isReady(MavenProjectTask task) {
+    for (MavenProjectTask other : running) {
+      if (task.dependsOn(other)) {
+        return false;
       }
-
-      notifier.setPercent((double) taskDone / (double) (restTasks + taskDone));
-      try {
-        task.perform();
-      } catch (Throwable throwable) {
-        LOG.error(throwable.getMessage(), throwable);
-        // TODO need to notify user some how
+    }
+    for (MavenProjectTask other : queue) {
+      if (other != task && task.dependsOn(other)) {
+        return false;
       }
+    }
+    return true;
+  }
 
+  private void doRunTask(MavenProjectTask task) {
+    try {
+      task.perform();
+    } catch (Throwable throwable) {
+      LOG.error(throwable.getMessage(), throwable);
+      // TODO need to notify user some how
+    } finally {
       synchronized (queue) {
-        task = queue.poll();
-        if (task == null) {
-          isWorking = false;
-          notifier.stop();
-          return;
-        }
+        running.remove(task);
+        taskDone++;
+        notifier.setPercent(
+            (double) taskDone / (double) (taskDone + running.size() + queue.size()));
+        runReadyTasks();
       }
     }
   }
 
   public void waitForEndAllTasks() {
-    if (!isWorking) {
-      return;
-    }
-
-    Semaphore semaphore = new Semaphore(1);
-    try {
-      semaphore.acquire();
-      submitTask(semaphore::release);
-
-      while (true) {
-        if (!isWorking || semaphore.tryAcquire(1, TimeUnit.SECONDS)) {
-          return;
+    synchronized (queue) {
+      try {
+        while (isWorking) {
+          queue.wait();
         }
+      } catch (InterruptedException e) {
+        LOG.debug(e.getMessage(), e);
+        Thread.currentThread().interrupt();
       }
-    } catch (InterruptedException e) {
-      LOG.debug(e.getMessage(), e);
     }
   }
 }
@@ -178,9 +178,10 @@ public class MavenWorkspace {
     Set<MavenProject> needResolve = new HashSet<>(projectsToResolve);
     projectsToResolve.clear();
 
+    List<MavenProjectResolveTask> tasks = new ArrayList<>(needResolve.size());
     for (MavenProject mavenProject : needResolve) {
 
-      resolveExecutor.submitTask(
+      tasks.add(
           new MavenProjectResolveTask(
               mavenProject,
               manager,
@@ -189,6 +190,8 @@ public class MavenWorkspace {
                 classpathManager.updateClasspath(mavenProject);
               }));
     }
+    // modules are resolved after their parents, independent modules are resolved concurrently
+    resolveExecutor.submitTasks(tasks);
   }
 
   private void updateJavaProject(MavenProject project) {
@@ -0,0 +1,434 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.plugin.maven.server.core.project;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Named;
+import org.eclipse.che.ide.maven.tools.Model;
+import org.eclipse.che.ide.maven.tools.Parent;
+import org.eclipse.che.maven.data.MavenArtifact;
+import org.eclipse.che.maven.data.MavenConstants;
+import org.eclipse.che.maven.data.MavenKey;
+import org.eclipse.che.maven.data.MavenModel;
+import org.eclipse.che.maven.data.MavenWorkspaceCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of maven models resolved by maven server.
+ *
+ * <p>Model is stored on the disk under the key which is a digest of everything the resolution
+ * depends on: content of the project pom and poms of its parents, explicit profiles, maven settings
+ * and poms of all maven projects in the workspace. So projects which are not changed since the
+ * previous start of the agent are not resolved again, their model, dependencies and so classpath
+ * are restored from the cache.
+ *
+ * <p>Only models resolved without problems are cached. Cached model is ignored if any of its
+ * dependencies is removed from the local repository. Entries which are not used for the configured
+ * number of days are removed, as well as the least recently used entries once the cache exceeds its
+ * size limit. Entries written in another format, e.g. by another version of the agent, are dropped.
+ *
+ * <p>Digests of the files are remembered along with their modification time and size, so the poms
+ * of the workspace are read once per change rather than once per resolved project.
+ */
+@Singleton
+public class MavenModelCache {
+  private static final Logger LOG = LoggerFactory.getLogger(MavenModelCache.class);
+
+  private static final String ENTRY_SUFFIX = ".ser";
+  private static final int MAX_PARENTS_DEPTH = 32;
+  /** Written at the beginning of each entry, must be changed when the entry format changes. */
+  private static final int FORMAT_VERSION = 1;
+
+  private static final long EVICTION_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+  /**
+   * Digests of the files modified more recently are not remembered, as the file may be changed
+   * again without changing its modification time.
+   */
+  private static final long RECENTLY_MODIFIED_MILLIS = TimeUnit.SECONDS.toMillis(2);
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.maven.model_cache.enabled")
+  private boolean enabled = true;
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.maven.model_cache.max_size_mb")
+  private long maxSizeMb = 64;
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.maven.model_cache.max_age_days")
+  private long maxAgeDays = 30;
+
+  private final File dir;
+  private final AtomicLong hits;
+  private final AtomicLong misses;
+  private final AtomicLong nextEvictionMillis;
+  private final ConcurrentMap<String, FileDigest> fileDigests;
+
+  @Inject
+  public MavenModelCache(@Named("che.user.workspaces.storage") String workspaceStorage) {
+    this(new File(workspaceStorage, ".che/maven-model-cache"));
+  }
+
+  public MavenModelCache(File dir) {
+    this.dir = dir;
+    this.hits = new AtomicLong();
+    this.misses = new AtomicLong();
+    this.nextEvictionMillis = new AtomicLong();
+    this.fileDigests = new ConcurrentHashMap<>();
+  }
+
+  @VisibleForTesting
+  MavenModelCache(File dir, long maxSizeMb, long maxAgeDays) {
+    this(dir);
+    this.maxSizeMb = maxSizeMb;
+    this.maxAgeDays = maxAgeDays;
+  }
+
+  /**
+   * Computes the key of the model of the project.
+   *
+   * @param pom pom of the project
+   * @param activeProfiles explicitly activated profiles
+   * @param inactiveProfiles explicitly deactivated profiles
+   * @param workspaceCache maven projects of the workspace which the project may depend on
+   * @return key of the model or null if cache is disabled or the key can't be computed
+   */
+  public String computeKey(
+      File pom,
+      List<String> activeProfiles,
+      List<String> inactiveProfiles,
+      MavenWorkspaceCache workspaceCache) {
+    if (!enabled || pom == null) {
+      return null;
+    }
+    try {
+      Hasher hasher = Hashing.sha256().newHasher();
+      putPomWithParents(hasher, pom);
+      putStrings(hasher, activeProfiles);
+      putStrings(hasher, inactiveProfiles);
+
+      String mavenHome = System.getenv("M2_HOME");
+      putFile(hasher, new File(System.getProperty("user.home"), ".m2/settings.xml"));
+      putFile(hasher, new File(mavenHome, "conf/settings.xml"));
+
+      // sorted by path, so the key doesn't depend on the order of the workspace projects
+      TreeMap<String, File> workspacePoms = new TreeMap<>();
+      for (MavenKey key : workspaceCache.getAllKeys()) {
+        MavenWorkspaceCache.Entry entry = workspaceCache.findEntry(key);
+        File file = entry == null ? null : entry.getFile(MavenConstants.POM_EXTENSION);
+        if (file != null) {
+          workspacePoms.put(file.getAbsolutePath(), file);
+        }
+      }
+      for (File workspacePom : workspacePoms.values()) {
+        putFile(hasher, workspacePom);
+      }
+      return hasher.hash().toString();
+    } catch (IOException e) {
+      LOG.warn("Can't compute cache key of maven project '{}'. {}", pom, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Returns the model stored under the given key.
+   *
+   * @param key key computed with {@link #computeKey}, may be null
+   * @return cached model or null if there is no valid model in the cache
+   */
+  public MavenModelReaderResult get(String key) {
+    if (key == null) {
+      return null;
+    }
+    Entry entry = read(key);
+    if (entry == null) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    LOG.debug(
+        "Maven model cache {}, {} hits and {} misses",
+        entry == null ? "miss" : "hit",
+        hits.get(),
+        misses.get());
+    return entry == null ? null : entry.toResult();
+  }
+
+  /**
+   * Stores the model under the given key, models resolved with problems are not stored.
+   *
+   * @param key key computed with {@link #computeKey}, may be null
+   * @param result resolved model
+   */
+  public void put(String key, MavenModelReaderResult result) {
+    if (key == null
+        || !result.getProblems().isEmpty()
+        || !result.getUnresolvedArtifacts().isEmpty()) {
+      return;
+    }
+    Path target = entryFile(key);
+    Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(dir.toPath());
+      try (ObjectOutputStream out =
+          new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(FORMAT_VERSION);
+        out.writeObject(new Entry(result));
+      }
+      Files.move(tmp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+    } catch (IOException e) {
+      LOG.warn("Can't store maven model in cache '{}'. {}", dir, e.getMessage());
+      deleteSilently(tmp);
+    }
+
+    long now = System.currentTimeMillis();
+    long next = nextEvictionMillis.get();
+    if (now >= next && nextEvictionMillis.compareAndSet(next, now + EVICTION_INTERVAL_MILLIS)) {
+      evict();
+    }
+  }
+
+  /**
+   * Removes entries which are not used for longer than the max age, then the least recently used
+   * entries until the size of the cache doesn't exceed the max size.
+   */
+  @VisibleForTesting
+  void evict() {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      return;
+    }
+    long expiredBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(maxAgeDays);
+    List<File> entries = new ArrayList<>();
+    long size = 0;
+    for (File file : files) {
+      if (file.lastModified() < expiredBefore) {
+        // also removes temporary files left if the agent stopped while storing the entry
+        deleteSilently(file.toPath());
+      } else if (file.getName().endsWith(ENTRY_SUFFIX)) {
+        entries.add(file);
+        size += file.length();
+      }
+    }
+    long maxSize = maxSizeMb * 1024 * 1024;
+    if (size > maxSize) {
+      entries.sort(Comparator.comparingLong(File::lastModified));
+      for (Iterator<File> it = entries.iterator(); it.hasNext() && size > maxSize; ) {
+        File entry = it.next();
+        size -= entry.length();
+        deleteSilently(entry.toPath());
+      }
+    }
+  }
+
+  /** Returns the number of lookups which found a valid model. */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /** Returns the number of lookups which didn't find a valid model. */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /** Returns the share of lookups which found a valid model, or 0 if there were no lookups. */
+  public double getHitRate() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  private Entry read(String key) {
+    Path file = entryFile(key);
+    Entry entry;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != FORMAT_VERSION) {
+        LOG.debug("Maven model cache entry '{}' has another format, dropping it", file);
+        deleteSilently(file);
+        return null;
+      }
+      entry = (Entry) in.readObject();
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      // e.g. classes of the model are changed since the entry was written
+      LOG.debug("Can't read maven model from cache '{}', dropping it. {}", file, e.getMessage());
+      deleteSilently(file);
+      return null;
+    }
+    for (File dependency : entry.dependencyFiles) {
+      if (!dependency.exists()) {
+        deleteSilently(file);
+        return null;
+      }
+    }
+    try {
+      // keeps recently used entries from eviction
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException ignored) {
+    }
+    return entry;
+  }
+
+  private Path entryFile(String key) {
+    return new File(dir, key + ENTRY_SUFFIX).toPath();
+  }
+
+  /** Digests the pom and the poms of its parents which are found by relative path. */
+  private void putPomWithParents(Hasher hasher, File pom) throws IOException {
+    File current = pom;
+    for (int depth = 0; depth < MAX_PARENTS_DEPTH && current.isFile(); depth++) {
+      putFile(hasher, current);
+      Parent parent;
+      try {
+        parent = Model.readFrom(current).getParent();
+      } catch (IOException | RuntimeException e) {
+        // pom is broken, its content is already digested
+        return;
+      }
+      if (parent == null) {
+        return;
+      }
+      String relativePath = parent.getRelativePath();
+      File next =
+          new File(
+              current.getParentFile(), relativePath == null ? "../pom.xml" : relativePath);
+      if (next.isDirectory()) {
+        next = new File(next, MavenConstants.POM_FILE_NAME);
+      }
+      current = next;
+    }
+  }
+
+  private void putFile(Hasher hasher, File file) throws IOException {
+    String path = file.getAbsolutePath();
+    hasher.putString(path, UTF_8);
+    if (file.isFile()) {
+      hasher.putBytes(digest(path, file).asBytes());
+    } else {
+      fileDigests.remove(path);
+      hasher.putInt(-1);
+    }
+  }
+
+  /** Returns the digest of the content of the file, which is read only if it has been changed. */
+  private HashCode digest(String path, File file) throws IOException {
+    long lastModified = file.lastModified();
+    long length = file.length();
+    FileDigest digest = fileDigests.get(path);
+    if (digest != null && digest.lastModified == lastModified && digest.length == length) {
+      return digest.hash;
+    }
+    HashCode hash = Hashing.sha256().hashBytes(Files.readAllBytes(file.toPath()));
+    if (lastModified < System.currentTimeMillis() - RECENTLY_MODIFIED_MILLIS) {
+      fileDigests.put(path, new FileDigest(lastModified, length, hash));
+    } else {
+      fileDigests.remove(path);
+    }
+    return hash;
+  }
+
+  private static void putStrings(Hasher hasher, List<String> strings) {
+    if (strings == null) {
+      hasher.putInt(-1);
+      return;
+    }
+    hasher.putInt(strings.size());
+    for (String string : strings) {
+      hasher.putString(string, UTF_8);
+    }
+  }
+
+  private static void deleteSilently(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException ignored) {
+    }
+  }
+
+  private static class FileDigest {
+    private final long lastModified;
+    private final long length;
+    private final HashCode hash;
+
+    private FileDigest(long lastModified, long length, HashCode hash) {
+      this.lastModified = lastModified;
+      this.length = length;
+      this.hash = hash;
+    }
+  }
+
+  private static class Entry implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final MavenModel mavenModel;
+    private final ArrayList<String> activeProfiles;
+    private final ArrayList<String> inactiveProfiles;
+    private final ArrayList<File> dependencyFiles;
+
+    private Entry(MavenModelReaderResult result) {
+      this.mavenModel = result.getMavenModel();
+      this.activeProfiles = copy(result.getActiveProfiles());
+      this.inactiveProfiles = copy(result.getInactiveProfiles());
+      this.dependencyFiles = new ArrayList<>();
+      for (MavenArtifact dependency : mavenModel.getDependencies()) {
+        if (dependency.isResolved()) {
+          dependencyFiles.add(dependency.getFile());
+        }
+      }
+    }
+
+    private MavenModelReaderResult toResult() {
+      return new MavenModelReaderResult(
+          mavenModel,
+          new ArrayList<>(activeProfiles),
+          new ArrayList<>(inactiveProfiles),
+          new ArrayList<>(),
+          new HashSet<>());
+    }
+
+    private static ArrayList<String> copy(List<String> strings) {
+      return strings == null ? new ArrayList<>() : new ArrayList<>(strings);
+    }
+  }
+}
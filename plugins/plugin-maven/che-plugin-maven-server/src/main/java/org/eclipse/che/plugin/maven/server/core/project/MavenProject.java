@@ -79,6 +79,14 @@ public class MavenProject {
     return info.profilesIds;
   }
 
+  public List<String> getActiveProfiles() {
+    return info.activeProfiles;
+  }
+
+  public List<String> getInactiveProfiles() {
+    return info.inactiveProfiles;
+  }
+
   public List<MavenResource> getResources() {
     return info.resources;
   }
@@ -184,16 +192,32 @@ public class MavenProject {
    */
   public MavenProjectModifications resolve(
       IProject project, MavenServerWrapper mavenServer, MavenServerManager serverManager) {
+    return resolve(resolveModel(project, mavenServer, serverManager));
+  }
+
+  /**
+   * Invoke maven to build project model, the model is not applied to this project.
+   *
+   * @param project to resolve
+   * @param mavenServer the maven server
+   * @return resolved model
+   * @see #resolve(MavenModelReaderResult)
+   */
+  public MavenModelReaderResult resolveModel(
+      IProject project, MavenServerWrapper mavenServer, MavenServerManager serverManager) {
     MavenModelReader reader = new MavenModelReader();
 
-    MavenModelReaderResult modelReaderResult =
-        reader.resolveMavenProject(
-            getPom(project),
-            mavenServer,
-            info.activeProfiles,
-            info.inactiveProfiles,
-            serverManager);
+    return reader.resolveMavenProject(
+        getPom(project), mavenServer, info.activeProfiles, info.inactiveProfiles, serverManager);
+  }
 
+  /**
+   * Applies model resolved by maven to this project.
+   *
+   * @param modelReaderResult resolved model
+   * @return the modification types that applied to this project
+   */
+  public MavenProjectModifications resolve(MavenModelReaderResult modelReaderResult) {
     return setModel(modelReaderResult, modelReaderResult.getProblems().isEmpty(), false);
   }
 
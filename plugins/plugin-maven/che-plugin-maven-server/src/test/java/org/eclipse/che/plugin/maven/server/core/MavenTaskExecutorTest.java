@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.plugin.maven.server.core;
+
+import static java.util.Arrays.asList;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link MavenTaskExecutor}. */
+@Listeners(MockitoTestNGListener.class)
+public class MavenTaskExecutorTest {
+  @Mock private MavenProgressNotifier notifier;
+
+  private MavenExecutorService service;
+  private List<String> events;
+
+  @BeforeMethod
+  public void setUp() {
+    events = new CopyOnWriteArrayList<>();
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    service.shutdown();
+  }
+
+  @Test
+  public void shouldPerformIndependentTasksConcurrently() throws Exception {
+    service = new MavenExecutorService(2);
+    MavenTaskExecutor executor = new MavenTaskExecutor(service, notifier);
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    TestTask first = new TestTask("first", null, bothStarted);
+    TestTask second = new TestTask("second", null, bothStarted);
+
+    executor.submitTask(first);
+    executor.submitTask(second);
+    executor.waitForEndAllTasks();
+
+    assertTrue(first.awaited && second.awaited, "Tasks were not performed concurrently");
+    verify(notifier).start();
+    verify(notifier).stop();
+  }
+
+  @Test
+  public void shouldNotStartTaskUntilTaskItDependsOnIsFinished() throws Exception {
+    service = new MavenExecutorService(4);
+    MavenTaskExecutor executor = new MavenTaskExecutor(service, notifier);
+    TestTask parent = new TestTask("parent", null, null);
+    TestTask module = new TestTask("module", parent, null);
+    TestTask nested = new TestTask("nested", module, null);
+
+    executor.submitTasks(asList(nested, module, parent));
+    executor.waitForEndAllTasks();
+
+    assertEquals(
+        events,
+        asList(
+            "parent started",
+            "parent done",
+            "module started",
+            "module done",
+            "nested started",
+            "nested done"));
+  }
+
+  @Test
+  public void shouldPerformTasksOneByOneWithSingleThread() throws Exception {
+    service = new MavenExecutorService();
+    MavenTaskExecutor executor = new MavenTaskExecutor(service, notifier);
+
+    executor.submitTask(new TestTask("first", null, null));
+    executor.submitTask(new TestTask("second", null, null));
+    executor.waitForEndAllTasks();
+
+    assertEquals(events, asList("first started", "first done", "second started", "second done"));
+  }
+
+  private class TestTask implements MavenProjectTask {
+    private final String name;
+    private final TestTask parent;
+    private final CountDownLatch latch;
+    private volatile boolean awaited;
+
+    private TestTask(String name, TestTask parent, CountDownLatch latch) {
+      this.name = name;
+      this.parent = parent;
+      this.latch = latch;
+    }
+
+    @Override
+    public void perform() {
+      events.add(name + " started");
+      try {
+        if (latch != null) {
+          latch.countDown();
+          awaited = latch.await(5, TimeUnit.SECONDS);
+        } else {
+          Thread.sleep(20);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      events.add(name + " done");
+    }
+
+    @Override
+    public boolean dependsOn(MavenProjectTask other) {
+      for (TestTask task = parent; task != null; task = task.parent) {
+        if (task == other) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.plugin.maven.server.core.project;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.eclipse.che.maven.data.MavenProjectProblem.newStructureProblem;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.maven.data.MavenArtifact;
+import org.eclipse.che.maven.data.MavenKey;
+import org.eclipse.che.maven.data.MavenModel;
+import org.eclipse.che.maven.data.MavenProjectProblem;
+import org.eclipse.che.maven.data.MavenWorkspaceCache;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link MavenModelCache}. */
+public class MavenModelCacheTest {
+  private static final String PARENT_POM =
+      "<project><groupId>g</groupId><artifactId>parent</artifactId><version>1</version>"
+          + "<packaging>pom</packaging></project>";
+  private static final String MODULE_POM =
+      "<project><parent><groupId>g</groupId><artifactId>parent</artifactId>"
+          + "<version>1</version></parent><artifactId>module</artifactId></project>";
+
+  private File dir;
+  private File parentPom;
+  private File modulePom;
+  private MavenWorkspaceCache workspaceCache;
+  private MavenModelCache cache;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    dir = Files.createTempDirectory("maven-model-cache-").toFile();
+    parentPom = write(new File(dir, "pom.xml"), PARENT_POM);
+    modulePom = write(new File(dir, "module/pom.xml"), MODULE_POM);
+    workspaceCache = new MavenWorkspaceCache();
+    cache = new MavenModelCache(new File(dir, "cache"));
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    IoUtil.deleteRecursive(dir);
+  }
+
+  @Test
+  public void shouldReturnStoredModelForTheSameKey() throws Exception {
+    File jar = write(new File(dir, "repo/dependency.jar"), "jar");
+    String key = key(singletonList("profile"));
+
+    cache.put(key, result(jar, emptyList()));
+    MavenModelReaderResult cached = cache.get(key(singletonList("profile")));
+
+    assertNotNull(cached);
+    assertEquals(cached.getMavenModel().getMavenKey(), new MavenKey("g", "module", "1"));
+    assertEquals(cached.getMavenModel().getDependencies().get(0).getFile(), jar);
+    assertEquals(cached.getActiveProfiles(), singletonList("profile"));
+    assertEquals(cache.getHitCount(), 1);
+    assertEquals(cache.getMissCount(), 0);
+  }
+
+  @Test
+  public void shouldChangeKeyWhenParentPomChanges() throws Exception {
+    String key = key(emptyList());
+
+    write(parentPom, PARENT_POM.replace("<version>1</version>", "<version>2</version>"));
+
+    assertNotEquals(key(emptyList()), key);
+  }
+
+  @Test
+  public void shouldChangeKeyWhenWorkspacePomChanges() throws Exception {
+    File otherPom = write(new File(dir, "other/pom.xml"), PARENT_POM.replace("parent", "other"));
+    workspaceCache.put(new MavenKey("g", "other", "1"), otherPom);
+    String key = key(emptyList());
+
+    write(otherPom, PARENT_POM.replace("parent", "changed"));
+
+    assertNotEquals(key(emptyList()), key);
+  }
+
+  @Test
+  public void shouldNotReadWorkspacePomWhichModificationTimeAndSizeAreNotChanged()
+      throws Exception {
+    File otherPom = write(new File(dir, "other/pom.xml"), PARENT_POM.replace("parent", "other1"));
+    long lastModified = System.currentTimeMillis() - MINUTES.toMillis(1);
+    otherPom.setLastModified(lastModified);
+    workspaceCache.put(new MavenKey("g", "other", "1"), otherPom);
+    String key = key(emptyList());
+
+    write(otherPom, PARENT_POM.replace("parent", "other2"));
+    otherPom.setLastModified(lastModified);
+    assertEquals(key(emptyList()), key);
+
+    otherPom.setLastModified(lastModified + 1000);
+    assertNotEquals(key(emptyList()), key);
+  }
+
+  @Test
+  public void shouldChangeKeyWhenProfilesChange() throws Exception {
+    assertNotEquals(key(singletonList("profile")), key(emptyList()));
+  }
+
+  @Test
+  public void shouldNotStoreModelResolvedWithProblems() throws Exception {
+    String key = key(emptyList());
+
+    cache.put(key, result(null, singletonList(newStructureProblem("pom.xml", "error"))));
+
+    assertNull(cache.get(key));
+    assertEquals(cache.getMissCount(), 1);
+  }
+
+  @Test
+  public void shouldIgnoreModelWhenDependencyIsRemoved() throws Exception {
+    File jar = write(new File(dir, "repo/dependency.jar"), "jar");
+    String key = key(emptyList());
+    cache.put(key, result(jar, emptyList()));
+
+    Files.delete(jar.toPath());
+
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void shouldDropEntryWhichCantBeRead() throws Exception {
+    String key = key(emptyList());
+    File entry = write(new File(dir, "cache/" + key + ".ser"), "not a model");
+
+    assertNull(cache.get(key));
+    assertFalse(entry.exists());
+  }
+
+  @Test
+  public void shouldEvictEntriesNotUsedForMaxAge() throws Exception {
+    cache.put("old", result(null, emptyList()));
+    cache.put("new", result(null, emptyList()));
+    File old = new File(dir, "cache/old.ser");
+    assertTrue(old.setLastModified(System.currentTimeMillis() - DAYS.toMillis(31)));
+
+    cache.evict();
+
+    assertFalse(old.exists());
+    assertNotNull(cache.get("new"));
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedEntriesWhenCacheExceedsMaxSize() throws Exception {
+    cache = new MavenModelCache(new File(dir, "cache"), 1, 30);
+    cache.put("first", result(null, emptyList()));
+    cache.put("second", result(null, emptyList()));
+    File first = new File(dir, "cache/first.ser");
+    File second = new File(dir, "cache/second.ser");
+    File big = new File(dir, "cache/big.ser");
+    Files.write(big.toPath(), new byte[1024 * 1024 - (int) first.length()]);
+    long now = System.currentTimeMillis();
+    assertTrue(first.setLastModified(now - MINUTES.toMillis(3)));
+    assertTrue(second.setLastModified(now - MINUTES.toMillis(2)));
+    assertTrue(big.setLastModified(now - MINUTES.toMillis(1)));
+    assertNotNull(cache.get("first"));
+
+    cache.evict();
+
+    assertTrue(first.exists());
+    assertTrue(big.exists());
+    assertFalse(second.exists());
+  }
+
+  private String key(List<String> activeProfiles) {
+    return cache.computeKey(modulePom, activeProfiles, emptyList(), workspaceCache);
+  }
+
+  private static MavenModelReaderResult result(File jar, List<MavenProjectProblem> problems) {
+    MavenModel model = new MavenModel();
+    model.setMavenKey(new MavenKey("g", "module", "1"));
+    List<MavenArtifact> dependencies = new ArrayList<>();
+    if (jar != null) {
+      dependencies.add(
+          new MavenArtifact(
+              "g",
+              "dependency",
+              "1",
+              "1",
+              "jar",
+              null,
+              "compile",
+              false,
+              "jar",
+              jar,
+              null,
+              true,
+              false));
+    }
+    model.setDependencies(dependencies);
+    return new MavenModelReaderResult(
+        model,
+        new ArrayList<>(singletonList("profile")),
+        new ArrayList<>(),
+        new ArrayList<>(problems),
+        new HashSet<>());
+  }
+
+  private static File write(File file, String content) throws Exception {
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), content.getBytes(UTF_8));
+    return file;
+  }
+}
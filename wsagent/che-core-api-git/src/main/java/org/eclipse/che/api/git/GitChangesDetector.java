@@ -12,11 +12,6 @@ package org.eclipse.che.api.git;
 
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static java.nio.file.Files.isDirectory;
-import static java.util.Collections.singletonList;
-import static org.eclipse.che.api.git.shared.FileChangedEventDto.Status.ADDED;
-import static org.eclipse.che.api.git.shared.FileChangedEventDto.Status.MODIFIED;
-import static org.eclipse.che.api.git.shared.FileChangedEventDto.Status.NOT_MODIFIED;
-import static org.eclipse.che.api.git.shared.FileChangedEventDto.Status.UNTRACKED;
 import static org.eclipse.che.api.vfs.watcher.FileWatcherManager.EMPTY_CONSUMER;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -33,7 +28,6 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
 import org.eclipse.che.api.git.shared.FileChangedEventDto;
-import org.eclipse.che.api.git.shared.Status;
 import org.eclipse.che.api.project.server.ProjectManager;
 import org.eclipse.che.api.vfs.watcher.FileWatcherManager;
 import org.slf4j.Logger;
@@ -54,6 +48,7 @@ public class GitChangesDetector {
   private final FileWatcherManager manager;
   private final Provider<ProjectManager> projectManagerProvider;
   private final GitConnectionFactory gitConnectionFactory;
+  private final GitStatusCache statusCache;
 
   private final Set<String> endpointIds = newConcurrentHashSet();
 
@@ -64,11 +59,13 @@ public class GitChangesDetector {
       RequestTransmitter transmitter,
       FileWatcherManager manager,
       Provider<ProjectManager> projectManagerProvider,
-      GitConnectionFactory gitConnectionFactory) {
+      GitConnectionFactory gitConnectionFactory,
+      GitStatusCache statusCache) {
     this.transmitter = transmitter;
     this.manager = manager;
     this.projectManagerProvider = projectManagerProvider;
     this.gitConnectionFactory = gitConnectionFactory;
+    this.statusCache = statusCache;
   }
 
   @Inject
@@ -125,19 +122,9 @@ public class GitChangesDetector {
                 .getVirtualFile()
                 .toIoFile()
                 .getAbsolutePath();
-        GitConnection connection = gitConnectionFactory.getConnection(projectPath);
-        Status status = connection.status(singletonList(itemPath));
-        FileChangedEventDto.Status fileStatus;
-        if (status.getAdded().contains(itemPath)) {
-          fileStatus = ADDED;
-        } else if (status.getUntracked().contains(itemPath)) {
-          fileStatus = UNTRACKED;
-        } else if (status.getModified().contains(itemPath)
-            || status.getChanged().contains(itemPath)) {
-          fileStatus = MODIFIED;
-        } else {
-          fileStatus = NOT_MODIFIED;
-        }
+        FileChangedEventDto.Status fileStatus =
+            FileChangedEventDto.Status.valueOf(
+                statusCache.refresh(normalizedPath.split("/")[0], itemPath).name());
 
         transmitter
             .newRequest()
@@ -60,6 +60,7 @@ public class GitModule extends AbstractModule {
         .addBinding()
         .to(GitBasicAuthenticationCredentialsProvider.class);
 
+    bind(GitStatusCache.class).asEagerSingleton();
     bind(GitCheckoutDetector.class).asEagerSingleton();
     bind(GitChangesDetector.class).asEagerSingleton();
     bind(GitStatusChangedDetector.class).asEagerSingleton();
@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.git;
+
+import static com.google.common.collect.Sets.newConcurrentHashSet;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.isDirectory;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.ADDED;
+import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.MODIFIED;
+import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.NOT_MODIFIED;
+import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.UNTRACKED;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.project.server.ProjectManager;
+import org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus;
+import org.eclipse.che.api.vfs.watcher.FileWatcherManager;
+import org.slf4j.Logger;
+
+/**
+ * Keeps VCS statuses of files of git projects in memory, so project tree decoration doesn't need to
+ * compute the status of the repository on each request.
+ *
+ * <p>The first request to a project computes the full status of its repository. After that file
+ * watcher events of the working tree only mark changed paths as stale, and statuses of stale paths
+ * are recomputed in one batch when they are requested. Changes of {@code .git/index} or {@code
+ * .git/HEAD} invalidate the whole repository entry. The cache also compares a fingerprint of these
+ * files on each request, so the full status is recomputed if they were changed and the event was
+ * missed.
+ */
+@Singleton
+public class GitStatusCache {
+  private static final Logger LOG = getLogger(GitStatusCache.class);
+
+  private static final String GIT_DIR = ".git";
+  private static final String INDEX_FILE = "index";
+  private static final String HEAD_FILE = "HEAD";
+  private static final String PACKED_REFS_FILE = "packed-refs";
+  private static final String REF_PREFIX = "ref: ";
+
+  private final FileWatcherManager manager;
+  private final Provider<ProjectManager> projectManagerProvider;
+  private final GitConnectionFactory gitConnectionFactory;
+
+  private final Map<String, RepositoryStatus> repositories = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder fullRecomputes = new LongAdder();
+
+  private int workTreeId;
+  private int gitFilesId;
+
+  @Inject
+  public GitStatusCache(
+      FileWatcherManager manager,
+      Provider<ProjectManager> projectManagerProvider,
+      GitConnectionFactory gitConnectionFactory) {
+    this.manager = manager;
+    this.projectManagerProvider = projectManagerProvider;
+    this.gitConnectionFactory = gitConnectionFactory;
+  }
+
+  @PostConstruct
+  public void startWatchers() {
+    workTreeId =
+        manager.registerByMatcher(
+            workTreeMatcher(), workTreeConsumer(), workTreeConsumer(), workTreeConsumer());
+    gitFilesId =
+        manager.registerByMatcher(
+            gitFilesMatcher(), gitFilesConsumer(), gitFilesConsumer(), gitFilesConsumer());
+  }
+
+  @PreDestroy
+  public void stopWatchers() {
+    manager.unRegisterByMatcher(workTreeId);
+    manager.unRegisterByMatcher(gitFilesId);
+  }
+
+  /**
+   * Returns statuses of the given paths of the project.
+   *
+   * @param project name of the project
+   * @param paths paths relative to the project root
+   * @return map of path relative to the project root to its status
+   */
+  public Map<String, VcsStatus> getStatus(String project, List<String> paths)
+      throws NotFoundException, ServerException {
+    RepositoryStatus repository =
+        repositories.computeIfAbsent(project, name -> new RepositoryStatus());
+    Path projectPath = getProjectPath(project);
+    Fingerprint fingerprint = Fingerprint.of(projectPath.resolve(GIT_DIR));
+
+    synchronized (repository) {
+      if (!repository.valid || !fingerprint.equals(repository.fingerprint)) {
+        // stale paths are covered by the full status, events that come
+        // while it is computed mark their paths as stale again
+        repository.stalePaths.clear();
+        repository.valid = true;
+        repository.fingerprint = fingerprint;
+        try {
+          repository.statuses = toStatuses(status(projectPath, emptyList()));
+        } catch (ServerException | RuntimeException e) {
+          // the next request computes the full status again
+          repository.valid = false;
+          repository.fingerprint = null;
+          throw e;
+        }
+        fullRecomputes.increment();
+        misses.add(paths.size());
+      } else {
+        List<String> staleRequested = new ArrayList<>();
+        for (String stale : repository.stalePaths) {
+          if (paths.stream().anyMatch(path -> isSameOrChild(path, stale))) {
+            staleRequested.add(stale);
+          }
+        }
+        if (staleRequested.isEmpty()) {
+          hits.add(paths.size());
+        } else {
+          repository.stalePaths.removeAll(staleRequested);
+          Map<String, VcsStatus> statuses;
+          try {
+            statuses = toStatuses(status(projectPath, staleRequested));
+          } catch (ServerException | RuntimeException e) {
+            repository.stalePaths.addAll(staleRequested);
+            throw e;
+          }
+          repository.statuses.keySet().removeIf(path -> isUnderAny(path, staleRequested));
+          repository.statuses.putAll(statuses);
+          long missed = paths.stream().filter(path -> isUnderAny(path, staleRequested)).count();
+          misses.add(missed);
+          hits.add(paths.size() - missed);
+        }
+      }
+
+      Map<String, VcsStatus> result = new HashMap<>();
+      paths.forEach(path -> result.put(path, repository.statuses.getOrDefault(path, NOT_MODIFIED)));
+      return result;
+    }
+  }
+
+  /**
+   * Marks the given path of the project as changed and returns its actual status. To be used by
+   * components that react on the same file events as the cache, when the cache may not have
+   * received the event yet.
+   *
+   * @param project name of the project
+   * @param path path relative to the project root
+   */
+  public VcsStatus refresh(String project, String path) throws NotFoundException, ServerException {
+    RepositoryStatus repository = repositories.get(project);
+    if (repository != null) {
+      repository.stalePaths.add(path);
+    }
+    return getStatus(project, singletonList(path)).get(path);
+  }
+
+  /** Drops all cached statuses of the project. */
+  public void invalidate(String project) {
+    RepositoryStatus repository = repositories.get(project);
+    if (repository != null) {
+      repository.valid = false;
+    }
+  }
+
+  /** Returns statistics of the cache usage. */
+  public Stats getStats() {
+    return new Stats(hits.sum(), misses.sum(), fullRecomputes.sum(), repositories.size());
+  }
+
+  /** Snapshot of the cache usage statistics. */
+  public static final class Stats {
+    private final long hits;
+    private final long misses;
+    private final long fullRecomputes;
+    private final int repositories;
+
+    Stats(long hits, long misses, long fullRecomputes, int repositories) {
+      this.hits = hits;
+      this.misses = misses;
+      this.fullRecomputes = fullRecomputes;
+      this.repositories = repositories;
+    }
+
+    /** Number of requested paths served from memory. */
+    public long getHits() {
+      return hits;
+    }
+
+    /** Number of requested paths which status was computed. */
+    public long getMisses() {
+      return misses;
+    }
+
+    /** Number of times the full status of a repository was computed. */
+    public long getFullRecomputes() {
+      return fullRecomputes;
+    }
+
+    /** Number of repositories which statuses are cached. */
+    public int getRepositories() {
+      return repositories;
+    }
+  }
+
+  private Path getProjectPath(String project) throws NotFoundException, ServerException {
+    return projectManagerProvider
+        .get()
+        .getProject(project)
+        .getBaseFolder()
+        .getVirtualFile()
+        .toIoFile()
+        .toPath();
+  }
+
+  private Status status(Path projectPath, List<String> filter) throws ServerException {
+    return gitConnectionFactory.getConnection(projectPath.toString()).status(filter);
+  }
+
+  private static Map<String, VcsStatus> toStatuses(Status status) {
+    Map<String, VcsStatus> statuses = new HashMap<>();
+    status.getModified().forEach(path -> statuses.put(path, MODIFIED));
+    status.getChanged().forEach(path -> statuses.put(path, MODIFIED));
+    status.getAdded().forEach(path -> statuses.put(path, ADDED));
+    status.getUntracked().forEach(path -> statuses.put(path, UNTRACKED));
+    return statuses;
+  }
+
+  private static boolean isUnderAny(String path, List<String> parents) {
+    return parents.stream().anyMatch(parent -> isSameOrChild(path, parent));
+  }
+
+  private static boolean isSameOrChild(String path, String parent) {
+    return path.equals(parent) || path.startsWith(parent + "/");
+  }
+
+  private PathMatcher workTreeMatcher() {
+    return it -> !GIT_DIR.equals(it.getNameCount() > 2 ? it.getName(2).toString() : "");
+  }
+
+  private PathMatcher gitFilesMatcher() {
+    return it ->
+        !isDirectory(it)
+            && (INDEX_FILE.equals(it.getFileName().toString())
+                || HEAD_FILE.equals(it.getFileName().toString()))
+            && GIT_DIR.equals(it.getParent().getFileName().toString());
+  }
+
+  private Consumer<String> workTreeConsumer() {
+    return it -> {
+      String normalizedPath = it.startsWith("/") ? it.substring(1) : it;
+      int separator = normalizedPath.indexOf('/');
+      if (separator < 0) {
+        // project root itself is created or removed
+        repositories.remove(normalizedPath);
+        return;
+      }
+      RepositoryStatus repository = repositories.get(normalizedPath.substring(0, separator));
+      if (repository != null) {
+        repository.stalePaths.add(normalizedPath.substring(separator + 1));
+      }
+    };
+  }
+
+  private Consumer<String> gitFilesConsumer() {
+    return it -> {
+      String normalizedPath = it.startsWith("/") ? it.substring(1) : it;
+      LOG.debug("Git index or HEAD of project {} changed", normalizedPath);
+      invalidate(normalizedPath.split("/")[0]);
+    };
+  }
+
+  private static class RepositoryStatus {
+    /** Paths which status differs from {@link VcsStatus#NOT_MODIFIED}. */
+    Map<String, VcsStatus> statuses = new HashMap<>();
+    /** Files and folders changed since their status was computed. */
+    final Set<String> stalePaths = newConcurrentHashSet();
+
+    volatile boolean valid;
+    Fingerprint fingerprint;
+  }
+
+  /** Identifies the state of the index and HEAD of a repository without reading the index. */
+  private static class Fingerprint {
+    private final long indexModified;
+    private final long indexSize;
+    private final String head;
+    private final long refModified;
+
+    private Fingerprint(long indexModified, long indexSize, String head, long refModified) {
+      this.indexModified = indexModified;
+      this.indexSize = indexSize;
+      this.head = head;
+      this.refModified = refModified;
+    }
+
+    static Fingerprint of(Path gitDir) {
+      File index = gitDir.resolve(INDEX_FILE).toFile();
+      String head = "";
+      long refModified = 0;
+      try {
+        Path headFile = gitDir.resolve(HEAD_FILE);
+        if (Files.isRegularFile(headFile)) {
+          head = new String(Files.readAllBytes(headFile), UTF_8).trim();
+        }
+        if (head.startsWith(REF_PREFIX)) {
+          File ref = gitDir.resolve(Paths.get(head.substring(REF_PREFIX.length()))).toFile();
+          File refFile = ref.isFile() ? ref : gitDir.resolve(PACKED_REFS_FILE).toFile();
+          refModified = refFile.lastModified();
+        }
+      } catch (IOException e) {
+        LOG.debug("Can't read HEAD of repository {}: {}", gitDir, e.getMessage());
+      }
+      return new Fingerprint(index.lastModified(), index.length(), head, refModified);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Fingerprint)) {
+        return false;
+      }
+      Fingerprint that = (Fingerprint) obj;
+      return indexModified == that.indexModified
+          && indexSize == that.indexSize
+          && refModified == that.refModified
+          && head.equals(that.head);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(indexModified, indexSize, head, refModified);
+    }
+  }
+}
@@ -16,28 +16,21 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.inject.Inject;
-import javax.inject.Provider;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.api.git.exception.GitException;
-import org.eclipse.che.api.git.shared.Status;
-import org.eclipse.che.api.project.server.ProjectManager;
 import org.eclipse.che.api.project.server.VcsStatusProvider;
 
 /**
- * Git implementation of {@link VcsStatusProvider}.
+ * Git implementation of {@link VcsStatusProvider}. Statuses are served by {@link GitStatusCache}.
  *
  * @author Igor Vinokur
  */
 public class GitStatusProvider implements VcsStatusProvider {
-  private final GitConnectionFactory gitConnectionFactory;
-  private final Provider<ProjectManager> projectManagerProvider;
+  private final GitStatusCache statusCache;
 
   @Inject
-  public GitStatusProvider(
-      GitConnectionFactory gitConnectionFactory, Provider<ProjectManager> projectManagerProvider) {
-    this.gitConnectionFactory = gitConnectionFactory;
-    this.projectManagerProvider = projectManagerProvider;
+  public GitStatusProvider(GitStatusCache statusCache) {
+    this.statusCache = statusCache;
   }
 
   @Override
@@ -49,30 +42,11 @@ public class GitStatusProvider implements VcsStatusProvider {
   public VcsStatus getStatus(String path) throws ServerException {
     try {
       String normalizedPath = path.startsWith("/") ? path.substring(1) : path;
-      String projectPath =
-          projectManagerProvider
-              .get()
-              .getProject(normalizedPath.split("/")[0])
-              .getBaseFolder()
-              .getVirtualFile()
-              .toIoFile()
-              .getAbsolutePath();
-      Status status =
-          gitConnectionFactory
-              .getConnection(projectPath)
-              .status(singletonList(normalizedPath.substring(normalizedPath.indexOf("/") + 1)));
       String itemPath = normalizedPath.substring(normalizedPath.indexOf("/") + 1);
-      if (status.getUntracked().contains(itemPath)) {
-        return VcsStatus.UNTRACKED;
-      } else if (status.getAdded().contains(itemPath)) {
-        return VcsStatus.ADDED;
-      } else if (status.getModified().contains(itemPath)
-          || status.getChanged().contains(itemPath)) {
-        return VcsStatus.MODIFIED;
-      } else {
-        return VcsStatus.NOT_MODIFIED;
-      }
-    } catch (GitException | NotFoundException e) {
+      return statusCache
+          .getStatus(normalizedPath.split("/")[0], singletonList(itemPath))
+          .get(itemPath);
+    } catch (NotFoundException e) {
       throw new ServerException(e.getMessage());
     }
   }
@@ -82,29 +56,10 @@ public class GitStatusProvider implements VcsStatusProvider {
       throws ServerException {
     Map<String, VcsStatus> statusMap = new HashMap<>();
     try {
-      String projectPath =
-          projectManagerProvider
-              .get()
-              .getProject(project)
-              .getBaseFolder()
-              .getVirtualFile()
-              .toIoFile()
-              .getAbsolutePath();
-      Status status = gitConnectionFactory.getConnection(projectPath).status(paths);
-      paths.forEach(
-          path -> {
-            if (status.getUntracked().contains(path)) {
-              statusMap.put("/" + project + "/" + path, VcsStatus.UNTRACKED);
-            } else if (status.getAdded().contains(path)) {
-              statusMap.put("/" + project + "/" + path, VcsStatus.ADDED);
-            } else if (status.getModified().contains(path) || status.getChanged().contains(path)) {
-              statusMap.put("/" + project + "/" + path, VcsStatus.MODIFIED);
-            } else {
-              statusMap.put("/" + project + "/" + path, VcsStatus.NOT_MODIFIED);
-            }
-          });
-
-    } catch (GitException | NotFoundException e) {
+      statusCache
+          .getStatus(project, paths)
+          .forEach((path, status) -> statusMap.put("/" + project + "/" + path, status));
+    } catch (NotFoundException e) {
       throw new ServerException(e.getMessage());
     }
     return statusMap;
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.git;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.MODIFIED;
+import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.NOT_MODIFIED;
+import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.UNTRACKED;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.project.server.ProjectManager;
+import org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus;
+import org.eclipse.che.api.vfs.watcher.FileWatcherManager;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link GitStatusCache}. */
+@Listeners(MockitoTestNGListener.class)
+public class GitStatusCacheTest {
+  private static final String PROJECT = "project";
+
+  @Mock private FileWatcherManager manager;
+  @Mock private GitConnectionFactory gitConnectionFactory;
+  @Mock private GitConnection gitConnection;
+
+  private Path projectDir;
+  private Consumer<String> workTreeConsumer;
+  private Consumer<String> gitFilesConsumer;
+  private GitStatusCache cache;
+
+  @BeforeMethod
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    projectDir = Files.createTempDirectory("git-status-cache-");
+    Path gitDir = Files.createDirectory(projectDir.resolve(".git"));
+    Files.write(gitDir.resolve("HEAD"), "ref: refs/heads/master".getBytes(UTF_8));
+    Files.write(gitDir.resolve("index"), "index".getBytes(UTF_8));
+
+    ProjectManager projectManager = mock(ProjectManager.class, RETURNS_DEEP_STUBS);
+    when(projectManager.getProject(PROJECT).getBaseFolder().getVirtualFile().toIoFile())
+        .thenReturn(projectDir.toFile());
+    when(gitConnectionFactory.getConnection(anyString())).thenReturn(gitConnection);
+
+    cache = new GitStatusCache(manager, () -> projectManager, gitConnectionFactory);
+    cache.startWatchers();
+
+    ArgumentCaptor<Consumer<String>> modifyCaptor = ArgumentCaptor.forClass(Consumer.class);
+    verify(manager, times(2)).registerByMatcher(any(), any(), modifyCaptor.capture(), any());
+    workTreeConsumer = modifyCaptor.getAllValues().get(0);
+    gitFilesConsumer = modifyCaptor.getAllValues().get(1);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    IoUtil.deleteRecursive(projectDir.toFile());
+  }
+
+  @Test
+  public void shouldServeStatusesFromMemoryAfterFullStatusIsComputed() throws Exception {
+    Status status = status(singletonList("a.txt"), emptyList());
+    when(gitConnection.status(anyList())).thenReturn(status);
+
+    cache.getStatus(PROJECT, asList("a.txt", "b.txt"));
+    Map<String, VcsStatus> statuses = cache.getStatus(PROJECT, asList("a.txt", "b.txt"));
+
+    assertEquals(statuses.get("a.txt"), MODIFIED);
+    assertEquals(statuses.get("b.txt"), NOT_MODIFIED);
+    verify(gitConnection).status(emptyList());
+    assertEquals(cache.getStats().getFullRecomputes(), 1);
+    assertEquals(cache.getStats().getMisses(), 2);
+    assertEquals(cache.getStats().getHits(), 2);
+  }
+
+  @Test
+  public void shouldRecomputeOnlyStalePathsOnWorkTreeEvent() throws Exception {
+    Status fullStatus = status(singletonList("a.txt"), emptyList());
+    Status pathStatus = status(emptyList(), singletonList("dir/b.txt"));
+    when(gitConnection.status(emptyList())).thenReturn(fullStatus);
+    when(gitConnection.status(singletonList("dir/b.txt"))).thenReturn(pathStatus);
+    cache.getStatus(PROJECT, asList("a.txt", "dir/b.txt"));
+
+    workTreeConsumer.accept("/project/dir/b.txt");
+    Map<String, VcsStatus> statuses = cache.getStatus(PROJECT, asList("a.txt", "dir/b.txt"));
+
+    assertEquals(statuses.get("a.txt"), MODIFIED);
+    assertEquals(statuses.get("dir/b.txt"), UNTRACKED);
+    verify(gitConnection).status(emptyList());
+    verify(gitConnection).status(singletonList("dir/b.txt"));
+    assertEquals(cache.getStats().getFullRecomputes(), 1);
+  }
+
+  @Test
+  public void shouldRecomputeStatusesUnderChangedFolder() throws Exception {
+    Status fullStatus = status(asList("dir/a.txt", "dir/b.txt"), emptyList());
+    Status folderStatus = status(singletonList("dir/b.txt"), emptyList());
+    when(gitConnection.status(emptyList())).thenReturn(fullStatus);
+    when(gitConnection.status(singletonList("dir"))).thenReturn(folderStatus);
+    cache.getStatus(PROJECT, asList("dir/a.txt", "dir/b.txt"));
+
+    workTreeConsumer.accept("/project/dir");
+    Map<String, VcsStatus> statuses = cache.getStatus(PROJECT, asList("dir/a.txt", "dir/b.txt"));
+
+    assertEquals(statuses.get("dir/a.txt"), NOT_MODIFIED);
+    assertEquals(statuses.get("dir/b.txt"), MODIFIED);
+  }
+
+  @Test
+  public void shouldRecomputeFullStatusOnIndexEvent() throws Exception {
+    Status status = status(emptyList(), emptyList());
+    when(gitConnection.status(anyList())).thenReturn(status);
+    cache.getStatus(PROJECT, singletonList("a.txt"));
+
+    gitFilesConsumer.accept("/project/.git/index");
+    cache.getStatus(PROJECT, singletonList("a.txt"));
+
+    verify(gitConnection, times(2)).status(emptyList());
+    assertEquals(cache.getStats().getFullRecomputes(), 2);
+  }
+
+  @Test
+  public void shouldRecomputeFullStatusWhenIndexChangedWithoutEvent() throws Exception {
+    Status status = status(emptyList(), emptyList());
+    when(gitConnection.status(anyList())).thenReturn(status);
+    cache.getStatus(PROJECT, singletonList("a.txt"));
+
+    Files.write(projectDir.resolve(".git").resolve("index"), "new index".getBytes(UTF_8));
+    cache.getStatus(PROJECT, singletonList("a.txt"));
+
+    verify(gitConnection, times(2)).status(emptyList());
+  }
+
+  @Test
+  public void shouldRefreshPathBeforeEventIsReceived() throws Exception {
+    Status fullStatus = status(emptyList(), emptyList());
+    Status pathStatus = status(singletonList("a.txt"), emptyList());
+    when(gitConnection.status(emptyList())).thenReturn(fullStatus);
+    when(gitConnection.status(singletonList("a.txt"))).thenReturn(pathStatus);
+    cache.getStatus(PROJECT, singletonList("a.txt"));
+
+    assertEquals(cache.refresh(PROJECT, "a.txt"), MODIFIED);
+  }
+
+  @Test
+  public void shouldRecomputeFullStatusAfterFailedComputation() throws Exception {
+    Status status = status(singletonList("a.txt"), emptyList());
+    when(gitConnection.status(emptyList()))
+        .thenThrow(new ServerException("git failed"))
+        .thenReturn(status);
+    try {
+      cache.getStatus(PROJECT, singletonList("a.txt"));
+      fail("ServerException expected");
+    } catch (ServerException expected) {
+    }
+
+    Map<String, VcsStatus> statuses = cache.getStatus(PROJECT, singletonList("a.txt"));
+
+    assertEquals(statuses.get("a.txt"), MODIFIED);
+    verify(gitConnection, times(2)).status(emptyList());
+  }
+
+  private Status status(List<String> modified, List<String> untracked) {
+    Status status = mock(Status.class);
+    when(status.getModified()).thenReturn(modified);
+    when(status.getUntracked()).thenReturn(untracked);
+    when(status.getChanged()).thenReturn(emptyList());
+    when(status.getAdded()).thenReturn(emptyList());
+    return status;
+  }
+}
@@ -10,6 +10,8 @@
  */
 package org.eclipse.che.api.languageserver.registry;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -20,7 +22,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.PreDestroy;
@@ -33,6 +40,8 @@ import org.eclipse.che.api.languageserver.shared.model.LanguageDescription;
 import org.eclipse.che.api.project.server.FolderEntry;
 import org.eclipse.che.api.project.server.ProjectManager;
 import org.eclipse.che.api.project.server.VirtualFileEntry;
+import org.eclipse.che.commons.lang.Pair;
+import org.eclipse.lsp4j.InitializeResult;
 import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.MessageType;
 import org.eclipse.lsp4j.ServerCapabilities;
@@ -40,17 +49,40 @@ import org.eclipse.lsp4j.services.LanguageServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Launches language servers on demand and finds servers applicable to files.
+ *
+ * <p>Lookups don't take any global lock: servers are kept in concurrent maps, a server which is
+ * being launched is represented by a future that completes when the server is initialized, and
+ * servers applicable to a file are cached until any server is initialized or shut down. Languages
+ * of files are resolved with lookups by file name and extension instead of matching all languages.
+ */
 @Singleton
 public class LanguageServerRegistryImpl implements LanguageServerRegistry {
   private static final Logger LOG = LoggerFactory.getLogger(LanguageServerRegistryImpl.class);
+  private static final int APPLICABLE_SERVERS_CACHE_SIZE = 1000;
+
   private final List<LanguageDescription> languages;
   private final List<LanguageServerLauncher> launchers;
   private final AtomicInteger serverId = new AtomicInteger();
 
-  /** Started {@link LanguageServer} by project. */
-  private final Map<String, List<LanguageServerLauncher>> launchedServers;
+  /** Languages by file names and file extensions, first registered language wins. */
+  private final Map<String, LanguageDescription> languagesByFileName;
+
+  private final Map<String, LanguageDescription> languagesByExtension;
+
+  /** Started {@link LanguageServer} by project, completes when the server is initialized. */
+  private final Map<
+          String, Map<LanguageServerLauncher, CompletableFuture<InitializedLanguageServer>>>
+      launchedServers;
 
   private final Map<String, List<InitializedLanguageServer>> initializedServers;
+  private final Map<String, InitializedLanguageServer> serversById;
+
+  /** Applicable servers by file uri, entries of older generations are outdated. */
+  private final Cache<String, ApplicableServers> applicableServers;
+
+  private final AtomicLong serversGeneration = new AtomicLong();
 
   private final Provider<ProjectManager> projectManagerProvider;
   private final ServerInitializer initializer;
@@ -71,27 +103,37 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
     this.initializer = initializer;
     this.eventService = eventService;
     this.clientFactory = clientFactory;
-    this.launchedServers = new HashMap<>();
-    this.initializedServers = new HashMap<>();
+    this.launchedServers = new ConcurrentHashMap<>();
+    this.initializedServers = new ConcurrentHashMap<>();
+    this.serversById = new ConcurrentHashMap<>();
+    this.applicableServers =
+        CacheBuilder.newBuilder().maximumSize(APPLICABLE_SERVERS_CACHE_SIZE).build();
+    this.languagesByFileName = new HashMap<>();
+    this.languagesByExtension = new HashMap<>();
+    for (LanguageDescription language : this.languages) {
+      language.getFileNames().forEach(name -> languagesByFileName.putIfAbsent(name, language));
+      language
+          .getFileExtensions()
+          .forEach(extension -> languagesByExtension.putIfAbsent(extension, language));
+    }
   }
 
   private LanguageDescription findLanguage(String path) {
-    for (LanguageDescription language : languages) {
-      if (matchesFilenames(language, path) || matchesExtensions(language, path)) {
+    String fileName = path.substring(path.lastIndexOf('/') + 1);
+    LanguageDescription language = languagesByFileName.get(fileName);
+    if (language != null) {
+      return language;
+    }
+    // the longest extension first, so 'tar.gz' is preferred to 'gz'
+    for (int dot = fileName.indexOf('.'); dot >= 0; dot = fileName.indexOf('.', dot + 1)) {
+      language = languagesByExtension.get(fileName.substring(dot + 1));
+      if (language != null) {
         return language;
       }
     }
     return null;
   }
 
-  private boolean matchesExtensions(LanguageDescription language, String path) {
-    return language.getFileExtensions().stream().anyMatch(extension -> path.endsWith(extension));
-  }
-
-  private boolean matchesFilenames(LanguageDescription language, String path) {
-    return language.getFileNames().stream().anyMatch(name -> path.endsWith(name));
-  }
-
   @Override
   public ServerCapabilities getCapabilities(String fileUri) throws LanguageServerException {
     return getApplicableLanguageServers(fileUri)
@@ -109,80 +151,79 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
     if (projectPath == null) {
       return null;
     }
-    List<LanguageServerLauncher> requiredToLaunch = findLaunchers(projectPath, fileUri);
-    // launchers is the set of things we need to have initialized
+    Map<LanguageServerLauncher, CompletableFuture<InitializedLanguageServer>> servers =
+        launchedServers.computeIfAbsent(projectPath, k -> new ConcurrentHashMap<>());
 
-    for (LanguageServerLauncher launcher : new ArrayList<>(requiredToLaunch)) {
-      synchronized (initializedServers) {
-        List<LanguageServerLauncher> servers =
-            launchedServers.computeIfAbsent(projectPath, k -> new ArrayList<>());
-
-        if (!servers.contains(launcher)) {
-          servers.add(launcher);
-          String id = String.valueOf(serverId.incrementAndGet());
-          initializer
-              .initialize(launcher, clientFactory.create(id), projectPath)
-              .thenAccept(
-                  pair -> {
-                    synchronized (initializedServers) {
-                      List<InitializedLanguageServer> initialized =
-                          initializedServers.computeIfAbsent(projectPath, k -> new ArrayList<>());
-                      initialized.add(
-                          new InitializedLanguageServer(id, pair.first, pair.second, launcher));
-                      requiredToLaunch.remove(launcher);
-                      initializedServers.notifyAll();
-                    }
-                  })
-              .exceptionally(
-                  t -> {
-                    eventService.publish(
-                        new MessageParams(
-                            MessageType.Error,
-                            "Failed to initialized LS "
-                                + launcher.getDescription().getId()
-                                + ": "
-                                + t.getMessage()));
-                    LOG.error("Error launching language server " + launcher, t);
-                    synchronized (initializedServers) {
-                      requiredToLaunch.remove(launcher);
-                      servers.remove(launcher);
-                      initializedServers.notifyAll();
-                    }
-                    return null;
-                  });
-        }
+    // launchers is the set of things we need to have initialized
+    List<CompletableFuture<?>> required = new ArrayList<>();
+    for (LanguageServerLauncher launcher : findLaunchers(projectPath, fileUri)) {
+      CompletableFuture<InitializedLanguageServer> ready = new CompletableFuture<>();
+      CompletableFuture<InitializedLanguageServer> launched = servers.putIfAbsent(launcher, ready);
+      if (launched == null) {
+        launch(launcher, projectPath, servers, ready);
+        launched = ready;
       }
+      // failure is already reported by the thread which launched the server
+      required.add(launched.handle((server, error) -> server));
     }
 
     // now wait for all launchers to arrive at initialized
     // eventually, all launchers will either fail or succeed, regardless of
-    // which request thread started them. Thus the loop below will
-    // end.
-    synchronized (initializedServers) {
-      List<InitializedLanguageServer> initForProject = initializedServers.get(projectPath);
-      if (initForProject != null) {
-        for (InitializedLanguageServer initialized : initForProject) {
-          requiredToLaunch.remove(initialized.getLauncher());
-        }
-      }
-      while (!requiredToLaunch.isEmpty()) {
-        try {
-          initializedServers.wait();
-          initForProject = initializedServers.get(projectPath);
-          if (initForProject != null) {
-            for (InitializedLanguageServer initialized : initForProject) {
-              requiredToLaunch.remove(initialized.getLauncher());
-            }
-          }
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          return null;
-        }
-      }
+    // which request thread started them
+    try {
+      CompletableFuture.allOf(required.toArray(new CompletableFuture<?>[required.size()])).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      LOG.error(e.getMessage(), e);
     }
     return getCapabilities(fileUri);
   }
 
+  private void launch(
+      LanguageServerLauncher launcher,
+      String projectPath,
+      Map<LanguageServerLauncher, CompletableFuture<InitializedLanguageServer>> servers,
+      CompletableFuture<InitializedLanguageServer> ready)
+      throws LanguageServerException {
+    String id = String.valueOf(serverId.incrementAndGet());
+    CompletableFuture<Pair<LanguageServer, InitializeResult>> initialized;
+    try {
+      initialized = initializer.initialize(launcher, clientFactory.create(id), projectPath);
+    } catch (LanguageServerException | RuntimeException e) {
+      servers.remove(launcher, ready);
+      ready.completeExceptionally(e);
+      throw e;
+    }
+    initialized
+        .thenAccept(
+            pair -> {
+              InitializedLanguageServer server =
+                  new InitializedLanguageServer(id, pair.first, pair.second, launcher);
+              initializedServers
+                  .computeIfAbsent(projectPath, k -> new CopyOnWriteArrayList<>())
+                  .add(server);
+              serversById.put(id, server);
+              invalidateApplicableServers();
+              ready.complete(server);
+            })
+        .exceptionally(
+            t -> {
+              eventService.publish(
+                  new MessageParams(
+                      MessageType.Error,
+                      "Failed to initialized LS "
+                          + launcher.getDescription().getId()
+                          + ": "
+                          + t.getMessage()));
+              LOG.error("Error launching language server " + launcher, t);
+              servers.remove(launcher, ready);
+              ready.completeExceptionally(t);
+              return null;
+            });
+  }
+
   private List<LanguageServerLauncher> findLaunchers(String projectPath, String fileUri) {
     LanguageDescription language = findLanguage(fileUri);
     if (language == null) {
@@ -233,6 +274,18 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
 
   public List<Collection<InitializedLanguageServer>> getApplicableLanguageServers(String fileUri)
       throws LanguageServerException {
+    long generation = serversGeneration.get();
+    ApplicableServers cached = applicableServers.getIfPresent(fileUri);
+    if (cached != null && cached.generation == generation) {
+      return cached.servers;
+    }
+    List<Collection<InitializedLanguageServer>> servers = findApplicableLanguageServers(fileUri);
+    applicableServers.put(fileUri, new ApplicableServers(generation, servers));
+    return servers;
+  }
+
+  private List<Collection<InitializedLanguageServer>> findApplicableLanguageServers(
+      String fileUri) throws LanguageServerException {
     String projectPath = extractProjectPath(fileUri);
     LanguageDescription language = findLanguage(fileUri);
     if (projectPath == null || language == null) {
@@ -241,13 +294,9 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
 
     Map<Integer, List<InitializedLanguageServer>> result = new HashMap<>();
 
-    List<InitializedLanguageServer> servers = null;
-    synchronized (initializedServers) {
-      List<InitializedLanguageServer> list = initializedServers.get(projectPath);
-      if (list == null) {
-        return Collections.emptyList();
-      }
-      servers = new ArrayList<InitializedLanguageServer>(list);
+    List<InitializedLanguageServer> servers = initializedServers.get(projectPath);
+    if (servers == null) {
+      return Collections.emptyList();
     }
     for (InitializedLanguageServer server : servers) {
       int score =
@@ -262,12 +311,19 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
       }
     }
     // sort lists highest score first
-    return result
-        .entrySet()
-        .stream()
-        .sorted((left, right) -> right.getKey() - left.getKey())
-        .map(entry -> entry.getValue())
-        .collect(Collectors.toList());
+    return Collections.unmodifiableList(
+        result
+            .entrySet()
+            .stream()
+            .sorted((left, right) -> right.getKey() - left.getKey())
+            .map(entry -> Collections.unmodifiableList(entry.getValue()))
+            .collect(Collectors.toList()));
+  }
+
+  /** Must be called whenever the set of initialized servers changes. */
+  private void invalidateApplicableServers() {
+    serversGeneration.incrementAndGet();
+    applicableServers.invalidateAll();
   }
 
   private int matchScore(LanguageServerDescription desc, String path, String languageId) {
@@ -328,16 +384,16 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
 
   @PreDestroy
   protected void shutdown() {
-    List<LanguageServer> allServers;
-    synchronized (initializedServers) {
-      allServers =
-          initializedServers
-              .values()
-              .stream()
-              .flatMap(l -> l.stream())
-              .map(s -> s.getServer())
-              .collect(Collectors.toList());
-    }
+    List<LanguageServer> allServers =
+        initializedServers
+            .values()
+            .stream()
+            .flatMap(l -> l.stream())
+            .map(s -> s.getServer())
+            .collect(Collectors.toList());
+    initializedServers.clear();
+    serversById.clear();
+    invalidateApplicableServers();
     for (LanguageServer server : allServers) {
       server.shutdown();
       server.exit();
@@ -346,13 +402,16 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
 
   @Override
   public InitializedLanguageServer getServer(String id) {
-    for (List<InitializedLanguageServer> list : initializedServers.values()) {
-      for (InitializedLanguageServer initializedLanguageServer : list) {
-        if (initializedLanguageServer.getId().equals(id)) {
-          return initializedLanguageServer;
-        }
-      }
+    return serversById.get(id);
+  }
+
+  private static class ApplicableServers {
+    final long generation;
+    final List<Collection<InitializedLanguageServer>> servers;
+
+    ApplicableServers(long generation, List<Collection<InitializedLanguageServer>> servers) {
+      this.generation = generation;
+      this.servers = servers;
     }
-    return null;
   }
 }
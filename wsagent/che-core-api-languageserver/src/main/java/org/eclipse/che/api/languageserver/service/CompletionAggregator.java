@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.service;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.languageserver.registry.InitializedLanguageServer;
+import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.CompletionItemDto;
+import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.ExtendedCompletionItemDto;
+import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.ExtendedCompletionListDto;
+import org.eclipse.che.api.languageserver.shared.model.ExtendedCompletionItem;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aggregates completion results of the language servers applicable to a document without blocking
+ * any thread while the servers compute them.
+ *
+ * <p>Groups of servers are asked in the order of their priority, the next group is asked only when
+ * all the servers of the previous one answered with no items. Results are merged as soon as they
+ * arrive. The aggregated list is returned when all the servers of the group answered or when the
+ * merge window after the first non empty result is over. In the latter case the list is marked as
+ * incomplete, so the client asks again when the user continues typing. Each server has its own
+ * deadline, a server which does not answer in time is not waited for.
+ *
+ * <p>A completion request supersedes the previous one of the same client for the same document.
+ * Requests to the servers which are still in progress when the list is returned or superseded are
+ * cancelled, which makes the language servers receive {@code $/cancelRequest}.
+ */
+@Singleton
+public class CompletionAggregator {
+  private static final Logger LOG = LoggerFactory.getLogger(CompletionAggregator.class);
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.lsp.completion.server_timeout_ms")
+  private long serverTimeoutMs = 5_000;
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.lsp.completion.merge_window_ms")
+  private long mergeWindowMs = 200;
+
+  private final ScheduledExecutorService executor;
+  private final ConcurrentMap<String, Aggregation> aggregations;
+  private final ConcurrentMap<String, ServerLatency> latencies;
+
+  @Inject
+  public CompletionAggregator() {
+    this.executor =
+        Executors.newScheduledThreadPool(
+            2,
+            new ThreadFactoryBuilder()
+                .setNameFormat("LanguageServerCompletion-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
+    this.aggregations = new ConcurrentHashMap<>();
+    this.latencies = new ConcurrentHashMap<>();
+  }
+
+  @VisibleForTesting
+  CompletionAggregator(long serverTimeoutMs, long mergeWindowMs) {
+    this();
+    this.serverTimeoutMs = serverTimeoutMs;
+    this.mergeWindowMs = mergeWindowMs;
+  }
+
+  /**
+   * Asks the servers for completion and aggregates their results.
+   *
+   * @param endpointId identifier of the client which requested completion
+   * @param serverGroups groups of servers applicable to the document ordered by their priority
+   * @param params completion parameters
+   * @return future which is completed with aggregated completion list, it is never completed
+   *     exceptionally
+   */
+  public CompletableFuture<ExtendedCompletionListDto> complete(
+      String endpointId,
+      List<Collection<InitializedLanguageServer>> serverGroups,
+      TextDocumentPositionParams params) {
+    String key = endpointId + '@' + params.getTextDocument().getUri();
+    Aggregation aggregation = new Aggregation(key, serverGroups, params);
+    Aggregation superseded = aggregations.put(key, aggregation);
+    if (superseded != null) {
+      superseded.cancel();
+    }
+    executor.execute(aggregation::askNextGroup);
+    return aggregation.result;
+  }
+
+  /**
+   * Returns completion statistics of each language server: the number of answered, failed, timed
+   * out and cancelled requests, total and maximal latency of the answered requests in milliseconds.
+   */
+  public Map<String, Map<String, Long>> getStatistics() {
+    Map<String, Map<String, Long>> statistics = new TreeMap<>();
+    latencies.forEach((id, latency) -> statistics.put(id, latency.toMap()));
+    return statistics;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    aggregations.values().forEach(Aggregation::cancel);
+    executor.shutdownNow();
+  }
+
+  private ServerLatency getLatency(InitializedLanguageServer server) {
+    return latencies.computeIfAbsent(server.getId(), id -> new ServerLatency());
+  }
+
+  /** Completion request of a client, its state is guarded by the aggregation itself. */
+  private final class Aggregation {
+    final String key;
+    final Iterator<Collection<InitializedLanguageServer>> serverGroups;
+    final TextDocumentPositionParams params;
+    final CompletableFuture<ExtendedCompletionListDto> result;
+    final List<ExtendedCompletionItem> items;
+    final Map<InitializedLanguageServer, CompletableFuture<?>> pending;
+
+    boolean incomplete;
+    boolean cancelled;
+    ScheduledFuture<?> mergeWindow;
+
+    Aggregation(
+        String key,
+        List<Collection<InitializedLanguageServer>> serverGroups,
+        TextDocumentPositionParams params) {
+      this.key = key;
+      this.serverGroups = serverGroups.iterator();
+      this.params = params;
+      this.result = new CompletableFuture<>();
+      this.items = new ArrayList<>();
+      this.pending = new IdentityHashMap<>();
+    }
+
+    synchronized void askNextGroup() {
+      while (!cancelled && pending.isEmpty() && serverGroups.hasNext()) {
+        for (InitializedLanguageServer server : serverGroups.next()) {
+          if (server.getInitializeResult().getCapabilities().getCompletionProvider() != null) {
+            ask(server);
+          }
+        }
+      }
+      if (pending.isEmpty()) {
+        respond();
+        aggregations.remove(key, this);
+      }
+    }
+
+    private void ask(InitializedLanguageServer server) {
+      long start = System.nanoTime();
+      CompletableFuture<Either<List<CompletionItem>, CompletionList>> future;
+      try {
+        future = server.getServer().getTextDocumentService().completion(params);
+      } catch (RuntimeException e) {
+        LOG.info("Exception occurred in request", e);
+        getLatency(server).failures.increment();
+        return;
+      }
+      pending.put(server, future);
+      ScheduledFuture<?> deadline =
+          executor.schedule(() -> timeout(server, future), serverTimeoutMs, MILLISECONDS);
+      future.whenCompleteAsync(
+          (list, error) -> {
+            deadline.cancel(false);
+            onResult(server, future, list, error, start);
+          },
+          executor);
+    }
+
+    synchronized void onResult(
+        InitializedLanguageServer server,
+        CompletableFuture<?> future,
+        Either<List<CompletionItem>, CompletionList> list,
+        Throwable error,
+        long start) {
+      if (pending.remove(server) == null) {
+        return;
+      }
+      // cancelled requests are counted by the one who cancelled them
+      if (!future.isCancelled()) {
+        ServerLatency latency = getLatency(server);
+        if (error != null) {
+          LOG.info("Exception occurred in request", error);
+          latency.failures.increment();
+        } else {
+          latency.record(NANOSECONDS.toMillis(System.nanoTime() - start));
+          merge(server, list);
+        }
+      }
+
+      if (pending.isEmpty()) {
+        if (items.isEmpty() && !result.isDone()) {
+          askNextGroup();
+        } else {
+          respond();
+          aggregations.remove(key, this);
+        }
+      } else if (!items.isEmpty() && mergeWindow == null) {
+        mergeWindow = executor.schedule(this::respond, mergeWindowMs, MILLISECONDS);
+      }
+    }
+
+    private void merge(
+        InitializedLanguageServer server, Either<List<CompletionItem>, CompletionList> list) {
+      if (list == null) {
+        return;
+      }
+      List<CompletionItem> itemList;
+      if (list.isRight()) {
+        incomplete |= list.getRight().isIncomplete();
+        itemList = list.getRight().getItems();
+      } else {
+        itemList = list.getLeft();
+      }
+      if (itemList == null) {
+        return;
+      }
+      for (CompletionItem item : itemList) {
+        ExtendedCompletionItemDto exItem = new ExtendedCompletionItemDto();
+        exItem.setItem(new CompletionItemDto(item));
+        exItem.setLanguageServerId(server.getId());
+        items.add(exItem);
+      }
+    }
+
+    synchronized void timeout(InitializedLanguageServer server, CompletableFuture<?> future) {
+      if (pending.containsKey(server)) {
+        getLatency(server).timeouts.increment();
+        future.cancel(true);
+      }
+    }
+
+    /** Stops the aggregation and returns the items merged so far. */
+    synchronized void cancel() {
+      cancelled = true;
+      incomplete = true;
+      respond();
+    }
+
+    /**
+     * Returns the items merged so far, requests which are still in progress are cancelled as their
+     * results can't be returned anymore.
+     */
+    synchronized void respond() {
+      if (result.isDone()) {
+        return;
+      }
+      ExtendedCompletionListDto list = new ExtendedCompletionListDto();
+      list.setItems(new ArrayList<>(items));
+      list.setInComplete(incomplete || !pending.isEmpty());
+      result.complete(list);
+
+      for (Map.Entry<InitializedLanguageServer, CompletableFuture<?>> entry : pending.entrySet()) {
+        getLatency(entry.getKey()).cancelled.increment();
+        // lsp4j sends $/cancelRequest to the server when its request future is cancelled
+        entry.getValue().cancel(true);
+      }
+    }
+  }
+
+  /** Completion latency of a language server. */
+  private static final class ServerLatency {
+    final LongAdder answered = new LongAdder();
+    final LongAdder failures = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+    final LongAdder cancelled = new LongAdder();
+    final LongAdder totalMs = new LongAdder();
+    final LongAccumulator maxMs = new LongAccumulator(Math::max, 0);
+
+    void record(long latencyMs) {
+      answered.increment();
+      totalMs.add(latencyMs);
+      maxMs.accumulate(latencyMs);
+    }
+
+    Map<String, Long> toMap() {
+      Map<String, Long> map = new LinkedHashMap<>();
+      map.put("answered", answered.sum());
+      map.put("failures", failures.sum());
+      map.put("timeouts", timeouts.sum());
+      map.put("cancelled", cancelled.sum());
+      map.put("totalMs", totalMs.sum());
+      map.put("maxMs", maxMs.get());
+      return map;
+    }
+  }
+}
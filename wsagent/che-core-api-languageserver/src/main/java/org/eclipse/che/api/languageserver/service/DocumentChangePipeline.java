@@ -0,0 +1,431 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.service;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.languageserver.exception.LanguageServerException;
+import org.eclipse.che.api.languageserver.registry.InitializedLanguageServer;
+import org.eclipse.che.api.languageserver.registry.LanguageServerRegistry;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DidSaveTextDocumentParams;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.TextDocumentSyncKind;
+import org.eclipse.lsp4j.TextDocumentSyncOptions;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.TextDocumentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Forwards document synchronization notifications to the language servers applicable to the
+ * documents.
+ *
+ * <p>Notifications of a document are sent in the order they are received. Changes of a document
+ * are queued for a short merge window and sent at once, typing at adjacent positions of a line is
+ * merged into a single change. Each server receives the changes in the synchronization mode it
+ * advertised: incremental changes as they are, full text of the document when the server asked for
+ * full synchronization, nothing when it asked for none. Text of an open document is tracked, so a
+ * server which is started after the document was opened receives {@code textDocument/didOpen} with
+ * the current text instead of the changes it can't apply. Servers which need full synchronization
+ * never receive incremental changes, they receive nothing while the text of the document is not
+ * known.
+ *
+ * <p>Requests which depend on the content of documents must call {@link #flushAll()} first, so
+ * servers see all the changes made before the request.
+ */
+@Singleton
+public class DocumentChangePipeline {
+  private static final Logger LOG = LoggerFactory.getLogger(DocumentChangePipeline.class);
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.lsp.document_sync.merge_window_ms")
+  private long mergeWindowMs = 50;
+
+  private final LanguageServerRegistry registry;
+  private final ScheduledExecutorService executor;
+  private final ConcurrentMap<String, DocumentQueue> documents;
+  private final Set<DocumentQueue> pendingDocuments;
+
+  @Inject
+  public DocumentChangePipeline(LanguageServerRegistry registry) {
+    this.registry = registry;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("LanguageServerDocumentSync-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
+    this.documents = new ConcurrentHashMap<>();
+    this.pendingDocuments = ConcurrentHashMap.newKeySet();
+  }
+
+  @VisibleForTesting
+  DocumentChangePipeline(LanguageServerRegistry registry, long mergeWindowMs) {
+    this(registry);
+    this.mergeWindowMs = mergeWindowMs;
+  }
+
+  /** Sends {@code textDocument/didOpen}, uri of the document must be already prefixed. */
+  public void didOpen(DidOpenTextDocumentParams params) {
+    String uri = params.getTextDocument().getUri();
+    DocumentQueue document = new DocumentQueue(uri);
+    DocumentQueue reopened = documents.put(uri, document);
+    if (reopened != null) {
+      reopened.flush();
+    }
+    document.open(params);
+  }
+
+  /** Queues changes of a document, uri of the document must be already prefixed. */
+  public void didChange(DidChangeTextDocumentParams params) {
+    String uri = params.getTextDocument().getUri();
+    documents.computeIfAbsent(uri, DocumentQueue::new).change(params);
+  }
+
+  /** Sends queued changes and {@code textDocument/didSave}. */
+  public void didSave(DidSaveTextDocumentParams params) {
+    String uri = params.getTextDocument().getUri();
+    DocumentQueue document = documents.get(uri);
+    if (document != null) {
+      document.flush();
+    }
+    forEachServer(uri, server -> server.didSave(params));
+  }
+
+  /** Sends queued changes and {@code textDocument/didClose}, stops tracking the document. */
+  public void didClose(DidCloseTextDocumentParams params) {
+    String uri = params.getTextDocument().getUri();
+    DocumentQueue document = documents.remove(uri);
+    if (document != null) {
+      document.flush();
+    }
+    forEachServer(uri, server -> server.didClose(params));
+  }
+
+  /** Sends queued changes of all the documents. */
+  public void flushAll() {
+    for (DocumentQueue document : pendingDocuments) {
+      document.flush();
+    }
+  }
+
+  /**
+   * Returns statistics of each open document: the number of received changes, sent changes and
+   * notifications, current and maximal queue depth, total and maximal latency in milliseconds
+   * between receiving a change and sending it.
+   */
+  public Map<String, Map<String, Long>> getStatistics() {
+    Map<String, Map<String, Long>> statistics = new TreeMap<>();
+    documents.forEach((uri, document) -> statistics.put(uri, document.getStatistics()));
+    return statistics;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+    flushAll();
+  }
+
+  private void forEachServer(String uri, Consumer<TextDocumentService> action) {
+    try {
+      for (Collection<InitializedLanguageServer> group :
+          registry.getApplicableLanguageServers(uri)) {
+        for (InitializedLanguageServer server : group) {
+          action.accept(server.getServer().getTextDocumentService());
+        }
+      }
+    } catch (LanguageServerException e) {
+      LOG.error("Can't find language servers of " + uri, e);
+    }
+  }
+
+  private static TextDocumentSyncKind getSyncKind(InitializedLanguageServer server) {
+    Either<TextDocumentSyncKind, TextDocumentSyncOptions> sync =
+        server.getInitializeResult().getCapabilities().getTextDocumentSync();
+    if (sync == null) {
+      return null;
+    }
+    return sync.isLeft() ? sync.getLeft() : sync.getRight().getChange();
+  }
+
+  /** Notifications of a single document, its state is guarded by the queue itself. */
+  private final class DocumentQueue {
+    final String uri;
+    final List<TextDocumentContentChangeEvent> pending;
+
+    /** Text of the document, {@code null} when it is not known. */
+    Document content;
+
+    /** Servers which received the document, {@code null} when it wasn't opened through here. */
+    Set<String> openedServers;
+
+    String languageId;
+    VersionedTextDocumentIdentifier textDocument;
+    long firstPendingNanos;
+    ScheduledFuture<?> scheduledFlush;
+
+    final LongAdder received = new LongAdder();
+    final LongAdder sentChanges = new LongAdder();
+    final LongAdder notifications = new LongAdder();
+    final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+    final LongAdder totalLatencyMs = new LongAdder();
+    final LongAccumulator maxLatencyMs = new LongAccumulator(Math::max, 0);
+    volatile int queueDepth;
+
+    DocumentQueue(String uri) {
+      this.uri = uri;
+      this.pending = new ArrayList<>();
+    }
+
+    synchronized void open(DidOpenTextDocumentParams params) {
+      String text = params.getTextDocument().getText();
+      content = text == null ? null : new Document(text);
+      languageId = params.getTextDocument().getLanguageId();
+      openedServers = new HashSet<>();
+      try {
+        for (Collection<InitializedLanguageServer> group :
+            registry.getApplicableLanguageServers(uri)) {
+          for (InitializedLanguageServer server : group) {
+            openedServers.add(server.getId());
+            server.getServer().getTextDocumentService().didOpen(params);
+          }
+        }
+      } catch (LanguageServerException e) {
+        LOG.error("Can't find language servers of " + uri, e);
+      }
+    }
+
+    synchronized void change(DidChangeTextDocumentParams params) {
+      textDocument = params.getTextDocument();
+      if (pending.isEmpty()) {
+        firstPendingNanos = System.nanoTime();
+      }
+      for (TextDocumentContentChangeEvent change : params.getContentChanges()) {
+        received.increment();
+        apply(change);
+        enqueue(change);
+      }
+      queueDepth = pending.size();
+      maxQueueDepth.accumulate(queueDepth);
+      if (pending.isEmpty()) {
+        return;
+      }
+      if (mergeWindowMs <= 0) {
+        flush();
+      } else if (scheduledFlush == null) {
+        pendingDocuments.add(this);
+        scheduledFlush = executor.schedule(this::flush, mergeWindowMs, MILLISECONDS);
+      }
+    }
+
+    private void apply(TextDocumentContentChangeEvent change) {
+      if (content == null) {
+        return;
+      }
+      Range range = change.getRange();
+      if (range == null) {
+        content.set(change.getText());
+        return;
+      }
+      try {
+        int start =
+            content.getLineOffset(range.getStart().getLine()) + range.getStart().getCharacter();
+        int end = content.getLineOffset(range.getEnd().getLine()) + range.getEnd().getCharacter();
+        content.replace(start, end - start, change.getText());
+      } catch (BadLocationException e) {
+        LOG.warn("Change of {} is out of the document, its text is not tracked anymore", uri);
+        content = null;
+      }
+    }
+
+    private void enqueue(TextDocumentContentChangeEvent change) {
+      if (change.getRange() == null) {
+        // full text replaces all the changes made before
+        pending.clear();
+        pending.add(change);
+        return;
+      }
+      if (!pending.isEmpty() && merge(pending.get(pending.size() - 1), change)) {
+        return;
+      }
+      pending.add(change);
+    }
+
+    /**
+     * Merges a change into the previous one when it inserts text right after the text inserted by
+     * the previous change or deletes a part of it, e.g. when the user is typing.
+     */
+    private boolean merge(
+        TextDocumentContentChangeEvent previous, TextDocumentContentChangeEvent next) {
+      Range previousRange = previous.getRange();
+      Range range = next.getRange();
+      String previousText = previous.getText();
+      if (previousRange == null || previousText.indexOf('\n') >= 0) {
+        return false;
+      }
+      int line = previousRange.getStart().getLine();
+      int insertionStart = previousRange.getStart().getCharacter();
+      int insertionEnd = insertionStart + previousText.length();
+      if (range.getStart().getLine() != line || range.getEnd().getLine() != line) {
+        return false;
+      }
+      int start = range.getStart().getCharacter();
+      int end = range.getEnd().getCharacter();
+      if (start == insertionEnd && end == insertionEnd) {
+        previous.setText(previousText + next.getText());
+        return true;
+      }
+      if (next.getText().isEmpty() && start >= insertionStart && end == insertionEnd) {
+        previous.setText(previousText.substring(0, start - insertionStart));
+        return true;
+      }
+      return false;
+    }
+
+    synchronized void flush() {
+      if (scheduledFlush != null) {
+        scheduledFlush.cancel(false);
+        scheduledFlush = null;
+      }
+      pendingDocuments.remove(this);
+      if (pending.isEmpty()) {
+        return;
+      }
+      List<TextDocumentContentChangeEvent> changes = new ArrayList<>(pending);
+      pending.clear();
+      queueDepth = 0;
+
+      DidChangeTextDocumentParams incremental = null;
+      DidChangeTextDocumentParams full = null;
+      try {
+        for (Collection<InitializedLanguageServer> group :
+            registry.getApplicableLanguageServers(uri)) {
+          for (InitializedLanguageServer server : group) {
+            if (openedServers != null && !openedServers.contains(server.getId())) {
+              openLate(server);
+              continue;
+            }
+            TextDocumentSyncKind kind = getSyncKind(server);
+            DidChangeTextDocumentParams params;
+            if (kind == TextDocumentSyncKind.None) {
+              continue;
+            } else if (kind == TextDocumentSyncKind.Full) {
+              if (content == null) {
+                // the server can't apply incremental changes and the text is not known
+                continue;
+              }
+              if (full == null) {
+                TextDocumentContentChangeEvent text = new TextDocumentContentChangeEvent();
+                text.setText(content.get());
+                full = newParams(singletonList(text));
+              }
+              params = full;
+            } else {
+              // servers which don't advertise synchronization kind receive the changes as is
+              if (incremental == null) {
+                incremental = newParams(changes);
+              }
+              params = incremental;
+            }
+            try {
+              server.getServer().getTextDocumentService().didChange(params);
+              notifications.increment();
+            } catch (RuntimeException e) {
+              LOG.error("Error trying to process textDocument/didChange", e);
+            }
+          }
+        }
+      } catch (LanguageServerException e) {
+        LOG.error("Can't find language servers of " + uri, e);
+      }
+
+      long latencyMs = NANOSECONDS.toMillis(System.nanoTime() - firstPendingNanos);
+      sentChanges.add(changes.size());
+      totalLatencyMs.add(latencyMs);
+      maxLatencyMs.accumulate(latencyMs);
+    }
+
+    /** Sends the current text of the document to a server started after it was opened. */
+    private void openLate(InitializedLanguageServer server) {
+      if (content == null) {
+        return;
+      }
+      TextDocumentItem item = new TextDocumentItem();
+      item.setUri(uri);
+      item.setLanguageId(languageId);
+      item.setVersion(textDocument.getVersion());
+      item.setText(content.get());
+      DidOpenTextDocumentParams params = new DidOpenTextDocumentParams();
+      params.setTextDocument(item);
+      try {
+        server.getServer().getTextDocumentService().didOpen(params);
+        openedServers.add(server.getId());
+        notifications.increment();
+      } catch (RuntimeException e) {
+        LOG.error("Error trying to process textDocument/didOpen", e);
+      }
+    }
+
+    private DidChangeTextDocumentParams newParams(List<TextDocumentContentChangeEvent> changes) {
+      DidChangeTextDocumentParams params = new DidChangeTextDocumentParams();
+      params.setTextDocument(textDocument);
+      params.setUri(uri);
+      params.setContentChanges(changes);
+      return params;
+    }
+
+    Map<String, Long> getStatistics() {
+      Map<String, Long> statistics = new LinkedHashMap<>();
+      statistics.put("received", received.sum());
+      statistics.put("sent", sentChanges.sum());
+      statistics.put("notifications", notifications.sum());
+      statistics.put("queueDepth", (long) queueDepth);
+      statistics.put("maxQueueDepth", maxQueueDepth.get());
+      statistics.put("totalLatencyMs", totalLatencyMs.sum());
+      statistics.put("maxLatencyMs", maxLatencyMs.get());
+      return statistics;
+    }
+  }
+}
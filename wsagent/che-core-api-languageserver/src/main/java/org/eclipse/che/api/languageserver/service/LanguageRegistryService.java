@@ -13,6 +13,7 @@ package org.eclipse.che.api.languageserver.service;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.util.List;
+import java.util.Map;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -30,10 +31,17 @@ import org.eclipse.lsp4j.ServerCapabilities;
 public class LanguageRegistryService {
 
   private final LanguageServerRegistry registry;
+  private final CompletionAggregator completionAggregator;
+  private final DocumentChangePipeline documentPipeline;
 
   @Inject
-  public LanguageRegistryService(LanguageServerRegistry registry) {
+  public LanguageRegistryService(
+      LanguageServerRegistry registry,
+      CompletionAggregator completionAggregator,
+      DocumentChangePipeline documentPipeline) {
     this.registry = registry;
+    this.completionAggregator = completionAggregator;
+    this.documentPipeline = documentPipeline;
   }
 
   @GET
@@ -52,4 +60,18 @@ public class LanguageRegistryService {
     ServerCapabilities capabilities = registry.initialize(LanguageServiceUtils.prefixURI(path));
     return capabilities == null ? null : new ServerCapabilitiesDto(capabilities);
   }
+
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("completion/statistics")
+  public Map<String, Map<String, Long>> getCompletionStatistics() {
+    return completionAggregator.getStatistics();
+  }
+
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("documentsync/statistics")
+  public Map<String, Map<String, Long>> getDocumentSyncStatistics() {
+    return documentPipeline.getStatistics();
+  }
 }
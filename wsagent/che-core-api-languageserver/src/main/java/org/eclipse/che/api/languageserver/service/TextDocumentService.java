@@ -31,19 +31,20 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcPromise;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
 import org.eclipse.che.api.languageserver.exception.LanguageServerException;
 import org.eclipse.che.api.languageserver.registry.InitializedLanguageServer;
 import org.eclipse.che.api.languageserver.registry.LanguageServerRegistry;
 import org.eclipse.che.api.languageserver.registry.LanguageServerRegistryImpl;
 import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.CommandDto;
-import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.CompletionItemDto;
 import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.DocumentHighlightDto;
 import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.ExtendedCompletionItemDto;
 import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.ExtendedCompletionListDto;
@@ -58,6 +59,7 @@ import org.eclipse.che.api.languageserver.shared.model.ExtendedTextDocumentEdit;
 import org.eclipse.che.api.languageserver.shared.model.ExtendedTextEdit;
 import org.eclipse.che.api.languageserver.shared.model.ExtendedWorkspaceEdit;
 import org.eclipse.che.api.languageserver.shared.model.RenameResult;
+import org.eclipse.che.api.languageserver.util.FutureJsonRpcPromise;
 import org.eclipse.che.api.languageserver.util.LSOperation;
 import org.eclipse.che.api.languageserver.util.OperationUtil;
 import org.eclipse.jface.text.BadLocationException;
@@ -65,8 +67,6 @@ import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.lsp4j.CodeActionParams;
 import org.eclipse.lsp4j.Command;
-import org.eclipse.lsp4j.CompletionItem;
-import org.eclipse.lsp4j.CompletionList;
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
 import org.eclipse.lsp4j.DidCloseTextDocumentParams;
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
@@ -88,7 +88,6 @@ import org.eclipse.lsp4j.TextDocumentPositionParams;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
 import org.eclipse.lsp4j.WorkspaceEdit;
-import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -103,12 +102,19 @@ public class TextDocumentService {
 
   private final LanguageServerRegistry languageServerRegistry;
   private final RequestHandlerConfigurator requestHandler;
+  private final CompletionAggregator completionAggregator;
+  private final DocumentChangePipeline documentPipeline;
 
   @Inject
   public TextDocumentService(
-      LanguageServerRegistry languageServerRegistry, RequestHandlerConfigurator requestHandler) {
+      LanguageServerRegistry languageServerRegistry,
+      RequestHandlerConfigurator requestHandler,
+      CompletionAggregator completionAggregator,
+      DocumentChangePipeline documentPipeline) {
     this.languageServerRegistry = languageServerRegistry;
     this.requestHandler = requestHandler;
+    this.completionAggregator = completionAggregator;
+    this.documentPipeline = documentPipeline;
   }
 
   @PostConstruct
@@ -144,7 +150,7 @@ public class TextDocumentService {
         TextDocumentPositionParams.class,
         DocumentHighlight.class,
         this::documentHighlight);
-    dtoToDto(
+    dtoToPromiseDto(
         "completion",
         TextDocumentPositionParams.class,
         ExtendedCompletionListDto.class,
@@ -205,95 +211,20 @@ public class TextDocumentService {
     }
   }
 
-  private ExtendedCompletionListDto completion(
-      TextDocumentPositionParams textDocumentPositionParams) {
+  private JsonRpcPromise<ExtendedCompletionListDto> completion(
+      String endpointId, TextDocumentPositionParams textDocumentPositionParams) {
     try {
       TextDocumentIdentifier textDocument = textDocumentPositionParams.getTextDocument();
       String uri = prefixURI(textDocument.getUri());
       textDocument.setUri(uri);
       textDocumentPositionParams.setUri(prefixURI(textDocumentPositionParams.getUri()));
-      ExtendedCompletionListDto[] result = new ExtendedCompletionListDto[1];
-
-      LSOperation<Collection<InitializedLanguageServer>, ExtendedCompletionListDto> op =
-          new LSOperation<Collection<InitializedLanguageServer>, ExtendedCompletionListDto>() {
-
-            @Override
-            public boolean canDo(Collection<InitializedLanguageServer> servers) {
-              return true;
-            }
-
-            @Override
-            public CompletableFuture<ExtendedCompletionListDto> start(
-                Collection<InitializedLanguageServer> element) {
-              return CompletableFuture.supplyAsync(
-                  () -> {
-                    ExtendedCompletionListDto res = new ExtendedCompletionListDto();
-                    List<ExtendedCompletionItem> items = new ArrayList<>();
-                    res.setItems(items);
-                    LSOperation<
-                            InitializedLanguageServer, Either<List<CompletionItem>, CompletionList>>
-                        op2 =
-                            new LSOperation<
-                                InitializedLanguageServer,
-                                Either<List<CompletionItem>, CompletionList>>() {
-
-                              @Override
-                              public boolean canDo(InitializedLanguageServer element) {
-                                return element
-                                        .getInitializeResult()
-                                        .getCapabilities()
-                                        .getCompletionProvider()
-                                    != null;
-                              }
-
-                              @Override
-                              public CompletableFuture<Either<List<CompletionItem>, CompletionList>>
-                                  start(InitializedLanguageServer element) {
-                                return element
-                                    .getServer()
-                                    .getTextDocumentService()
-                                    .completion(textDocumentPositionParams);
-                              }
-
-                              @Override
-                              public boolean handleResult(
-                                  InitializedLanguageServer element,
-                                  Either<List<CompletionItem>, CompletionList> result) {
-                                List<CompletionItem> itemList;
-                                if (result.isRight()) {
-                                  res.setInComplete(
-                                      res.isInComplete() && result.getRight().isIncomplete());
-                                  itemList = result.getRight().getItems();
-                                } else {
-                                  itemList = result.getLeft();
-                                }
-
-                                for (CompletionItem item : itemList) {
-                                  ExtendedCompletionItemDto exItem =
-                                      new ExtendedCompletionItemDto();
-                                  exItem.setItem(new CompletionItemDto(item));
-                                  exItem.setLanguageServerId(element.getId());
-                                  items.add(exItem);
-                                }
-                                return false;
-                              }
-                            };
-                    OperationUtil.doInParallel(element, op2, 30000);
-
-                    return res;
-                  });
-            }
-
-            @Override
-            public boolean handleResult(
-                Collection<InitializedLanguageServer> element, ExtendedCompletionListDto list) {
-              result[0] = list;
-              return !list.getItems().isEmpty();
-            }
-          };
-      OperationUtil.doInSequence(
-          languageServerRegistry.getApplicableLanguageServers(uri), op, 10000);
-      return result[0];
+      return new FutureJsonRpcPromise<>(
+          endpointId,
+          completionAggregator.complete(
+              endpointId,
+              languageServerRegistry.getApplicableLanguageServers(uri),
+              textDocumentPositionParams),
+          -27000);
     } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
@@ -652,76 +583,27 @@ public class TextDocumentService {
   }
 
   private void didChange(DidChangeTextDocumentParams didChangeTextDocumentParams) {
-    try {
-      String uri = prefixURI(didChangeTextDocumentParams.getTextDocument().getUri());
-      didChangeTextDocumentParams.getTextDocument().setUri(uri);
-      didChangeTextDocumentParams.setUri(prefixURI(didChangeTextDocumentParams.getUri()));
-      languageServerRegistry
-          .getApplicableLanguageServers(uri)
-          .stream()
-          .flatMap(Collection::stream)
-          .map(InitializedLanguageServer::getServer)
-          .forEach(
-              server -> {
-                server.getTextDocumentService().didChange(didChangeTextDocumentParams);
-              });
-    } catch (LanguageServerException e) {
-      LOG.error("Error trying to process textDocument/didChange", e);
-    }
+    String uri = prefixURI(didChangeTextDocumentParams.getTextDocument().getUri());
+    didChangeTextDocumentParams.getTextDocument().setUri(uri);
+    documentPipeline.didChange(didChangeTextDocumentParams);
   }
 
   private void didOpen(DidOpenTextDocumentParams openTextDocumentParams) {
-    try {
-      String uri = prefixURI(openTextDocumentParams.getTextDocument().getUri());
-      openTextDocumentParams.getTextDocument().setUri(uri);
-      languageServerRegistry
-          .getApplicableLanguageServers(uri)
-          .stream()
-          .flatMap(Collection::stream)
-          .map(InitializedLanguageServer::getServer)
-          .forEach(
-              server -> {
-                server.getTextDocumentService().didOpen(openTextDocumentParams);
-              });
-    } catch (LanguageServerException e) {
-      LOG.error("Error trying to process textDocument/didOpen", e);
-    }
+    String uri = prefixURI(openTextDocumentParams.getTextDocument().getUri());
+    openTextDocumentParams.getTextDocument().setUri(uri);
+    documentPipeline.didOpen(openTextDocumentParams);
   }
 
   private void didClose(DidCloseTextDocumentParams didCloseTextDocumentParams) {
-    try {
-      String uri = prefixURI(didCloseTextDocumentParams.getTextDocument().getUri());
-      didCloseTextDocumentParams.getTextDocument().setUri(uri);
-      languageServerRegistry
-          .getApplicableLanguageServers(uri)
-          .stream()
-          .flatMap(Collection::stream)
-          .map(InitializedLanguageServer::getServer)
-          .forEach(
-              server -> {
-                server.getTextDocumentService().didClose(didCloseTextDocumentParams);
-              });
-    } catch (LanguageServerException e) {
-      LOG.error("Error trying to process textDocument/didOpen", e);
-    }
+    String uri = prefixURI(didCloseTextDocumentParams.getTextDocument().getUri());
+    didCloseTextDocumentParams.getTextDocument().setUri(uri);
+    documentPipeline.didClose(didCloseTextDocumentParams);
   }
 
   private void didSave(DidSaveTextDocumentParams didSaveTextDocumentParams) {
-    try {
-      String uri = prefixURI(didSaveTextDocumentParams.getTextDocument().getUri());
-      didSaveTextDocumentParams.getTextDocument().setUri(uri);
-      languageServerRegistry
-          .getApplicableLanguageServers(uri)
-          .stream()
-          .flatMap(Collection::stream)
-          .map(InitializedLanguageServer::getServer)
-          .forEach(
-              server -> {
-                server.getTextDocumentService().didSave(didSaveTextDocumentParams);
-              });
-    } catch (LanguageServerException e) {
-      LOG.error("Error trying to process textDocument/didSave", e);
-    }
+    String uri = prefixURI(didSaveTextDocumentParams.getTextDocument().getUri());
+    didSaveTextDocumentParams.getTextDocument().setUri(uri);
+    documentPipeline.didSave(didSaveTextDocumentParams);
   }
 
   private DocumentHighlightDto documentHighlight(
@@ -925,7 +807,11 @@ public class TextDocumentService {
         .methodName("textDocument/" + name)
         .paramsAsDto(pClass)
         .resultAsListOfDto(rClass)
-        .withFunction(function);
+        .withFunction(
+            params -> {
+              documentPipeline.flushAll();
+              return function.apply(params);
+            });
   }
 
   private <P, R> void dtoToDto(
@@ -935,7 +821,28 @@ public class TextDocumentService {
         .methodName("textDocument/" + name)
         .paramsAsDto(pClass)
         .resultAsDto(rClass)
-        .withFunction(function);
+        .withFunction(
+            params -> {
+              documentPipeline.flushAll();
+              return function.apply(params);
+            });
+  }
+
+  private <P, R> void dtoToPromiseDto(
+      String name,
+      Class<P> pClass,
+      Class<R> rClass,
+      BiFunction<String, P, JsonRpcPromise<R>> function) {
+    requestHandler
+        .newConfiguration()
+        .methodName("textDocument/" + name)
+        .paramsAsDto(pClass)
+        .resultAsPromiseDto(rClass)
+        .withPromiseBiFunction(
+            (endpointId, params) -> {
+              documentPipeline.flushAll();
+              return function.apply(endpointId, params);
+            });
   }
 
   private boolean truish(Boolean b) {
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcPromise;
+
+/**
+ * {@link JsonRpcPromise} which is resolved or rejected when the given future completes, so a JSON
+ * RPC request may be answered without blocking the thread which handles it.
+ *
+ * <p>Consumers are attached to the future, so they are called even if the future is completed
+ * before they are set.
+ *
+ * @param <R> type of the result
+ */
+public class FutureJsonRpcPromise<R> extends JsonRpcPromise<R> {
+  private final String endpointId;
+  private final CompletableFuture<R> future;
+  private final int errorCode;
+
+  /**
+   * @param endpointId identifier of the endpoint the request comes from
+   * @param future future of the result
+   * @param errorCode code of the JSON RPC error sent when the future completes exceptionally
+   */
+  public FutureJsonRpcPromise(String endpointId, CompletableFuture<R> future, int errorCode) {
+    this.endpointId = endpointId;
+    this.future = future;
+    this.errorCode = errorCode;
+  }
+
+  @Override
+  public JsonRpcPromise<R> onSuccess(BiConsumer<String, R> biConsumer) {
+    super.onSuccess(biConsumer);
+    future.thenAccept(result -> biConsumer.accept(endpointId, result));
+    return this;
+  }
+
+  @Override
+  public JsonRpcPromise<R> onSuccess(Consumer<R> consumer) {
+    return onSuccess((endpoint, result) -> consumer.accept(result));
+  }
+
+  @Override
+  public JsonRpcPromise<R> onFailure(BiConsumer<String, JsonRpcError> biConsumer) {
+    super.onFailure(biConsumer);
+    future.exceptionally(
+        error -> {
+          Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+          biConsumer.accept(endpointId, new JsonRpcError(errorCode, cause.getMessage()));
+          return null;
+        });
+    return this;
+  }
+
+  @Override
+  public JsonRpcPromise<R> onFailure(Consumer<JsonRpcError> consumer) {
+    return onFailure((endpoint, error) -> consumer.accept(error));
+  }
+}
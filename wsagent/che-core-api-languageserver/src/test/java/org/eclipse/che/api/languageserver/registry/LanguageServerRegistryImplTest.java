@@ -15,14 +15,22 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
 import com.google.inject.Provider;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.eclipse.che.api.languageserver.exception.LanguageServerException;
 import org.eclipse.che.api.languageserver.launcher.LanguageServerLauncher;
 import org.eclipse.che.api.languageserver.shared.model.LanguageDescription;
@@ -124,4 +132,61 @@ public class LanguageServerRegistryImplTest {
     verify(initializer)
         .initialize(eq(languageServerLauncher), any(LanguageClient.class), eq(PROJECT_PATH));
   }
+
+  @Test
+  public void shouldCacheApplicableServersOfFile() throws Exception {
+    registry.initialize(PREFIX + FILE_PATH);
+
+    List<Collection<InitializedLanguageServer>> first =
+        registry.getApplicableLanguageServers(PREFIX + FILE_PATH);
+    List<Collection<InitializedLanguageServer>> second =
+        registry.getApplicableLanguageServers(PREFIX + FILE_PATH);
+
+    assertSame(second, first);
+    assertEquals(first.size(), 1);
+    // once on initialization and once when capabilities of the started server are computed
+    verify(registry, times(2)).extractProjectPath(PREFIX + FILE_PATH);
+  }
+
+  @Test
+  public void shouldFindServerById() throws Exception {
+    registry.initialize(PREFIX + FILE_PATH);
+
+    InitializedLanguageServer server =
+        registry.getApplicableLanguageServers(PREFIX + FILE_PATH).get(0).iterator().next();
+
+    assertSame(registry.getServer(server.getId()), server);
+  }
+
+  @Test
+  public void shouldNotFindServersForFileOfUnknownLanguage() throws Exception {
+    registry.initialize(PREFIX + FILE_PATH);
+
+    assertTrue(registry.getApplicableLanguageServers(PREFIX + "/projects/1/test.md").isEmpty());
+  }
+
+  @Test
+  public void shouldLaunchServerOnceWhenInitializedConcurrently() throws Exception {
+    CompletableFuture<Pair<LanguageServer, InitializeResult>> initialized =
+        new CompletableFuture<>();
+    when(initializer.initialize(
+            any(LanguageServerLauncher.class), any(LanguageClient.class), anyString()))
+        .thenReturn(initialized);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<ServerCapabilities> first =
+          executor.submit(() -> registry.initialize(PREFIX + FILE_PATH));
+      Future<ServerCapabilities> second =
+          executor.submit(() -> registry.initialize(PREFIX + FILE_PATH));
+
+      initialized.complete(Pair.of(languageServer, initializeResult));
+
+      assertEquals(first.get(), serverCapabilities);
+      assertEquals(second.get(), serverCapabilities);
+      verify(initializer)
+          .initialize(eq(languageServerLauncher), any(LanguageClient.class), eq(PROJECT_PATH));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
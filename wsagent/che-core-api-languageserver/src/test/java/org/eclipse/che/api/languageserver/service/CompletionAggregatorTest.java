@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.service;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import org.eclipse.che.api.languageserver.registry.InitializedLanguageServer;
+import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.ExtendedCompletionListDto;
+import org.eclipse.che.api.languageserver.shared.model.ExtendedCompletionItem;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.CompletionOptions;
+import org.eclipse.lsp4j.InitializeResult;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.LanguageServer;
+import org.eclipse.lsp4j.services.TextDocumentService;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link CompletionAggregator}. */
+public class CompletionAggregatorTest {
+  private static final String URI = "file:///projects/p/A.txt";
+
+  private CompletionAggregator aggregator;
+
+  @BeforeMethod
+  public void setUp() {
+    aggregator = new CompletionAggregator(500, 100);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    aggregator.shutdown();
+  }
+
+  @Test
+  public void shouldMergeItemsOfAllServers() throws Exception {
+    InitializedLanguageServer first =
+        server("first", CompletableFuture.completedFuture(items("a")));
+    InitializedLanguageServer second =
+        server("second", CompletableFuture.completedFuture(items("b", "c")));
+
+    ExtendedCompletionListDto list =
+        aggregator.complete("endpoint", groups(asList(first, second)), params()).get(1, SECONDS);
+
+    assertEquals(labels(list), asList("a", "b", "c"));
+    assertFalse(list.isInComplete());
+  }
+
+  @Test
+  public void shouldReturnIncompleteListAfterMergeWindowAndCancelSlowServerRequest()
+      throws Exception {
+    CompletableFuture<Either<List<CompletionItem>, CompletionList>> slow =
+        new CompletableFuture<>();
+    InitializedLanguageServer fast = server("fast", CompletableFuture.completedFuture(items("a")));
+
+    ExtendedCompletionListDto list =
+        aggregator
+            .complete("endpoint", groups(asList(fast, server("slow", slow))), params())
+            .get(1, SECONDS);
+
+    assertEquals(labels(list), singletonList("a"));
+    assertTrue(list.isInComplete());
+    assertTrue(slow.isCancelled());
+    assertEquals(aggregator.getStatistics().get("slow").get("cancelled").longValue(), 1);
+  }
+
+  @Test
+  public void shouldAskNextGroupWhenServersOfPreviousOneHaveNoItems() throws Exception {
+    InitializedLanguageServer empty = server("empty", CompletableFuture.completedFuture(items()));
+    InitializedLanguageServer next = server("next", CompletableFuture.completedFuture(items("a")));
+
+    ExtendedCompletionListDto list =
+        aggregator
+            .complete("endpoint", groups(singletonList(empty), singletonList(next)), params())
+            .get(1, SECONDS);
+
+    assertEquals(labels(list), singletonList("a"));
+  }
+
+  @Test
+  public void shouldNotWaitForServerAfterItsDeadline() throws Exception {
+    CompletableFuture<Either<List<CompletionItem>, CompletionList>> hanging =
+        new CompletableFuture<>();
+
+    ExtendedCompletionListDto list =
+        aggregator
+            .complete("endpoint", groups(singletonList(server("hanging", hanging))), params())
+            .get(2, SECONDS);
+
+    assertTrue(list.getItems().isEmpty());
+    assertTrue(hanging.isCancelled());
+    assertEquals(aggregator.getStatistics().get("hanging").get("timeouts").longValue(), 1);
+  }
+
+  @Test
+  public void shouldCancelSupersededCompletion() throws Exception {
+    CompletableFuture<Either<List<CompletionItem>, CompletionList>> hanging =
+        new CompletableFuture<>();
+    CountDownLatch asked = new CountDownLatch(1);
+    InitializedLanguageServer hangingServer = server("hanging", hanging);
+    when(hangingServer.getServer().getTextDocumentService().completion(any()))
+        .thenAnswer(
+            invocation -> {
+              asked.countDown();
+              return hanging;
+            });
+    CompletableFuture<ExtendedCompletionListDto> superseded =
+        aggregator.complete("endpoint", groups(singletonList(hangingServer)), params());
+    assertTrue(asked.await(1, SECONDS));
+
+    CompletableFuture<ExtendedCompletionListDto> latest =
+        aggregator.complete(
+            "endpoint",
+            groups(singletonList(server("fast", CompletableFuture.completedFuture(items("a"))))),
+            params());
+
+    assertTrue(superseded.get(1, SECONDS).isInComplete());
+    assertEquals(labels(latest.get(1, SECONDS)), singletonList("a"));
+    assertTrue(hanging.isCancelled());
+  }
+
+  private static InitializedLanguageServer server(
+      String id, CompletableFuture<Either<List<CompletionItem>, CompletionList>> completion) {
+    TextDocumentService textDocumentService = mock(TextDocumentService.class);
+    when(textDocumentService.completion(any())).thenReturn(completion);
+    LanguageServer languageServer = mock(LanguageServer.class);
+    when(languageServer.getTextDocumentService()).thenReturn(textDocumentService);
+    ServerCapabilities capabilities = new ServerCapabilities();
+    capabilities.setCompletionProvider(new CompletionOptions());
+    return new InitializedLanguageServer(
+        id, languageServer, new InitializeResult(capabilities), null);
+  }
+
+  @SafeVarargs
+  private static List<Collection<InitializedLanguageServer>> groups(
+      Collection<InitializedLanguageServer>... groups) {
+    return asList(groups);
+  }
+
+  private static Either<List<CompletionItem>, CompletionList> items(String... labels) {
+    CompletionList list = new CompletionList();
+    list.setItems(
+        asList(labels)
+            .stream()
+            .map(
+                label -> {
+                  CompletionItem item = new CompletionItem();
+                  item.setLabel(label);
+                  return item;
+                })
+            .collect(Collectors.toList()));
+    return Either.forRight(list);
+  }
+
+  private static TextDocumentPositionParams params() {
+    TextDocumentPositionParams params = new TextDocumentPositionParams();
+    params.setTextDocument(new TextDocumentIdentifier(URI));
+    return params;
+  }
+
+  private static List<String> labels(ExtendedCompletionListDto list) {
+    return list.getItems()
+        .stream()
+        .map(ExtendedCompletionItem::getItem)
+        .map(CompletionItem::getLabel)
+        .sorted()
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.service;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.eclipse.che.api.languageserver.registry.InitializedLanguageServer;
+import org.eclipse.che.api.languageserver.registry.LanguageServerRegistry;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DidSaveTextDocumentParams;
+import org.eclipse.lsp4j.InitializeResult;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.TextDocumentSyncKind;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.services.LanguageServer;
+import org.eclipse.lsp4j.services.TextDocumentService;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link DocumentChangePipeline}. */
+public class DocumentChangePipelineTest {
+  private static final String URI = "file:///projects/p/A.txt";
+
+  private LanguageServerRegistry registry;
+  private TextDocumentService incremental;
+  private TextDocumentService full;
+  private TextDocumentService none;
+  private List<InitializedLanguageServer> lateServers;
+  private DocumentChangePipeline pipeline;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    incremental = mock(TextDocumentService.class);
+    full = mock(TextDocumentService.class);
+    none = mock(TextDocumentService.class);
+    lateServers = new ArrayList<>();
+    List<Collection<InitializedLanguageServer>> servers =
+        asList(
+            asList(
+                server("incremental", incremental, TextDocumentSyncKind.Incremental),
+                server("full", full, TextDocumentSyncKind.Full)),
+            singletonList(server("none", none, TextDocumentSyncKind.None)),
+            lateServers);
+    registry = mock(LanguageServerRegistry.class);
+    when(registry.getApplicableLanguageServers(any())).thenReturn(servers);
+    // changes are sent only when flushed explicitly
+    pipeline = new DocumentChangePipeline(registry, 60_000);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    pipeline.shutdown();
+  }
+
+  @Test
+  public void shouldMergeTypingIntoSingleChange() {
+    pipeline.didOpen(open("class A {}"));
+
+    pipeline.didChange(change(1, insert(0, 9, "i")));
+    pipeline.didChange(change(2, insert(0, 10, "n")));
+    pipeline.didChange(change(3, insert(0, 11, "x")));
+    pipeline.didChange(change(4, delete(0, 11, 12)));
+    pipeline.didChange(change(5, insert(0, 11, "t")));
+    pipeline.flushAll();
+
+    DidChangeTextDocumentParams sent = captureDidChange(incremental);
+    assertEquals(sent.getTextDocument().getVersion(), 5);
+    assertEquals(sent.getContentChanges().size(), 1);
+    assertEquals(sent.getContentChanges().get(0).getText(), "int");
+    assertEquals(sent.getContentChanges().get(0).getRange().getStart().getCharacter(), 9);
+  }
+
+  @Test
+  public void shouldSendFullTextToServerWhichRequiresFullSync() {
+    pipeline.didOpen(open("class A {\n}"));
+
+    pipeline.didChange(change(1, insert(1, 0, "  int a;\n")));
+    pipeline.didChange(change(2, delete(0, 6, 7)));
+    pipeline.flushAll();
+
+    DidChangeTextDocumentParams sent = captureDidChange(full);
+    assertEquals(sent.getContentChanges().size(), 1);
+    assertNull(sent.getContentChanges().get(0).getRange());
+    assertEquals(sent.getContentChanges().get(0).getText(), "class  {\n  int a;\n}");
+    assertEquals(captureDidChange(incremental).getContentChanges().size(), 2);
+    verify(none, never()).didChange(any());
+  }
+
+  @Test
+  public void shouldReplaceQueuedChangesWithFullText() {
+    pipeline.didOpen(open("a"));
+
+    pipeline.didChange(change(1, insert(0, 1, "b")));
+    TextDocumentContentChangeEvent text = new TextDocumentContentChangeEvent();
+    text.setText("text");
+    pipeline.didChange(change(2, text));
+    pipeline.flushAll();
+
+    assertEquals(captureDidChange(incremental).getContentChanges(), singletonList(text));
+    assertEquals(captureDidChange(full).getContentChanges().get(0).getText(), "text");
+  }
+
+  @Test
+  public void shouldSendQueuedChangesBeforeSave() {
+    pipeline.didOpen(open("a"));
+    pipeline.didChange(change(1, insert(0, 1, "b")));
+
+    DidSaveTextDocumentParams save = new DidSaveTextDocumentParams();
+    save.setTextDocument(new TextDocumentIdentifier(URI));
+    pipeline.didSave(save);
+
+    InOrder inOrder = inOrder(incremental);
+    inOrder.verify(incremental).didChange(any());
+    inOrder.verify(incremental).didSave(save);
+  }
+
+  @Test
+  public void shouldSendCurrentTextToServerStartedAfterDocumentWasOpened() {
+    pipeline.didOpen(open("a"));
+    pipeline.didChange(change(1, insert(0, 1, "b")));
+    pipeline.flushAll();
+    TextDocumentService late = mock(TextDocumentService.class);
+    lateServers.add(server("late", late, TextDocumentSyncKind.Full));
+
+    pipeline.didChange(change(2, insert(0, 2, "c")));
+    pipeline.flushAll();
+    pipeline.didChange(change(3, insert(0, 3, "d")));
+    pipeline.flushAll();
+
+    ArgumentCaptor<DidOpenTextDocumentParams> opened =
+        ArgumentCaptor.forClass(DidOpenTextDocumentParams.class);
+    verify(late).didOpen(opened.capture());
+    assertEquals(opened.getValue().getTextDocument().getText(), "abc");
+    assertEquals(opened.getValue().getTextDocument().getVersion(), 2);
+    DidChangeTextDocumentParams sent = captureDidChange(late);
+    assertNull(sent.getContentChanges().get(0).getRange());
+    assertEquals(sent.getContentChanges().get(0).getText(), "abcd");
+  }
+
+  @Test
+  public void shouldNotSendIncrementalChangesToServerWhichRequiresFullSync() {
+    pipeline.didChange(change(1, insert(0, 1, "b")));
+    pipeline.flushAll();
+
+    verify(full, never()).didChange(any());
+    assertEquals(captureDidChange(incremental).getContentChanges().size(), 1);
+  }
+
+  @Test
+  public void shouldKeepStatisticsOfDocument() {
+    pipeline.didOpen(open(""));
+
+    pipeline.didChange(change(1, insert(0, 0, "a")));
+    pipeline.didChange(change(2, insert(0, 1, "\n")));
+    pipeline.didChange(change(3, insert(1, 0, "b")));
+    pipeline.flushAll();
+
+    assertEquals(pipeline.getStatistics().get(URI).get("received"), Long.valueOf(3));
+    assertEquals(pipeline.getStatistics().get(URI).get("sent"), Long.valueOf(2));
+    assertEquals(pipeline.getStatistics().get(URI).get("maxQueueDepth"), Long.valueOf(2));
+    assertEquals(pipeline.getStatistics().get(URI).get("queueDepth"), Long.valueOf(0));
+  }
+
+  private static DidChangeTextDocumentParams captureDidChange(TextDocumentService service) {
+    ArgumentCaptor<DidChangeTextDocumentParams> captor =
+        ArgumentCaptor.forClass(DidChangeTextDocumentParams.class);
+    verify(service, times(1)).didChange(captor.capture());
+    return captor.getValue();
+  }
+
+  private static InitializedLanguageServer server(
+      String id, TextDocumentService textDocumentService, TextDocumentSyncKind syncKind) {
+    LanguageServer languageServer = mock(LanguageServer.class);
+    when(languageServer.getTextDocumentService()).thenReturn(textDocumentService);
+    ServerCapabilities capabilities = new ServerCapabilities();
+    capabilities.setTextDocumentSync(syncKind);
+    return new InitializedLanguageServer(
+        id, languageServer, new InitializeResult(capabilities), null);
+  }
+
+  private static DidOpenTextDocumentParams open(String text) {
+    TextDocumentItem item = new TextDocumentItem();
+    item.setUri(URI);
+    item.setText(text);
+    DidOpenTextDocumentParams params = new DidOpenTextDocumentParams();
+    params.setTextDocument(item);
+    return params;
+  }
+
+  private static DidChangeTextDocumentParams change(
+      int version, TextDocumentContentChangeEvent change) {
+    VersionedTextDocumentIdentifier textDocument = new VersionedTextDocumentIdentifier();
+    textDocument.setUri(URI);
+    textDocument.setVersion(version);
+    DidChangeTextDocumentParams params = new DidChangeTextDocumentParams();
+    params.setTextDocument(textDocument);
+    params.setContentChanges(singletonList(change));
+    return params;
+  }
+
+  private static TextDocumentContentChangeEvent insert(int line, int character, String text) {
+    return event(line, character, character, text);
+  }
+
+  private static TextDocumentContentChangeEvent delete(int line, int start, int end) {
+    return event(line, start, end, "");
+  }
+
+  private static TextDocumentContentChangeEvent event(int line, int start, int end, String text) {
+    Range range = new Range();
+    range.setStart(position(line, start));
+    range.setEnd(position(line, end));
+    TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent();
+    change.setRange(range);
+    change.setRangeLength(end - start);
+    change.setText(text);
+    return change;
+  }
+
+  private static Position position(int line, int character) {
+    Position position = new Position();
+    position.setLine(line);
+    position.setCharacter(character);
+    return position;
+  }
+}
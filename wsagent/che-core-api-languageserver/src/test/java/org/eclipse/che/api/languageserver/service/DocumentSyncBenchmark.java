@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.languageserver.LocalTestLSLauncher;
+import org.eclipse.che.api.languageserver.messager.ShowMessageJsonRpcTransmitter;
+import org.eclipse.che.api.languageserver.registry.CheLanguageClient;
+import org.eclipse.che.api.languageserver.registry.InitializedLanguageServer;
+import org.eclipse.che.api.languageserver.registry.LanguageServerDescription;
+import org.eclipse.che.api.languageserver.registry.LanguageServerRegistry;
+import org.eclipse.che.api.languageserver.registry.ServerInitializerImpl;
+import org.eclipse.che.commons.lang.Pair;
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DocumentSymbolParams;
+import org.eclipse.lsp4j.InitializeResult;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.services.LanguageServer;
+
+/**
+ * Replays a typing session over {@link DocumentChangePipeline} connected to the test language
+ * server, once sending each change at once the way it was done before the pipeline and once with
+ * the merge window. Not a unit test, run it manually from IDE or with {@code exec:java
+ * -Dexec.classpathScope=test} after the test server is unpacked by the build.
+ *
+ * <p>Arguments: interval between changes in milliseconds (10 by default), merge window in
+ * milliseconds (50 by default), optional path to a recorded session. Each line of the session is
+ * one change, either {@code +<offset> <text>} or {@code -<offset> <count>}, where {@code \n},
+ * {@code \t} and {@code \\} in the text are escaped. Without a recorded session the typing is
+ * generated.
+ */
+public class DocumentSyncBenchmark {
+  private static final String URI = "file:///projects/benchmark/Benchmark.txt";
+
+  public static void main(String[] args) throws Exception {
+    long intervalMs = args.length > 0 ? Long.parseLong(args[0]) : 10;
+    long mergeWindowMs = args.length > 1 ? Long.parseLong(args[1]) : 50;
+    String content = generateText(new Random(1), 64 * 1024);
+    List<String> session =
+        args.length > 2
+            ? Files.readAllLines(Paths.get(args[2]), UTF_8)
+            : generateSession(new Random(2), content.length());
+
+    String script = DocumentSyncBenchmark.class.getResource("/ls").getFile() + "/test-ls/server.sh";
+    LocalTestLSLauncher launcher =
+        new LocalTestLSLauncher(
+            singletonList(script),
+            new LanguageServerDescription(
+                "test-ls", singletonList("text"), Collections.emptyList()));
+    CheLanguageClient client =
+        new CheLanguageClient(
+            mock(EventService.class), mock(ShowMessageJsonRpcTransmitter.class), "test-ls");
+    Pair<LanguageServer, InitializeResult> initialized =
+        new ServerInitializerImpl().initialize(launcher, client, "/tmp").get(30, SECONDS);
+    LanguageServer server = initialized.first;
+    InitializedLanguageServer initializedServer =
+        new InitializedLanguageServer("test-ls", server, initialized.second, launcher);
+    List<Collection<InitializedLanguageServer>> servers =
+        singletonList(singletonList(initializedServer));
+    LanguageServerRegistry registry = mock(LanguageServerRegistry.class);
+    when(registry.getApplicableLanguageServers(any())).thenReturn(servers);
+
+    try {
+      System.out.printf("%,d changes, %d ms between changes%n", session.size(), intervalMs);
+      replay(
+          "  immediate",
+          new DocumentChangePipeline(registry, 0),
+          server,
+          content,
+          session,
+          intervalMs);
+      replay(
+          "  merge window",
+          new DocumentChangePipeline(registry, mergeWindowMs),
+          server,
+          content,
+          session,
+          intervalMs);
+    } finally {
+      server.shutdown().get(10, SECONDS);
+      server.exit();
+    }
+  }
+
+  private static void replay(
+      String name,
+      DocumentChangePipeline pipeline,
+      LanguageServer server,
+      String content,
+      List<String> session,
+      long intervalMs)
+      throws Exception {
+    // events are merged by the pipeline, so each replay needs its own
+    List<TextDocumentContentChangeEvent> events = toEvents(content, session);
+    pipeline.didOpen(open(content));
+
+    long start = System.nanoTime();
+    int version = 0;
+    for (TextDocumentContentChangeEvent event : events) {
+      pipeline.didChange(change(++version, event));
+      if (intervalMs > 0) {
+        Thread.sleep(intervalMs);
+      }
+    }
+    pipeline.flushAll();
+    roundTrip(server);
+    double totalMs = (System.nanoTime() - start) / 1_000_000D;
+
+    Map<String, Long> statistics = pipeline.getStatistics().get(URI);
+    System.out.printf(
+        "%-16s: %10.2f ms, %,d notifications, %,d changes sent, %,d ms max latency%n",
+        name,
+        totalMs,
+        statistics.get("notifications"),
+        statistics.get("sent"),
+        statistics.get("maxLatencyMs"));
+
+    DidCloseTextDocumentParams close = new DidCloseTextDocumentParams();
+    close.setTextDocument(new TextDocumentIdentifier(URI));
+    pipeline.didClose(close);
+    pipeline.shutdown();
+  }
+
+  /** Waits until the server handles all the notifications sent before. */
+  private static void roundTrip(LanguageServer server) throws Exception {
+    DocumentSymbolParams params = new DocumentSymbolParams();
+    params.setTextDocument(new TextDocumentIdentifier(URI));
+    server
+        .getTextDocumentService()
+        .documentSymbol(params)
+        .handle((symbols, error) -> null)
+        .get(30, SECONDS);
+  }
+
+  /** Converts changes by offset to changes by line and character. */
+  private static List<TextDocumentContentChangeEvent> toEvents(
+      String content, List<String> session) throws Exception {
+    Document document = new Document(content);
+    List<TextDocumentContentChangeEvent> events = new ArrayList<>();
+    for (String line : session) {
+      if (line.isEmpty()) {
+        continue;
+      }
+      int separator = line.indexOf(' ');
+      int offset = Integer.parseInt(line.substring(1, separator));
+      String argument = line.substring(separator + 1);
+      String text = line.charAt(0) == '+' ? unescape(argument) : "";
+      int count = line.charAt(0) == '+' ? 0 : Integer.parseInt(argument);
+
+      Range range = new Range();
+      range.setStart(position(document, offset));
+      range.setEnd(position(document, offset + count));
+      TextDocumentContentChangeEvent event = new TextDocumentContentChangeEvent();
+      event.setRange(range);
+      event.setRangeLength(count);
+      event.setText(text);
+      events.add(event);
+      document.replace(offset, count, text);
+    }
+    return events;
+  }
+
+  private static Position position(Document document, int offset) throws Exception {
+    int line = document.getLineOfOffset(offset);
+    Position position = new Position();
+    position.setLine(line);
+    position.setCharacter(offset - document.getLineOffset(line));
+    return position;
+  }
+
+  /** Generates bursts of typing with occasional corrections at random places of the file. */
+  private static List<String> generateSession(Random random, int length) {
+    List<String> session = new ArrayList<>();
+    for (int burst = 0; burst < 20; burst++) {
+      int offset = random.nextInt(length);
+      for (int i = 0; i < 40; i++) {
+        String text = random.nextInt(10) == 0 ? "\\n" : String.valueOf((char) ('a' + i % 26));
+        session.add("+" + offset + ' ' + text);
+        offset++;
+        length++;
+        if (random.nextInt(8) == 0) {
+          session.add("-" + (offset - 1) + " 1");
+          offset--;
+          length--;
+        }
+      }
+    }
+    return session;
+  }
+
+  private static String unescape(String text) {
+    StringBuilder sb = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\\' && i + 1 < text.length()) {
+        char next = text.charAt(++i);
+        sb.append(next == 'n' ? '\n' : next == 't' ? '\t' : next);
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static String generateText(Random random, int length) {
+    StringBuilder sb = new StringBuilder(length);
+    while (sb.length() < length) {
+      sb.append(random.nextInt(20) == 0 ? '\n' : (char) ('a' + random.nextInt(26)));
+    }
+    return sb.toString();
+  }
+
+  private static DidOpenTextDocumentParams open(String text) {
+    TextDocumentItem item = new TextDocumentItem();
+    item.setUri(URI);
+    item.setLanguageId("text");
+    item.setVersion(0);
+    item.setText(text);
+    DidOpenTextDocumentParams params = new DidOpenTextDocumentParams();
+    params.setTextDocument(item);
+    return params;
+  }
+
+  private static DidChangeTextDocumentParams change(
+      int version, TextDocumentContentChangeEvent event) {
+    VersionedTextDocumentIdentifier textDocument = new VersionedTextDocumentIdentifier();
+    textDocument.setUri(URI);
+    textDocument.setVersion(version);
+    DidChangeTextDocumentParams params = new DidChangeTextDocumentParams();
+    params.setTextDocument(textDocument);
+    params.setContentChanges(singletonList(event));
+    return params;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.shared.dto;
+
+import java.util.List;
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * Changes of the workspace tree since some version of the tree journal.
+ *
+ * <p>When the journal no longer has all the changes since the requested version the delta is
+ * truncated, then client has to reload the tree and continue from the version of this delta.
+ */
+@DTO
+public interface TreeDelta {
+  /** Get version of the tree journal this delta brings client to. */
+  long getVersion();
+
+  void setVersion(long version);
+
+  TreeDelta withVersion(long version);
+
+  /** Returns {@code true} when changes are not complete and the tree has to be reloaded. */
+  boolean isTruncated();
+
+  void setTruncated(boolean truncated);
+
+  TreeDelta withTruncated(boolean truncated);
+
+  /** Get changed items in the order they were changed, empty when delta is truncated. */
+  List<TreeDeltaItem> getChanges();
+
+  void setChanges(List<TreeDeltaItem> changes);
+
+  TreeDelta withChanges(List<TreeDeltaItem> changes);
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.dto.shared.DTO;
+
+/** Change of an item of the workspace tree. */
+@DTO
+public interface TreeDeltaItem {
+  /** Get path of the changed item. */
+  String getPath();
+
+  void setPath(String path);
+
+  TreeDeltaItem withPath(String path);
+
+  /** Get type of the change. */
+  FileWatcherEventType getType();
+
+  void setType(FileWatcherEventType type);
+
+  TreeDeltaItem withType(FileWatcherEventType type);
+
+  /** Get current state of created or modified item, {@code null} for deleted item. */
+  @Nullable
+  ItemReference getItem();
+
+  void setItem(ItemReference item);
+
+  TreeDeltaItem withItem(ItemReference item);
+}
@@ -18,19 +18,33 @@ import com.google.common.io.ByteStreams;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
 
 /**
  * In-memory implementation of working copy for opened editor on client.
  *
+ * <p>Content is kept in a {@link TextRope}, so editor changes are applied without copying the
+ * whole content. Each applied change increments the version of the working copy and is remembered
+ * in the change log, which lets readers holding an older {@link Snapshot} catch up incrementally.
+ *
  * @author Roman Nikitenko
  */
 public class EditorWorkingCopy {
+  /** Maximum number of the latest changes kept in the change log. */
+  static final int MAX_LOGGED_CHANGES = 1000;
+
   private String path;
   private String projectPath;
-  private byte[] content;
+  private volatile Snapshot snapshot;
+
+  // guarded by this
+  private final Deque<EditorChangesDto> changeLog;
 
   /**
    * Creates a working copy for opened editor on client.
@@ -42,7 +56,8 @@ public class EditorWorkingCopy {
   public EditorWorkingCopy(String path, String projectPath, byte[] content) {
     this.path = path;
     this.projectPath = projectPath;
-    this.content = Arrays.copyOf(content, content.length);
+    this.snapshot = new Snapshot(0, TextRope.of(new String(content)));
+    this.changeLog = new ArrayDeque<>();
   }
 
   /**
@@ -51,10 +66,7 @@ public class EditorWorkingCopy {
    * @return content ot the working copy
    */
   public byte[] getContentAsBytes() {
-    if (content == null) {
-      content = new byte[0];
-    }
-    return Arrays.copyOf(content, content.length);
+    return getContentAsString().getBytes();
   }
 
   /**
@@ -63,7 +75,7 @@ public class EditorWorkingCopy {
    * @return content ot the working copy
    */
   public String getContentAsString() {
-    return new String(getContentAsBytes());
+    return snapshot.getContentAsString();
   }
 
   /**
@@ -75,6 +87,41 @@ public class EditorWorkingCopy {
     return new ByteArrayInputStream(getContentAsBytes());
   }
 
+  /**
+   * Gets immutable snapshot of the content, it is not affected by further changes of the working
+   * copy and may be read without any locking.
+   *
+   * @return current snapshot of the working copy
+   */
+  public Snapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Gets changes which transform content of one version of the working copy into another one.
+   *
+   * @param fromVersion version of the content the changes should be applied to
+   * @param toVersion version of the content the changes should produce
+   * @return changes in the order they were applied, or {@code null} when some of the changes are
+   *     not in the change log anymore or content of the working copy was replaced in between
+   */
+  public synchronized List<EditorChangesDto> getChanges(long fromVersion, long toVersion) {
+    long currentVersion = snapshot.getVersion();
+    long firstLoggedVersion = currentVersion - changeLog.size();
+    if (fromVersion < firstLoggedVersion || toVersion > currentVersion || fromVersion > toVersion) {
+      return null;
+    }
+    List<EditorChangesDto> changes = new ArrayList<>((int) (toVersion - fromVersion));
+    Iterator<EditorChangesDto> it = changeLog.iterator();
+    for (long version = firstLoggedVersion + 1; version <= toVersion; version++) {
+      EditorChangesDto change = it.next();
+      if (version > fromVersion) {
+        changes.add(change);
+      }
+    }
+    return changes;
+  }
+
   /**
    * Updates content of the working copy.
    *
@@ -82,8 +129,7 @@ public class EditorWorkingCopy {
    * @return current working copy after updating content
    */
   EditorWorkingCopy updateContent(byte[] content) {
-    this.content = content;
-    return this;
+    return updateContent(new String(content));
   }
 
   /**
@@ -92,8 +138,10 @@ public class EditorWorkingCopy {
    * @param content content
    * @return current working copy after updating content
    */
-  EditorWorkingCopy updateContent(String content) {
-    updateContent(content.getBytes());
+  synchronized EditorWorkingCopy updateContent(String content) {
+    // changes can't be replayed over replaced content
+    changeLog.clear();
+    snapshot = new Snapshot(snapshot.getVersion() + 1, TextRope.of(content));
     return this;
   }
 
@@ -126,20 +174,23 @@ public class EditorWorkingCopy {
       int offset = changes.getOffset();
       int removedCharCount = changes.getRemovedCharCount();
 
-      String newContent = null;
-      String oldContent = getContentAsString();
+      TextRope newContent = null;
+      TextRope oldContent = snapshot.getContent();
       EditorChangesDto.Type type = changes.getType();
       if (type == INSERT) {
-        newContent = new StringBuilder(oldContent).insert(offset, text).toString();
+        newContent = oldContent.insert(offset, text);
       }
 
       if (type == REMOVE && removedCharCount > 0) {
-        newContent =
-            new StringBuilder(oldContent).delete(offset, offset + removedCharCount).toString();
+        newContent = oldContent.delete(offset, removedCharCount);
       }
 
       if (newContent != null) {
-        updateContent(newContent);
+        snapshot = new Snapshot(snapshot.getVersion() + 1, newContent);
+        changeLog.addLast(changes);
+        if (changeLog.size() > MAX_LOGGED_CHANGES) {
+          changeLog.removeFirst();
+        }
       }
     }
   }
@@ -161,4 +212,28 @@ public class EditorWorkingCopy {
   public void setProjectPath(String projectPath) {
     this.projectPath = projectPath;
   }
+
+  /** Immutable content of the working copy with its version. */
+  public static final class Snapshot {
+    private final long version;
+    private final TextRope content;
+
+    private Snapshot(long version, TextRope content) {
+      this.version = version;
+      this.content = content;
+    }
+
+    /** Returns version of the content, it is incremented by each change of the working copy. */
+    public long getVersion() {
+      return version;
+    }
+
+    public TextRope getContent() {
+      return content;
+    }
+
+    public String getContentAsString() {
+      return content.toString();
+    }
+  }
 }
@@ -120,6 +120,11 @@ public class ProjectApiModule extends AbstractModule {
     Multibinder<Consumer<Path>> directoryDeleteConsumers =
         newSetBinder(
             binder(), new TypeLiteral<Consumer<Path>>() {}, Names.named("che.fs.directory.delete"));
+    Multibinder<Consumer<Path>> directoryRestoreConsumers =
+        newSetBinder(
+            binder(),
+            new TypeLiteral<Consumer<Path>>() {},
+            Names.named("che.fs.directory.restore"));
     Multibinder<PathMatcher> directoryExcludes =
         newSetBinder(
             binder(), new TypeLiteral<PathMatcher>() {}, Names.named("che.fs.directory.excludes"));
@@ -133,6 +138,9 @@ public class ProjectApiModule extends AbstractModule {
     Multibinder<Consumer<Path>> fileDeleteConsumers =
         newSetBinder(
             binder(), new TypeLiteral<Consumer<Path>>() {}, Names.named("che.fs.file.delete"));
+    Multibinder<Consumer<Path>> fileRestoreConsumers =
+        newSetBinder(
+            binder(), new TypeLiteral<Consumer<Path>>() {}, Names.named("che.fs.file.restore"));
     Multibinder<PathMatcher> fileExcludes =
         newSetBinder(
             binder(), new TypeLiteral<PathMatcher>() {}, Names.named("che.fs.file.excludes"));
@@ -145,6 +153,15 @@ public class ProjectApiModule extends AbstractModule {
     fileDeleteConsumers.addBinding().to(FileWatcherByPathMatcher.class);
     directoryCreateConsumers.addBinding().to(FileWatcherByPathMatcher.class);
     directoryDeleteConsumers.addBinding().to(FileWatcherByPathMatcher.class);
+
+    fileRestoreConsumers.addBinding().to(FileWatcherByPathMatcher.class);
+    directoryRestoreConsumers.addBinding().to(FileWatcherByPathMatcher.class);
+
+    fileCreateConsumers.addBinding().to(ProjectTreeJournal.CreateConsumer.class);
+    fileUpdateConsumers.addBinding().to(ProjectTreeJournal.UpdateConsumer.class);
+    fileDeleteConsumers.addBinding().to(ProjectTreeJournal.DeleteConsumer.class);
+    directoryCreateConsumers.addBinding().to(ProjectTreeJournal.CreateConsumer.class);
+    directoryDeleteConsumers.addBinding().to(ProjectTreeJournal.DeleteConsumer.class);
   }
 
   private void configureVfsFilters(Multibinder<PathMatcher> excludeMatcher) {
@@ -82,13 +82,17 @@ import org.eclipse.che.api.project.shared.dto.ProjectSearchResponseDto;
 import org.eclipse.che.api.project.shared.dto.SearchOccurrenceDto;
 import org.eclipse.che.api.project.shared.dto.SearchResultDto;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
+import org.eclipse.che.api.project.shared.dto.TreeDelta;
+import org.eclipse.che.api.project.shared.dto.TreeDeltaItem;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.search.QueryExpression;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.impl.LuceneSearcher;
+import org.eclipse.che.api.vfs.watcher.FileTreeWalker;
 import org.eclipse.che.api.workspace.shared.dto.NewProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
@@ -120,6 +124,8 @@ public class ProjectService extends Service {
   private final ProjectServiceVcsStatusInjector vcsStatusInjector;
   private final RequestTransmitter transmitter;
   private final ProjectImportOutputJsonRpcRegistrar projectImportHandlerRegistrar;
+  private final FileTreeWalker treeWalker;
+  private final ProjectTreeJournal treeJournal;
   private final String workspace;
 
   @Inject
@@ -129,13 +135,17 @@ public class ProjectService extends Service {
       ProjectServiceLinksInjector projectServiceLinksInjector,
       ProjectServiceVcsStatusInjector vcsStatusInjector,
       RequestTransmitter transmitter,
-      ProjectImportOutputJsonRpcRegistrar projectImportHandlerRegistrar) {
+      ProjectImportOutputJsonRpcRegistrar projectImportHandlerRegistrar,
+      FileTreeWalker treeWalker,
+      ProjectTreeJournal treeJournal) {
     this.projectManager = projectManager;
     this.eventService = eventService;
     this.projectServiceLinksInjector = projectServiceLinksInjector;
     this.vcsStatusInjector = vcsStatusInjector;
     this.transmitter = transmitter;
     this.projectImportHandlerRegistrar = projectImportHandlerRegistrar;
+    this.treeWalker = treeWalker;
+    this.treeJournal = treeJournal;
     this.workspace = WorkspaceIdProvider.getWorkspaceId();
   }
 
@@ -943,6 +953,73 @@ public class ProjectService extends Service {
         .withChildren(getTree(folder, depth, includeFiles));
   }
 
+  @GET
+  @Path("/tree-delta/{path:.*}")
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(
+    value = "Get changes of the workspace tree",
+    notes =
+        "Get items changed since the given version of the tree. The given folder is synchronized"
+            + " with the file system before, so the changes made in it so far are included. If the"
+            + " changes are truncated, the tree has to be reloaded and changes requested since the"
+            + " version of the response",
+    response = TreeDelta.class
+  )
+  @ApiResponses({
+    @ApiResponse(code = 200, message = "OK"),
+    @ApiResponse(code = 500, message = "Internal Server Error")
+  })
+  public TreeDelta getTreeDelta(
+      @ApiParam(value = "Path to the folder which has to be up to date, workspace root if empty")
+          @PathParam("path")
+          String path,
+      @ApiParam(value = "Version of the tree known by client. If not specified, -1 is used")
+          @DefaultValue("-1")
+          @QueryParam("since")
+          long since)
+      throws ServerException {
+    // changes made outside of the folder and not found by the walker yet are journaled later,
+    // so they are returned to the client on the next sync
+    treeWalker.refresh(path);
+    final ProjectTreeJournal.Changes changes = treeJournal.getChanges(since);
+
+    final List<TreeDeltaItem> items = new ArrayList<>(changes.getItems().size());
+    for (Map.Entry<String, FileWatcherEventType> change : changes.getItems().entrySet()) {
+      final TreeDeltaItem item = newDto(TreeDeltaItem.class).withPath(change.getKey());
+      final VirtualFileEntry entry =
+          change.getValue() == FileWatcherEventType.DELETED
+              ? null
+              : projectManager.getProjectsRoot().getChild(change.getKey());
+
+      if (entry == null) {
+        item.setType(FileWatcherEventType.DELETED);
+      } else {
+        item.setType(change.getValue());
+        item.setItem(asDeltaItemReference(entry));
+      }
+      items.add(item);
+    }
+
+    return newDto(TreeDelta.class)
+        .withVersion(changes.getVersion())
+        .withTruncated(changes.isTruncated())
+        .withChanges(items);
+  }
+
+  private ItemReference asDeltaItemReference(VirtualFileEntry entry) throws ServerException {
+    if (entry.isFolder()) {
+      return injectFolderLinks(asDto((FolderEntry) entry));
+    }
+
+    final ItemReference file = injectFileLinks(asDto((FileEntry) entry));
+    try {
+      return vcsStatusInjector.injectVcsStatus(file);
+    } catch (NotFoundException e) {
+      // file is not in a project, so there is no VCS status
+      return file;
+    }
+  }
+
   @GET
   @Path("/item/{path:.*}")
   @Produces(MediaType.APPLICATION_JSON)
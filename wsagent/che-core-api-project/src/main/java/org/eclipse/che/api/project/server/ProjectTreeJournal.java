@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server;
+
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.eclipse.che.api.vfs.watcher.FileWatcherUtils.toInternalPath;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+
+/**
+ * Versioned journal of the workspace tree changes. It is fed by the file tree walker, each change
+ * increments the version of the journal, so clients can fetch only the changes that happened
+ * since the version they have seen.
+ *
+ * <p>The journal keeps a bounded number of the latest changes. Versions start from the time the
+ * journal was created, so the version known by a client is either in the range of the journal or
+ * the changes since it are reported as truncated, including a version from the previous run of the
+ * agent.
+ */
+@Singleton
+public class ProjectTreeJournal {
+  /** Number of changed items above which client is supposed to reload the tree instead. */
+  @VisibleForTesting static final int MAX_CHANGES = 1_000;
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.project.tree_journal.capacity")
+  private int capacity = 10_000;
+
+  private final Path root;
+  private final Deque<Entry> entries;
+
+  private long version;
+  private long evictedVersion;
+
+  @Inject
+  public ProjectTreeJournal(@Named("che.user.workspaces.storage") File root) {
+    this.root = root.toPath();
+    this.entries = new ArrayDeque<>();
+    this.version = System.currentTimeMillis() * 1_000;
+    this.evictedVersion = version;
+  }
+
+  @VisibleForTesting
+  ProjectTreeJournal(File root, int capacity) {
+    this(root);
+    this.capacity = capacity;
+  }
+
+  /** Records creation of the item with the given absolute file system path. */
+  public void created(Path path) {
+    record(path, CREATED);
+  }
+
+  /** Records modification of the item with the given absolute file system path. */
+  public void modified(Path path) {
+    record(path, MODIFIED);
+  }
+
+  /** Records removal of the item with the given absolute file system path. */
+  public void deleted(Path path) {
+    record(path, DELETED);
+  }
+
+  /** Returns the current version of the journal. */
+  public synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns changes since the given version merged per item: modification of created item is
+   * reported as creation, otherwise the latest change of the item wins. Items are ordered by their
+   * first change, so a directory comes before the items created in it.
+   *
+   * @param since version of the journal known by client, {@code -1} if client knows none
+   */
+  public synchronized Changes getChanges(long since) {
+    if (since < evictedVersion || since > version) {
+      return new Changes(version, true, Collections.emptyMap());
+    }
+
+    Map<String, FileWatcherEventType> changes = new LinkedHashMap<>();
+    Iterator<Entry> iterator = entries.descendingIterator();
+    Deque<Entry> newer = new ArrayDeque<>();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (entry.version <= since) {
+        break;
+      }
+      newer.addFirst(entry);
+    }
+    for (Entry entry : newer) {
+      FileWatcherEventType previous = changes.get(entry.path);
+      if (previous != CREATED || entry.type != MODIFIED) {
+        changes.put(entry.path, entry.type);
+      }
+      if (changes.size() > MAX_CHANGES) {
+        return new Changes(version, true, Collections.emptyMap());
+      }
+    }
+    return new Changes(version, false, changes);
+  }
+
+  private synchronized void record(Path path, FileWatcherEventType type) {
+    entries.addLast(new Entry(++version, toInternalPath(root, path), type));
+    while (entries.size() > capacity) {
+      evictedVersion = entries.removeFirst().version;
+    }
+  }
+
+  /** Changes of the tree since some version of the journal. */
+  public static final class Changes {
+    private final long version;
+    private final boolean truncated;
+    private final Map<String, FileWatcherEventType> items;
+
+    Changes(long version, boolean truncated, Map<String, FileWatcherEventType> items) {
+      this.version = version;
+      this.truncated = truncated;
+      this.items = items;
+    }
+
+    /** Returns version of the journal the changes bring client to. */
+    public long getVersion() {
+      return version;
+    }
+
+    /** Returns {@code true} if the journal doesn't have all the changes since requested version. */
+    public boolean isTruncated() {
+      return truncated;
+    }
+
+    /** Returns changed items mapped to their latest change, empty if changes are truncated. */
+    public Map<String, FileWatcherEventType> getItems() {
+      return items;
+    }
+  }
+
+  private static final class Entry {
+    final long version;
+    final String path;
+    final FileWatcherEventType type;
+
+    Entry(long version, String path, FileWatcherEventType type) {
+      this.version = version;
+      this.path = path;
+      this.type = type;
+    }
+  }
+
+  /** Records items created in the file system tree. */
+  @Singleton
+  public static class CreateConsumer implements Consumer<Path> {
+    private final ProjectTreeJournal journal;
+
+    @Inject
+    public CreateConsumer(ProjectTreeJournal journal) {
+      this.journal = journal;
+    }
+
+    @Override
+    public void accept(Path path) {
+      journal.created(path);
+    }
+  }
+
+  /** Records items modified in the file system tree. */
+  @Singleton
+  public static class UpdateConsumer implements Consumer<Path> {
+    private final ProjectTreeJournal journal;
+
+    @Inject
+    public UpdateConsumer(ProjectTreeJournal journal) {
+      this.journal = journal;
+    }
+
+    @Override
+    public void accept(Path path) {
+      journal.modified(path);
+    }
+  }
+
+  /** Records items deleted from the file system tree. */
+  @Singleton
+  public static class DeleteConsumer implements Consumer<Path> {
+    private final ProjectTreeJournal journal;
+
+    @Inject
+    public DeleteConsumer(ProjectTreeJournal journal) {
+      this.journal = journal;
+    }
+
+    @Override
+    public void accept(Path path) {
+      journal.deleted(path);
+    }
+  }
+}
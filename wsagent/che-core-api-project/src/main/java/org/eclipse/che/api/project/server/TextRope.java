@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server;
+
+import static java.lang.String.format;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Immutable text stored as a balanced tree of short chunks.
+ *
+ * <p>Insertion and removal of text produce a new rope which shares all unchanged chunks with this
+ * one, so they cost O(log n) regardless of the length of the text. Since rope is immutable it is a
+ * cheap snapshot of the text which may be read concurrently without locking.
+ */
+public final class TextRope {
+  private static final TextRope EMPTY = new TextRope(new Leaf(""));
+
+  static final int MAX_LEAF_LENGTH = 512;
+
+  private final Node root;
+
+  private TextRope(Node root) {
+    this.root = root;
+  }
+
+  /** Returns empty rope. */
+  public static TextRope empty() {
+    return EMPTY;
+  }
+
+  /** Returns rope with the given text. */
+  public static TextRope of(String text) {
+    return text.isEmpty() ? EMPTY : new TextRope(build(text, 0, text.length()));
+  }
+
+  /** Returns the number of characters in the text. */
+  public int length() {
+    return root.length;
+  }
+
+  /**
+   * Returns the character at the given offset.
+   *
+   * @throws IndexOutOfBoundsException when offset is out of the text
+   */
+  public char charAt(int offset) {
+    checkRange(offset, 1);
+    Node node = root;
+    while (node instanceof Concat) {
+      Concat concat = (Concat) node;
+      if (offset < concat.left.length) {
+        node = concat.left;
+      } else {
+        offset -= concat.left.length;
+        node = concat.right;
+      }
+    }
+    return ((Leaf) node).text.charAt(offset);
+  }
+
+  /**
+   * Returns rope with the text inserted at the given offset.
+   *
+   * @throws IndexOutOfBoundsException when offset is out of the text
+   */
+  public TextRope insert(int offset, String text) {
+    checkRange(offset, 0);
+    if (text.isEmpty()) {
+      return this;
+    }
+    Node[] parts = split(root, offset);
+    return new TextRope(join(join(parts[0], build(text, 0, text.length())), parts[1]));
+  }
+
+  /**
+   * Returns rope without the given number of characters starting at the given offset.
+   *
+   * @throws IndexOutOfBoundsException when the range is out of the text
+   */
+  public TextRope delete(int offset, int count) {
+    checkRange(offset, count);
+    if (count == 0) {
+      return this;
+    }
+    Node[] head = split(root, offset);
+    Node[] tail = split(head[1], count);
+    return new TextRope(join(head[0], tail[1]));
+  }
+
+  /**
+   * Returns the text between the given offsets.
+   *
+   * @throws IndexOutOfBoundsException when the range is out of the text
+   */
+  public String substring(int beginOffset, int endOffset) {
+    checkRange(beginOffset, endOffset - beginOffset);
+    StringBuilder sb = new StringBuilder(endOffset - beginOffset);
+    append(root, beginOffset, endOffset, sb);
+    return sb.toString();
+  }
+
+  /** Returns height of the tree, leaves have height 0. */
+  @VisibleForTesting
+  int height() {
+    return root.height;
+  }
+
+  @Override
+  public String toString() {
+    return substring(0, root.length);
+  }
+
+  private void checkRange(int offset, int count) {
+    if (offset < 0 || count < 0 || offset + count > root.length) {
+      throw new IndexOutOfBoundsException(
+          format("Range [%d, %d) is out of text of length %d", offset, offset + count, length()));
+    }
+  }
+
+  private static void append(Node node, int begin, int end, StringBuilder sb) {
+    if (begin >= end) {
+      return;
+    }
+    if (node instanceof Leaf) {
+      sb.append(((Leaf) node).text, begin, end);
+      return;
+    }
+    Concat concat = (Concat) node;
+    int leftLength = concat.left.length;
+    if (begin < leftLength) {
+      append(concat.left, begin, Math.min(end, leftLength), sb);
+    }
+    if (end > leftLength) {
+      append(concat.right, Math.max(0, begin - leftLength), end - leftLength, sb);
+    }
+  }
+
+  /** Builds balanced tree of leaves for the part of the text. */
+  private static Node build(String text, int begin, int end) {
+    if (end - begin <= MAX_LEAF_LENGTH) {
+      return new Leaf(text.substring(begin, end));
+    }
+    int middle = begin + (end - begin) / 2;
+    return new Concat(build(text, begin, middle), build(text, middle, end));
+  }
+
+  /** Splits the tree into two trees, the first one contains {@code offset} characters. */
+  private static Node[] split(Node node, int offset) {
+    if (offset == 0) {
+      return new Node[] {EMPTY.root, node};
+    }
+    if (offset == node.length) {
+      return new Node[] {node, EMPTY.root};
+    }
+    if (node instanceof Leaf) {
+      String text = ((Leaf) node).text;
+      return new Node[] {new Leaf(text.substring(0, offset)), new Leaf(text.substring(offset))};
+    }
+    Concat concat = (Concat) node;
+    int leftLength = concat.left.length;
+    if (offset < leftLength) {
+      Node[] parts = split(concat.left, offset);
+      return new Node[] {parts[0], join(parts[1], concat.right)};
+    }
+    if (offset > leftLength) {
+      Node[] parts = split(concat.right, offset - leftLength);
+      return new Node[] {join(concat.left, parts[0]), parts[1]};
+    }
+    return new Node[] {concat.left, concat.right};
+  }
+
+  /** Concatenates two trees keeping the result balanced, see AVL join. */
+  private static Node join(Node left, Node right) {
+    if (left.length == 0) {
+      return right;
+    }
+    if (right.length == 0) {
+      return left;
+    }
+    if (left.height > right.height + 1) {
+      return joinRight((Concat) left, right);
+    }
+    if (right.height > left.height + 1) {
+      return joinLeft(left, (Concat) right);
+    }
+    return concat(left, right);
+  }
+
+  /** Joins trees when the left one is higher, the right tree is attached to the right spine. */
+  private static Node joinRight(Concat left, Node right) {
+    Node spine = left.right;
+    Node joined =
+        spine.height <= right.height + 1
+            ? concat(spine, right)
+            : joinRight((Concat) spine, right);
+    if (joined.height <= left.left.height + 1) {
+      return concat(left.left, joined);
+    }
+    Concat rotated = (Concat) joined;
+    if (rotated.left.height > rotated.right.height) {
+      rotated = rotateRight(rotated);
+    }
+    return rotateLeft(new Concat(left.left, rotated));
+  }
+
+  /** Joins trees when the right one is higher, the left tree is attached to the left spine. */
+  private static Node joinLeft(Node left, Concat right) {
+    Node spine = right.left;
+    Node joined =
+        spine.height <= left.height + 1 ? concat(left, spine) : joinLeft(left, (Concat) spine);
+    if (joined.height <= right.right.height + 1) {
+      return concat(joined, right.right);
+    }
+    Concat rotated = (Concat) joined;
+    if (rotated.right.height > rotated.left.height) {
+      rotated = rotateLeft(rotated);
+    }
+    return rotateRight(new Concat(rotated, right.right));
+  }
+
+  /** Transforms {@code (a, (b, c))} to {@code ((a, b), c)}. */
+  private static Concat rotateLeft(Concat node) {
+    if (!(node.right instanceof Concat)) {
+      return node;
+    }
+    Concat right = (Concat) node.right;
+    return new Concat(concat(node.left, right.left), right.right);
+  }
+
+  /** Transforms {@code ((a, b), c)} to {@code (a, (b, c))}. */
+  private static Concat rotateRight(Concat node) {
+    if (!(node.left instanceof Concat)) {
+      return node;
+    }
+    Concat left = (Concat) node.left;
+    return new Concat(left.left, concat(left.right, node.right));
+  }
+
+  /** Concatenates two trees, adjacent short leaves are merged so typing doesn't split the text. */
+  private static Node concat(Node left, Node right) {
+    if (left instanceof Leaf
+        && right instanceof Leaf
+        && left.length + right.length <= MAX_LEAF_LENGTH) {
+      return new Leaf(((Leaf) left).text + ((Leaf) right).text);
+    }
+    return new Concat(left, right);
+  }
+
+  private abstract static class Node {
+    final int length;
+    final int height;
+
+    Node(int length, int height) {
+      this.length = length;
+      this.height = height;
+    }
+  }
+
+  private static final class Leaf extends Node {
+    final String text;
+
+    Leaf(String text) {
+      super(text.length(), 0);
+      this.text = text;
+    }
+  }
+
+  private static final class Concat extends Node {
+    final Node left;
+    final Node right;
+
+    Concat(Node left, Node right) {
+      super(left.length + right.length, Math.max(left.height, right.height) + 1);
+      this.left = left;
+      this.right = right;
+    }
+  }
+}
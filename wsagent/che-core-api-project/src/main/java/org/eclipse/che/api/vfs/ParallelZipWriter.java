@@ -0,0 +1,575 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+
+/**
+ * Writes zip archive whose entries are prepared in parallel and written in the order they are
+ * added.
+ *
+ * <p>Files of already compressed types are stored as is, their checksum is computed by a worker so
+ * it can be written to the local header. Content of local files is transferred from file channel
+ * to the output, which doesn't copy it through the heap when the output is a file, and the file is
+ * checked against the checksum afterwards. Content of other files is verified while it is copied.
+ * So a file which is changed in the meantime fails the archiving instead of producing a corrupted
+ * entry. Other files are deflated by workers, files which are too big to be kept in
+ * memory are deflated while written. The number of the entries prepared ahead of the output is
+ * bounded per archive and the size of deflated entries kept in memory is bounded for all the
+ * archives written at the same time, so memory consumption doesn't depend on the size or the
+ * number of archives. Archives bigger than 4 GB or with more than 65535 entries are written in
+ * zip64 format.
+ */
+class ParallelZipWriter implements Closeable {
+  /** Files bigger than this are deflated while written instead of being deflated in memory. */
+  @VisibleForTesting static final long PARALLEL_DEFLATE_LIMIT = 16 * 1024 * 1024;
+
+  /**
+   * Maximum size of files which are being deflated in memory by all the writers, each writer
+   * exceeds it by at most one file when it has nothing else to write.
+   */
+  private static final long MAX_PENDING_BYTES = 64 * 1024 * 1024;
+
+  private static final AtomicLong PENDING_BYTES = new AtomicLong();
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final Set<String> STORED_EXTENSIONS =
+      ImmutableSet.of(
+          "jar", "war", "ear", "zip", "gz", "tgz", "bz2", "xz", "7z", "rar", "png", "jpg", "jpeg",
+          "gif", "webp", "ico", "mp3", "mp4", "ogg", "woff", "woff2");
+
+  private static final int STORED = 0;
+  private static final int DEFLATED = 8;
+  private static final int DATA_DESCRIPTOR_FLAG = 1 << 3;
+  private static final int UTF8_FLAG = 1 << 11;
+  private static final int VERSION = 20;
+  private static final int ZIP64_VERSION = 45;
+  private static final int ZIP64_EXTRA_ID = 0x0001;
+  private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+  private static final int ZIP64_ENTRIES_LIMIT = 0xFFFF;
+
+  private static final int LOC_SIGNATURE = 0x04034b50;
+  private static final int EXT_SIGNATURE = 0x08074b50;
+  private static final int CEN_SIGNATURE = 0x02014b50;
+  private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int END_SIGNATURE = 0x06054b50;
+
+  private final OutputStream output;
+  private final WritableByteChannel channel;
+  private final ExecutorService executor;
+  private final int maxPendingEntries;
+  private final ByteBuffer buffer;
+  private final OutputStream sink;
+  private final Deque<PendingEntry> pending;
+  private final List<Entry> entries;
+
+  private long written;
+
+  ParallelZipWriter(OutputStream output) {
+    this(output, SharedExecutor.INSTANCE, SharedExecutor.THREADS * 4);
+  }
+
+  @VisibleForTesting
+  ParallelZipWriter(OutputStream output, ExecutorService executor, int maxPendingEntries) {
+    this.output = output;
+    this.channel =
+        output instanceof FileOutputStream
+            ? ((FileOutputStream) output).getChannel()
+            : Channels.newChannel(output);
+    this.executor = executor;
+    this.maxPendingEntries = maxPendingEntries;
+    this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    this.sink =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            put(new byte[] {(byte) b}, 0, 1);
+          }
+
+          @Override
+          public void write(byte[] b, int off, int len) throws IOException {
+            put(b, off, len);
+          }
+        };
+    this.pending = new ArrayDeque<>();
+    this.entries = new ArrayList<>();
+  }
+
+  /** Adds folder entry, name has to end with '/'. */
+  void putFolder(String name, long time) throws IOException {
+    Entry entry = new Entry(name, time, null);
+    enqueue(CompletableFuture.completedFuture(entry), 0);
+  }
+
+  /** Adds entry with the content of the given file. */
+  void putFile(String name, long time, VirtualFile file) throws IOException {
+    Entry entry = new Entry(name, time, file);
+    try {
+      entry.size = file.getLength();
+    } catch (ServerException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+
+    if (isCompressed(name)) {
+      entry.compressedSize = entry.size;
+      enqueue(executor.submit(() -> checksum(entry)), 0);
+    } else if (entry.size > PARALLEL_DEFLATE_LIMIT) {
+      entry.method = DEFLATED;
+      entry.flags |= DATA_DESCRIPTOR_FLAG;
+      enqueue(CompletableFuture.completedFuture(entry), 0);
+    } else {
+      entry.method = DEFLATED;
+      enqueue(executor.submit(() -> deflate(entry)), entry.size);
+    }
+  }
+
+  /** Writes all the added entries and the central directory of the archive. */
+  void finish() throws IOException {
+    while (!pending.isEmpty()) {
+      writeNext();
+    }
+    writeCentralDirectory();
+    flush();
+  }
+
+  /** Closes the output, entries which are not written yet are discarded. */
+  @Override
+  public void close() throws IOException {
+    for (PendingEntry next : pending) {
+      next.future.cancel(true);
+      PENDING_BYTES.addAndGet(-next.bytes);
+    }
+    pending.clear();
+    output.close();
+  }
+
+  private static boolean isCompressed(String name) {
+    int dot = name.lastIndexOf('.');
+    return dot >= 0 && STORED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase());
+  }
+
+  private void enqueue(Future<Entry> prepared, long bytes) throws IOException {
+    while (!pending.isEmpty()
+        && (pending.size() >= maxPendingEntries
+            || PENDING_BYTES.get() + bytes > MAX_PENDING_BYTES)) {
+      writeNext();
+    }
+    PENDING_BYTES.addAndGet(bytes);
+    pending.addLast(new PendingEntry(prepared, bytes));
+  }
+
+  private void writeNext() throws IOException {
+    Entry entry;
+    PendingEntry next = pending.removeFirst();
+    try {
+      entry = next.future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while writing archive", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof IOException
+          ? (IOException) cause
+          : new IOException(cause.getMessage(), cause);
+    } finally {
+      PENDING_BYTES.addAndGet(-next.bytes);
+    }
+
+    writeLocalHeader(entry);
+    if (entry.deflated != null) {
+      put(entry.deflated, 0, entry.deflated.length);
+      entry.deflated = null;
+    } else if (entry.streamed()) {
+      writeDeflated(entry);
+    } else if (entry.file != null) {
+      writeStored(entry);
+    }
+    entries.add(entry);
+  }
+
+  private Entry checksum(Entry entry) throws IOException {
+    entry.crc = checksum(entry.file);
+    return entry;
+  }
+
+  private static long checksum(VirtualFile file) throws IOException {
+    CRC32 crc = new CRC32();
+    byte[] bytes = new byte[BUFFER_SIZE];
+    try (InputStream content = openContent(file)) {
+      int read;
+      while ((read = content.read(bytes)) != -1) {
+        crc.update(bytes, 0, read);
+      }
+    }
+    return crc.getValue();
+  }
+
+  private Entry deflate(Entry entry) throws IOException {
+    ByteArrayOutputStream deflated = new ByteArrayOutputStream((int) entry.size / 2 + 64);
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    CRC32 crc = new CRC32();
+    try (InputStream content = new CheckedInputStream(openContent(entry.file), crc)) {
+      DeflaterOutputStream out = new DeflaterOutputStream(deflated, deflater, BUFFER_SIZE);
+      copy(content, out);
+      out.finish();
+      entry.crc = crc.getValue();
+      entry.size = deflater.getBytesRead();
+      entry.compressedSize = deflater.getBytesWritten();
+    } finally {
+      deflater.end();
+    }
+    entry.deflated = deflated.toByteArray();
+    return entry;
+  }
+
+  private void writeDeflated(Entry entry) throws IOException {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    CRC32 crc = new CRC32();
+    try (InputStream content = new CheckedInputStream(openContent(entry.file), crc)) {
+      DeflaterOutputStream out = new DeflaterOutputStream(sink, deflater, BUFFER_SIZE);
+      copy(content, out);
+      out.finish();
+      entry.crc = crc.getValue();
+      entry.size = deflater.getBytesRead();
+      entry.compressedSize = deflater.getBytesWritten();
+    } finally {
+      deflater.end();
+    }
+
+    putInt(EXT_SIGNATURE);
+    putInt(entry.crc);
+    if (entry.size >= ZIP64_LIMIT || entry.compressedSize >= ZIP64_LIMIT) {
+      putLong(entry.compressedSize);
+      putLong(entry.size);
+    } else {
+      putInt(entry.compressedSize);
+      putInt(entry.size);
+    }
+  }
+
+  private void writeStored(Entry entry) throws IOException {
+    File ioFile = entry.file.toIoFile();
+    if (ioFile == null) {
+      CRC32 crc = new CRC32();
+      try (InputStream content = new CheckedInputStream(openContent(entry.file), crc)) {
+        long copied = copy(content, sink);
+        checkUnchanged(entry, copied, crc.getValue());
+      }
+      return;
+    }
+
+    flush();
+    long copied = 0;
+    try (FileChannel in = FileChannel.open(ioFile.toPath(), StandardOpenOption.READ)) {
+      while (copied < entry.size) {
+        long transferred = in.transferTo(copied, entry.size - copied, channel);
+        if (transferred <= 0) {
+          // the file was truncated
+          break;
+        }
+        copied += transferred;
+      }
+      written += copied;
+    }
+    // transferred content doesn't pass through the heap, so the file is read again to verify it
+    checkUnchanged(entry, copied == entry.size ? ioFile.length() : copied, checksum(entry.file));
+  }
+
+  private static void checkUnchanged(Entry entry, long size, long crc) throws IOException {
+    if (size != entry.size || crc != entry.crc) {
+      throw new IOException(
+          String.format("File '%s' was changed while archiving", entry.file.getPath()));
+    }
+  }
+
+  private static InputStream openContent(VirtualFile file) throws IOException {
+    File ioFile = file.toIoFile();
+    if (ioFile != null) {
+      return Files.newInputStream(ioFile.toPath());
+    }
+    try {
+      return file.getContent();
+    } catch (ForbiddenException | ServerException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  private static long copy(InputStream in, OutputStream out) throws IOException {
+    byte[] bytes = new byte[BUFFER_SIZE];
+    long total = 0;
+    int read;
+    while ((read = in.read(bytes)) != -1) {
+      out.write(bytes, 0, read);
+      total += read;
+    }
+    return total;
+  }
+
+  private void writeLocalHeader(Entry entry) throws IOException {
+    entry.offset = written;
+    boolean zip64 =
+        !entry.streamed() && (entry.size >= ZIP64_LIMIT || entry.compressedSize >= ZIP64_LIMIT);
+
+    putInt(LOC_SIGNATURE);
+    putShort(zip64 ? ZIP64_VERSION : VERSION);
+    putShort(entry.flags);
+    putShort(entry.method);
+    putInt(entry.dosTime);
+    if (entry.streamed()) {
+      putInt(0);
+      putInt(0);
+      putInt(0);
+    } else {
+      putInt(entry.crc);
+      putInt(zip64 ? ZIP64_LIMIT : entry.compressedSize);
+      putInt(zip64 ? ZIP64_LIMIT : entry.size);
+    }
+    putShort(entry.name.length);
+    putShort(zip64 ? 20 : 0);
+    put(entry.name, 0, entry.name.length);
+    if (zip64) {
+      putShort(ZIP64_EXTRA_ID);
+      putShort(16);
+      putLong(entry.size);
+      putLong(entry.compressedSize);
+    }
+  }
+
+  private void writeCentralDirectory() throws IOException {
+    long offset = written;
+    for (Entry entry : entries) {
+      int extra = 0;
+      extra += entry.size >= ZIP64_LIMIT ? 8 : 0;
+      extra += entry.compressedSize >= ZIP64_LIMIT ? 8 : 0;
+      extra += entry.offset >= ZIP64_LIMIT ? 8 : 0;
+      extra += extra > 0 ? 4 : 0;
+      int version = extra > 0 ? ZIP64_VERSION : VERSION;
+
+      putInt(CEN_SIGNATURE);
+      putShort(version);
+      putShort(version);
+      putShort(entry.flags);
+      putShort(entry.method);
+      putInt(entry.dosTime);
+      putInt(entry.crc);
+      putInt(Math.min(entry.compressedSize, ZIP64_LIMIT));
+      putInt(Math.min(entry.size, ZIP64_LIMIT));
+      putShort(entry.name.length);
+      putShort(extra);
+      putShort(0); // comment length
+      putShort(0); // disk number
+      putShort(0); // internal attributes
+      putInt(0); // external attributes
+      putInt(Math.min(entry.offset, ZIP64_LIMIT));
+      put(entry.name, 0, entry.name.length);
+      if (extra > 0) {
+        putShort(ZIP64_EXTRA_ID);
+        putShort(extra - 4);
+        if (entry.size >= ZIP64_LIMIT) {
+          putLong(entry.size);
+        }
+        if (entry.compressedSize >= ZIP64_LIMIT) {
+          putLong(entry.compressedSize);
+        }
+        if (entry.offset >= ZIP64_LIMIT) {
+          putLong(entry.offset);
+        }
+      }
+    }
+    long size = written - offset;
+
+    if (entries.size() >= ZIP64_ENTRIES_LIMIT || offset >= ZIP64_LIMIT || size >= ZIP64_LIMIT) {
+      long zip64End = written;
+      putInt(ZIP64_END_SIGNATURE);
+      putLong(44); // size of the remaining record
+      putShort(ZIP64_VERSION);
+      putShort(ZIP64_VERSION);
+      putInt(0); // disk number
+      putInt(0); // disk with central directory
+      putLong(entries.size());
+      putLong(entries.size());
+      putLong(size);
+      putLong(offset);
+
+      putInt(ZIP64_LOCATOR_SIGNATURE);
+      putInt(0); // disk with zip64 end record
+      putLong(zip64End);
+      putInt(1); // number of disks
+    }
+
+    putInt(END_SIGNATURE);
+    putShort(0); // disk number
+    putShort(0); // disk with central directory
+    putShort(Math.min(entries.size(), ZIP64_ENTRIES_LIMIT));
+    putShort(Math.min(entries.size(), ZIP64_ENTRIES_LIMIT));
+    putInt(Math.min(size, ZIP64_LIMIT));
+    putInt(Math.min(offset, ZIP64_LIMIT));
+    putShort(0); // comment length
+  }
+
+  private void putShort(int value) throws IOException {
+    ensureRemaining(2);
+    buffer.putShort((short) value);
+    written += 2;
+  }
+
+  private void putInt(long value) throws IOException {
+    ensureRemaining(4);
+    buffer.putInt((int) value);
+    written += 4;
+  }
+
+  private void putLong(long value) throws IOException {
+    ensureRemaining(8);
+    buffer.putLong(value);
+    written += 8;
+  }
+
+  private void put(byte[] bytes, int offset, int length) throws IOException {
+    if (length > buffer.capacity()) {
+      flush();
+      write(ByteBuffer.wrap(bytes, offset, length));
+      return;
+    }
+    ensureRemaining(length);
+    buffer.put(bytes, offset, length);
+    written += length;
+  }
+
+  /** Writes the bytes to the output directly, bypassing the buffer. */
+  private void write(ByteBuffer bytes) throws IOException {
+    int length = bytes.remaining();
+    while (bytes.hasRemaining()) {
+      channel.write(bytes);
+    }
+    written += length;
+  }
+
+  private void ensureRemaining(int length) throws IOException {
+    if (buffer.remaining() < length) {
+      flush();
+    }
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /** Converts time to MS-DOS format, times before 1980 are stored as the start of 1980. */
+  @VisibleForTesting
+  static long toDosTime(long time) {
+    LocalDateTime date =
+        LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+    if (date.getYear() < 1980) {
+      return (1 << 21) | (1 << 16);
+    }
+    return (long) (date.getYear() - 1980) << 25
+        | date.getMonthValue() << 21
+        | date.getDayOfMonth() << 16
+        | date.getHour() << 11
+        | date.getMinute() << 5
+        | date.getSecond() >> 1;
+  }
+
+  /** Archive entry, its fields are set by a worker before it is handed over to the writer. */
+  private static final class Entry {
+    final byte[] name;
+    final long dosTime;
+    final VirtualFile file;
+
+    int method = STORED;
+    int flags = UTF8_FLAG;
+    long crc;
+    long size;
+    long compressedSize;
+    long offset;
+    byte[] deflated;
+
+    Entry(String name, long time, VirtualFile file) {
+      this.name = name.getBytes(UTF_8);
+      this.dosTime = toDosTime(time);
+      this.file = file;
+    }
+
+    boolean streamed() {
+      return (flags & DATA_DESCRIPTOR_FLAG) != 0;
+    }
+  }
+
+  /** Entry which is being prepared and the number of bytes it holds in memory once prepared. */
+  private static final class PendingEntry {
+    final Future<Entry> future;
+    final long bytes;
+
+    PendingEntry(Future<Entry> future, long bytes) {
+      this.future = future;
+      this.bytes = bytes;
+    }
+  }
+
+  /** Workers shared by all the archivers, there is no point in having more than processors. */
+  private static final class SharedExecutor {
+    static final int THREADS = Runtime.getRuntime().availableProcessors();
+    static final ExecutorService INSTANCE =
+        Executors.newFixedThreadPool(
+            THREADS,
+            new ThreadFactoryBuilder()
+                .setNameFormat("ZipArchiver-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
+  }
+}
@@ -10,13 +10,11 @@
  */
 package org.eclipse.che.api.vfs;
 
-import com.google.common.io.ByteStreams;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
@@ -36,14 +34,14 @@ public class ZipArchiver extends Archiver {
   @Override
   public void compress(OutputStream zipOutput, VirtualFileFilter filter)
       throws IOException, ServerException {
-    try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipOutput)) {
+    try (ParallelZipWriter zipWriter = new ParallelZipWriter(zipOutput)) {
       folder.accept(
           new VirtualFileVisitor() {
             @Override
             public void visit(VirtualFile visitedVirtualFile) throws ServerException {
               if (filter.accept(visitedVirtualFile)) {
                 if (!visitedVirtualFile.equals(folder)) {
-                  addZipEntry(visitedVirtualFile, zipOutputStream);
+                  addZipEntry(visitedVirtualFile, zipWriter);
                 }
                 if (visitedVirtualFile.isFolder()) {
                   for (VirtualFile child : visitedVirtualFile.getChildren()) {
@@ -53,6 +51,7 @@ public class ZipArchiver extends Archiver {
               }
             }
           });
+      zipWriter.finish();
     }
   }
 
@@ -64,22 +63,15 @@ public class ZipArchiver extends Archiver {
     return zipPath.toString();
   }
 
-  private void addZipEntry(VirtualFile virtualFile, ZipOutputStream zipOutputStream)
+  private void addZipEntry(VirtualFile virtualFile, ParallelZipWriter zipWriter)
       throws ServerException {
     try {
-      ZipEntry zipEntry = new ZipEntry(getZipEntryName(virtualFile));
-      zipOutputStream.putNextEntry(zipEntry);
       if (virtualFile.isFolder()) {
-        zipEntry.setTime(0);
+        zipWriter.putFolder(getZipEntryName(virtualFile), 0);
       } else {
-        try (InputStream content = virtualFile.getContent()) {
-          ByteStreams.copy(content, zipOutputStream);
-        }
-        zipEntry.setTime(virtualFile.getLastModificationDate());
+        zipWriter.putFile(
+            getZipEntryName(virtualFile), virtualFile.getLastModificationDate(), virtualFile);
       }
-      zipOutputStream.closeEntry();
-    } catch (ForbiddenException e) {
-      throw new ServerException(e.getServiceError());
     } catch (IOException e) {
       throw new ServerException(e.getMessage(), e);
     }
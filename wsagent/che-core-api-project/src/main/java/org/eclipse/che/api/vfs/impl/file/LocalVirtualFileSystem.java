@@ -21,6 +21,7 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.eclipse.che.api.vfs.VirtualFileFilters.dotGitFilter;
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -41,7 +42,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.StandardCopyOption;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -82,6 +83,13 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
   private static final long WAIT_FOR_FILE_LOCK_TIMEOUT = 60000; // 60 seconds
   private static final int FILE_LOCK_MAX_THREADS = 1024;
+  /** Max total number of children names kept in folder listings cache. */
+  private static final long CHILDREN_CACHE_MAX_NAMES = 200_000;
+  /**
+   * Folder listing read within this interval after folder modification is not trusted, the next
+   * modification may not change modification time of folder because of its granularity.
+   */
+  private static final long CHILDREN_LISTING_RACY_INTERVAL_MS = 2_000;
 
   private static final String VFS_SERVICE_DIR = ".vfs";
   private static final String FILE_LOCKS_DIR = VFS_SERVICE_DIR + File.separatorChar + "locks";
@@ -141,6 +149,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
   private final FileMetadataSerializer metadataSerializer;
   private final LoadingCache<Path, Map<String, String>> metadataCache;
 
+  private final Cache<Path, ChildrenListing> childrenCache;
+
   @SuppressWarnings("unchecked")
   public LocalVirtualFileSystem(
       File ioRoot,
@@ -170,6 +180,14 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             .maximumSize(256)
             .expireAfterAccess(10, MINUTES)
             .build(new FilePropertiesCacheLoader());
+
+    childrenCache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(8)
+            .maximumWeight(CHILDREN_CACHE_MAX_NAMES)
+            .<Path, ChildrenListing>weigher((path, listing) -> listing.names.length + 1)
+            .expireAfterAccess(10, MINUTES)
+            .build();
   }
 
   @Override
@@ -216,6 +234,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
   private void cleanUpCaches() {
     lockTokensCache.invalidateAll();
     metadataCache.invalidateAll();
+    childrenCache.invalidateAll();
   }
 
   /**
@@ -253,34 +272,31 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     return newArrayList(path.elements()).contains(".vfs");
   }
 
-  synchronized List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter)
+  List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter)
       throws ServerException {
     if (parent.isFolder()) {
-      final List<VirtualFile> children = doGetChildren(parent, DOT_VFS_DIR_FILTER, filter);
-      Collections.sort(children);
-      return children;
+      return doGetChildren(parent, filter);
     }
     return emptyList();
   }
 
-  private List<VirtualFile> doGetChildren(
-      LocalVirtualFile parent, FilenameFilter ioFileFilter, VirtualFileFilter vfsFilter)
-      throws ServerException {
-    if (ioFileFilter == null) {
-      ioFileFilter = IoUtil.ANY_FILTER;
-    }
-
-    final String[] names = parent.toIoFile().list(ioFileFilter);
-    if (names == null) {
-      throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()));
-    }
+  /**
+   * Drops cached listing of the folder. Cached listings are validated against folder modification
+   * time anyway, this method is used to drop listing as soon as file watcher reports changes.
+   */
+  void invalidateChildren(Path folderPath) {
+    childrenCache.invalidate(folderPath);
+  }
 
+  private List<VirtualFile> doGetChildren(LocalVirtualFile parent, VirtualFileFilter vfsFilter)
+      throws ServerException {
     if (vfsFilter == null) {
       vfsFilter = VirtualFileFilter.ACCEPT_ALL;
     }
 
-    final List<VirtualFile> children = newArrayListWithCapacity(names.length);
-    for (String name : names) {
+    final ChildrenListing listing = getChildrenListing(parent);
+    final List<VirtualFile> children = newArrayListWithCapacity(listing.names.length);
+    for (String name : listing.names) {
       final Path childPath = parent.getPath().newPath(name);
       final LocalVirtualFile child =
           new LocalVirtualFile(new File(ioRoot, toIoPath(childPath)), childPath, this);
@@ -292,6 +308,83 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     return children;
   }
 
+  /**
+   * Gets names of folder children sorted in order defined by {@link LocalVirtualFile#compareTo}.
+   * Listing is taken from cache if folder is not modified since listing was read, otherwise folder
+   * is listed again. Listing which is read too close to the folder modification time is not
+   * trusted because the next modification may keep the same modification time, such listing is
+   * read again on the next call. No locks are taken, concurrent calls for the same folder may read
+   * it simultaneously, the last read listing is cached.
+   */
+  private ChildrenListing getChildrenListing(LocalVirtualFile parent) throws ServerException {
+    final File ioFolder = parent.toIoFile();
+    final long lastModified = getLastModified(ioFolder);
+
+    ChildrenListing listing = childrenCache.getIfPresent(parent.getPath());
+    if (listing != null && listing.isValid(lastModified)) {
+      return listing;
+    }
+
+    final long listedAt = System.currentTimeMillis();
+    final String[] names = ioFolder.list(DOT_VFS_DIR_FILTER);
+    if (names == null) {
+      childrenCache.invalidate(parent.getPath());
+      throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()));
+    }
+
+    final boolean[] folders = new boolean[names.length];
+    for (int i = 0; i < names.length; i++) {
+      folders[i] = new File(ioFolder, names[i]).isDirectory();
+    }
+    listing = new ChildrenListing(sortChildren(names, folders), lastModified, listedAt);
+    childrenCache.put(parent.getPath(), listing);
+    return listing;
+  }
+
+  private static String[] sortChildren(String[] names, boolean[] folders) {
+    final Integer[] order = new Integer[names.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    // folders first, then files, both sorted by name
+    Arrays.sort(
+        order,
+        (a, b) ->
+            folders[a] == folders[b] ? names[a].compareTo(names[b]) : (folders[a] ? -1 : 1));
+
+    final String[] sorted = new String[names.length];
+    for (int i = 0; i < order.length; i++) {
+      sorted[i] = names[order[i]];
+    }
+    return sorted;
+  }
+
+  private static long getLastModified(File ioFile) throws ServerException {
+    try {
+      return java.nio.file.Files.getLastModifiedTime(ioFile.toPath()).toMillis();
+    } catch (IOException e) {
+      throw new ServerException(e.getMessage(), e);
+    }
+  }
+
+  /** Sorted names of folder children along with modification time of folder. */
+  private static class ChildrenListing {
+    final String[] names;
+    final long lastModified;
+    final long listedAt;
+
+    ChildrenListing(String[] names, long lastModified, long listedAt) {
+      this.names = names;
+      this.lastModified = lastModified;
+      this.listedAt = listedAt;
+    }
+
+    boolean isValid(long actualLastModified) {
+      return lastModified == actualLastModified
+          && listedAt - lastModified > CHILDREN_LISTING_RACY_INTERVAL_MS;
+    }
+  }
+
   LocalVirtualFile createFile(LocalVirtualFile parent, String name, InputStream content)
       throws ForbiddenException, ConflictException, ServerException {
     checkName(name);
@@ -10,36 +10,81 @@
  */
 package org.eclipse.che.api.vfs.impl.file;
 
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.WatchEvent.Kind;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.eclipse.che.api.vfs.watcher.FileWatcherService;
 
 @Singleton
 public class LocalVirtualFileSystemProvider extends AbstractVirtualFileSystemProvider {
   private final File rootDirectory;
   private final SearcherProvider searcherProvider;
+  private final FileWatcherService fileWatcherService;
 
+  public LocalVirtualFileSystemProvider(File rootDirectory, SearcherProvider searcherProvider)
+      throws IOException {
+    this(rootDirectory, searcherProvider, null);
+  }
+
+  /**
+   * @param rootDirectory root directory of virtual file system
+   * @param searcherProvider provider of searcher for created file system
+   * @param fileWatcherService file watcher that reports changes of folders, so that cached folder
+   *     listings are dropped as soon as folder is changed, may be {@code null}
+   */
   @Inject
   public LocalVirtualFileSystemProvider(
-      @Named("che.user.workspaces.storage") File rootDirectory, SearcherProvider searcherProvider)
+      @Named("che.user.workspaces.storage") File rootDirectory,
+      SearcherProvider searcherProvider,
+      FileWatcherService fileWatcherService)
       throws IOException {
     this.rootDirectory = rootDirectory;
     this.searcherProvider = searcherProvider;
+    this.fileWatcherService = fileWatcherService;
     Files.createDirectories(rootDirectory.toPath());
   }
 
   @Override
   protected VirtualFileSystem createVirtualFileSystem(CloseCallback closeCallback)
       throws ServerException {
-    return new LocalVirtualFileSystem(
-        rootDirectory, new ArchiverFactory(), searcherProvider, closeCallback);
+    if (fileWatcherService == null) {
+      return new LocalVirtualFileSystem(
+          rootDirectory, new ArchiverFactory(), searcherProvider, closeCallback);
+    }
+
+    final java.nio.file.Path ioRoot = rootDirectory.toPath().toAbsolutePath();
+    final AtomicReference<LocalVirtualFileSystem> fileSystem = new AtomicReference<>();
+    final BiConsumer<java.nio.file.Path, Kind<?>> listener =
+        (path, kind) -> {
+          java.nio.file.Path folder = kind == OVERFLOW ? path : path.getParent();
+          if (folder != null && folder.startsWith(ioRoot) && fileSystem.get() != null) {
+            fileSystem.get().invalidateChildren(Path.of("/" + ioRoot.relativize(folder)));
+          }
+        };
+    fileSystem.set(
+        new LocalVirtualFileSystem(
+            rootDirectory,
+            new ArchiverFactory(),
+            searcherProvider,
+            () -> {
+              fileWatcherService.removeListener(listener);
+              closeCallback.onClose();
+            }));
+    fileWatcherService.addListener(listener);
+    return fileSystem.get();
   }
 }
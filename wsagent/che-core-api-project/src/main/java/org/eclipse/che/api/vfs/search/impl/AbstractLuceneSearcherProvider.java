@@ -27,8 +27,12 @@ import org.eclipse.che.api.vfs.search.MediaTypeFilter;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public abstract class AbstractLuceneSearcherProvider implements SearcherProvider {
+  private static final Logger LOG = LoggerFactory.getLogger(AbstractLuceneSearcherProvider.class);
+
   protected final VirtualFileFilter excludeFileIndexFilters;
   protected final AtomicReference<Searcher> searcherReference = new AtomicReference<>();
   private final ExecutorService executor;
@@ -63,6 +67,7 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
     Searcher cachedSearcher = searcherReference.get();
     if (cachedSearcher == null && create) {
       LuceneSearcher searcher = createLuceneSearcher(() -> searcherReference.set(null));
+      searcher.addIndexingListener(new LoggingIndexingListener());
       if (searcherReference.compareAndSet(null, searcher)) {
         searcher.initAsynchronously(executor, virtualFileSystem);
       }
@@ -95,4 +100,31 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
   public interface CloseCallback {
     void onClose();
   }
+
+  /**
+   * Logs indexing of file trees. Small trees are indexed whenever folders are created or copied,
+   * so only indexing of large trees, e.g. imported projects, is logged at info level.
+   */
+  private static class LoggingIndexingListener implements LuceneSearcher.IndexingListener {
+    private static final int LARGE_TREE_SIZE = 1000;
+
+    @Override
+    public void onStarted(String treePath) {
+      LOG.debug("Indexing of {} is started", treePath);
+    }
+
+    @Override
+    public void onProgress(String treePath, int indexedFiles) {
+      LOG.debug("Indexed {} files from {}", indexedFiles, treePath);
+    }
+
+    @Override
+    public void onFinished(String treePath, int indexedFiles, long elapsedTimeMillis) {
+      if (indexedFiles >= LARGE_TREE_SIZE) {
+        LOG.info("Indexed {} files from {} in {} ms", indexedFiles, treePath, elapsedTimeMillis);
+      } else {
+        LOG.debug("Indexed {} files from {} in {} ms", indexedFiles, treePath, elapsedTimeMillis);
+      }
+    }
+  }
 }
@@ -41,7 +41,15 @@ public class FSLuceneSearcher extends LuceneSearcher {
       File indexDirectory,
       VirtualFileFilter filter,
       AbstractLuceneSearcherProvider.CloseCallback closeCallback) {
-    super(filter, closeCallback);
+    this(indexDirectory, filter, closeCallback, 1);
+  }
+
+  FSLuceneSearcher(
+      File indexDirectory,
+      VirtualFileFilter filter,
+      AbstractLuceneSearcherProvider.CloseCallback closeCallback,
+      int bulkIndexingParallelism) {
+    super(filter, closeCallback, bulkIndexingParallelism);
     this.indexDirectory = indexDirectory;
   }
 
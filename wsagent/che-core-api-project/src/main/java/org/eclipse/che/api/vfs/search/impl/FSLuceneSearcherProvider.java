@@ -26,24 +26,39 @@ import org.eclipse.che.api.vfs.VirtualFileFilters;
 @Singleton
 public class FSLuceneSearcherProvider extends AbstractLuceneSearcherProvider {
   private final File indexRootDirectory;
+  private final int bulkIndexingParallelism;
 
   /**
    * @param indexRootDirectory root directory for creation index
    * @param excludePatterns set filter for files that should not be indexed
    * @see LuceneSearcher
    */
+  public FSLuceneSearcherProvider(File indexRootDirectory, Set<PathMatcher> excludePatterns)
+      throws IOException {
+    this(indexRootDirectory, excludePatterns, 1);
+  }
+
+  /**
+   * @param indexRootDirectory root directory for creation index
+   * @param excludePatterns set filter for files that should not be indexed
+   * @param bulkIndexingParallelism number of threads used for indexing of whole trees
+   * @see LuceneSearcher
+   */
   @Inject
   public FSLuceneSearcherProvider(
       @Named("vfs.local.fs_index_root_dir") File indexRootDirectory,
-      @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns)
+      @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
+      @Named("vfs.local.bulk_indexing_parallelism") int bulkIndexingParallelism)
       throws IOException {
     super(newHashSet(transform(excludePatterns, VirtualFileFilters::wrap)));
     this.indexRootDirectory = indexRootDirectory;
+    this.bulkIndexingParallelism = bulkIndexingParallelism;
     Files.createDirectories(indexRootDirectory.toPath());
   }
 
   @Override
   protected LuceneSearcher createLuceneSearcher(CloseCallback closeCallback) {
-    return new FSLuceneSearcher(indexRootDirectory, excludeFileIndexFilters, closeCallback);
+    return new FSLuceneSearcher(
+        indexRootDirectory, excludeFileIndexFilters, closeCallback, bulkIndexingParallelism);
   }
 }
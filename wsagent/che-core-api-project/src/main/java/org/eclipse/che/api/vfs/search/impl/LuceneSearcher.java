@@ -11,50 +11,79 @@
 package org.eclipse.che.api.vfs.search.impl;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singleton;
+import static java.util.Comparator.comparingInt;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
-import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
-import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MultiTermQuery;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.search.highlight.QueryScorer;
-import org.apache.lucene.search.highlight.TokenSources;
+import org.apache.lucene.search.highlight.TermVectorLeafReader;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
@@ -64,9 +93,7 @@ import org.eclipse.che.api.vfs.search.QueryExpression;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IRegion;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,12 +108,37 @@ public abstract class LuceneSearcher implements Searcher {
   private static final String PATH_FIELD = "path";
   private static final String NAME_FIELD = "name";
   private static final String TEXT_FIELD = "text";
+  private static final String LINE_OFFSETS_FIELD = "lineOffsets";
+  private static final Set<String> PATH_FIELD_TO_LOAD = singleton(PATH_FIELD);
+  private static final Set<String> POSITIONS_FIELDS_TO_LOAD =
+      ImmutableSet.of(PATH_FIELD, LINE_OFFSETS_FIELD);
+  /** Matched tokens that start beyond this offset are not reported. */
+  private static final int MAX_ANALYZED_CHARS = 1_000_000;
+  /**
+   * Text is not stored in index. It is indexed with term vectors that keep offsets of tokens, so
+   * matches are found without analyzing text again and only matched lines are read from file.
+   */
+  private static final FieldType TEXT_FIELD_TYPE = new FieldType(TextField.TYPE_NOT_STORED);
+
+  static {
+    TEXT_FIELD_TYPE.setStoreTermVectors(true);
+    TEXT_FIELD_TYPE.setStoreTermVectorOffsets(true);
+    TEXT_FIELD_TYPE.freeze();
+  }
+  /** Files larger than this are indexed by name and path only. */
+  private static final long MAX_INDEXED_CONTENT_LENGTH = 10 * 1024 * 1024;
+  /** Number of files indexed by single task of bulk indexing pipeline. */
+  private static final int BULK_INDEXING_BATCH_SIZE = 256;
 
   private final List<VirtualFileFilter> excludeFileIndexFilters;
   private final AbstractLuceneSearcherProvider.CloseCallback closeCallback;
+  private final int bulkIndexingParallelism;
+  private final ThreadPoolExecutor bulkIndexingExecutor;
+  private final List<IndexingListener> indexingListeners = new CopyOnWriteArrayList<>();
 
   private IndexWriter luceneIndexWriter;
   private SearcherManager searcherManager;
+  private volatile VirtualFileSystem virtualFileSystem;
 
   private boolean closed = true;
 
@@ -106,11 +158,53 @@ public abstract class LuceneSearcher implements Searcher {
   protected LuceneSearcher(
       VirtualFileFilter excludeFileIndexFilter,
       AbstractLuceneSearcherProvider.CloseCallback closeCallback) {
+    this(excludeFileIndexFilter, closeCallback, 1);
+  }
+
+  /**
+   * @param excludeFileIndexFilter common filter for files that should not be indexed
+   * @param closeCallback callback that is called when searcher is closed
+   * @param bulkIndexingParallelism number of threads that index files when whole tree is added to
+   *     index. If it is not greater than one tree is indexed in the caller thread
+   */
+  protected LuceneSearcher(
+      VirtualFileFilter excludeFileIndexFilter,
+      AbstractLuceneSearcherProvider.CloseCallback closeCallback,
+      int bulkIndexingParallelism) {
     this.closeCallback = closeCallback;
+    this.bulkIndexingParallelism = bulkIndexingParallelism;
+    if (bulkIndexingParallelism > 1) {
+      // Threads are started on demand and finish when indexing is done
+      bulkIndexingExecutor =
+          new ThreadPoolExecutor(
+              bulkIndexingParallelism,
+              bulkIndexingParallelism,
+              60L,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                  .setNameFormat("LuceneBulkIndexer-%d")
+                  .build());
+      bulkIndexingExecutor.allowCoreThreadTimeOut(true);
+    } else {
+      bulkIndexingExecutor = null;
+    }
     excludeFileIndexFilters = new CopyOnWriteArrayList<>();
     excludeFileIndexFilters.add(excludeFileIndexFilter);
   }
 
+  /** Adds listener that is notified about progress of indexing of file trees. */
+  public void addIndexingListener(IndexingListener listener) {
+    indexingListeners.add(listener);
+  }
+
+  /** Removes listener previously added by {@link #addIndexingListener(IndexingListener)}. */
+  public void removeIndexingListener(IndexingListener listener) {
+    indexingListeners.remove(listener);
+  }
+
   @Override
   public boolean addIndexFilter(VirtualFileFilter indexFilter) {
     return excludeFileIndexFilters.add(indexFilter);
@@ -142,12 +236,14 @@ public abstract class LuceneSearcher implements Searcher {
    * @throws ServerException if any virtual filesystem error occurs
    */
   public void init(VirtualFileSystem virtualFileSystem) throws ServerException {
+    this.virtualFileSystem = virtualFileSystem;
     doInit();
     addTree(virtualFileSystem.getRoot());
   }
 
   public void initAsynchronously(ExecutorService executor, VirtualFileSystem virtualFileSystem)
       throws ServerException {
+    this.virtualFileSystem = virtualFileSystem;
     doInit();
     if (!executor.isShutdown()) {
       executor.execute(
@@ -173,6 +269,10 @@ public abstract class LuceneSearcher implements Searcher {
 
   public final synchronized void close() {
     if (!closed) {
+      if (bulkIndexingExecutor != null) {
+        // Running batches are not interrupted, interrupt closes channels of index files
+        bulkIndexingExecutor.shutdown();
+      }
       try {
         IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
         afterClose();
@@ -207,6 +307,10 @@ public abstract class LuceneSearcher implements Searcher {
       luceneSearcher = searcherManager.acquire();
 
       Query luceneQuery = createLuceneQuery(query);
+      Query highlightQuery =
+          query.isIncludePositions() && query.getText() != null
+              ? createHighlightQuery(query.getText())
+              : null;
 
       ScoreDoc after = null;
       final int numSkipDocs = Math.max(0, query.getSkipCount());
@@ -224,70 +328,11 @@ public abstract class LuceneSearcher implements Searcher {
       for (int i = 0; i < topDocs.scoreDocs.length; i++) {
         ScoreDoc scoreDoc = topDocs.scoreDocs[i];
         int docId = scoreDoc.doc;
-        Document doc = luceneSearcher.doc(docId);
-        if (query.isIncludePositions()) {
-          offsetData = new ArrayList<>();
-          String txt = doc.get(TEXT_FIELD);
-          if (txt != null) {
-            IndexReader reader = luceneSearcher.getIndexReader();
-
-            TokenStream tokenStream =
-                TokenSources.getTokenStream(
-                    TEXT_FIELD,
-                    reader.getTermVectors(docId),
-                    txt,
-                    luceneIndexWriter.getAnalyzer(),
-                    -1);
-
-            CharTermAttribute termAtt = tokenStream.addAttribute(CharTermAttribute.class);
-            OffsetAttribute offsetAtt = tokenStream.addAttribute(OffsetAttribute.class);
-
-            QueryScorer queryScorer = new QueryScorer(luceneQuery);
-            // TODO think about this constant
-            queryScorer.setMaxDocCharsToAnalyze(1_000_000);
-            TokenStream newStream = queryScorer.init(tokenStream);
-            if (newStream != null) {
-              tokenStream = newStream;
-            }
-            queryScorer.startFragment(null);
-
-            tokenStream.reset();
-
-            int startOffset, endOffset;
-            // TODO think about this constant
-            for (boolean next = tokenStream.incrementToken();
-                next && (offsetAtt.startOffset() < 1_000_000);
-                next = tokenStream.incrementToken()) {
-              startOffset = offsetAtt.startOffset();
-              endOffset = offsetAtt.endOffset();
-
-              if ((endOffset > txt.length()) || (startOffset > txt.length())) {
-                throw new ServerException(
-                    "Token "
-                        + termAtt.toString()
-                        + " exceeds length of provided text size "
-                        + txt.length());
-              }
-
-              float res = queryScorer.getTokenScore();
-              if (res > 0.0F && startOffset <= endOffset) {
-                try {
-                  IDocument document = new org.eclipse.jface.text.Document(txt);
-                  int lineNum = document.getLineOfOffset(startOffset);
-                  IRegion lineInfo = document.getLineInformation(lineNum);
-                  String foundLine = document.get(lineInfo.getOffset(), lineInfo.getLength());
-                  String tokenText = document.get(startOffset, endOffset - startOffset);
-
-                  offsetData.add(
-                      new OffsetData(
-                          tokenText, startOffset, endOffset, docId, res, lineNum, foundLine));
-                } catch (BadLocationException e) {
-                  LOG.error(e.getLocalizedMessage(), e);
-                  throw new ServerException("Can not provide data for token " + termAtt.toString());
-                }
-              }
-            }
-          }
+        Document doc =
+            luceneSearcher.doc(
+                docId, query.isIncludePositions() ? POSITIONS_FIELDS_TO_LOAD : PATH_FIELD_TO_LOAD);
+        if (highlightQuery != null) {
+          offsetData = findOffsets(luceneSearcher.getIndexReader(), highlightQuery, docId, doc);
         }
         String filePath = doc.getField(PATH_FIELD).stringValue();
         results.add(new SearchResultEntry(filePath, offsetData));
@@ -319,6 +364,173 @@ public abstract class LuceneSearcher implements Searcher {
     }
   }
 
+  /**
+   * Finds offsets of matched tokens in the document. Tokens are taken from term vectors stored in
+   * index and lines are resolved with the line offsets index stored along with the document, so
+   * document text is neither stored nor analyzed again. Only lines that contain matched tokens are
+   * read from the file.
+   */
+  private List<OffsetData> findOffsets(
+      IndexReader reader, Query highlightQuery, int docId, Document doc)
+      throws IOException, ServerException {
+    final Terms termVector = reader.getTermVector(docId, TEXT_FIELD);
+    final BytesRef lineOffsetsRef = doc.getBinaryValue(LINE_OFFSETS_FIELD);
+    final VirtualFileSystem vfs = virtualFileSystem;
+    // Documents indexed without offsets are re-indexed when searcher is initialized
+    if (termVector == null || !termVector.hasOffsets() || lineOffsetsRef == null || vfs == null) {
+      return Collections.emptyList();
+    }
+
+    final LeafReader termVectorReader = new TermVectorLeafReader(TEXT_FIELD, termVector);
+    final IndexSearcher termVectorSearcher = new IndexSearcher(termVectorReader);
+    termVectorSearcher.setQueryCache(null);
+    final Set<Term> terms = new HashSet<>();
+    termVectorSearcher.createNormalizedWeight(highlightQuery, false).extractTerms(terms);
+
+    final List<int[]> matches = new ArrayList<>();
+    for (Term term : terms) {
+      PostingsEnum postings = termVectorReader.postings(term, PostingsEnum.OFFSETS);
+      if (postings != null && postings.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+        for (int i = postings.freq(); i > 0; i--) {
+          postings.nextPosition();
+          int startOffset = postings.startOffset();
+          int endOffset = postings.endOffset();
+          if (startOffset >= 0 && startOffset <= endOffset && startOffset < MAX_ANALYZED_CHARS) {
+            matches.add(new int[] {startOffset, endOffset});
+          }
+        }
+      }
+    }
+    if (matches.isEmpty()) {
+      return Collections.emptyList();
+    }
+    matches.sort(comparingInt(match -> match[0]));
+
+    final VirtualFile file = vfs.getRoot().getChild(Path.of(doc.get(PATH_FIELD)));
+    if (file == null || !file.isFile()) {
+      return Collections.emptyList();
+    }
+    final int[] lineOffsets = decodeLineOffsets(lineOffsetsRef);
+    final SortedSet<Integer> lineNums = new TreeSet<>();
+    for (int[] match : matches) {
+      lineNums.add(findLine(lineOffsets, match[0]));
+    }
+    final Map<Integer, String> lines = readLines(file, lineOffsets, lineNums);
+
+    final List<OffsetData> offsetData = new ArrayList<>(matches.size());
+    for (int[] match : matches) {
+      int lineNum = findLine(lineOffsets, match[0]);
+      String line = lines.get(lineNum);
+      int start = match[0] - lineOffsets[lineNum];
+      int end = match[1] - lineOffsets[lineNum];
+      // file might be changed after it was indexed
+      if (line != null && end <= line.length()) {
+        offsetData.add(
+            new OffsetData(
+                line.substring(start, end), match[0], match[1], docId, 1.0F, lineNum, line));
+      }
+    }
+    return offsetData;
+  }
+
+  /**
+   * Query that matches the same text as the text part of search query but expands wildcard, prefix
+   * and other multi-term queries into the terms they match, so matched terms can be extracted.
+   */
+  private Query createHighlightQuery(String text) throws ParseException {
+    QueryParser qParser = new QueryParser(TEXT_FIELD, makeAnalyzer());
+    qParser.setAllowLeadingWildcard(true);
+    qParser.setMultiTermRewriteMethod(
+        new MultiTermQuery.TopTermsScoringBooleanQueryRewrite(BooleanQuery.getMaxClauseCount()));
+    return qParser.parse(text);
+  }
+
+  /**
+   * Reads lines with specified numbers from file, content that precedes the lines is skipped and
+   * content that follows the last of them is not read.
+   */
+  private static Map<Integer, String> readLines(
+      VirtualFile file, int[] lineOffsets, SortedSet<Integer> lineNums)
+      throws IOException, ServerException {
+    final Map<Integer, String> lines = new HashMap<>();
+    try (Reader reader = new BufferedReader(new InputStreamReader(file.getContent(), UTF_8))) {
+      long position = 0;
+      for (int lineNum : lineNums) {
+        long toSkip = lineOffsets[lineNum] - position;
+        while (toSkip > 0) {
+          long skipped = reader.skip(toSkip);
+          if (skipped <= 0) {
+            return lines;
+          }
+          toSkip -= skipped;
+          position += skipped;
+        }
+        final long lineEnd =
+            lineNum + 1 < lineOffsets.length ? lineOffsets[lineNum + 1] : Long.MAX_VALUE;
+        final StringBuilder line = new StringBuilder();
+        for (int c; position < lineEnd && (c = reader.read()) != -1; ) {
+          position++;
+          if (c == '\n' || c == '\r') {
+            break;
+          }
+          line.append((char) c);
+        }
+        lines.put(lineNum, line.toString());
+      }
+    } catch (ForbiddenException e) {
+      throw new ServerException(e.getServiceError());
+    }
+    return lines;
+  }
+
+  /** Returns offsets of the first characters of lines, lines are delimited by CR, LF or CRLF. */
+  static int[] computeLineOffsets(String text) {
+    int[] offsets = new int[16];
+    int lines = 1;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+        i++;
+      }
+      if (c == '\r' || c == '\n') {
+        if (lines == offsets.length) {
+          offsets = Arrays.copyOf(offsets, lines * 2);
+        }
+        offsets[lines++] = i + 1;
+      }
+    }
+    return Arrays.copyOf(offsets, lines);
+  }
+
+  /** Returns number of the line that contains the offset, line numbers start from zero. */
+  static int findLine(int[] lineOffsets, int offset) {
+    int index = Arrays.binarySearch(lineOffsets, offset);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  private static byte[] encodeLineOffsets(int[] lineOffsets) throws IOException {
+    byte[] bytes = new byte[5 * (lineOffsets.length + 1)];
+    ByteArrayDataOutput out = new ByteArrayDataOutput(bytes);
+    out.writeVInt(lineOffsets.length);
+    int previous = 0;
+    for (int offset : lineOffsets) {
+      out.writeVInt(offset - previous);
+      previous = offset;
+    }
+    return Arrays.copyOf(bytes, out.getPosition());
+  }
+
+  private static int[] decodeLineOffsets(BytesRef bytes) {
+    ByteArrayDataInput in = new ByteArrayDataInput(bytes.bytes, bytes.offset, bytes.length);
+    int[] lineOffsets = new int[in.readVInt()];
+    int previous = 0;
+    for (int i = 0; i < lineOffsets.length; i++) {
+      previous += in.readVInt();
+      lineOffsets[i] = previous;
+    }
+    return lineOffsets;
+  }
+
   private Query createLuceneQuery(QueryExpression query) throws ParseException {
     final BooleanQuery luceneQuery = new BooleanQuery();
     final String name = query.getName();
@@ -385,7 +597,14 @@ public abstract class LuceneSearcher implements Searcher {
   }
 
   protected void addTree(VirtualFile tree) throws ServerException {
+    if (bulkIndexingParallelism > 1) {
+      addTreeInParallel(tree);
+      return;
+    }
+
     final long start = System.currentTimeMillis();
+    final String treePath = tree.getPath().toString();
+    indexingListeners.forEach(it -> it.onStarted(treePath));
     final LinkedList<VirtualFile> q = new LinkedList<>();
     q.add(tree);
     int indexedFiles = 0;
@@ -398,20 +617,142 @@ public abstract class LuceneSearcher implements Searcher {
           } else {
             addFile(child);
             indexedFiles++;
+            if (indexedFiles % BULK_INDEXING_BATCH_SIZE == 0) {
+              notifyProgress(treePath, indexedFiles);
+            }
           }
         }
       }
     }
     final long end = System.currentTimeMillis();
+    notifyFinished(treePath, indexedFiles, end - start);
     LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
   }
 
+  /**
+   * Bulk indexing pipeline. Caller thread walks the tree and splits found files into batches,
+   * batches are read, analyzed and added to the index by a pool of {@link #bulkIndexingParallelism}
+   * threads that is shared by all trees indexed by this searcher, index writer is safe to be used
+   * concurrently. Number of batches waiting for processing is bounded so memory consumption does
+   * not depend on the tree size. Walking stops as soon as any batch fails. Index is committed and
+   * searcher is refreshed once all batches are processed.
+   */
+  private void addTreeInParallel(VirtualFile tree) throws ServerException {
+    final long start = System.currentTimeMillis();
+    final String treePath = tree.getPath().toString();
+    indexingListeners.forEach(it -> it.onStarted(treePath));
+
+    final Semaphore pendingBatches = new Semaphore(bulkIndexingParallelism * 2);
+    final AtomicInteger indexedFiles = new AtomicInteger();
+    final AtomicBoolean failed = new AtomicBoolean();
+    final List<Future<?>> futures = new ArrayList<>();
+    try {
+      final LinkedList<VirtualFile> q = new LinkedList<>();
+      q.add(tree);
+      List<VirtualFile> batch = new ArrayList<>(BULK_INDEXING_BATCH_SIZE);
+      while (!q.isEmpty() && !failed.get()) {
+        final VirtualFile folder = q.pop();
+        if (folder.exists()) {
+          for (VirtualFile child : folder.getChildren()) {
+            if (child.isFolder()) {
+              q.push(child);
+            } else {
+              batch.add(child);
+              if (batch.size() == BULK_INDEXING_BATCH_SIZE) {
+                futures.add(submitBatch(pendingBatches, batch, treePath, indexedFiles, failed));
+                batch = new ArrayList<>(BULK_INDEXING_BATCH_SIZE);
+                if (failed.get()) {
+                  break;
+                }
+              }
+            }
+          }
+        }
+      }
+      if (!batch.isEmpty() && !failed.get()) {
+        futures.add(submitBatch(pendingBatches, batch, treePath, indexedFiles, failed));
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      getIndexWriter().commit();
+      searcherManager.maybeRefresh();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServerException("Indexing of " + treePath + " was interrupted");
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof ServerException) {
+        throw (ServerException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ServerException(cause.getMessage(), cause);
+    } catch (RejectedExecutionException e) {
+      throw new ServerException("Indexing of " + treePath + " is rejected, searcher is closed");
+    } catch (IOException e) {
+      throw new ServerException(e.getMessage(), e);
+    } finally {
+      // Batches that are not started yet are not needed if indexing failed
+      futures.forEach(future -> future.cancel(false));
+    }
+
+    final long end = System.currentTimeMillis();
+    notifyFinished(treePath, indexedFiles.get(), end - start);
+    LOG.debug(
+        "Indexed {} files from {} using {} threads, time: {} ms",
+        indexedFiles.get(),
+        treePath,
+        bulkIndexingParallelism,
+        (end - start));
+  }
+
+  private Future<?> submitBatch(
+      Semaphore pendingBatches,
+      List<VirtualFile> batch,
+      String treePath,
+      AtomicInteger indexedFiles,
+      AtomicBoolean failed)
+      throws InterruptedException {
+    pendingBatches.acquire();
+    try {
+      return bulkIndexingExecutor.submit(
+          () -> {
+            try {
+              for (VirtualFile file : batch) {
+                if (failed.get()) {
+                  return null;
+                }
+                addFile(file);
+              }
+              notifyProgress(treePath, indexedFiles.addAndGet(batch.size()));
+            } catch (Throwable e) {
+              failed.set(true);
+              throw e;
+            } finally {
+              pendingBatches.release();
+            }
+            return null;
+          });
+    } catch (RuntimeException e) {
+      pendingBatches.release();
+      throw e;
+    }
+  }
+
+  private void notifyProgress(String treePath, int indexedFiles) {
+    indexingListeners.forEach(it -> it.onProgress(treePath, indexedFiles));
+  }
+
+  private void notifyFinished(String treePath, int indexedFiles, long elapsedTimeMillis) {
+    indexingListeners.forEach(it -> it.onFinished(treePath, indexedFiles, elapsedTimeMillis));
+  }
+
   protected void addFile(VirtualFile virtualFile) throws ServerException {
     if (virtualFile.exists()) {
-      try (Reader fContentReader =
-          shouldIndexContent(virtualFile)
-              ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-              : null) {
+      try (Reader fContentReader = openContentReader(virtualFile)) {
         getIndexWriter()
             .updateDocument(
                 new Term(PATH_FIELD, virtualFile.getPath().toString()),
@@ -451,10 +792,7 @@ public abstract class LuceneSearcher implements Searcher {
   }
 
   protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
-    try (Reader fContentReader =
-        shouldIndexContent(virtualFile)
-            ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-            : null) {
+    try (Reader fContentReader = openContentReader(virtualFile)) {
       getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, fContentReader));
     } catch (OutOfMemoryError oome) {
       close();
@@ -472,7 +810,9 @@ public abstract class LuceneSearcher implements Searcher {
     doc.add(new TextField(NAME_FIELD, virtualFile.getName(), Field.Store.YES));
     if (reader != null) {
       try {
-        doc.add(new TextField(TEXT_FIELD, CharStreams.toString(reader), Field.Store.YES));
+        String text = CharStreams.toString(reader);
+        doc.add(new Field(TEXT_FIELD, text, TEXT_FIELD_TYPE));
+        doc.add(new StoredField(LINE_OFFSETS_FIELD, encodeLineOffsets(computeLineOffsets(text))));
       } catch (IOException e) {
         throw new ServerException(e.getLocalizedMessage(), e);
       }
@@ -480,6 +820,18 @@ public abstract class LuceneSearcher implements Searcher {
     return doc;
   }
 
+  private Reader openContentReader(VirtualFile virtualFile)
+      throws ForbiddenException, ServerException {
+    if (!shouldIndexContent(virtualFile)) {
+      return null;
+    }
+    if (virtualFile.getLength() > MAX_INDEXED_CONTENT_LENGTH) {
+      LOG.debug("Content of {} is too large and is not indexed", virtualFile.getPath());
+      return null;
+    }
+    return new BufferedReader(new InputStreamReader(virtualFile.getContent(), UTF_8));
+  }
+
   private boolean shouldIndexContent(VirtualFile virtualFile) {
     for (VirtualFileFilter indexFilter : excludeFileIndexFilters) {
       if (indexFilter.accept(virtualFile)) {
@@ -489,6 +841,18 @@ public abstract class LuceneSearcher implements Searcher {
     return true;
   }
 
+  /** Receives progress of indexing of file trees. Methods may be called from different threads. */
+  public interface IndexingListener {
+    /** Called when indexing of tree with specified root path is started. */
+    void onStarted(String treePath);
+
+    /** Called periodically with the number of files that are already indexed. */
+    void onProgress(String treePath, int indexedFiles);
+
+    /** Called when indexing of tree with specified root path is finished. */
+    void onFinished(String treePath, int indexedFiles, long elapsedTimeMillis);
+  }
+
   public static class OffsetData {
 
     public String phrase;
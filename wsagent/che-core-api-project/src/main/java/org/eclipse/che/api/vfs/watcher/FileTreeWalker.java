@@ -10,27 +10,50 @@
  */
 package org.eclipse.che.api.vfs.watcher;
 
+import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
 import static java.nio.file.Files.exists;
 import static java.nio.file.Files.walkFileTree;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.Collections.emptySet;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toSet;
+import static org.eclipse.che.api.vfs.watcher.FileWatcherUtils.isExcluded;
 
 import com.google.inject.Inject;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent.Kind;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,25 +61,87 @@ import org.slf4j.LoggerFactory;
 /**
  * Walks a file system tree, register addition, update and removal of file system items. On events
  * runs corresponding consumers that can be registered in DI configuration modules.
+ *
+ * <p>By default the whole tree is walked on each scheduled run. In incremental mode the walker
+ * registers every directory it knows about in {@link FileWatcherService} and takes its change feed
+ * from there, so only the changed items are examined. Full walks then run only as a safety net
+ * once per configured period or when the file watcher reports an events overflow. Each directory
+ * takes an inotify watch, so the number of registered directories is limited. When the limit is
+ * reached or the file watcher can't register a directory, the walker unregisters its directories
+ * and falls back to full walks on each scheduled run.
+ *
+ * <p>Known items can be persisted to a snapshot file on shutdown (and after each full walk) and
+ * restored on the first run, so that the first walk after a restart reports only the items changed
+ * in between instead of rediscovering the whole tree. Items restored from snapshot are passed to
+ * restore consumers, these are supposed to rebuild in-memory state that does not survive restart.
+ * The snapshot is not restored on construction, so the consumers and path matchers registered by
+ * other components during startup see the restored items.
  */
 @Singleton
 public class FileTreeWalker {
   private static final Logger LOG = LoggerFactory.getLogger(FileTreeWalker.class);
 
+  private static final int SNAPSHOT_VERSION = 1;
+
   private final File root;
 
   private final Set<Consumer<Path>> directoryUpdateConsumers;
   private final Set<Consumer<Path>> directoryCreateConsumers;
   private final Set<Consumer<Path>> directoryDeleteConsumers;
+  private final Set<Consumer<Path>> directoryRestoreConsumers;
   private final Set<PathMatcher> directoryExcludes;
 
   private final Set<Consumer<Path>> fileUpdateConsumers;
   private final Set<Consumer<Path>> fileCreateConsumers;
   private final Set<Consumer<Path>> fileDeleteConsumers;
+  private final Set<Consumer<Path>> fileRestoreConsumers;
   private final Set<PathMatcher> fileExcludes;
 
-  private final Map<Path, Long> files = new HashMap<>();
-  private final Map<Path, Long> directories = new HashMap<>();
+  private final FileWatcherService watcherService;
+  private final int maxWatchedDirectories;
+  private final long fullWalkPeriodMs;
+  private final Path snapshot;
+
+  private final Map<Path, Long> files = new ConcurrentHashMap<>();
+  private final Map<Path, Long> directories = new ConcurrentHashMap<>();
+  private final Set<Path> watchedDirectories = new HashSet<>();
+
+  private final Set<Path> changes = newConcurrentHashSet();
+  private final AtomicBoolean fullWalkRequested = new AtomicBoolean();
+  private final BiConsumer<Path, Kind<?>> changesListener = this::onChange;
+
+  private volatile boolean incremental;
+  private boolean initialized;
+  private long lastFullWalk;
+
+  public FileTreeWalker(
+      File root,
+      Set<Consumer<Path>> directoryUpdateConsumers,
+      Set<Consumer<Path>> directoryCreateConsumers,
+      Set<Consumer<Path>> directoryDeleteConsumers,
+      Set<PathMatcher> directoryExcludes,
+      Set<Consumer<Path>> fileUpdateConsumers,
+      Set<Consumer<Path>> fileCreateConsumers,
+      Set<Consumer<Path>> fileDeleteConsumers,
+      Set<PathMatcher> fileExcludes) {
+    this(
+        root,
+        directoryUpdateConsumers,
+        directoryCreateConsumers,
+        directoryDeleteConsumers,
+        emptySet(),
+        directoryExcludes,
+        fileUpdateConsumers,
+        fileCreateConsumers,
+        fileDeleteConsumers,
+        emptySet(),
+        fileExcludes,
+        null,
+        false,
+        0,
+        0,
+        null);
+  }
 
   @Inject
   public FileTreeWalker(
@@ -64,72 +149,125 @@ public class FileTreeWalker {
       @Named("che.fs.directory.update") Set<Consumer<Path>> directoryUpdateConsumers,
       @Named("che.fs.directory.create") Set<Consumer<Path>> directoryCreateConsumers,
       @Named("che.fs.directory.delete") Set<Consumer<Path>> directoryDeleteConsumers,
+      @Named("che.fs.directory.restore") Set<Consumer<Path>> directoryRestoreConsumers,
       @Named("che.fs.directory.excludes") Set<PathMatcher> directoryExcludes,
       @Named("che.fs.file.update") Set<Consumer<Path>> fileUpdateConsumers,
       @Named("che.fs.file.create") Set<Consumer<Path>> fileCreateConsumers,
       @Named("che.fs.file.delete") Set<Consumer<Path>> fileDeleteConsumers,
-      @Named("che.fs.file.excludes") Set<PathMatcher> fileExcludes) {
+      @Named("che.fs.file.restore") Set<Consumer<Path>> fileRestoreConsumers,
+      @Named("che.fs.file.excludes") Set<PathMatcher> fileExcludes,
+      FileWatcherService watcherService,
+      @Named("che.fs.tree_walker.incremental") boolean incremental,
+      @Named("che.fs.tree_walker.incremental.max_watches") int maxWatchedDirectories,
+      @Named("che.fs.tree_walker.full_walk_period_sec") long fullWalkPeriodSec,
+      @Nullable @Named("che.fs.tree_walker.snapshot_file") String snapshot) {
     this.root = root;
 
     this.directoryUpdateConsumers = directoryUpdateConsumers;
     this.directoryCreateConsumers = directoryCreateConsumers;
     this.directoryDeleteConsumers = directoryDeleteConsumers;
+    this.directoryRestoreConsumers = directoryRestoreConsumers;
 
     this.fileUpdateConsumers = fileUpdateConsumers;
     this.fileCreateConsumers = fileCreateConsumers;
     this.fileDeleteConsumers = fileDeleteConsumers;
+    this.fileRestoreConsumers = fileRestoreConsumers;
 
     this.directoryExcludes = directoryExcludes;
     this.fileExcludes = fileExcludes;
+
+    this.watcherService = watcherService;
+    this.incremental = incremental && watcherService != null;
+    this.maxWatchedDirectories = maxWatchedDirectories;
+    this.fullWalkPeriodMs = SECONDS.toMillis(fullWalkPeriodSec);
+    this.snapshot = snapshot == null ? null : new File(snapshot).toPath();
+  }
+
+  @PostConstruct
+  void start() {
+    if (incremental) {
+      LOG.debug("Starting tree walker in incremental mode");
+      watcherService.addListener(changesListener);
+    }
+  }
+
+  @PreDestroy
+  synchronized void stop() {
+    if (incremental) {
+      watcherService.removeListener(changesListener);
+    }
+
+    // nothing is known before the first run, don't overwrite the snapshot with empty tree
+    if (snapshot != null && initialized) {
+      storeSnapshot();
+    }
   }
 
   @ScheduleRate(period = 10)
-  void walk() {
+  synchronized void walk() {
+    if (!initialized) {
+      initialize();
+    }
+
+    if (incremental
+        && !fullWalkRequested.get()
+        && System.currentTimeMillis() - lastFullWalk < fullWalkPeriodMs) {
+      return;
+    }
+
     try {
       LOG.debug("Tree walk started");
 
-      Set<Path> deletedFiles = files.keySet().stream().filter(it -> !exists(it)).collect(toSet());
-      fileDeleteConsumers.forEach(deletedFiles::forEach);
-      files.keySet().removeAll(deletedFiles);
-
-      Set<Path> deletedDirectories =
-          directories.keySet().stream().filter(it -> !exists(it)).collect(toSet());
-      directoryDeleteConsumers.forEach(deletedDirectories::forEach);
-      directories.keySet().removeAll(deletedDirectories);
-
-      walkFileTree(
-          root.toPath(),
-          new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
-                throws IOException {
-              for (PathMatcher matcher : directoryExcludes) {
-                if (matcher.matches(dir)) {
-                  return SKIP_SUBTREE;
-                }
-              }
+      fullWalkRequested.set(false);
+      lastFullWalk = System.currentTimeMillis();
 
-              updateFsTreeAndAcceptConsumables(
-                  directories, directoryUpdateConsumers, directoryCreateConsumers, dir, attrs);
+      walkTree(root.toPath());
 
-              return CONTINUE;
-            }
+      LOG.debug("Tree walk finished");
 
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-              for (PathMatcher matcher : fileExcludes) {
-                if (matcher.matches(file)) {
-                  return CONTINUE;
-                }
-              }
+      if (snapshot != null) {
+        storeSnapshot();
+      }
+    } catch (NoSuchFileException e) {
+      LOG.debug(
+          "Trying to process a file, however seems like it is already not present: {}",
+          e.getMessage());
+    } catch (Exception e) {
+      LOG.error("Error while walking file tree", e);
+    }
+  }
 
-              updateFsTreeAndAcceptConsumables(
-                  files, fileUpdateConsumers, fileCreateConsumers, file, attrs);
+  /**
+   * Brings the known subtree of the given directory up to date with the file system, so consumers
+   * are notified about all the changes made in it so far without waiting for the next scheduled
+   * run. In incremental mode the changes reported by file watcher are processed instead.
+   *
+   * @param path path of the directory relative to the walked root, e.g. {@code /project/src}
+   */
+  public synchronized void refresh(String path) {
+    if (!initialized) {
+      initialize();
+    }
 
-              return CONTINUE;
-            }
-          });
-      LOG.debug("Tree walk finished");
+    if (incremental) {
+      processChanges();
+      return;
+    }
+
+    Path rootPath = root.toPath();
+    Path start = rootPath.resolve(path.startsWith("/") ? path.substring(1) : path).normalize();
+    if (!start.startsWith(rootPath)) {
+      return;
+    }
+    // removed directory is refreshed from its closest existing ancestor
+    while (!start.equals(rootPath) && !Files.isDirectory(start, LinkOption.NOFOLLOW_LINKS)) {
+      start = start.getParent();
+    }
+
+    try {
+      LOG.debug("Tree walk of '{}' started", start);
+      walkTree(start);
+      LOG.debug("Tree walk of '{}' finished", start);
     } catch (NoSuchFileException e) {
       LOG.debug(
           "Trying to process a file, however seems like it is already not present: {}",
@@ -139,6 +277,235 @@ public class FileTreeWalker {
     }
   }
 
+  /** Walks the subtree of the given directory, must be called under the walker lock. */
+  private void walkTree(Path start) throws IOException {
+    Set<Path> visitedFiles = new HashSet<>();
+    Set<Path> visitedDirectories = new HashSet<>();
+
+    walkFileTree(
+        start,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+              throws IOException {
+            if (isExcluded(directoryExcludes, dir)) {
+              return SKIP_SUBTREE;
+            }
+
+            visitedDirectories.add(dir);
+            updateDirectory(dir, attrs);
+
+            return CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (isExcluded(fileExcludes, file)) {
+              return CONTINUE;
+            }
+
+            visitedFiles.add(file);
+            updateFsTreeAndAcceptConsumables(
+                files, fileUpdateConsumers, fileCreateConsumers, file, attrs);
+
+            return CONTINUE;
+          }
+        });
+
+    Set<Path> deletedFiles =
+        files
+            .keySet()
+            .stream()
+            .filter(it -> it.startsWith(start) && !visitedFiles.contains(it) && !exists(it))
+            .collect(toSet());
+    fileDeleteConsumers.forEach(deletedFiles::forEach);
+    files.keySet().removeAll(deletedFiles);
+
+    Set<Path> deletedDirectories =
+        directories
+            .keySet()
+            .stream()
+            .filter(it -> it.startsWith(start) && !visitedDirectories.contains(it) && !exists(it))
+            .collect(toSet());
+    deletedDirectories.forEach(this::deleteDirectory);
+  }
+
+  /**
+   * Processes items reported by file watcher since the previous run. Does nothing unless the walker
+   * is running in incremental mode.
+   */
+  @ScheduleRate(
+    periodParameterName = "che.fs.tree_walker.incremental.period_ms",
+    unit = MILLISECONDS
+  )
+  synchronized void processChanges() {
+    if (!initialized || !incremental || changes.isEmpty()) {
+      return;
+    }
+
+    try {
+      LOG.debug("Processing file watcher changes");
+
+      Iterator<Path> iterator = changes.iterator();
+      while (iterator.hasNext()) {
+        Path path = iterator.next();
+        iterator.remove();
+
+        processChange(path);
+      }
+
+      LOG.debug("Processing file watcher changes finished");
+    } catch (Exception e) {
+      LOG.error("Error while processing file watcher changes, scheduling full tree walk", e);
+      fullWalkRequested.set(true);
+    }
+  }
+
+  private void initialize() {
+    initialized = true;
+
+    if (snapshot != null) {
+      restoreSnapshot();
+    }
+
+    if (incremental) {
+      for (Path dir : directories.keySet()) {
+        if (!watch(dir)) {
+          break;
+        }
+      }
+    }
+  }
+
+  private void onChange(Path path, Kind<?> kind) {
+    if (kind == OVERFLOW) {
+      LOG.debug("File watcher events overflow in '{}', scheduling full tree walk", path);
+      fullWalkRequested.set(true);
+      return;
+    }
+
+    changes.add(path);
+    Path parent = path.getParent();
+    if (parent != null && parent.startsWith(root.toPath())) {
+      changes.add(parent);
+    }
+  }
+
+  private void processChange(Path path) throws IOException {
+    BasicFileAttributes attrs;
+    try {
+      attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    } catch (NoSuchFileException e) {
+      if (files.remove(path) != null) {
+        fileDeleteConsumers.forEach(it -> it.accept(path));
+      }
+      if (directories.containsKey(path)) {
+        Set<Path> deletedFiles =
+            files.keySet().stream().filter(it -> it.startsWith(path)).collect(toSet());
+        fileDeleteConsumers.forEach(deletedFiles::forEach);
+        files.keySet().removeAll(deletedFiles);
+
+        directories
+            .keySet()
+            .stream()
+            .filter(it -> it.startsWith(path))
+            .collect(toSet())
+            .forEach(this::deleteDirectory);
+      }
+      return;
+    }
+
+    if (attrs.isDirectory()) {
+      if (isExcluded(directoryExcludes, path)) {
+        return;
+      }
+
+      if (directories.containsKey(path)) {
+        updateDirectory(path, attrs);
+      } else {
+        // new directory may be populated before its watch is registered, so walk it
+        walkFileTree(
+            path,
+            new SimpleFileVisitor<Path>() {
+              @Override
+              public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (isExcluded(directoryExcludes, dir)) {
+                  return SKIP_SUBTREE;
+                }
+
+                updateDirectory(dir, attrs);
+
+                return CONTINUE;
+              }
+
+              @Override
+              public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!isExcluded(fileExcludes, file)) {
+                  updateFsTreeAndAcceptConsumables(
+                      files, fileUpdateConsumers, fileCreateConsumers, file, attrs);
+                }
+
+                return CONTINUE;
+              }
+            });
+      }
+    } else if (!isExcluded(fileExcludes, path)) {
+      updateFsTreeAndAcceptConsumables(
+          files, fileUpdateConsumers, fileCreateConsumers, path, attrs);
+    }
+  }
+
+  private void updateDirectory(Path dir, BasicFileAttributes attrs) {
+    boolean created = !directories.containsKey(dir);
+
+    updateFsTreeAndAcceptConsumables(
+        directories, directoryUpdateConsumers, directoryCreateConsumers, dir, attrs);
+
+    if (created && incremental) {
+      watch(dir);
+    }
+  }
+
+  private void deleteDirectory(Path dir) {
+    directoryDeleteConsumers.forEach(it -> it.accept(dir));
+    directories.remove(dir);
+
+    if (watchedDirectories.remove(dir)) {
+      watcherService.unRegister(dir);
+    }
+  }
+
+  /**
+   * Registers the directory in file watcher, if the limit of watched directories is reached or the
+   * registration fails switches the walker to full walks. Non positive limit means no limit.
+   *
+   * @return true if the walker is still in incremental mode
+   */
+  private boolean watch(Path dir) {
+    if (maxWatchedDirectories > 0 && watchedDirectories.size() >= maxWatchedDirectories) {
+      fallBackToFullWalks("the limit of " + maxWatchedDirectories + " watches is reached");
+    } else if (watcherService.register(dir)) {
+      watchedDirectories.add(dir);
+    } else {
+      fallBackToFullWalks("directory '" + dir + "' can't be watched");
+    }
+    return incremental;
+  }
+
+  private void fallBackToFullWalks(String reason) {
+    LOG.warn(
+        "Tree walker switches to full walks of '{}' every scheduled run, because {}. "
+            + "Increase fs.inotify.max_user_watches or che.fs.tree_walker.incremental.max_watches "
+            + "to keep incremental mode",
+        root,
+        reason);
+    incremental = false;
+    watcherService.removeListener(changesListener);
+    watchedDirectories.forEach(watcherService::unRegister);
+    watchedDirectories.clear();
+    changes.clear();
+  }
+
   private void updateFsTreeAndAcceptConsumables(
       Map<Path, Long> items,
       Set<Consumer<Path>> updateConsumer,
@@ -158,4 +525,72 @@ public class FileTreeWalker {
       items.put(path, lastModifiedActual);
     }
   }
+
+  private void restoreSnapshot() {
+    if (!exists(snapshot)) {
+      LOG.debug("Tree walker snapshot '{}' does not exist, starting from scratch", snapshot);
+      return;
+    }
+
+    Path rootPath = root.toPath();
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+      if (in.readInt() != SNAPSHOT_VERSION || !rootPath.toString().equals(in.readUTF())) {
+        LOG.warn("Tree walker snapshot '{}' is outdated, starting from scratch", snapshot);
+        return;
+      }
+
+      readItems(in, directories, rootPath);
+      readItems(in, files, rootPath);
+    } catch (IOException e) {
+      LOG.error("Can't restore tree walker snapshot '{}', starting from scratch", snapshot, e);
+      directories.clear();
+      files.clear();
+      return;
+    }
+
+    LOG.debug(
+        "Restored {} directories and {} files from tree walker snapshot",
+        directories.size(),
+        files.size());
+    directoryRestoreConsumers.forEach(directories.keySet()::forEach);
+    fileRestoreConsumers.forEach(files.keySet()::forEach);
+  }
+
+  private void storeSnapshot() {
+    Path rootPath = root.toPath();
+    Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(snapshot.toAbsolutePath().getParent());
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeUTF(rootPath.toString());
+        writeItems(out, directories, rootPath);
+        writeItems(out, files, rootPath);
+      }
+      Files.move(tmp, snapshot, REPLACE_EXISTING, ATOMIC_MOVE);
+    } catch (IOException e) {
+      LOG.error("Can't store tree walker snapshot '{}'", snapshot, e);
+    }
+  }
+
+  private static void readItems(DataInputStream in, Map<Path, Long> items, Path rootPath)
+      throws IOException {
+    int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      Path path = rootPath.resolve(in.readUTF());
+      items.put(path, in.readLong());
+    }
+  }
+
+  private static void writeItems(DataOutputStream out, Map<Path, Long> items, Path rootPath)
+      throws IOException {
+    Map<Path, Long> copy = new HashMap<>(items);
+    out.writeInt(copy.size());
+    for (Map.Entry<Path, Long> entry : copy.entrySet()) {
+      out.writeUTF(rootPath.relativize(entry.getKey()).toString());
+      out.writeLong(entry.getValue());
+    }
+  }
 }
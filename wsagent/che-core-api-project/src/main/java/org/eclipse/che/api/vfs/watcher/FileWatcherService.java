@@ -10,6 +10,7 @@
  */
 package org.eclipse.che.api.vfs.watcher;
 
+import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static java.lang.Thread.currentThread;
 import static java.nio.file.Files.exists;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
@@ -33,10 +34,12 @@ import java.nio.file.WatchService;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -63,6 +66,7 @@ public class FileWatcherService {
 
   private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
   private final Map<Path, Integer> registrations = new ConcurrentHashMap<>();
+  private final Set<BiConsumer<Path, Kind<?>>> listeners = newConcurrentHashSet();
 
   private final FileWatcherExcludePatternsRegistry excludePatternsRegistry;
   private final FileWatcherEventHandler handler;
@@ -175,14 +179,16 @@ public class FileWatcherService {
    * registration watch key is canceled and no further directory watching is being performed.
    *
    * @param dir directory
+   * @return false if the directory exists but can't be watched, e.g. because the limit of inotify
+   *     watches is reached
    */
-  public void register(Path dir) {
+  public boolean register(Path dir) {
     if (!Files.exists(dir)) {
       LOG.debug("Trying to register directory '{}' but it does not exist", dir);
-      return;
+      return true;
     }
     LOG.debug("Registering directory '{}'", dir);
-    if (keys.values().contains(dir)) {
+    if (registrations.containsKey(dir)) {
       int previous = registrations.get(dir);
       LOG.debug(
           "Directory is already being watched, increasing watch counter, previous value: {}",
@@ -198,8 +204,10 @@ public class FileWatcherService {
         }
       } catch (IOException e) {
         LOG.error("Can't register dir {} in file watch service", dir, e);
+        return false;
       }
     }
+    return true;
   }
 
   /**
@@ -249,6 +257,28 @@ public class FileWatcherService {
     }
   }
 
+  /**
+   * Adds a listener that receives every non excluded event reported for any registered directory.
+   * On events overflow the listener is called with the overflowed directory and {@link
+   * java.nio.file.StandardWatchEventKinds#OVERFLOW} kind, so it can decide to rescan the
+   * directory.
+   *
+   * @param listener event listener
+   */
+  public void addListener(BiConsumer<Path, Kind<?>> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener previously added by {@link #addListener(BiConsumer)}. If listener is not
+   * registered nothing happens.
+   *
+   * @param listener event listener
+   */
+  public void removeListener(BiConsumer<Path, Kind<?>> listener) {
+    listeners.remove(listener);
+  }
+
   /**
    * Resumes service after it was in suspended state. If method is called when the service is
    * already not in a suspended state nothing happens.
@@ -303,6 +333,7 @@ public class FileWatcherService {
 
           if (kind == OVERFLOW) {
             LOG.warn("Detected file system events overflowing");
+            listeners.forEach(it -> it.accept(dir, OVERFLOW));
             continue;
           }
 
@@ -316,6 +347,7 @@ public class FileWatcherService {
           }
 
           handler.handle(path, kind);
+          listeners.forEach(it -> it.accept(path, kind));
         }
 
         resetAndRemove(watchKey, dir);
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.api.machine.shared.dto.CommandDto;
+import org.eclipse.che.api.project.shared.dto.ItemReference;
+import org.eclipse.che.api.workspace.shared.dto.EnvironmentDto;
+import org.eclipse.che.api.workspace.shared.dto.EnvironmentRecipeDto;
+import org.eclipse.che.api.workspace.shared.dto.ExtendedMachineDto;
+import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
+import org.eclipse.che.api.workspace.shared.dto.ServerConf2Dto;
+import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
+import org.eclipse.che.api.workspace.shared.dto.WorkspaceConfigDto;
+import org.eclipse.che.api.workspace.shared.dto.WorkspaceDto;
+import org.eclipse.che.dto.server.DtoFactory;
+
+/**
+ * Compares generated streaming serialization of DTOs with reflective Gson serialization on large
+ * lists of {@link WorkspaceDto} and {@link ItemReference}. Not a unit test, run it manually from
+ * IDE or with {@code exec:java -Dexec.classpathScope=test}.
+ *
+ * <p>Arguments: size of the lists (10000 by default), number of measured iterations (20 by
+ * default).
+ */
+public class DtoSerializationBenchmark {
+  private static final Type WORKSPACES_TYPE = new TypeToken<List<WorkspaceDto>>() {}.getType();
+  private static final Type ITEMS_TYPE = new TypeToken<List<ItemReference>>() {}.getType();
+
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    Gson streaming = DtoFactory.getInstance().getGson();
+    Gson reflective = DtoFactory.getInstance().getReflectiveGson();
+
+    List<WorkspaceDto> workspaces = new ArrayList<>(size);
+    List<ItemReference> items = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      workspaces.add(createWorkspace(i));
+      items.add(createItem(i));
+    }
+
+    run("WorkspaceDto", workspaces, WORKSPACES_TYPE, streaming, reflective, iterations);
+    run("ItemReference", items, ITEMS_TYPE, streaming, reflective, iterations);
+  }
+
+  private static void run(
+      String name, List<?> dtos, Type type, Gson streaming, Gson reflective, int iterations) {
+    String json = streaming.toJson(dtos, type);
+    if (!json.equals(reflective.toJson(dtos, type))) {
+      throw new IllegalStateException("Serializers produce different JSON for " + name);
+    }
+    System.out.printf("%s x %,d (%,d KB of JSON)%n", name, dtos.size(), json.length() / 1024);
+    measure("  serialize   streaming ", iterations, () -> streaming.toJson(dtos, type));
+    measure("  serialize   reflective", iterations, () -> reflective.toJson(dtos, type));
+    measure("  deserialize streaming ", iterations, () -> streaming.fromJson(json, type));
+    measure("  deserialize reflective", iterations, () -> reflective.fromJson(json, type));
+  }
+
+  private static void measure(String name, int iterations, Runnable operation) {
+    // warm up
+    for (int i = 0; i < iterations; i++) {
+      operation.run();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      operation.run();
+    }
+    double msPerOp = (System.nanoTime() - start) / 1_000_000D / iterations;
+    System.out.printf("%s: %10.2f ms/op%n", name, msPerOp);
+  }
+
+  private static WorkspaceDto createWorkspace(int i) {
+    Map<String, ServerConf2Dto> servers = new HashMap<>();
+    servers.put(
+        "ref" + i,
+        newDto(ServerConf2Dto.class)
+            .withPort("8080/tcp")
+            .withProtocol("http")
+            .withProperties(singletonMap("path", "/api")));
+    ExtendedMachineDto machine =
+        newDto(ExtendedMachineDto.class)
+            .withAgents(asList("org.eclipse.che.terminal", "org.eclipse.che.ws-agent"))
+            .withServers(servers)
+            .withAttributes(singletonMap("memoryLimitBytes", "2147483648"));
+    EnvironmentDto environment =
+        newDto(EnvironmentDto.class)
+            .withRecipe(
+                newDto(EnvironmentRecipeDto.class)
+                    .withType("dockerimage")
+                    .withLocation("eclipse/ubuntu_jdk8"))
+            .withMachines(singletonMap("dev-machine", machine));
+    ProjectConfigDto project =
+        newDto(ProjectConfigDto.class)
+            .withName("project" + i)
+            .withPath("/project" + i)
+            .withType("maven")
+            .withMixins(asList("git", "pullrequest"))
+            .withAttributes(singletonMap("maven.artifactId", asList("project" + i)))
+            .withSource(
+                newDto(SourceStorageDto.class)
+                    .withType("git")
+                    .withLocation("https://github.com/che-samples/console-java-simple.git")
+                    .withParameters(singletonMap("branch", "master")));
+    CommandDto command =
+        newDto(CommandDto.class)
+            .withName("build")
+            .withType("mvn")
+            .withCommandLine("mvn clean install -f ${current.project.path}")
+            .withAttributes(singletonMap("goal", "Build"));
+    return newDto(WorkspaceDto.class)
+        .withId("workspace" + i)
+        .withNamespace("user" + i % 100)
+        .withStatus(WorkspaceStatus.STOPPED)
+        .withAttributes(singletonMap("created", Long.toString(1500000000000L + i)))
+        .withConfig(
+            newDto(WorkspaceConfigDto.class)
+                .withName("ws" + i)
+                .withDefaultEnv("default")
+                .withEnvironments(singletonMap("default", environment))
+                .withProjects(asList(project))
+                .withCommands(asList(command)))
+        .withLinks(asList(link("self", "/workspace/workspace" + i)));
+  }
+
+  private static ItemReference createItem(int i) {
+    return newDto(ItemReference.class)
+        .withName("File" + i + ".java")
+        .withType("file")
+        .withProject("/project")
+        .withPath("/project/src/main/java/org/test/File" + i + ".java")
+        .withModified(1500000000000L + i)
+        .withContentLength(1024 + i)
+        .withAttributes(singletonMap("vcs.status", "MODIFIED"))
+        .withLinks(
+            asList(
+                link("get content", "/project/file/project/File" + i + ".java"),
+                link("delete", "/project/project/File" + i + ".java")));
+  }
+
+  private static Link link(String rel, String href) {
+    return newDto(Link.class).withRel(rel).withHref("http://localhost:8080/api" + href);
+  }
+}
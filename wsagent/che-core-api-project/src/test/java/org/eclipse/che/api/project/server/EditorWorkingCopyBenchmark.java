@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.INSERT;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.REMOVE;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
+
+/**
+ * Replays a typing session over {@link EditorWorkingCopy} and over the copy-on-change content
+ * which was used by working copies before {@link TextRope}. Not a unit test, run it manually from
+ * IDE or with {@code exec:java -Dexec.classpathScope=test}.
+ *
+ * <p>Arguments: size of the file in KB (2048 by default), number of measured iterations (5 by
+ * default), optional path to a recorded session. Each line of the session is one change, either
+ * {@code +<offset> <text>} or {@code -<offset> <count>}, where {@code \n}, {@code \t} and {@code
+ * \\} in the text are escaped. Without a recorded session the typing is generated.
+ */
+public class EditorWorkingCopyBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int sizeKb = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+    String content = generateText(new Random(1), sizeKb * 1024);
+    List<EditorChangesDto> session =
+        args.length > 2 ? readSession(args[2]) : generateSession(new Random(2), content.length());
+
+    String expected = replayCopying(content, session);
+    if (!expected.equals(replayRope(content, session))) {
+      throw new IllegalStateException("Working copies have different content after the session");
+    }
+    System.out.printf("%,d changes of %,d KB file%n", session.size(), sizeKb);
+    measure("  copy-on-change", iterations, session.size(), () -> replayCopying(content, session));
+    measure("  rope          ", iterations, session.size(), () -> replayRope(content, session));
+  }
+
+  private static String replayRope(String content, List<EditorChangesDto> session) {
+    EditorWorkingCopy workingCopy = new EditorWorkingCopy("/wc", "/project", content.getBytes());
+    for (EditorChangesDto change : session) {
+      workingCopy.applyChanges(change);
+      // reader such as reconciler takes a snapshot after each change
+      workingCopy.getSnapshot();
+    }
+    return workingCopy.getContentAsString();
+  }
+
+  /** Applies changes the way working copy did it before it was backed by rope. */
+  private static String replayCopying(String content, List<EditorChangesDto> session) {
+    byte[] bytes = content.getBytes();
+    for (EditorChangesDto change : session) {
+      String oldContent = new String(bytes);
+      String newContent;
+      if (change.getType() == INSERT) {
+        newContent =
+            new StringBuilder(oldContent).insert(change.getOffset(), change.getText()).toString();
+      } else {
+        int end = change.getOffset() + change.getRemovedCharCount();
+        newContent = new StringBuilder(oldContent).delete(change.getOffset(), end).toString();
+      }
+      bytes = newContent.getBytes();
+    }
+    return new String(bytes);
+  }
+
+  private static void measure(String name, int iterations, int changes, Runnable operation) {
+    // warm up
+    operation.run();
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      operation.run();
+    }
+    double usPerChange = (System.nanoTime() - start) / 1_000D / iterations / changes;
+    System.out.printf("%s: %10.2f us/change%n", name, usPerChange);
+  }
+
+  /** Generates bursts of typing with occasional corrections at random places of the file. */
+  private static List<EditorChangesDto> generateSession(Random random, int length) {
+    List<EditorChangesDto> session = new ArrayList<>();
+    for (int burst = 0; burst < 100; burst++) {
+      int offset = random.nextInt(length);
+      for (int i = 0; i < 40; i++) {
+        String text = random.nextInt(10) == 0 ? "\n" : String.valueOf((char) ('a' + i % 26));
+        session.add(insert(offset, text));
+        offset++;
+        length++;
+        if (random.nextInt(8) == 0) {
+          session.add(remove(offset - 1, 1));
+          offset--;
+          length--;
+        }
+      }
+    }
+    return session;
+  }
+
+  private static List<EditorChangesDto> readSession(String path) throws IOException {
+    List<EditorChangesDto> session = new ArrayList<>();
+    for (String line : Files.readAllLines(Paths.get(path), UTF_8)) {
+      if (line.isEmpty()) {
+        continue;
+      }
+      int separator = line.indexOf(' ');
+      int offset = Integer.parseInt(line.substring(1, separator));
+      String argument = line.substring(separator + 1);
+      if (line.charAt(0) == '+') {
+        session.add(insert(offset, unescape(argument)));
+      } else {
+        session.add(remove(offset, Integer.parseInt(argument)));
+      }
+    }
+    return session;
+  }
+
+  private static String unescape(String text) {
+    StringBuilder sb = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\\' && i + 1 < text.length()) {
+        char next = text.charAt(++i);
+        sb.append(next == 'n' ? '\n' : next == 't' ? '\t' : next);
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static String generateText(Random random, int length) {
+    StringBuilder sb = new StringBuilder(length);
+    while (sb.length() < length) {
+      sb.append(random.nextInt(20) == 0 ? '\n' : (char) ('a' + random.nextInt(26)));
+    }
+    return sb.toString();
+  }
+
+  private static EditorChangesDto insert(int offset, String text) {
+    return newDto(EditorChangesDto.class).withType(INSERT).withOffset(offset).withText(text);
+  }
+
+  private static EditorChangesDto remove(int offset, int count) {
+    return newDto(EditorChangesDto.class)
+        .withType(REMOVE)
+        .withOffset(offset)
+        .withRemovedCharCount(count);
+  }
+}
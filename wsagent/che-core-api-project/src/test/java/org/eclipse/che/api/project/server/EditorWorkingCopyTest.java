@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server;
+
+import static java.util.Arrays.asList;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.INSERT;
+import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.REMOVE;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link EditorWorkingCopy}. */
+public class EditorWorkingCopyTest {
+  private EditorWorkingCopy workingCopy;
+
+  @BeforeMethod
+  public void setUp() {
+    workingCopy = new EditorWorkingCopy("/.che/File.java", "/project", "class A {}".getBytes());
+  }
+
+  @Test
+  public void shouldApplyEditorChanges() {
+    workingCopy.applyChanges(insert(9, "int a; "));
+    workingCopy.applyChanges(remove(6, 1));
+
+    assertEquals(workingCopy.getContentAsString(), "class  {int a; }");
+    assertEquals(workingCopy.getSnapshot().getVersion(), 2);
+  }
+
+  @Test
+  public void shouldKeepSnapshotUnchangedWhenWorkingCopyIsChanged() {
+    EditorWorkingCopy.Snapshot snapshot = workingCopy.getSnapshot();
+
+    workingCopy.applyChanges(insert(0, "public "));
+
+    assertEquals(snapshot.getContentAsString(), "class A {}");
+    assertEquals(snapshot.getVersion(), 0);
+    assertEquals(workingCopy.getContentAsString(), "public class A {}");
+  }
+
+  @Test
+  public void shouldReturnChangesBetweenVersions() {
+    EditorChangesDto first = insert(0, "a");
+    EditorChangesDto second = insert(1, "b");
+    EditorChangesDto third = remove(0, 1);
+    workingCopy.applyChanges(first);
+    workingCopy.applyChanges(second);
+    workingCopy.applyChanges(third);
+
+    assertEquals(workingCopy.getChanges(0, 3), asList(first, second, third));
+    assertEquals(workingCopy.getChanges(1, 2), asList(second));
+    assertEquals(workingCopy.getChanges(3, 3), asList());
+    assertNull(workingCopy.getChanges(2, 4));
+  }
+
+  @Test
+  public void shouldNotReturnChangesWhichAreRemovedFromChangeLog() {
+    for (int i = 0; i < EditorWorkingCopy.MAX_LOGGED_CHANGES + 1; i++) {
+      workingCopy.applyChanges(insert(0, "a"));
+    }
+
+    assertNull(workingCopy.getChanges(0, 1));
+    assertEquals(workingCopy.getChanges(1, 2).size(), 1);
+  }
+
+  @Test
+  public void shouldNotReturnChangesWhenContentIsReplaced() {
+    workingCopy.applyChanges(insert(0, "a"));
+    workingCopy.updateContent("new content");
+
+    assertNull(workingCopy.getChanges(0, 2));
+    assertNull(workingCopy.getChanges(1, 2));
+    assertEquals(workingCopy.getChanges(2, 2), asList());
+  }
+
+  private static EditorChangesDto insert(int offset, String text) {
+    return newDto(EditorChangesDto.class).withType(INSERT).withOffset(offset).withText(text);
+  }
+
+  private static EditorChangesDto remove(int offset, int count) {
+    return newDto(EditorChangesDto.class)
+        .withType(REMOVE)
+        .withOffset(offset)
+        .withRemovedCharCount(count);
+  }
+}
@@ -25,10 +25,13 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertEqualsNoOrder;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 
 import com.google.common.io.ByteStreams;
 import java.io.ByteArrayInputStream;
@@ -94,7 +97,10 @@ import org.eclipse.che.api.project.shared.dto.MoveOptions;
 import org.eclipse.che.api.project.shared.dto.ProjectSearchResponseDto;
 import org.eclipse.che.api.project.shared.dto.SearchResultDto;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
+import org.eclipse.che.api.project.shared.dto.TreeDelta;
+import org.eclipse.che.api.project.shared.dto.TreeDeltaItem;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.user.server.spi.UserDao;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
@@ -102,6 +108,7 @@ import org.eclipse.che.api.vfs.impl.file.DefaultFileWatcherNotificationHandler;
 import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
 import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.search.impl.FSLuceneSearcherProvider;
+import org.eclipse.che.api.vfs.watcher.FileTreeWalker;
 import org.eclipse.che.api.vfs.watcher.FileWatcherManager;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
@@ -162,6 +169,7 @@ public class ProjectServiceTest {
   private ProjectHandlerRegistry phRegistry;
   private ProjectServiceLinksInjector projectServiceLinksInjector;
   private ProjectServiceVcsStatusInjector vcsStatusInjector;
+  private ProjectTreeJournal treeJournal;
 
   private org.eclipse.che.commons.env.EnvironmentContext env;
 
@@ -173,6 +181,7 @@ public class ProjectServiceTest {
   @Mock private HttpJsonRequestFactory httpJsonRequestFactory;
   @Mock private HttpJsonResponse httpJsonResponse;
   @Mock private FileWatcherManager fileWatcherManager;
+  @Mock private FileTreeWalker treeWalker;
 
   protected LocalVirtualFileSystemProvider vfsProvider;
 
@@ -201,6 +210,8 @@ public class ProjectServiceTest {
     }
     indexDir.mkdir();
 
+    treeJournal = new ProjectTreeJournal(root);
+
     Set<PathMatcher> filters = new HashSet<>();
     filters.add(
         path -> {
@@ -293,6 +304,8 @@ public class ProjectServiceTest {
     dependencies.addInstance(RequestTransmitter.class, mock(RequestTransmitter.class));
     dependencies.addInstance(
         ProjectImportOutputJsonRpcRegistrar.class, new ProjectImportOutputJsonRpcRegistrar());
+    dependencies.addInstance(FileTreeWalker.class, treeWalker);
+    dependencies.addInstance(ProjectTreeJournal.class, treeJournal);
 
     ResourceBinder resources = new ResourceBinderImpl();
     ProviderBinder providers = ProviderBinder.getInstance();
@@ -1869,6 +1882,64 @@ public class ProjectServiceTest {
     // assertEquals(result.getMediaType(), TEXT_PLAIN);
   }
 
+  @Test
+  public void testGetTreeDelta() throws Exception {
+    java.nio.file.Path root = new File(FS_PATH).toPath();
+    long version = treeJournal.getVersion();
+    RegisteredProject myProject = pm.getProject("my_project");
+    FolderEntry a = myProject.getBaseFolder().createFolder("a");
+    a.createFile("test.txt", "test".getBytes(Charset.defaultCharset()));
+    treeJournal.created(root.resolve("my_project/a"));
+    treeJournal.created(root.resolve("my_project/a/test.txt"));
+    treeJournal.modified(root.resolve("my_project/a/test.txt"));
+    treeJournal.created(root.resolve("my_project/b.txt"));
+
+    ContainerResponse response =
+        launcher.service(
+            GET,
+            "http://localhost:8080/api/project/tree-delta/my_project?since=" + version,
+            "http://localhost:8080/api",
+            null,
+            null,
+            null);
+    assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+
+    verify(treeWalker).refresh("my_project");
+    TreeDelta delta = (TreeDelta) response.getEntity();
+    assertFalse(delta.isTruncated());
+    assertEquals(delta.getVersion(), version + 4);
+    List<TreeDeltaItem> changes = delta.getChanges();
+    assertEquals(changes.size(), 3);
+    assertEquals(changes.get(0).getPath(), "/my_project/a");
+    assertEquals(changes.get(0).getType(), FileWatcherEventType.CREATED);
+    assertEquals(changes.get(0).getItem().getType(), "folder");
+    assertEquals(changes.get(1).getPath(), "/my_project/a/test.txt");
+    assertEquals(changes.get(1).getType(), FileWatcherEventType.CREATED);
+    assertNotNull(changes.get(1).getItem().getLink("get content"));
+    // never created on disk, so reported as deleted
+    assertEquals(changes.get(2).getPath(), "/my_project/b.txt");
+    assertEquals(changes.get(2).getType(), FileWatcherEventType.DELETED);
+    assertNull(changes.get(2).getItem());
+  }
+
+  @Test
+  public void testGetTreeDeltaIsTruncatedForUnknownVersion() throws Exception {
+    ContainerResponse response =
+        launcher.service(
+            GET,
+            "http://localhost:8080/api/project/tree-delta/",
+            "http://localhost:8080/api",
+            null,
+            null,
+            null);
+    assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+
+    TreeDelta delta = (TreeDelta) response.getEntity();
+    assertTrue(delta.isTruncated());
+    assertEquals(delta.getVersion(), treeJournal.getVersion());
+    assertTrue(delta.getChanges().isEmpty());
+  }
+
   @Test
   public void testGetItemWithoutParentProject() throws Exception {
     FolderEntry a = pm.getProjectsRoot().createFolder("a");
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server;
+
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.eclipse.che.api.project.server.ProjectTreeJournal.Changes;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ProjectTreeJournal}. */
+public class ProjectTreeJournalTest {
+  private static final File ROOT = new File("/projects");
+
+  private ProjectTreeJournal journal;
+
+  @BeforeMethod
+  public void setUp() {
+    journal = new ProjectTreeJournal(ROOT, 5);
+  }
+
+  @Test
+  public void shouldReturnChangesSinceVersion() {
+    journal.created(path("project/a.txt"));
+    long version = journal.getVersion();
+    journal.created(path("project/b.txt"));
+    journal.deleted(path("project/c.txt"));
+
+    Changes changes = journal.getChanges(version);
+
+    assertFalse(changes.isTruncated());
+    assertEquals(changes.getVersion(), version + 2);
+    assertEquals(
+        new ArrayList<>(changes.getItems().keySet()),
+        Arrays.asList("/project/b.txt", "/project/c.txt"));
+    assertEquals(changes.getItems().get("/project/c.txt"), DELETED);
+    assertTrue(journal.getChanges(changes.getVersion()).getItems().isEmpty());
+  }
+
+  @Test
+  public void shouldMergeChangesOfTheSameItem() {
+    long version = journal.getVersion();
+    journal.created(path("project/a.txt"));
+    journal.created(path("project/b.txt"));
+    journal.modified(path("project/a.txt"));
+    journal.modified(path("project/b.txt"));
+    journal.deleted(path("project/b.txt"));
+
+    Changes changes = journal.getChanges(version);
+
+    assertEquals(changes.getItems().size(), 2);
+    assertEquals(changes.getItems().get("/project/a.txt"), CREATED);
+    assertEquals(changes.getItems().get("/project/b.txt"), DELETED);
+  }
+
+  @Test
+  public void shouldReportModificationOfKnownItem() {
+    journal.created(path("project/a.txt"));
+    long version = journal.getVersion();
+    journal.modified(path("project/a.txt"));
+
+    assertEquals(journal.getChanges(version).getItems().get("/project/a.txt"), MODIFIED);
+  }
+
+  @Test
+  public void shouldTruncateChangesWhichAreNoLongerInJournal() {
+    long version = journal.getVersion();
+    for (int i = 0; i < 6; i++) {
+      journal.created(path("project/" + i));
+    }
+
+    Changes changes = journal.getChanges(version);
+
+    assertTrue(changes.isTruncated());
+    assertTrue(changes.getItems().isEmpty());
+    assertEquals(changes.getVersion(), version + 6);
+    assertFalse(journal.getChanges(version + 1).isTruncated());
+  }
+
+  @Test
+  public void shouldTruncateChangesSinceUnknownVersion() {
+    journal.created(path("project/a.txt"));
+
+    assertTrue(journal.getChanges(-1).isTruncated());
+    assertTrue(journal.getChanges(journal.getVersion() + 1).isTruncated());
+  }
+
+  @Test
+  public void shouldTruncateTooManyChanges() {
+    journal = new ProjectTreeJournal(ROOT, ProjectTreeJournal.MAX_CHANGES * 2);
+    long version = journal.getVersion();
+    for (int i = 0; i <= ProjectTreeJournal.MAX_CHANGES; i++) {
+      journal.created(path("project/" + i));
+    }
+
+    assertTrue(journal.getChanges(version).isTruncated());
+  }
+
+  private static Path path(String path) {
+    return ROOT.toPath().resolve(path);
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/** Tests for {@link TextRope}. */
+public class TextRopeTest {
+
+  @Test
+  public void shouldInsertAndDeleteText() {
+    TextRope rope = TextRope.of("hello world");
+
+    rope = rope.insert(5, ",").insert(12, "!").delete(0, 1).insert(0, "H");
+
+    assertEquals(rope.toString(), "Hello, world!");
+    assertEquals(rope.length(), 13);
+    assertEquals(rope.charAt(7), 'w');
+    assertEquals(rope.substring(7, 12), "world");
+  }
+
+  @Test
+  public void shouldNotChangeRopeWhichIsEdited() {
+    TextRope original = TextRope.of("text");
+
+    TextRope edited = original.insert(4, " edited").delete(0, 1);
+
+    assertEquals(original.toString(), "text");
+    assertEquals(edited.toString(), "ext edited");
+  }
+
+  @Test
+  public void shouldApplyRandomEditsToLargeTextLikeStringBuilder() {
+    Random random = new Random(42);
+    StringBuilder expected = new StringBuilder(randomText(random, 100_000));
+    TextRope rope = TextRope.of(expected.toString());
+
+    for (int i = 0; i < 20_000; i++) {
+      int offset = random.nextInt(expected.length() + 1);
+      if (random.nextInt(3) == 0 && offset < expected.length()) {
+        int count = Math.min(random.nextInt(20), expected.length() - offset);
+        expected.delete(offset, offset + count);
+        rope = rope.delete(offset, count);
+      } else {
+        String text = randomText(random, random.nextInt(10) == 0 ? 2000 : 1);
+        expected.insert(offset, text);
+        rope = rope.insert(offset, text);
+      }
+    }
+
+    assertEquals(rope.toString(), expected.toString());
+    int from = expected.length() / 3;
+    assertEquals(rope.substring(from, from + 1000), expected.substring(from, from + 1000));
+    assertTrue(rope.height() < 40, "Rope is not balanced, height is " + rope.height());
+  }
+
+  @Test
+  public void shouldBuildTextFromSingleCharacterInserts() {
+    TextRope rope = TextRope.empty();
+    StringBuilder expected = new StringBuilder();
+
+    for (int i = 0; i < 10_000; i++) {
+      char c = (char) ('a' + i % 26);
+      rope = rope.insert(rope.length(), String.valueOf(c));
+      expected.append(c);
+    }
+
+    assertEquals(rope.toString(), expected.toString());
+    assertTrue(rope.height() < 10, "Rope is not balanced, height is " + rope.height());
+  }
+
+  @Test(expectedExceptions = IndexOutOfBoundsException.class)
+  public void shouldThrowExceptionWhenDeletedRangeIsOutOfText() {
+    TextRope.of("text").delete(2, 3);
+  }
+
+  private static String randomText(Random random, int length) {
+    StringBuilder sb = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      sb.append((char) ('a' + random.nextInt(26)));
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs;
+
+import static org.eclipse.che.api.vfs.VirtualFileFilters.dotGitFilter;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.io.ByteStreams;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.eclipse.che.commons.lang.IoUtil;
+
+/**
+ * Measures export throughput of {@link ZipArchiver} against the sequential {@link
+ * ZipOutputStream} export it replaced. Not a unit test, run it manually from IDE or with {@code
+ * exec:java -Dexec.classpathScope=test}.
+ *
+ * <p>Arguments: size of the generated project in MB (256 by default), number of measured
+ * iterations (3 by default), optional path to a folder to export instead of the generated one.
+ * Generated project consists of source-like text files and of jar and png files with random,
+ * incompressible content.
+ */
+public class ZipArchiverBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+    File root = Files.createTempDirectory("zip-benchmark").toFile();
+    try {
+      File project;
+      if (args.length > 2) {
+        project = new File(args[2]);
+        root = project.getParentFile();
+      } else {
+        project = new File(root, "project");
+        generateProject(new Random(1), project, sizeMb * 1024L * 1024L);
+      }
+
+      VirtualFileSystem fileSystem =
+          new LocalVirtualFileSystem(
+              root,
+              mock(ArchiverFactory.class),
+              mock(SearcherProvider.class),
+              mock(AbstractVirtualFileSystemProvider.CloseCallback.class));
+      VirtualFile folder = fileSystem.getRoot().getChild(Path.of(project.getName()));
+      File archive = File.createTempFile("zip-benchmark", ".zip");
+      try {
+        long size = sizeOf(project);
+        System.out.printf("Exporting %,d MB%n", size / 1024 / 1024);
+        measure("  sequential", iterations, size, archive, out -> compressSequential(folder, out));
+        measure(
+            "  parallel  ",
+            iterations,
+            size,
+            archive,
+            out -> new ZipArchiver(folder).compress(out, dotGitFilter()));
+      } finally {
+        Files.delete(archive.toPath());
+      }
+    } finally {
+      if (args.length <= 2) {
+        IoUtil.deleteRecursive(root);
+      }
+    }
+  }
+
+  private static long sizeOf(File folder) throws IOException {
+    try (Stream<java.nio.file.Path> files = Files.walk(folder.toPath())) {
+      return files
+          .map(java.nio.file.Path::toFile)
+          .filter(File::isFile)
+          .mapToLong(File::length)
+          .sum();
+    }
+  }
+
+  private interface Export {
+    void run(OutputStream out) throws Exception;
+  }
+
+  private static void measure(String name, int iterations, long size, File archive, Export export)
+      throws Exception {
+    // warm up
+    try (OutputStream out = new FileOutputStream(archive)) {
+      export.run(out);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      try (OutputStream out = new FileOutputStream(archive)) {
+        export.run(out);
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9 / iterations;
+    System.out.printf(
+        "%s: %8.2f s, %8.2f MB/s, archive %,d MB%n",
+        name, seconds, size / 1024D / 1024D / seconds, archive.length() / 1024 / 1024);
+  }
+
+  /** Compresses the folder the way {@link ZipArchiver} did it before it compressed in parallel. */
+  private static void compressSequential(VirtualFile folder, OutputStream out)
+      throws IOException, ServerException {
+    try (ZipOutputStream zip = new ZipOutputStream(out)) {
+      folder.accept(
+          new VirtualFileVisitor() {
+            @Override
+            public void visit(VirtualFile file) throws ServerException {
+              if (dotGitFilter().accept(file)) {
+                if (!file.equals(folder)) {
+                  addEntry(folder, file, zip);
+                }
+                if (file.isFolder()) {
+                  for (VirtualFile child : file.getChildren()) {
+                    child.accept(this);
+                  }
+                }
+              }
+            }
+          });
+    }
+  }
+
+  private static void addEntry(VirtualFile folder, VirtualFile file, ZipOutputStream zip)
+      throws ServerException {
+    String name = file.getPath().subPath(folder.getPath()).toString();
+    try {
+      ZipEntry entry = new ZipEntry(file.isFolder() ? name + '/' : name);
+      zip.putNextEntry(entry);
+      if (file.isFolder()) {
+        entry.setTime(0);
+      } else {
+        try (InputStream content = file.getContent()) {
+          ByteStreams.copy(content, zip);
+        }
+        entry.setTime(file.getLastModificationDate());
+      }
+      zip.closeEntry();
+    } catch (ForbiddenException | IOException e) {
+      throw new ServerException(e.getMessage(), e);
+    }
+  }
+
+  /** Generates folders of text files, every tenth file is a jar or png of random bytes. */
+  private static void generateProject(Random random, File project, long size) throws IOException {
+    long generated = 0;
+    for (int folder = 0; generated < size; folder++) {
+      File dir = new File(project, "src/package" + folder);
+      Files.createDirectories(dir.toPath());
+      for (int i = 0; i < 50 && generated < size; i++) {
+        byte[] content;
+        String name;
+        if (i % 10 == 0) {
+          content = new byte[256 * 1024 + random.nextInt(1024 * 1024)];
+          random.nextBytes(content);
+          name = "lib" + i + (i % 20 == 0 ? ".jar" : ".png");
+        } else {
+          content = generateText(random, 1024 + random.nextInt(32 * 1024));
+          name = "Source" + i + ".java";
+        }
+        Files.write(new File(dir, name).toPath(), content);
+        generated += content.length;
+      }
+    }
+  }
+
+  private static byte[] generateText(Random random, int length) {
+    String[] words = {"public", "class", "return", "final", "static", "void", "int", "String"};
+    StringBuilder sb = new StringBuilder(length);
+    while (sb.length() < length) {
+      sb.append(words[random.nextInt(words.length)]);
+      sb.append(random.nextInt(12) == 0 ? '\n' : ' ');
+    }
+    return sb.toString().getBytes();
+  }
+}
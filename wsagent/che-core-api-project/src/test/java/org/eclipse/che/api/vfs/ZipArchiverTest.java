@@ -12,6 +12,7 @@ package org.eclipse.che.api.vfs;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -20,14 +21,18 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 import org.eclipse.che.api.core.ConflictException;
@@ -111,6 +116,58 @@ public class ZipArchiverTest {
         new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
   }
 
+  @Test
+  public void compressesFolderToArchiveInOrderOfTree() throws Exception {
+    VirtualFile folder = vfsRoot.createFolder("arc");
+    for (int i = 0; i < 20; i++) {
+      VirtualFile child = folder.createFolder("folder" + i);
+      for (int j = 0; j < 20; j++) {
+        child.createFile("file" + j + ".txt", TEST_CONTENT + i + j);
+      }
+    }
+    List<String> expectedNames =
+        getFileTreeAsList(folder)
+            .stream()
+            .map(f -> getZipEntryName(folder, f))
+            .collect(toList());
+    ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+
+    new ZipArchiver(folder).compress(compressedFolder);
+
+    List<String> names = newArrayList();
+    try (ZipInputStream zip =
+        new ZipInputStream(new ByteArrayInputStream(compressedFolder.toByteArray()))) {
+      ZipEntry zipEntry;
+      while ((zipEntry = zip.getNextEntry()) != null) {
+        names.add(zipEntry.getName());
+      }
+    }
+    assertEquals(expectedNames, names);
+  }
+
+  @Test
+  public void storesAlreadyCompressedFilesWithoutCompression() throws Exception {
+    VirtualFile folder = vfsRoot.createFolder("arc");
+    folder.createFile("lib.jar", TEST_CONTENT);
+    folder.createFile("image.PNG", TEST_CONTENT);
+    folder.createFile("text.txt", TEST_CONTENT);
+    File archive = new File(testDirectory, "arc.zip");
+
+    try (FileOutputStream out = new FileOutputStream(archive)) {
+      new ZipArchiver(folder).compress(out);
+    }
+
+    try (ZipFile zip = new ZipFile(archive)) {
+      assertEquals(ZipEntry.STORED, zip.getEntry("lib.jar").getMethod());
+      assertEquals(ZipEntry.STORED, zip.getEntry("image.PNG").getMethod());
+      assertEquals(ZipEntry.DEFLATED, zip.getEntry("text.txt").getMethod());
+      for (String name : new String[] {"lib.jar", "image.PNG", "text.txt"}) {
+        InputStream content = zip.getInputStream(zip.getEntry(name));
+        assertEquals(TEST_CONTENT, new String(ByteStreams.toByteArray(content)));
+      }
+    }
+  }
+
   @Test
   public void extractsArchiveToFolder() throws Exception {
     byte[] archive = createTestZipArchive();
@@ -196,6 +253,46 @@ public class ZipArchiverTest {
     }
   }
 
+  @Test
+  public void failsCompressWhenStoredFileIsChangedWhileArchiving() throws Exception {
+    VirtualFile file = mock(VirtualFile.class);
+    when(file.getPath()).thenReturn(Path.of("/arc/image.png"));
+    when(file.getLength()).thenReturn(4L);
+    when(file.getContent())
+        .thenReturn(new ByteArrayInputStream(new byte[] {1, 2, 3, 4}))
+        .thenReturn(new ByteArrayInputStream(new byte[] {4, 3, 2, 1}));
+
+    thrown.expect(IOException.class);
+    thrown.expectMessage("was changed while archiving");
+    try (ParallelZipWriter writer = new ParallelZipWriter(new ByteArrayOutputStream())) {
+      writer.putFile("image.png", 0, file);
+      writer.finish();
+    }
+  }
+
+  @Test
+  public void failsCompressWhenStoredLocalFileIsChangedWhileArchiving() throws Exception {
+    File ioFile = new File(testDirectory, "image.png");
+    Files.write(ioFile.toPath(), new byte[] {1, 2, 3, 4});
+    VirtualFile file = mock(VirtualFile.class);
+    when(file.getPath()).thenReturn(Path.of("/arc/image.png"));
+    when(file.getLength()).thenReturn(4L);
+    when(file.toIoFile()).thenReturn(ioFile);
+
+    thrown.expect(IOException.class);
+    thrown.expectMessage("was changed while archiving");
+    // checksum is computed in the calling thread, so the file can be changed after it
+    try (ParallelZipWriter writer =
+        new ParallelZipWriter(
+            new FileOutputStream(new File(testDirectory, "arc.zip")),
+            MoreExecutors.newDirectExecutorService(),
+            8)) {
+      writer.putFile("image.png", 0, file);
+      Files.write(ioFile.toPath(), new byte[] {4, 3, 2, 1});
+      writer.finish();
+    }
+  }
+
   private Map<String, String> readArchiveEntries(InputStream archive) throws Exception {
     Map<String, String> entries = newHashMap();
     try (ZipInputStream zip = new ZipInputStream(archive)) {
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.impl.file;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.commons.lang.IoUtil;
+
+/**
+ * Measures throughput of folder listing of {@link LocalVirtualFileSystem} with growing number of
+ * threads. Not a unit test, run it manually from IDE or with {@code exec:java
+ * -Dexec.classpathScope=test}.
+ *
+ * <p>Arguments: number of folders (1000 by default), number of files in each folder (50 by
+ * default), duration of each measurement in seconds (5 by default).
+ */
+public class LocalVirtualFileSystemListingBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int folders = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int files = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    int duration = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+    Path root = Files.createTempDirectory("listing-benchmark-");
+    try {
+      for (int i = 0; i < folders; i++) {
+        Path folder = Files.createDirectory(root.resolve("folder" + i));
+        for (int j = 0; j < files; j++) {
+          Files.createFile(folder.resolve("file" + j + ".txt"));
+        }
+      }
+
+      // listings of just modified folders are not cached, let folders get older
+      SECONDS.sleep(3);
+
+      LocalVirtualFileSystem fileSystem =
+          new LocalVirtualFileSystem(root.toFile(), null, null, null);
+      List<VirtualFile> listedFolders = fileSystem.getRoot().getChildren();
+
+      int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+      for (int threads = 1; threads <= maxThreads; threads *= 2) {
+        long listings = run(listedFolders, threads, duration);
+        System.out.printf("%3d threads: %,12d listings/s%n", threads, listings / duration);
+      }
+    } finally {
+      IoUtil.deleteRecursive(root.toFile());
+    }
+  }
+
+  private static long run(List<VirtualFile> folders, int threads, int duration)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    AtomicBoolean running = new AtomicBoolean(true);
+    CountDownLatch finished = new CountDownLatch(threads);
+    LongAdder listings = new LongAdder();
+    List<Throwable> errors = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final int offset = t;
+      executor.execute(
+          () -> {
+            try {
+              for (int i = offset; running.get(); i++) {
+                folders.get(i % folders.size()).getChildren();
+                listings.increment();
+              }
+            } catch (Exception e) {
+              synchronized (errors) {
+                errors.add(e);
+              }
+            } finally {
+              finished.countDown();
+            }
+          });
+    }
+
+    SECONDS.sleep(duration);
+    running.set(false);
+    finished.await();
+    executor.shutdown();
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException(errors.get(0));
+    }
+    return listings.sum();
+  }
+}
@@ -14,6 +14,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
@@ -23,6 +24,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.eclipse.che.api.vfs.watcher.FileWatcherService;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.junit.After;
@@ -92,4 +94,18 @@ public class LocalVirtualFileSystemProviderTest {
     fileSystem.close();
     assertNull(fileSystemProvider.getVirtualFileSystem(false));
   }
+
+  @Test
+  public void listensFileWatcherEventsWhileVirtualFileSystemIsOpened() throws Exception {
+    FileWatcherService fileWatcherService = mock(FileWatcherService.class);
+    fileSystemProvider =
+        new LocalVirtualFileSystemProvider(
+            fsRootDirectory, mock(SearcherProvider.class), fileWatcherService);
+
+    VirtualFileSystem fileSystem = fileSystemProvider.getVirtualFileSystem(true);
+    verify(fileWatcherService).addListener(any());
+
+    fileSystem.close();
+    verify(fileWatcherService).removeListener(any());
+  }
 }
@@ -10,6 +10,10 @@
  */
 package org.eclipse.che.api.vfs.impl.file;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -17,9 +21,15 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.commons.lang.IoUtil;
@@ -67,4 +77,53 @@ public class LocalVirtualFileSystemTest {
     fileSystem.close();
     verify(searcher).close();
   }
+
+  @Test
+  public void listsFoldersFirstAndThenFilesSortedByName() throws Exception {
+    assertTrue(testDirectory.mkdir());
+    LocalVirtualFile root = fileSystem.getRoot();
+    root.createFile("b.txt", "");
+    root.createFolder("z");
+    root.createFile("a.txt", "");
+    root.createFolder("c");
+
+    assertEquals(newArrayList("c", "z", "a.txt", "b.txt"), childrenNames(root));
+  }
+
+  @Test
+  public void listsChildrenCreatedOutsideOfFileSystemAfterListingIsCached() throws Exception {
+    assertTrue(testDirectory.mkdir());
+    LocalVirtualFile root = fileSystem.getRoot();
+    root.createFile("a.txt", "");
+    assertEquals(newArrayList("a.txt"), childrenNames(root));
+
+    assertTrue(new File(testDirectory, "b.txt").createNewFile());
+
+    assertEquals(newArrayList("a.txt", "b.txt"), childrenNames(root));
+  }
+
+  @Test
+  public void listsChildrenOfFolderConcurrently() throws Exception {
+    assertTrue(testDirectory.mkdir());
+    LocalVirtualFile root = fileSystem.getRoot();
+    for (int i = 0; i < 100; i++) {
+      root.createFile(String.format("file%03d", i), "");
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<String>>> futures = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        futures.add(executor.submit(() -> childrenNames(root)));
+      }
+      for (Future<List<String>> future : futures) {
+        assertEquals(100, future.get().size());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static List<String> childrenNames(VirtualFile folder) throws Exception {
+    return folder.getChildren().stream().map(VirtualFile::getName).collect(toList());
+  }
 }
@@ -12,7 +12,9 @@ package org.eclipse.che.api.vfs.search.impl;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -225,6 +227,79 @@ public class FSLuceneSearcherTest {
     assertEquals(result.getResults().get(0).getData().size(), 2);
   }
 
+  @Test
+  public void indexesFileTreeWithBulkIndexingPipeline() throws Exception {
+    searcher = new FSLuceneSearcher(indexDirectory, filter, closeCallback, 4);
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile[] folders = new VirtualFile[10];
+    for (int i = 0; i < folders.length; i++) {
+      folders[i] = virtualFileSystem.getRoot().createFolder("folder" + i);
+    }
+    for (int i = 0; i < 1000; i++) {
+      folders[i % folders.length].createFile(
+          String.format("file%03d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+    }
+    LuceneSearcher.IndexingListener listener = mock(LuceneSearcher.IndexingListener.class);
+    searcher.addIndexingListener(listener);
+
+    searcher.init(virtualFileSystem);
+
+    SearchResult result = searcher.search(new QueryExpression().setText("spaceflight"));
+    assertEquals(result.getTotalHits(), 200);
+    verify(listener).onStarted("/");
+    verify(listener).onFinished(eq("/"), eq(1000), anyLong());
+  }
+
+  @Test
+  public void providesLinesOfMatchedTokens() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+    folder.createFile(
+        "xxx.txt", TEST_CONTENT[0] + "\n" + TEST_CONTENT[1] + "\r\n\r" + TEST_CONTENT[4]);
+    searcher.init(virtualFileSystem);
+
+    SearchResult result =
+        searcher.search(new QueryExpression().setText("think").setIncludePositions(true));
+
+    List<LuceneSearcher.OffsetData> data = result.getResults().get(0).getData();
+    assertEquals(data.size(), 2);
+    assertEquals(data.get(0).lineNum, 1);
+    assertEquals(data.get(0).line, TEST_CONTENT[1]);
+    assertEquals(data.get(0).phrase, "think");
+    assertEquals(data.get(1).lineNum, 3);
+    assertEquals(data.get(1).line, TEST_CONTENT[4]);
+  }
+
+  @Test
+  public void skipsMatchedTokensThatAreNotInFileAnymore() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+    VirtualFile file =
+        folder.createFile("xxx.txt", TEST_CONTENT[1] + "\n" + TEST_CONTENT[4] + "\n");
+    searcher.init(virtualFileSystem);
+    file.updateContent(TEST_CONTENT[1]);
+
+    SearchResult result =
+        searcher.search(new QueryExpression().setText("think").setIncludePositions(true));
+
+    List<LuceneSearcher.OffsetData> data = result.getResults().get(0).getData();
+    assertEquals(data.size(), 1);
+    assertEquals(data.get(0).lineNum, 0);
+    assertEquals(data.get(0).line, TEST_CONTENT[1]);
+  }
+
+  @Test
+  public void findsLinesByOffsets() throws Exception {
+    int[] lineOffsets = LuceneSearcher.computeLineOffsets("a\nbb\r\nccc\rd\n");
+
+    assertEquals(lineOffsets, new int[] {0, 2, 6, 10, 12});
+    assertEquals(LuceneSearcher.findLine(lineOffsets, 0), 0);
+    assertEquals(LuceneSearcher.findLine(lineOffsets, 3), 1);
+    assertEquals(LuceneSearcher.findLine(lineOffsets, 6), 2);
+    assertEquals(LuceneSearcher.findLine(lineOffsets, 9), 2);
+    assertEquals(LuceneSearcher.findLine(lineOffsets, 10), 3);
+  }
+
   @DataProvider
   public Object[][] searchByName() {
     return new Object[][] {
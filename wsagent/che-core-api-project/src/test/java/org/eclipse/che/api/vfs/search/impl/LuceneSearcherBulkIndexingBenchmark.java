@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.search.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.commons.lang.IoUtil;
+
+/**
+ * Compares sequential and parallel indexing of a synthetic file tree. Not a unit test, run it
+ * manually from IDE or with {@code exec:java -Dexec.classpathScope=test}.
+ *
+ * <p>Arguments: number of files (100000 by default), parallelism of bulk indexing pipeline
+ * (number of available processors by default).
+ */
+public class LuceneSearcherBulkIndexingBenchmark {
+  private static final String[] WORDS = {
+    "public", "class", "void", "return", "import", "static", "final", "string", "int", "new",
+    "apollo", "mission", "lunar", "orbit", "module", "command", "service", "saturn"
+  };
+
+  public static void main(String[] args) throws Exception {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int parallelism =
+        args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+    Path root = Files.createTempDirectory("bulk-indexing-benchmark-");
+    try {
+      System.out.printf("Generating %d files in %s%n", files, root);
+      generateTree(root, files);
+
+      VirtualFileSystem fs = new LocalVirtualFileSystem(root.toFile(), null, null, null);
+
+      run(fs, "sequential", 1);
+      run(fs, "parallel(" + parallelism + ")", parallelism);
+    } finally {
+      IoUtil.deleteRecursive(root.toFile());
+    }
+  }
+
+  private static void run(VirtualFileSystem fs, String name, int parallelism) throws Exception {
+    File indexDirectory = Files.createTempDirectory("bulk-indexing-benchmark-index-").toFile();
+    FSLuceneSearcher searcher =
+        new FSLuceneSearcher(indexDirectory, file -> false, null, parallelism);
+    try {
+      searcher.doInit();
+      VirtualFile root = fs.getRoot();
+
+      long start = System.nanoTime();
+      searcher.addTree(root);
+      long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+      long hits = searcher.search(new QueryExpression().setText("apollo")).getTotalHits();
+      System.out.printf("%-16s %8d ms, %d hits%n", name, elapsedMs, hits);
+    } finally {
+      searcher.close();
+    }
+  }
+
+  private static void generateTree(Path root, int files) throws Exception {
+    Random random = new Random(42);
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < files; i++) {
+      Path dir = root.resolve("module" + i % 50).resolve("package" + i % 1000);
+      Files.createDirectories(dir);
+
+      content.setLength(0);
+      int words = 200 + random.nextInt(800);
+      for (int w = 0; w < words; w++) {
+        content.append(WORDS[random.nextInt(WORDS.length)]).append(w % 12 == 11 ? '\n' : ' ');
+      }
+      Files.write(dir.resolve("File" + i + ".java"), content.toString().getBytes(UTF_8));
+    }
+  }
+}
@@ -12,15 +12,21 @@ package org.eclipse.che.api.vfs.watcher;
 
 import static java.io.File.createTempFile;
 import static java.lang.Thread.sleep;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static org.apache.commons.io.FileUtils.write;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.nio.file.WatchEvent.Kind;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import org.junit.After;
 import org.junit.Before;
@@ -28,6 +34,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -52,6 +60,7 @@ public class FileTreeWalkerTest {
   Set<Consumer<Path>> fileCreateConsumers = new HashSet<>();
   Set<Consumer<Path>> fileUpdateConsumers = new HashSet<>();
   Set<Consumer<Path>> fileDeleteConsumers = new HashSet<>();
+  Set<Consumer<Path>> fileRestoreConsumers = new HashSet<>();
   Set<PathMatcher> fileExcludes = new HashSet<>();
 
   @Mock Consumer<Path> fileCreatedConsumerMock;
@@ -61,6 +70,10 @@ public class FileTreeWalkerTest {
   @Mock Consumer<Path> directoryUpdateConsumerMock;
 
   @Mock Consumer<Path> directoryDeleteConsumerMock;
+  @Mock Consumer<Path> fileRestoreConsumerMock;
+  @Mock FileWatcherService fileWatcherService;
+
+  @Captor ArgumentCaptor<BiConsumer<Path, Kind<?>>> listenerCaptor;
 
   @Before
   public void setUp() throws Exception {
@@ -86,6 +99,7 @@ public class FileTreeWalkerTest {
     fileUpdateConsumers.clear();
     fileCreateConsumers.clear();
     fileDeleteConsumers.clear();
+    fileRestoreConsumers.clear();
     fileExcludes.clear();
   }
 
@@ -190,4 +204,182 @@ public class FileTreeWalkerTest {
     fileTreeWalker.walk();
     verify(directoryCreatedConsumerMock, never()).accept(file.toPath());
   }
+
+  @Test
+  public void shouldRunFileCreatedConsumerOnFileWatcherEventInIncrementalMode() throws Exception {
+    fileTreeWalker = newTreeWalker(true, null);
+    when(fileWatcherService.register(any(Path.class))).thenReturn(true);
+    fileTreeWalker.start();
+    fileTreeWalker.walk();
+    verify(fileWatcherService).addListener(listenerCaptor.capture());
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+    listenerCaptor.getValue().accept(file.toPath(), ENTRY_CREATE);
+    fileTreeWalker.processChanges();
+
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldRunDeleteConsumersForDirectoryContentInIncrementalMode() throws Exception {
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File file = createTempFile(TEST_FILE_NAME, "", folder);
+    fileTreeWalker = newTreeWalker(true, null);
+    when(fileWatcherService.register(any(Path.class))).thenReturn(true);
+    fileTreeWalker.start();
+    fileTreeWalker.walk();
+    verify(fileWatcherService).addListener(listenerCaptor.capture());
+    verify(fileWatcherService).register(folder.toPath());
+    fileDeleteConsumers.add(fileDeleteConsumerMock);
+    directoryDeleteConsumers.add(directoryDeleteConsumerMock);
+
+    file.delete();
+    folder.delete();
+    listenerCaptor.getValue().accept(folder.toPath(), ENTRY_DELETE);
+    fileTreeWalker.processChanges();
+
+    verify(fileDeleteConsumerMock).accept(file.toPath());
+    verify(directoryDeleteConsumerMock).accept(folder.toPath());
+    verify(fileWatcherService).unRegister(folder.toPath());
+  }
+
+  @Test
+  public void shouldNotWalkTreeBeforeFullWalkPeriodInIncrementalMode() throws Exception {
+    fileTreeWalker = newTreeWalker(true, null);
+    when(fileWatcherService.register(any(Path.class))).thenReturn(true);
+    fileTreeWalker.start();
+    fileTreeWalker.walk();
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+    fileTreeWalker.walk();
+
+    verify(fileCreatedConsumerMock, never()).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldWalkOnlyRefreshedDirectory() throws Exception {
+    File refreshed = rootFolder.newFolder("refreshed");
+    File other = rootFolder.newFolder("other");
+    fileTreeWalker.walk();
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+
+    File file = new File(refreshed, TEST_FILE_NAME);
+    file.createNewFile();
+    File otherFile = new File(other, TEST_FILE_NAME);
+    otherFile.createNewFile();
+    fileTreeWalker.refresh("/refreshed");
+
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+    verify(fileCreatedConsumerMock, never()).accept(otherFile.toPath());
+  }
+
+  @Test
+  public void shouldRunDeleteConsumersOnRefreshOfRemovedDirectory() throws Exception {
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File file = new File(folder, TEST_FILE_NAME);
+    file.createNewFile();
+    fileTreeWalker.walk();
+    fileDeleteConsumers.add(fileDeleteConsumerMock);
+    directoryDeleteConsumers.add(directoryDeleteConsumerMock);
+
+    file.delete();
+    folder.delete();
+    fileTreeWalker.refresh("/" + TEST_FOLDER_NAME);
+
+    verify(fileDeleteConsumerMock).accept(file.toPath());
+    verify(directoryDeleteConsumerMock).accept(folder.toPath());
+  }
+
+  @Test
+  public void shouldRestoreItemsFromSnapshotWithoutRunningCreateConsumers() throws Exception {
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+    File snapshot = new File(rootFolder.newFolder(), "snapshot");
+    directoryExcludes.add(it -> it.equals(snapshot.getParentFile().toPath()));
+    fileTreeWalker = newTreeWalker(false, snapshot.getPath());
+    fileTreeWalker.start();
+    fileTreeWalker.walk();
+    fileTreeWalker.stop();
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    fileRestoreConsumers.add(fileRestoreConsumerMock);
+
+    fileTreeWalker = newTreeWalker(false, snapshot.getPath());
+    fileTreeWalker.start();
+    fileTreeWalker.walk();
+
+    verify(fileRestoreConsumerMock).accept(file.toPath());
+    verify(fileCreatedConsumerMock, never()).accept(any(Path.class));
+  }
+
+  @Test
+  public void shouldRestoreSnapshotOnFirstWalkRatherThanOnStart() throws Exception {
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+    File snapshot = new File(rootFolder.newFolder(), "snapshot");
+    directoryExcludes.add(it -> it.equals(snapshot.getParentFile().toPath()));
+    fileTreeWalker = newTreeWalker(false, snapshot.getPath());
+    fileTreeWalker.start();
+    fileTreeWalker.walk();
+    fileTreeWalker.stop();
+    fileRestoreConsumers.add(fileRestoreConsumerMock);
+
+    fileTreeWalker = newTreeWalker(false, snapshot.getPath());
+    fileTreeWalker.start();
+    verify(fileRestoreConsumerMock, never()).accept(any(Path.class));
+
+    fileTreeWalker.walk();
+    verify(fileRestoreConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldFallBackToFullWalksWhenDirectoryCanNotBeWatched() throws Exception {
+    fileTreeWalker = newTreeWalker(true, 100, null);
+    when(fileWatcherService.register(any(Path.class))).thenReturn(false);
+    fileTreeWalker.start();
+    fileTreeWalker.walk();
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+    fileTreeWalker.walk();
+
+    verify(fileWatcherService).removeListener(any());
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldUnregisterDirectoriesWhenLimitOfWatchesIsReached() throws Exception {
+    rootFolder.newFolder(TEST_FOLDER_NAME);
+    fileTreeWalker = newTreeWalker(true, 1, null);
+    when(fileWatcherService.register(any(Path.class))).thenReturn(true);
+    fileTreeWalker.start();
+    fileTreeWalker.walk();
+
+    verify(fileWatcherService).register(rootFolder.getRoot().toPath());
+    verify(fileWatcherService).unRegister(rootFolder.getRoot().toPath());
+    verify(fileWatcherService).removeListener(any());
+  }
+
+  private FileTreeWalker newTreeWalker(boolean incremental, String snapshot) {
+    return newTreeWalker(incremental, 100, snapshot);
+  }
+
+  private FileTreeWalker newTreeWalker(boolean incremental, int maxWatches, String snapshot) {
+    return new FileTreeWalker(
+        rootFolder.getRoot(),
+        directoryUpdateConsumers,
+        directoryCreateConsumers,
+        directoryDeleteConsumers,
+        new HashSet<>(),
+        directoryExcludes,
+        fileUpdateConsumers,
+        fileCreateConsumers,
+        fileDeleteConsumers,
+        fileRestoreConsumers,
+        fileExcludes,
+        fileWatcherService,
+        incremental,
+        maxWatches,
+        600,
+        snapshot);
+  }
 }
@@ -12,6 +12,7 @@ package org.eclipse.che.api.environment.server;
 
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.toList;
 import static org.eclipse.che.api.machine.server.event.InstanceStateEvent.Type.DIE;
 import static org.eclipse.che.api.machine.server.event.InstanceStateEvent.Type.OOM;
@@ -20,16 +21,30 @@ import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -59,7 +74,7 @@ import org.eclipse.che.api.core.util.AbstractLineConsumer;
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.core.util.MessageConsumer;
 import org.eclipse.che.api.core.util.lineconsumer.ConcurrentCompositeLineConsumer;
-import org.eclipse.che.api.core.util.lineconsumer.ConcurrentFileLineConsumer;
+import org.eclipse.che.api.core.util.lineconsumer.IndexedLogReader;
 import org.eclipse.che.api.environment.server.exception.EnvironmentException;
 import org.eclipse.che.api.environment.server.exception.EnvironmentNotRunningException;
 import org.eclipse.che.api.environment.server.exception.EnvironmentStartInterruptedException;
@@ -90,7 +105,9 @@ import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Size;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.commons.lang.concurrent.StripedLocks;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.eclipse.che.commons.lang.concurrent.Unlocker;
 import org.slf4j.Logger;
 
@@ -122,9 +139,48 @@ public class CheEnvironmentEngine {
   private final ContainerNameGenerator containerNameGenerator;
   private final AgentRegistry agentRegistry;
   private final WorkspaceSharedPool sharedPool;
+  private final int machineStartParallelism;
+  private final boolean prefetchImages;
+  private final ExecutorService machineStartExecutor;
+
+  private MachineLogsSettings logsSettings = new MachineLogsSettings();
 
   private volatile boolean isPreDestroyInvoked;
 
+  public CheEnvironmentEngine(
+      SnapshotDao snapshotDao,
+      MachineInstanceProviders machineInstanceProviders,
+      String machineLogsDir,
+      int defaultMachineMemorySizeMB,
+      EventService eventService,
+      EnvironmentParser environmentParser,
+      DefaultServicesStartStrategy startStrategy,
+      MachineInstanceProvider machineProvider,
+      InfrastructureProvisioner infrastructureProvisioner,
+      String apiEndpoint,
+      RecipeDownloader recipeDownloader,
+      ContainerNameGenerator containerNameGenerator,
+      AgentRegistry agentRegistry,
+      WorkspaceSharedPool sharedPool) {
+    this(
+        snapshotDao,
+        machineInstanceProviders,
+        machineLogsDir,
+        defaultMachineMemorySizeMB,
+        eventService,
+        environmentParser,
+        startStrategy,
+        machineProvider,
+        infrastructureProvisioner,
+        apiEndpoint,
+        recipeDownloader,
+        containerNameGenerator,
+        agentRegistry,
+        sharedPool,
+        1,
+        false);
+  }
+
   @Inject
   public CheEnvironmentEngine(
       SnapshotDao snapshotDao,
@@ -140,7 +196,9 @@ public class CheEnvironmentEngine {
       RecipeDownloader recipeDownloader,
       ContainerNameGenerator containerNameGenerator,
       AgentRegistry agentRegistry,
-      WorkspaceSharedPool sharedPool) {
+      WorkspaceSharedPool sharedPool,
+      @Named("che.workspace.machine_start.parallelism") int machineStartParallelism,
+      @Named("che.workspace.machine_start.prefetch_images") boolean prefetchImages) {
     this.snapshotDao = snapshotDao;
     this.eventService = eventService;
     this.environmentParser = environmentParser;
@@ -162,6 +220,15 @@ public class CheEnvironmentEngine {
                 + apiEndpoint.substring(apiEndpoint.indexOf(":"))
                 + "/recipe/.*$)|(^/recipe/.*$)");
     this.containerNameGenerator = containerNameGenerator;
+    this.machineStartParallelism = Math.max(1, machineStartParallelism);
+    this.prefetchImages = prefetchImages;
+    this.machineStartExecutor =
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder()
+                .setNameFormat("EnvironmentMachineStarter-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
   }
 
   /**
@@ -216,6 +283,31 @@ public class CheEnvironmentEngine {
                         machineId, workspaceId)));
   }
 
+  /**
+   * Returns range of lines of the machine logs. Lines are located with the index of the log file,
+   * so the whole log is not read to get its tail.
+   *
+   * @param machineId ID of machine whose logs are requested
+   * @param skipCount the number of lines to skip
+   * @param maxItems the maximum number of lines to return
+   * @return lines of machine logs
+   * @throws NotFoundException if logs of the machine are not found
+   * @throws ServerException if any other error occurs while reading the logs
+   */
+  public List<String> getMachineLogs(String machineId, long skipCount, int maxItems)
+      throws NotFoundException, ServerException {
+    File logsFile = getMachineLogsFile(machineId);
+    if (!logsFile.isFile()) {
+      throw new NotFoundException(format("Logs of machine '%s' are not available", machineId));
+    }
+    try {
+      return IndexedLogReader.readLines(logsFile, skipCount, maxItems);
+    } catch (IOException e) {
+      throw new ServerException(
+          format("Unable read logs of machine '%s'. %s", machineId, e.getMessage()), e);
+    }
+  }
+
   /**
    * Starts provided environment.
    *
@@ -549,13 +641,13 @@ public class CheEnvironmentEngine {
 
     normalize(ownerName, workspaceId, internalEnv);
 
-    List<String> servicesOrder = startStrategy.order(internalEnv);
+    List<List<String>> startWaves = startStrategy.orderInWaves(internalEnv);
 
     normalizeNames(internalEnv);
 
     EnvironmentHolder environmentHolder =
         new EnvironmentHolder(
-            servicesOrder,
+            startWaves,
             internalEnv,
             envConfig,
             messageConsumer,
@@ -709,11 +801,12 @@ public class CheEnvironmentEngine {
       boolean recover,
       MachineStartedHandler startedHandler)
       throws ServerException, AgentException, EnvironmentException {
-    // Starting all machines in environment one by one by getting configs
-    // from the corresponding starting queue.
-    // Config will be null only if there are no machines left in the queue
+    // Starting machines of environment wave by wave. Machines of the same wave
+    // don't depend on each other, so they are started concurrently.
+    // Started machines are removed from the corresponding starting queue.
     String envName;
     MessageConsumer<MachineLogMessage> envLogger;
+    List<List<String>> startWaves;
     String creator = EnvironmentContext.getCurrent().getSubject().getUserId();
     try (@SuppressWarnings("unused")
         Unlocker u = stripedLocks.readLock(workspaceId)) {
@@ -723,137 +816,33 @@ public class CheEnvironmentEngine {
       }
       envName = environmentHolder.name;
       envLogger = environmentHolder.logger;
+      startWaves = environmentHolder.startWaves;
     }
 
+    EnvironmentStarter starter =
+        new EnvironmentStarter(
+            ownerName,
+            workspaceId,
+            envName,
+            devMachineName,
+            networkId,
+            recover,
+            creator,
+            envLogger,
+            startedHandler);
     try {
       machineProvider.createNetwork(networkId);
 
-      String machineName = queuePeekOrFail(workspaceId);
-      while (machineName != null) {
-        boolean isDev = devMachineName.equals(machineName);
-        // Environment start is failed when any machine start is failed, so if any error
-        // occurs during machine creation then environment start fail is reported and
-        // start resources such as queue and descriptor must be cleaned up
-
-        CheServiceImpl service;
-        @Nullable ExtendedMachine extendedMachine;
-        try (@SuppressWarnings("unused")
-            Unlocker u = stripedLocks.readLock(workspaceId)) {
-          EnvironmentHolder environmentHolder = environments.get(workspaceId);
-          if (environmentHolder == null) {
-            throw new EnvironmentStartInterruptedException(workspaceId, envName);
-          }
-          service = environmentHolder.environment.getServices().get(machineName);
-          extendedMachine = environmentHolder.environmentConfig.getMachines().get(machineName);
-        }
-        // should not happen
-        if (service == null) {
-          LOG.error(
-              "Start of machine with name {} in workspace {} failed. Machine not found in start queue",
-              machineName,
-              workspaceId);
-          throw new ServerException(
-              format(
-                  "Environment of workspace with ID '%s' failed due to internal error",
-                  workspaceId));
-        }
-
-        final String finalMachineName = machineName;
-        // needed to reuse startInstance method and
-        // create machine instances by different implementation-specific providers
-        MachineStarter machineStarter =
-            (machineLogger, machineSource) -> {
-              CheServiceImpl serviceWithNormalizedSource =
-                  normalizeServiceSource(service, machineSource);
-              return machineProvider.startService(
-                  ownerName,
-                  workspaceId,
-                  envName,
-                  finalMachineName,
-                  isDev,
-                  networkId,
-                  serviceWithNormalizedSource,
-                  machineLogger);
-            };
-
-        MachineImpl machine =
-            MachineImpl.builder()
-                .setConfig(
-                    MachineConfigImpl.builder()
-                        .setDev(isDev)
-                        .setLimits(new MachineLimitsImpl(bytesToMB(service.getMemLimit())))
-                        .setType("docker")
-                        .setName(machineName)
-                        .setEnvVariables(service.getEnvironment())
-                        .build())
-                .setId(service.getId())
-                .setWorkspaceId(workspaceId)
-                .setStatus(MachineStatus.CREATING)
-                .setEnvName(envName)
-                .setOwner(creator)
-                .build();
-
-        checkInterruption(workspaceId, envName);
-        Instance instance = startInstance(recover, envLogger, machine, machineStarter);
-        checkInterruption(workspaceId, envName);
-
-        startedHandler.started(instance, extendedMachine);
-        checkInterruption(workspaceId, envName);
-
-        // Machine destroying is an expensive operation which must be
-        // performed outside of the lock, this section checks if
-        // the environment wasn't stopped while it is starting and sets
-        // polled flag to true if the environment wasn't stopped.
-        // Also polls the proceeded machine configuration from the queue
-        boolean queuePolled = false;
-        try (@SuppressWarnings("unused")
-            Unlocker u = stripedLocks.writeLock(workspaceId)) {
-          ensurePreDestroyIsNotExecuted();
-          EnvironmentHolder environmentHolder = environments.get(workspaceId);
-          if (environmentHolder != null) {
-            final Queue<String> queue = environmentHolder.startQueue;
-            if (queue != null) {
-              queue.poll();
-              queuePolled = true;
-            }
-          }
-        }
-
-        // If machine config is not polled from the queue
-        // then environment was stopped and newly created machine
-        // must be destroyed
-        if (!queuePolled) {
-          try {
-            eventService.publish(
-                newDto(MachineStatusEvent.class)
-                    .withEventType(MachineStatusEvent.EventType.DESTROYING)
-                    .withDev(isDev)
-                    .withMachineName(machineName)
-                    .withMachineId(instance.getId())
-                    .withWorkspaceId(workspaceId));
-
-            instance.destroy();
-
-            removeMachine(workspaceId, instance.getId());
-
-            eventService.publish(
-                newDto(MachineStatusEvent.class)
-                    .withEventType(MachineStatusEvent.EventType.DESTROYED)
-                    .withDev(isDev)
-                    .withMachineName(machineName)
-                    .withMachineId(instance.getId())
-                    .withWorkspaceId(workspaceId));
-          } catch (MachineException e) {
-            LOG.error(e.getLocalizedMessage(), e);
-          }
-          throw new ServerException(
-              "Workspace '"
-                  + workspaceId
-                  + "' start interrupted. Workspace stopped before all its machines started");
-        }
+      // snapshots are resolved on machine start, so only origin images are prefetched
+      if (prefetchImages && !recover && startWaves.size() > 1) {
+        starter.startImagesPrefetching(startWaves.subList(1, startWaves.size()));
+      }
 
-        machineName = queuePeekOrFail(workspaceId);
+      for (List<String> wave : startWaves) {
+        ensureEnvironmentIsStarting(workspaceId);
+        startWave(starter, wave);
       }
+      ensureEnvironmentIsStarting(workspaceId);
     } catch (Exception e) {
       boolean interrupted = Thread.interrupted();
       EnvironmentHolder env;
@@ -867,6 +856,7 @@ public class CheEnvironmentEngine {
       } catch (Exception remEx) {
         LOG.error(remEx.getLocalizedMessage(), remEx);
       }
+      starter.abortImagesPrefetching();
 
       if (interrupted) {
         throw new EnvironmentStartInterruptedException(workspaceId, envName);
@@ -881,6 +871,83 @@ public class CheEnvironmentEngine {
     }
   }
 
+  /**
+   * Starts machines of a single wave, up to {@link #machineStartParallelism} machines at once.
+   * Returns when all the machines are started, or fails when any of them fails to start. In the
+   * latter case machines which are still starting are interrupted and awaited, so the environment
+   * can be safely rolled back after this method returns.
+   */
+  private void startWave(EnvironmentStarter starter, List<String> wave) throws Exception {
+    int workersCount = Math.min(machineStartParallelism, wave.size());
+    if (workersCount == 1) {
+      for (String machineName : wave) {
+        starter.startMachine(machineName);
+      }
+      return;
+    }
+
+    Queue<String> machines = new ConcurrentLinkedQueue<>(wave);
+    AtomicReference<Exception> failure = new AtomicReference<>();
+    Set<Thread> workers = new HashSet<>();
+    Semaphore finishedWorkers = new Semaphore(0);
+    Runnable worker =
+        () -> {
+          synchronized (workers) {
+            workers.add(Thread.currentThread());
+          }
+          try {
+            String machineName;
+            while (failure.get() == null && (machineName = machines.poll()) != null) {
+              starter.startMachine(machineName);
+            }
+          } catch (Exception x) {
+            failure.compareAndSet(null, x);
+          } finally {
+            synchronized (workers) {
+              workers.remove(Thread.currentThread());
+            }
+            // workers are interrupted only while they are registered, clear the flag
+            // to not affect further tasks of the pooled thread
+            Thread.interrupted();
+            finishedWorkers.release();
+          }
+        };
+
+    int startedWorkers = 0;
+    try {
+      for (; startedWorkers < workersCount; startedWorkers++) {
+        machineStartExecutor.execute(ThreadLocalPropagateContext.wrap(worker));
+      }
+    } catch (RejectedExecutionException x) {
+      failure.compareAndSet(
+          null, new ServerException("Could not start machines because server is stopping"));
+    }
+
+    boolean interrupted = false;
+    for (int finished = 0; finished < startedWorkers; finished++) {
+      try {
+        finishedWorkers.acquire();
+      } catch (InterruptedException x) {
+        interrupted = true;
+        failure.compareAndSet(
+            null,
+            new EnvironmentStartInterruptedException(starter.workspaceId, starter.envName));
+        finishedWorkers.acquireUninterruptibly();
+      }
+      if (failure.get() != null) {
+        synchronized (workers) {
+          workers.forEach(Thread::interrupt);
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+  }
+
   private void checkInterruption(String workspaceId, String envName)
       throws EnvironmentStartInterruptedException {
     if (Thread.interrupted()) {
@@ -1114,18 +1181,15 @@ public class CheEnvironmentEngine {
   }
 
   /**
-   * Gets head config from the queue associated with the given {@code workspaceId}.
-   *
-   * <p>Note that this method won't actually poll the queue.
+   * Checks that the environment associated with the given {@code workspaceId} is still starting.
    *
    * <p>Fails if environment start was interrupted by stop(queue doesn't exist).
    *
-   * @return machine config which is in the queue head, or null if there are no machine configs left
    * @throws ServerException if queue doesn't exist which means that {@link #stop(String)} executed
    *     before all the machines started
-   * @throws ServerException if pre destroy has been invoked before peek config retrieved
+   * @throws ServerException if pre destroy has been invoked before the check
    */
-  private String queuePeekOrFail(String workspaceId) throws ServerException {
+  private void ensureEnvironmentIsStarting(String workspaceId) throws ServerException {
     try (@SuppressWarnings("unused")
         Unlocker u = stripedLocks.readLock(workspaceId)) {
       ensurePreDestroyIsNotExecuted();
@@ -1136,7 +1200,6 @@ public class CheEnvironmentEngine {
                 + workspaceId
                 + " start interrupted. Workspace was stopped before all its machines were started");
       }
-      return environmentHolder.startQueue.peek();
     }
   }
 
@@ -1180,6 +1243,11 @@ public class CheEnvironmentEngine {
             .withWorkspaceId(machine.getWorkspaceId()));
   }
 
+  @Inject
+  private void setLogsSettings(MachineLogsSettings logsSettings) {
+    this.logsSettings = logsSettings;
+  }
+
   @SuppressWarnings("unused")
   @VisibleForTesting
   @PostConstruct
@@ -1201,6 +1269,7 @@ public class CheEnvironmentEngine {
   @SuppressWarnings("unused")
   void cleanup() {
     isPreDestroyInvoked = true;
+    machineStartExecutor.shutdownNow();
     final java.io.File[] files = machineLogsDir.listFiles();
     if (files != null && files.length > 0) {
       for (java.io.File f : files) {
@@ -1225,7 +1294,7 @@ public class CheEnvironmentEngine {
         };
     try {
       return new ConcurrentCompositeLineConsumer(
-          new ConcurrentFileLineConsumer(getMachineLogsFile(machineId)), lineConsumer);
+          logsSettings.newFileConsumer(getMachineLogsFile(machineId)), lineConsumer);
     } catch (IOException e) {
       throw new MachineException(
           format(
@@ -1314,6 +1383,7 @@ public class CheEnvironmentEngine {
   }
 
   private static class EnvironmentHolder {
+    final List<List<String>> startWaves;
     final Queue<String> startQueue;
     final CheServicesEnvironmentImpl environment;
     final MessageConsumer<MachineLogMessage> logger;
@@ -1325,14 +1395,16 @@ public class CheEnvironmentEngine {
     EnvStatus status;
 
     EnvironmentHolder(
-        List<String> startQueue,
+        List<List<String>> startWaves,
         CheServicesEnvironmentImpl environment,
         Environment environmentConfig,
         MessageConsumer<MachineLogMessage> envLogger,
         EnvStatus envStatus,
         String name,
         String networkId) {
-      this.startQueue = new ArrayDeque<>(startQueue);
+      this.startWaves = startWaves;
+      this.startQueue = new ArrayDeque<>();
+      startWaves.forEach(this.startQueue::addAll);
       this.machines = new CopyOnWriteArrayList<>();
       this.logger = envLogger;
       this.status = envStatus;
@@ -1418,6 +1490,289 @@ public class CheEnvironmentEngine {
     }
   }
 
+  /** Starts machines of a single environment, shared by all the threads that start them. */
+  private class EnvironmentStarter {
+    final String ownerName;
+    final String workspaceId;
+    final String envName;
+    final String devMachineName;
+    final String networkId;
+    final boolean recover;
+    final String creator;
+    final MessageConsumer<MachineLogMessage> envLogger;
+    final MachineStartedHandler startedHandler;
+
+    /** Image preparation tasks of machines, a task is run by either prefetcher or machine start. */
+    Map<String, FutureTask<Void>> imagePrefetches = emptyMap();
+
+    Map<String, CheServiceImpl> prefetchedServices = emptyMap();
+
+    volatile boolean prefetchingAborted;
+
+    EnvironmentStarter(
+        String ownerName,
+        String workspaceId,
+        String envName,
+        String devMachineName,
+        String networkId,
+        boolean recover,
+        String creator,
+        MessageConsumer<MachineLogMessage> envLogger,
+        MachineStartedHandler startedHandler) {
+      this.ownerName = ownerName;
+      this.workspaceId = workspaceId;
+      this.envName = envName;
+      this.devMachineName = devMachineName;
+      this.networkId = networkId;
+      this.recover = recover;
+      this.creator = creator;
+      this.envLogger = envLogger;
+      this.startedHandler = startedHandler;
+    }
+
+    void startMachine(String machineName) throws Exception {
+      boolean isDev = devMachineName.equals(machineName);
+      // Environment start is failed when any machine start is failed, so if any error
+      // occurs during machine creation then environment start fail is reported and
+      // start resources such as queue and descriptor must be cleaned up
+
+      CheServiceImpl service;
+      @Nullable ExtendedMachine extendedMachine;
+      try (@SuppressWarnings("unused")
+          Unlocker u = stripedLocks.readLock(workspaceId)) {
+        EnvironmentHolder environmentHolder = environments.get(workspaceId);
+        if (environmentHolder == null) {
+          throw new EnvironmentStartInterruptedException(workspaceId, envName);
+        }
+        service = environmentHolder.environment.getServices().get(machineName);
+        extendedMachine = environmentHolder.environmentConfig.getMachines().get(machineName);
+      }
+      // should not happen
+      if (service == null) {
+        LOG.error(
+            "Start of machine with name {} in workspace {} failed. Machine not found in start queue",
+            machineName,
+            workspaceId);
+        throw new ServerException(
+            format(
+                "Environment of workspace with ID '%s' failed due to internal error",
+                workspaceId));
+      }
+
+      // needed to reuse startInstance method and
+      // create machine instances by different implementation-specific providers
+      MachineStarter machineStarter =
+          (machineLogger, machineSource) -> {
+            CheServiceImpl serviceWithNormalizedSource =
+                normalizeServiceSource(service, machineSource);
+            return machineProvider.startService(
+                ownerName,
+                workspaceId,
+                envName,
+                machineName,
+                isDev,
+                networkId,
+                serviceWithNormalizedSource,
+                machineLogger);
+          };
+
+      MachineImpl machine =
+          MachineImpl.builder()
+              .setConfig(
+                  MachineConfigImpl.builder()
+                      .setDev(isDev)
+                      .setLimits(new MachineLimitsImpl(bytesToMB(service.getMemLimit())))
+                      .setType("docker")
+                      .setName(machineName)
+                      .setEnvVariables(service.getEnvironment())
+                      .build())
+              .setId(service.getId())
+              .setWorkspaceId(workspaceId)
+              .setStatus(MachineStatus.CREATING)
+              .setEnvName(envName)
+              .setOwner(creator)
+              .build();
+
+      awaitImagePrefetch(machineName);
+
+      checkInterruption(workspaceId, envName);
+      Instance instance = startInstance(recover, envLogger, machine, machineStarter);
+      checkInterruption(workspaceId, envName);
+
+      startedHandler.started(instance, extendedMachine);
+      checkInterruption(workspaceId, envName);
+
+      // Machine destroying is an expensive operation which must be
+      // performed outside of the lock, this section checks if
+      // the environment wasn't stopped while it is starting and sets
+      // polled flag to true if the environment wasn't stopped.
+      // Also removes the proceeded machine from the queue
+      boolean queuePolled = false;
+      try (@SuppressWarnings("unused")
+          Unlocker u = stripedLocks.writeLock(workspaceId)) {
+        ensurePreDestroyIsNotExecuted();
+        EnvironmentHolder environmentHolder = environments.get(workspaceId);
+        if (environmentHolder != null) {
+          final Queue<String> queue = environmentHolder.startQueue;
+          if (queue != null) {
+            queue.remove(machineName);
+            queuePolled = true;
+          }
+        }
+      }
+
+      // If machine is not removed from the queue
+      // then environment was stopped and newly created machine
+      // must be destroyed
+      if (!queuePolled) {
+        try {
+          eventService.publish(
+              newDto(MachineStatusEvent.class)
+                  .withEventType(MachineStatusEvent.EventType.DESTROYING)
+                  .withDev(isDev)
+                  .withMachineName(machineName)
+                  .withMachineId(instance.getId())
+                  .withWorkspaceId(workspaceId));
+
+          instance.destroy();
+
+          removeMachine(workspaceId, instance.getId());
+
+          eventService.publish(
+              newDto(MachineStatusEvent.class)
+                  .withEventType(MachineStatusEvent.EventType.DESTROYED)
+                  .withDev(isDev)
+                  .withMachineName(machineName)
+                  .withMachineId(instance.getId())
+                  .withWorkspaceId(workspaceId));
+        } catch (MachineException e) {
+          LOG.error(e.getLocalizedMessage(), e);
+        }
+        throw new ServerException(
+            "Workspace '"
+                + workspaceId
+                + "' start interrupted. Workspace stopped before all its machines started");
+      }
+    }
+
+    /**
+     * Prepares images of the given machines one by one in background, while machines of the
+     * previous waves are starting.
+     */
+    void startImagesPrefetching(List<List<String>> waves)
+        throws EnvironmentStartInterruptedException {
+      Map<String, FutureTask<Void>> prefetches = new LinkedHashMap<>();
+      Map<String, CheServiceImpl> services = new HashMap<>();
+      try (@SuppressWarnings("unused")
+          Unlocker u = stripedLocks.readLock(workspaceId)) {
+        EnvironmentHolder environmentHolder = environments.get(workspaceId);
+        if (environmentHolder == null) {
+          throw new EnvironmentStartInterruptedException(workspaceId, envName);
+        }
+        for (List<String> wave : waves) {
+          for (String machineName : wave) {
+            CheServiceImpl service = environmentHolder.environment.getServices().get(machineName);
+            if (service != null) {
+              services.put(machineName, service);
+              prefetches.put(
+                  machineName,
+                  new FutureTask<Void>(
+                      ThreadLocalPropagateContext.wrap(
+                          () -> {
+                            prefetchImage(machineName, service);
+                            return null;
+                          })));
+            }
+          }
+        }
+      }
+      prefetchedServices = services;
+      imagePrefetches = prefetches;
+
+      try {
+        machineStartExecutor.execute(
+            () -> {
+              for (FutureTask<Void> prefetch : prefetches.values()) {
+                if (prefetchingAborted) {
+                  return;
+                }
+                prefetch.run();
+              }
+            });
+      } catch (RejectedExecutionException x) {
+        // images will be prepared by machines start
+      }
+    }
+
+    /** Discards images prepared for machines which are not going to be started. */
+    void abortImagesPrefetching() {
+      prefetchingAborted = true;
+      for (Map.Entry<String, FutureTask<Void>> entry : imagePrefetches.entrySet()) {
+        FutureTask<Void> prefetch = entry.getValue();
+        // if a prefetch is running it discards the image itself
+        if (!prefetch.cancel(false) && isCompletedNormally(prefetch)) {
+          discardPreparedImage(entry.getKey());
+        }
+      }
+    }
+
+    private void prefetchImage(String machineName, CheServiceImpl service) throws Exception {
+      LineConsumer machineLogger =
+          new AbstractLineConsumer() {
+            @Override
+            public void writeLine(String line) throws IOException {
+              envLogger.consume(new MachineLogMessageImpl(machineName, line));
+            }
+          };
+      machineProvider.prepareService(workspaceId, machineName, service, machineLogger);
+      if (prefetchingAborted) {
+        discardPreparedImage(machineName);
+      }
+    }
+
+    private void discardPreparedImage(String machineName) {
+      CheServiceImpl service = prefetchedServices.get(machineName);
+      if (service != null) {
+        machineProvider.discardPreparedService(service);
+      }
+    }
+
+    /** Waits until image of the machine is prefetched, prefetches it in this thread if needed. */
+    private void awaitImagePrefetch(String machineName)
+        throws EnvironmentStartInterruptedException {
+      FutureTask<Void> prefetch = imagePrefetches.get(machineName);
+      if (prefetch == null) {
+        return;
+      }
+      prefetch.run();
+      try {
+        prefetch.get();
+      } catch (InterruptedException x) {
+        Thread.currentThread().interrupt();
+        throw new EnvironmentStartInterruptedException(workspaceId, envName);
+      } catch (ExecutionException | CancellationException x) {
+        // image will be prepared once again on machine start reporting the error if any
+        LOG.debug(
+            "Prefetch of image of machine {} in workspace {} failed. Error: {}",
+            machineName,
+            workspaceId,
+            x.getLocalizedMessage());
+      }
+    }
+  }
+
+  private static boolean isCompletedNormally(FutureTask<Void> task) {
+    if (!task.isDone() || task.isCancelled()) {
+      return false;
+    }
+    try {
+      task.get();
+      return true;
+    } catch (InterruptedException | ExecutionException x) {
+      return false;
+    }
+  }
+
   private static class NoOpStartedHandler implements MachineStartedHandler {
     @Override
     public void started(Instance machine, ExtendedMachine extendedMachine) throws ServerException {}
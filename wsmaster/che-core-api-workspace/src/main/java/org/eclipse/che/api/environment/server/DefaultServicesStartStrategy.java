@@ -14,12 +14,14 @@ import static java.lang.String.format;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Sets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import org.eclipse.che.api.environment.server.model.CheServiceImpl;
 import org.eclipse.che.api.environment.server.model.CheServicesEnvironmentImpl;
@@ -44,6 +46,26 @@ public class DefaultServicesStartStrategy {
     return sortByWeight(weights);
   }
 
+  /**
+   * Resolves waves of machines start in an environment. Machines of a wave depend only on machines
+   * of previous waves, so machines of the same wave can be started concurrently once all the
+   * previous waves are started.
+   *
+   * @throws IllegalArgumentException if order of machines can not be calculated
+   */
+  public List<List<String>> orderInWaves(CheServicesEnvironmentImpl composeEnvironment)
+      throws IllegalArgumentException {
+
+    Map<String, Integer> weights = weightMachines(composeEnvironment.getServices());
+
+    // weight of a machine is greater than weights of all the machines it depends on
+    Map<Integer, List<String>> waves = new TreeMap<>();
+    for (String machine : sortByWeight(weights)) {
+      waves.computeIfAbsent(weights.get(machine), weight -> new ArrayList<>()).add(machine);
+    }
+    return new ArrayList<>(waves.values());
+  }
+
   /**
    * Returns mapping of names of machines to its weights in dependency graph.
    *
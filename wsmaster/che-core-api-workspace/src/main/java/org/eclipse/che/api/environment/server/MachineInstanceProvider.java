@@ -46,6 +46,29 @@ public interface MachineInstanceProvider {
       LineConsumer machineLogger)
       throws ServerException;
 
+  /**
+   * Prepares image of compose service ahead of its start, e.g. pulls or builds it, so the
+   * following {@link #startService} of the same service doesn't need to do that. Does nothing by
+   * default.
+   *
+   * @param workspaceId ID of workspace that owns provided service
+   * @param machineName name of machine which represents provided service
+   * @param service description of docker compose service
+   * @param machineLogger consumer of logs of service
+   * @throws ServerException if any error occurs
+   */
+  default void prepareService(
+      String workspaceId, String machineName, CheServiceImpl service, LineConsumer machineLogger)
+      throws ServerException {}
+
+  /**
+   * Releases resources allocated by {@link #prepareService} for the service that is not going to
+   * be started. Does nothing by default.
+   *
+   * @param service description of docker compose service
+   */
+  default void discardPreparedService(CheServiceImpl service) {}
+
   /**
    * Creates network for compose services.
    *
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.environment.server;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+
+import java.io.File;
+import java.io.IOException;
+import javax.inject.Named;
+import org.eclipse.che.api.core.util.LineConsumer;
+import org.eclipse.che.api.core.util.lineconsumer.RotatingFileLineConsumer;
+
+/**
+ * Settings of the files where logs of machines and their processes are stored.
+ *
+ * @see RotatingFileLineConsumer
+ */
+public class MachineLogsSettings {
+  @com.google.inject.Inject(optional = true)
+  @Named("che.workspace.logs.max_file_size_mb")
+  private long maxFileSizeMb = 50;
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.workspace.logs.rotation_period_hours")
+  private long rotationPeriodHours = 24;
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.workspace.logs.max_rotated_files")
+  private int maxRotatedFiles = 3;
+
+  @com.google.inject.Inject(optional = true)
+  @Named("che.workspace.logs.flush_period_ms")
+  private long flushPeriodMs = 500;
+
+  /** Creates thread safe consumer which writes logs into the given file. */
+  public LineConsumer newFileConsumer(File file) throws IOException {
+    return new RotatingFileLineConsumer(
+        file,
+        maxFileSizeMb * 1024 * 1024,
+        HOURS.toMillis(rotationPeriodHours),
+        maxRotatedFiles,
+        flushPeriodMs);
+  }
+}
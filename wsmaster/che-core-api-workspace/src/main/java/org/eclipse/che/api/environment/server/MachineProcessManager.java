@@ -17,8 +17,6 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -35,11 +33,11 @@ import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
 import org.eclipse.che.api.core.model.machine.Command;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.util.CompositeLineConsumer;
-import org.eclipse.che.api.core.util.FileLineConsumer;
 import org.eclipse.che.api.core.util.JsonRpcEndpointIdsHolder;
 import org.eclipse.che.api.core.util.JsonRpcLineConsumer;
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.core.util.WebsocketLineConsumer;
+import org.eclipse.che.api.core.util.lineconsumer.IndexedLogReader;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.spi.Instance;
 import org.eclipse.che.api.machine.server.spi.InstanceProcess;
@@ -69,6 +67,8 @@ public class MachineProcessManager {
 
   @VisibleForTesting final ExecutorService executor;
 
+  private MachineLogsSettings logsSettings = new MachineLogsSettings();
+
   @Inject
   public MachineProcessManager(
       @Named("che.workspace.logs") String machineLogsDir,
@@ -217,7 +217,36 @@ public class MachineProcessManager {
     final File processLogsFile = getProcessLogsFile(machineId, pid);
     if (processLogsFile.isFile()) {
       try {
-        return Files.newBufferedReader(processLogsFile.toPath(), Charset.defaultCharset());
+        return IndexedLogReader.openReader(processLogsFile);
+      } catch (IOException e) {
+        throw new MachineException(
+            String.format(
+                "Unable read log file for process '%s' of machine '%s'. %s",
+                pid, machineId, e.getMessage()));
+      }
+    }
+    throw new NotFoundException(
+        String.format("Logs for process '%s' of machine '%s' are not available", pid, machineId));
+  }
+
+  /**
+   * Gets range of process log lines. Lines are located with the index of the log file, so the
+   * whole log is not read to get its tail.
+   *
+   * @param machineId machine id whose process logs will be returned
+   * @param pid process id
+   * @param skipCount the number of lines to skip
+   * @param maxItems the maximum number of lines to return
+   * @return lines of process log
+   * @throws NotFoundException if machine with specified id not found
+   * @throws MachineException if other error occur
+   */
+  public List<String> getProcessLogs(String machineId, int pid, long skipCount, int maxItems)
+      throws NotFoundException, MachineException {
+    final File processLogsFile = getProcessLogsFile(machineId, pid);
+    if (processLogsFile.isFile()) {
+      try {
+        return IndexedLogReader.readLines(processLogsFile, skipCount, maxItems);
       } catch (IOException e) {
         throw new MachineException(
             String.format(
@@ -233,9 +262,9 @@ public class MachineProcessManager {
     return new File(new File(machineLogsDir, machineId), Integer.toString(pid));
   }
 
-  private FileLineConsumer getProcessFileLogger(String machineId, int pid) throws MachineException {
+  private LineConsumer getProcessFileLogger(String machineId, int pid) throws MachineException {
     try {
-      return new FileLineConsumer(getProcessLogsFile(machineId, pid));
+      return logsSettings.newFileConsumer(getProcessLogsFile(machineId, pid));
     } catch (IOException e) {
       throw new MachineException(
           String.format(
@@ -271,6 +300,11 @@ public class MachineProcessManager {
     }
   }
 
+  @Inject
+  private void setLogsSettings(MachineLogsSettings logsSettings) {
+    this.logsSettings = logsSettings;
+  }
+
   @PreDestroy
   private void cleanup() {
     boolean interrupted = false;
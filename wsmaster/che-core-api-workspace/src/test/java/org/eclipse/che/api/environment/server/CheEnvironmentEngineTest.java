@@ -45,6 +45,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.che.api.agent.server.AgentRegistry;
 import org.eclipse.che.api.agent.server.exception.AgentException;
 import org.eclipse.che.api.agent.shared.model.Agent;
@@ -1492,6 +1495,147 @@ public class CheEnvironmentEngineTest {
     engine.start(workspaceId, envName, env, false, messageConsumer, startedHandler);
   }
 
+  @Test
+  public void shouldStartIndependentMachinesConcurrently() throws Exception {
+    // given
+    engine = createEngine(2, false);
+    EnvironmentImpl env = createEnv();
+    String envName = "env-1";
+    String workspaceId = "wsId";
+    CountDownLatch startingMachines = new CountDownLatch(2);
+    when(machineProvider.startService(
+            anyString(),
+            eq(workspaceId),
+            eq(envName),
+            anyString(),
+            anyBoolean(),
+            anyString(),
+            any(CheServiceImpl.class),
+            any(LineConsumer.class)))
+        .thenAnswer(
+            invocationOnMock -> {
+              // each machine start waits for the other one
+              startingMachines.countDown();
+              if (!startingMachines.await(10, TimeUnit.SECONDS)) {
+                throw new ServerException("Machines are not started concurrently");
+              }
+              Object[] arguments = invocationOnMock.getArguments();
+              return new NoOpMachineInstance(
+                  createMachine(
+                      workspaceId,
+                      envName,
+                      (CheServiceImpl) arguments[6],
+                      (String) arguments[3],
+                      (boolean) arguments[4]));
+            });
+    when(environmentParser.parse(env)).thenReturn(createCheServicesEnv());
+
+    // when
+    List<Instance> machines =
+        engine.start(workspaceId, envName, env, false, messageConsumer, startedHandler);
+
+    // then
+    assertEquals(machines.size(), 2);
+    verify(startedHandler, times(2)).started(any(Instance.class), any(ExtendedMachine.class));
+  }
+
+  @Test
+  public void shouldDestroyStartedMachinesIfConcurrentlyStartedMachineFails() throws Exception {
+    // given
+    engine = createEngine(2, false);
+    EnvironmentImpl env = createEnv();
+    String envName = "env-1";
+    String workspaceId = "wsId";
+    List<Instance> created = new CopyOnWriteArrayList<>();
+    when(machineProvider.startService(
+            anyString(),
+            eq(workspaceId),
+            eq(envName),
+            anyString(),
+            anyBoolean(),
+            anyString(),
+            any(CheServiceImpl.class),
+            any(LineConsumer.class)))
+        .thenAnswer(
+            invocationOnMock -> {
+              Object[] arguments = invocationOnMock.getArguments();
+              if ("machine2".equals(arguments[3])) {
+                throw new ServerException("test exception");
+              }
+              NoOpMachineInstance instance =
+                  spy(
+                      new NoOpMachineInstance(
+                          createMachine(
+                              workspaceId,
+                              envName,
+                              (CheServiceImpl) arguments[6],
+                              (String) arguments[3],
+                              (boolean) arguments[4])));
+              created.add(instance);
+              return instance;
+            });
+    when(environmentParser.parse(env)).thenReturn(createCheServicesEnv());
+
+    // when
+    try {
+      engine.start(workspaceId, envName, env, false, messageConsumer, startedHandler);
+      fail("Environment start should fail");
+    } catch (ServerException x) {
+      assertEquals(x.getMessage(), "test exception");
+    }
+
+    // then
+    for (Instance instance : created) {
+      verify(instance).destroy();
+    }
+    verify(machineProvider).destroyNetwork(anyString());
+    try {
+      engine.getMachines(workspaceId);
+      fail("environment must not be running");
+    } catch (EnvironmentNotRunningException ignored) {
+    }
+  }
+
+  @Test
+  public void shouldPrefetchImagesOfMachinesThatDependOnOtherMachines() throws Exception {
+    // given
+    engine = createEngine(2, true);
+    CheServicesEnvironmentImpl cheServicesEnv = createCheServicesEnv();
+    cheServicesEnv.getServices().get("dev-machine").setDependsOn(singletonList("machine2"));
+
+    // when
+    startEnv(createEnv(), cheServicesEnv);
+
+    // then
+    verify(machineProvider)
+        .prepareService(
+            eq("wsId"), eq("dev-machine"), any(CheServiceImpl.class), any(LineConsumer.class));
+    verify(machineProvider, never())
+        .prepareService(
+            anyString(), eq("machine2"), any(CheServiceImpl.class), any(LineConsumer.class));
+    verify(machineProvider, never()).discardPreparedService(any(CheServiceImpl.class));
+  }
+
+  private CheEnvironmentEngine createEngine(int machineStartParallelism, boolean prefetchImages) {
+    return new CheEnvironmentEngine(
+        snapshotDao,
+        machineInstanceProviders,
+        System.getProperty("java.io.tmpdir"),
+        DEFAULT_MACHINE_MEM_LIMIT_MB,
+        eventService,
+        environmentParser,
+        new DefaultServicesStartStrategy(),
+        machineProvider,
+        infrastructureProvisioner,
+        API_ENDPOINT,
+        recipeDownloader,
+        containerNameGenerator,
+        agentRegistry,
+        sharedPool,
+        machineStartParallelism,
+        prefetchImages);
+  }
+
   private List<Instance> startEnv() throws Exception {
     EnvironmentImpl env = createEnv();
     CheServicesEnvironmentImpl cheServicesEnv = createCheServicesEnv();
@@ -56,6 +56,47 @@ public class DefaultServicesStartStrategyTest {
     assertEquals(actual, expected);
   }
 
+  @Test
+  public void shouldGroupServicesWithoutMutualDependenciesIntoWaves() throws Exception {
+    // given
+    CheServicesEnvironmentImpl composeEnvironment = new CheServicesEnvironmentImpl();
+    composeEnvironment.getServices().put("db", new CheServiceImpl());
+    composeEnvironment.getServices().put("redis", new CheServiceImpl());
+    composeEnvironment
+        .getServices()
+        .put("web", new CheServiceImpl().withDependsOn(asList("db", "redis")));
+    composeEnvironment
+        .getServices()
+        .put("worker", new CheServiceImpl().withLinks(singletonList("redis:cache")));
+    composeEnvironment
+        .getServices()
+        .put("proxy", new CheServiceImpl().withVolumesFrom(singletonList("web:ro")));
+
+    // when
+    List<List<String>> actual = strategy.orderInWaves(composeEnvironment);
+
+    // then
+    assertEquals(actual.size(), 3);
+    assertEqualsNoOrder(actual.get(0).toArray(), new String[] {"db", "redis"});
+    assertEqualsNoOrder(actual.get(1).toArray(), new String[] {"web", "worker"});
+    assertEquals(actual.get(2), singletonList("proxy"));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldFailToGroupServicesIntoWavesIfDependenciesAreCircular() throws Exception {
+    // given
+    CheServicesEnvironmentImpl composeEnvironment = new CheServicesEnvironmentImpl();
+    composeEnvironment
+        .getServices()
+        .put("first", new CheServiceImpl().withDependsOn(singletonList("second")));
+    composeEnvironment
+        .getServices()
+        .put("second", new CheServiceImpl().withDependsOn(singletonList("first")));
+
+    // when
+    strategy.orderInWaves(composeEnvironment);
+  }
+
   @Test
   public void shouldOrderServicesWithDependenciesWhereOrderIsStrict2() {
     // given